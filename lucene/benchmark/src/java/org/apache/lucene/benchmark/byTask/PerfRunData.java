@@ -44,6 +44,7 @@ import org.apache.lucene.facet.taxonomy.TaxonomyWriter;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.ByteBuffersDirectory;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.store.RAMDirectory;
@@ -70,7 +71,7 @@ import org.apache.lucene.util.IOUtils;
  *  <li><b>facet.source</b>=&lt;class name for facet-source| Default: RandomFacetSource&gt;
  *  <li><b>query.maker</b>=&lt;class name for query-maker| Default: SimpleQueryMaker&gt;
  *  <li><b>log.queries</b>=&lt;whether queries should be printed| Default: false&gt;
- *  <li><b>directory</b>=&lt;type of directory to use for the index| Default: RAMDirectory&gt;
+ *  <li><b>directory</b>=&lt;type of directory to use for the index (RAMDirectory, ByteBuffersDirectory or FSDirectory)| Default: RAMDirectory&gt;
  *  <li><b>taxonomy.directory</b>=&lt;type of directory for taxonomy index| Default: RAMDirectory&gt;
  * </ul>
  */
@@ -200,7 +201,9 @@ public class PerfRunData implements Closeable {
       }
       Files.createDirectories(indexDir);
       return FSDirectory.open(indexDir);
-    } 
+    } else if ("ByteBuffersDirectory".equals(config.get(dirParam,"RAMDirectory"))) {
+      return new ByteBuffersDirectory();
+    }
 
     return new RAMDirectory();
   }
@@ -41,9 +41,11 @@ import org.apache.lucene.document.FloatPoint;
 import org.apache.lucene.document.IntPoint;
 import org.apache.lucene.document.FieldType;
 import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.util.BytesRef;
 
 /**
  * Creates {@link Document} objects. Uses a {@link ContentSource} to generate
@@ -82,6 +84,8 @@ import org.apache.lucene.index.IndexOptions;
  * IDs from 0 to this limit.  This is useful with UpdateDoc
  * for testing performance of IndexWriter.updateDocument.
  * {@link DocData#getProps()} will be indexed. (default <b>false</b>).
+ * <li><b>doc.id.docvalues</b> - specifies whether the ID field should also
+ * have sorted doc values (default <b>false</b>).
  * </ul>
  */
 public class DocMaker implements Closeable {
@@ -211,6 +215,7 @@ public class DocMaker implements Closeable {
   protected ContentSource source;
   protected boolean reuseFields;
   protected boolean indexProperties;
+  protected boolean idDocValues;
   
   private final AtomicInteger numDocsCreated = new AtomicInteger();
 
@@ -242,6 +247,9 @@ public class DocMaker implements Closeable {
     }
     idField.setStringValue(Integer.toString(id));
     doc.add(idField);
+    if (idDocValues) {
+      doc.add(new SortedDocValuesField(ID_FIELD, new BytesRef(Integer.toString(id))));
+    }
     
     // Set NAME_FIELD
     String name = docData.getName();
@@ -464,6 +472,8 @@ public class DocMaker implements Closeable {
     
     indexProperties = config.get("doc.index.props", false);
 
+    idDocValues = config.get("doc.id.docvalues", false);
+
     updateDocIDLimit = config.get("doc.random.id.limit", -1);
     if (updateDocIDLimit != -1) {
       r = new Random(179);
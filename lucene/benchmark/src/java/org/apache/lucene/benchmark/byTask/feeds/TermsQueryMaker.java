@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.byTask.feeds;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.benchmark.byTask.tasks.NewAnalyzerTask;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.AutomatonQuery;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.DocValuesRewriteMethod;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.automaton.Automata;
+
+/**
+ * Creates queries that match the documents whose {@link DocMaker#ID_FIELD} is
+ * any of a large set of random ids, like access control filters, to compare the
+ * ways to execute them.
+ * <p>
+ * Config properties:
+ * <ul>
+ * <li><b>terms.query.method</b> - how the queries are executed, may vary by round
+ * (default <b>termsFilter</b>):
+ *   <ul>
+ *   <li><b>termsFilter</b> - a {@link TermInSetQuery}
+ *   <li><b>booleanQuery</b> - a disjunction of {@link TermQuery}s, raising
+ *   {@link BooleanQuery#setMaxClauseCount} if needed
+ *   <li><b>automaton</b> - an {@link AutomatonQuery} of the union of the ids
+ *   <li><b>docValues</b> - the same automaton, checked against the doc values of
+ *   the ids with a {@link DocValuesRewriteMethod}. Requires <b>doc.id.docvalues</b>.
+ *   <li><b>indexOrDocValues</b> - an {@link IndexOrDocValuesQuery} of <b>termsFilter</b>
+ *   and <b>docValues</b>
+ *   </ul>
+ * <li><b>terms.query.count</b> - the number of ids per query (default <b>10000</b>).
+ * <li><b>terms.query.max.id</b> - the ids are drawn from 0 to this limit (default <b>100000</b>).
+ * <li><b>terms.query.num</b> - the number of distinct queries (default <b>10</b>).
+ * <li><b>terms.query.lead</b> - if specified, a query of the body field that the ids
+ * filter, to compare the methods when another clause leads the iteration.
+ * </ul>
+ */
+public class TermsQueryMaker extends AbstractQueryMaker implements QueryMaker {
+
+  @Override
+  protected Query[] prepareQueries() throws Exception {
+    final String method = config.get("terms.query.method", "termsFilter");
+    final int count = config.get("terms.query.count", 10000);
+    final int maxId = config.get("terms.query.max.id", 100000);
+    final int numQueries = config.get("terms.query.num", 10);
+    final String lead = config.get("terms.query.lead", null);
+
+    Query leadQuery = null;
+    if (lead != null) {
+      Analyzer anlzr = NewAnalyzerTask.createAnalyzer(config.get("analyzer",
+          "org.apache.lucene.analysis.standard.StandardAnalyzer"));
+      leadQuery = new QueryParser(DocMaker.BODY_FIELD, anlzr).parse(lead);
+    }
+
+    // the same ids in every round, whatever the method
+    Random random = new Random(config.get("terms.query.seed", 17));
+    Query[] queries = new Query[numQueries];
+    for (int i = 0; i < numQueries; i++) {
+      List<BytesRef> ids = new ArrayList<>(count);
+      for (int j = 0; j < count; j++) {
+        ids.add(new BytesRef(Integer.toString(random.nextInt(maxId))));
+      }
+      Query query = makeQuery(method, ids);
+      if (leadQuery != null) {
+        query = new BooleanQuery.Builder()
+            .add(leadQuery, Occur.MUST)
+            .add(query, Occur.FILTER)
+            .build();
+      }
+      queries[i] = query;
+    }
+    return queries;
+  }
+
+  private static Query makeQuery(String method, List<BytesRef> ids) {
+    switch (method) {
+      case "termsFilter":
+        return new TermInSetQuery(DocMaker.ID_FIELD, ids);
+      case "booleanQuery":
+        if (ids.size() > BooleanQuery.getMaxClauseCount()) {
+          BooleanQuery.setMaxClauseCount(ids.size());
+        }
+        BooleanQuery.Builder bq = new BooleanQuery.Builder();
+        for (BytesRef id : ids) {
+          bq.add(new TermQuery(new Term(DocMaker.ID_FIELD, id)), Occur.SHOULD);
+        }
+        return new ConstantScoreQuery(bq.build());
+      case "automaton":
+        return makeAutomatonQuery(ids);
+      case "docValues":
+        AutomatonQuery query = makeAutomatonQuery(ids);
+        query.setRewriteMethod(new DocValuesRewriteMethod());
+        return query;
+      case "indexOrDocValues":
+        return new IndexOrDocValuesQuery(makeQuery("termsFilter", ids), makeQuery("docValues", ids));
+      default:
+        throw new IllegalArgumentException("Unknown terms.query.method: " + method);
+    }
+  }
+
+  private static AutomatonQuery makeAutomatonQuery(List<BytesRef> ids) {
+    List<BytesRef> sortedIds = new ArrayList<>(ids);
+    Collections.sort(sortedIds);
+    List<BytesRef> uniqueIds = new ArrayList<>(sortedIds.size());
+    for (BytesRef id : sortedIds) {
+      if (uniqueIds.isEmpty() || uniqueIds.get(uniqueIds.size() - 1).equals(id) == false) {
+        uniqueIds.add(id);
+      }
+    }
+    return new AutomatonQuery(new Term(DocMaker.ID_FIELD), Automata.makeStringUnion(uniqueIds));
+  }
+}
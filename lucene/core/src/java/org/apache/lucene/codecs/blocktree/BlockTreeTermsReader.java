@@ -100,8 +100,54 @@ public final class BlockTreeTermsReader extends FieldsProducer {
   static final String TERMS_INDEX_EXTENSION = "tip";
   final static String TERMS_INDEX_CODEC_NAME = "BlockTreeTermsIndex";
 
+  /** {@link FieldInfo} attribute recording the {@link FSTLoadMode} a field's terms index was written with. */
+  public static final String FST_MODE_KEY = BlockTreeTermsReader.class.getSimpleName() + ".fstMode";
+
+  /**
+   * An enum that allows to control if term index FSTs are loaded into memory or read off-heap
+   */
+  public enum FSTLoadMode {
+    /**
+     * Always read FSTs from disk.
+     * NOTE: If this option is used the FST will be read off-heap even if buffered directory implementations
+     * are used.
+     */
+    OFF_HEAP,
+    /**
+     * Never read FSTs from disk ie. all fields FSTs are loaded into memory
+     */
+    ON_HEAP,
+    /**
+     * Always read FSTs from disk, except for ID fields (every document has exactly one term, which no
+     * other document has) which are loaded into memory since they serve updates and real-time lookups.
+     * NOTE: If this option is used the FST will be read off-heap even if buffered directory implementations
+     * are used.
+     */
+    OPTIMIZE_UPDATES_OFF_HEAP,
+    /**
+     * Read FSTs from disk only if the terms index input supports random access natively, as with
+     * {@link org.apache.lucene.store.MMapDirectory}. ID fields are always loaded into memory.
+     */
+    AUTO
+  }
+
+  /** Returns the {@link FSTLoadMode} recorded for the given field, {@link FSTLoadMode#ON_HEAP} if none was recorded. */
+  static FSTLoadMode getFSTLoadMode(FieldInfo fieldInfo) {
+    final String value = fieldInfo.getAttribute(FST_MODE_KEY);
+    if (value == null) {
+      return FSTLoadMode.ON_HEAP;
+    }
+    try {
+      return FSTLoadMode.valueOf(value);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("invalid value for " + FST_MODE_KEY + " attribute of field \"" + fieldInfo.name + "\": " + value, e);
+    }
+  }
+
   // Open input to the main terms dict file (_X.tib)
   final IndexInput termsIn;
+  // Open input to the terms index file (_X.tip), only kept open if some fields read their FST off-heap
+  final IndexInput indexIn;
 
   //private static final boolean DEBUG = BlockTreeTermsWriter.DEBUG;
 
@@ -154,6 +200,7 @@ public final class BlockTreeTermsReader extends FieldsProducer {
       seekDir(termsIn);
       seekDir(indexIn);
 
+      boolean anyOffHeap = false;
       final int numFields = termsIn.readVInt();
       if (numFields < 0) {
         throw new CorruptIndexException("invalid numFields: " + numFields, termsIn);
@@ -190,15 +237,22 @@ public final class BlockTreeTermsReader extends FieldsProducer {
           throw new CorruptIndexException("invalid sumTotalTermFreq: " + sumTotalTermFreq + " sumDocFreq: " + sumDocFreq, termsIn);
         }
         final long indexStartFP = indexIn.readVLong();
-        FieldReader previous = fields.put(fieldInfo.name,       
-                                          new FieldReader(this, fieldInfo, numTerms, rootCode, sumTotalTermFreq, sumDocFreq, docCount,
-                                                          indexStartFP, longsSize, indexIn, minTerm, maxTerm));
+        final FieldReader reader = new FieldReader(this, fieldInfo, numTerms, rootCode, sumTotalTermFreq, sumDocFreq, docCount,
+                                                   indexStartFP, longsSize, indexIn, minTerm, maxTerm, getFSTLoadMode(fieldInfo));
+        anyOffHeap |= reader.isFSTOffHeap();
+        FieldReader previous = fields.put(fieldInfo.name, reader);
         if (previous != null) {
           throw new CorruptIndexException("duplicate field: " + fieldInfo.name, termsIn);
         }
       }
-      
-      indexIn.close();
+
+      if (anyOffHeap) {
+        this.indexIn = indexIn;
+      } else {
+        // all terms index FSTs are on heap: no need to keep the index file open
+        this.indexIn = null;
+        indexIn.close();
+      }
       success = true;
     } finally {
       if (!success) {
@@ -237,7 +291,7 @@ public final class BlockTreeTermsReader extends FieldsProducer {
   @Override
   public void close() throws IOException {
     try {
-      IOUtils.close(termsIn, postingsReader);
+      IOUtils.close(indexIn, termsIn, postingsReader);
     } finally { 
       // Clear so refs to terms index is GCable even if
       // app hangs onto us:
@@ -20,6 +20,7 @@ package org.apache.lucene.codecs.blocktree;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import org.apache.lucene.codecs.BlockTermState;
 import org.apache.lucene.codecs.CodecUtil;
@@ -214,6 +215,7 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
 
   final PostingsWriterBase postingsWriter;
   final FieldInfos fieldInfos;
+  final BlockTreeTermsReader.FSTLoadMode fstLoadMode;
 
   private static class FieldMetaData {
     public final FieldInfo fieldInfo;
@@ -255,9 +257,24 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
                               int minItemsInBlock,
                               int maxItemsInBlock)
     throws IOException
+  {
+    this(state, postingsWriter, minItemsInBlock, maxItemsInBlock, BlockTreeTermsReader.FSTLoadMode.ON_HEAP);
+  }
+
+  /** Create a new writer that records, for every field it
+   *  writes, how the {@link BlockTreeTermsReader} should load
+   *  the field's terms index FST.
+   *  @see BlockTreeTermsReader.FSTLoadMode */
+  public BlockTreeTermsWriter(SegmentWriteState state,
+                              PostingsWriterBase postingsWriter,
+                              int minItemsInBlock,
+                              int maxItemsInBlock,
+                              BlockTreeTermsReader.FSTLoadMode fstLoadMode)
+    throws IOException
   {
     validateSettings(minItemsInBlock,
                      maxItemsInBlock);
+    this.fstLoadMode = Objects.requireNonNull(fstLoadMode);
 
     this.minItemsInBlock = minItemsInBlock;
     this.maxItemsInBlock = maxItemsInBlock;
@@ -331,7 +348,9 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
       }
 
       TermsEnum termsEnum = terms.iterator();
-      TermsWriter termsWriter = new TermsWriter(fieldInfos.fieldInfo(field));
+      FieldInfo fieldInfo = fieldInfos.fieldInfo(field);
+      fieldInfo.putAttribute(BlockTreeTermsReader.FST_MODE_KEY, fstLoadMode.name());
+      TermsWriter termsWriter = new TermsWriter(fieldInfo);
       while (true) {
         BytesRef term = termsEnum.next();
         //if (DEBUG) System.out.println("BTTW: next term " + term);
@@ -26,6 +26,7 @@ import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteBufferIndexInput;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Accountables;
@@ -34,6 +35,8 @@ import org.apache.lucene.util.RamUsageEstimator;
 import org.apache.lucene.util.automaton.CompiledAutomaton;
 import org.apache.lucene.util.fst.ByteSequenceOutputs;
 import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.OffHeapFSTStore;
+import org.apache.lucene.util.fst.OnHeapFSTStore;
 
 /**
  * BlockTree's implementation of {@link Terms}.
@@ -61,10 +64,11 @@ public final class FieldReader extends Terms implements Accountable {
   final BlockTreeTermsReader parent;
 
   final FST<BytesRef> index;
+  final boolean isFSTOffHeap;
   //private boolean DEBUG;
 
   FieldReader(BlockTreeTermsReader parent, FieldInfo fieldInfo, long numTerms, BytesRef rootCode, long sumTotalTermFreq, long sumDocFreq, int docCount,
-              long indexStartFP, int longsSize, IndexInput indexIn, BytesRef minTerm, BytesRef maxTerm) throws IOException {
+              long indexStartFP, int longsSize, IndexInput indexIn, BytesRef minTerm, BytesRef maxTerm, BlockTreeTermsReader.FSTLoadMode fstLoadMode) throws IOException {
     assert numTerms > 0;
     this.fieldInfo = fieldInfo;
     //DEBUG = BlockTreeTermsReader.DEBUG && fieldInfo.name.equals("id");
@@ -88,7 +92,12 @@ public final class FieldReader extends Terms implements Accountable {
       final IndexInput clone = indexIn.clone();
       //System.out.println("start=" + indexStartFP + " field=" + fieldInfo.name);
       clone.seek(indexStartFP);
-      index = new FST<>(clone, ByteSequenceOutputs.getSingleton());
+      isFSTOffHeap = isFSTOffHeap(fstLoadMode, indexIn, numTerms, sumDocFreq, docCount);
+      if (isFSTOffHeap) {
+        index = new FST<>(clone, ByteSequenceOutputs.getSingleton(), new OffHeapFSTStore());
+      } else {
+        index = new FST<>(clone, ByteSequenceOutputs.getSingleton(), new OnHeapFSTStore(FST.DEFAULT_MAX_BLOCK_BITS));
+      }
         
       /*
         if (false) {
@@ -101,9 +110,36 @@ public final class FieldReader extends Terms implements Accountable {
       */
     } else {
       index = null;
+      isFSTOffHeap = false;
     }
   }
 
+  /** Decides whether the terms index FST of a field should be read off-heap. Fields that look like
+   *  primary keys (every document has exactly one term, which no other document has) stay on heap in
+   *  the modes that optimize for updates, since they are hammered by IndexWriter's delete-by-term and
+   *  real-time-get lookups. */
+  private static boolean isFSTOffHeap(BlockTreeTermsReader.FSTLoadMode fstLoadMode, IndexInput indexIn, long numTerms, long sumDocFreq, int docCount) {
+    final boolean isIdField = numTerms == sumDocFreq && sumDocFreq == docCount;
+    switch (fstLoadMode) {
+      case ON_HEAP:
+        return false;
+      case OFF_HEAP:
+        return true;
+      case OPTIMIZE_UPDATES_OFF_HEAP:
+        return isIdField == false;
+      case AUTO:
+        // memory-mapped inputs support random access natively, buffered ones would do positional reads
+        return isIdField == false && indexIn instanceof ByteBufferIndexInput;
+      default:
+        throw new AssertionError("unknown FST load mode: " + fstLoadMode);
+    }
+  }
+
+  /** Returns true if the terms index FST of this field is read from the index input rather than loaded on heap. */
+  public boolean isFSTOffHeap() {
+    return isFSTOffHeap;
+  }
+
   @Override
   public BytesRef getMin() throws IOException {
     if (minTerm == null) {
@@ -19,6 +19,7 @@ package org.apache.lucene.codecs.lucene50;
 
 
 import java.io.IOException;
+import java.util.Objects;
 
 import org.apache.lucene.codecs.BlockTermState;
 import org.apache.lucene.codecs.CodecUtil;
@@ -29,6 +30,7 @@ import org.apache.lucene.codecs.PostingsFormat;
 import org.apache.lucene.codecs.PostingsReaderBase;
 import org.apache.lucene.codecs.PostingsWriterBase;
 import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader.FSTLoadMode;
 import org.apache.lucene.codecs.blocktree.BlockTreeTermsWriter;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.SegmentReadState;
@@ -388,6 +390,7 @@ public final class Lucene50PostingsFormat extends PostingsFormat {
   final static int VERSION_CURRENT = VERSION_IMPACT_SKIP_DATA;
 
   private final int minTermBlockSize;
+  private final FSTLoadMode fstLoadMode;
   private final int maxTermBlockSize;
 
   /**
@@ -408,10 +411,22 @@ public final class Lucene50PostingsFormat extends PostingsFormat {
    *  maxBlockSize} passed to block terms dictionary.
    *  @see BlockTreeTermsWriter#BlockTreeTermsWriter(SegmentWriteState,PostingsWriterBase,int,int) */
   public Lucene50PostingsFormat(int minTermBlockSize, int maxTermBlockSize) {
+    this(minTermBlockSize, maxTermBlockSize, FSTLoadMode.ON_HEAP);
+  }
+
+  /** Creates {@code Lucene50PostingsFormat} with custom
+   *  values for {@code minBlockSize}, {@code
+   *  maxBlockSize} and the {@link FSTLoadMode} recorded for
+   *  the fields written with this format.  Return instances with
+   *  different modes from {@link org.apache.lucene.codecs.lucene80.Lucene80Codec#getPostingsFormatForField(String)}
+   *  to choose per field whether the terms index is read off-heap.
+   *  @see BlockTreeTermsWriter#BlockTreeTermsWriter(SegmentWriteState,PostingsWriterBase,int,int,FSTLoadMode) */
+  public Lucene50PostingsFormat(int minTermBlockSize, int maxTermBlockSize, FSTLoadMode fstLoadMode) {
     super("Lucene50");
     BlockTreeTermsWriter.validateSettings(minTermBlockSize, maxTermBlockSize);
     this.minTermBlockSize = minTermBlockSize;
     this.maxTermBlockSize = maxTermBlockSize;
+    this.fstLoadMode = Objects.requireNonNull(fstLoadMode);
   }
 
   @Override
@@ -428,7 +443,8 @@ public final class Lucene50PostingsFormat extends PostingsFormat {
       FieldsConsumer ret = new BlockTreeTermsWriter(state, 
                                                     postingsWriter,
                                                     minTermBlockSize, 
-                                                    maxTermBlockSize);
+                                                    maxTermBlockSize,
+                                                    fstLoadMode);
       success = true;
       return ret;
     } finally {
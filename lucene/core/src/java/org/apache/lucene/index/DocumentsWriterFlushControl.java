@@ -46,9 +46,11 @@ import org.apache.lucene.util.ThreadInterruptedException;
 final class DocumentsWriterFlushControl implements Accountable {
 
   private final long hardMaxBytesPerDWPT;
-  private long activeBytes = 0;
+  // accounting is updated under this lock but volatile so that it can be read without it
+  private volatile long activeBytes = 0;
   private volatile long flushBytes = 0;
   private volatile int numPending = 0;
+  private volatile int numQueuedFlushes = 0; // flushQueue.size()
   private int numDocsSinceStalled = 0; // only with assert
   final AtomicBoolean flushDeletes = new AtomicBoolean(false);
   private boolean fullFlush = false;
@@ -82,7 +84,7 @@ final class DocumentsWriterFlushControl implements Accountable {
     this.documentsWriter = documentsWriter;
   }
 
-  public synchronized long activeBytes() {
+  public long activeBytes() {
     return activeBytes;
   }
 
@@ -90,7 +92,7 @@ final class DocumentsWriterFlushControl implements Accountable {
     return flushBytes;
   }
 
-  public synchronized long netBytes() {
+  public long netBytes() {
     return flushBytes + activeBytes;
   }
   
@@ -165,6 +167,8 @@ final class DocumentsWriterFlushControl implements Accountable {
     return true;
   }
 
+  // This must stay synchronized: the flush policy may mark any thread's writer as pending, which moves that writer's
+  // bytes from activeBytes to flushBytes, so committing a writer's bytes must be atomic with that move.
   synchronized DocumentsWriterPerThread doAfterDocument(ThreadState perThread, boolean isUpdate) {
     try {
       commitPerThreadBytes(perThread);
@@ -369,11 +373,16 @@ final class DocumentsWriterFlushControl implements Accountable {
   }
 
   DocumentsWriterPerThread nextPendingFlush() {
+    if (numQueuedFlushes == 0 && numPending == 0) {
+      // common case, called after every indexing operation: nothing to flush, don't take the lock
+      return null;
+    }
     int numPending;
     boolean fullFlush;
     synchronized (this) {
       final DocumentsWriterPerThread poll;
       if ((poll = flushQueue.poll()) != null) {
+        numQueuedFlushes = flushQueue.size();
         updateStallState();
         return poll;
       }
@@ -532,6 +541,7 @@ final class DocumentsWriterFlushControl implements Accountable {
       pruneBlockedQueue(flushingQueue);   
       assert assertBlockedFlushes(documentsWriter.deleteQueue);
       flushQueue.addAll(fullFlushBuffer);
+      numQueuedFlushes = flushQueue.size();
       fullFlushBuffer.clear();
       updateStallState();
     }
@@ -593,6 +603,7 @@ final class DocumentsWriterFlushControl implements Accountable {
         flushingWriters.put(blockedFlush.dwpt, Long.valueOf(blockedFlush.bytes));
         // don't decr pending here - it's already done when DWPT is blocked
         flushQueue.add(blockedFlush.dwpt);
+        numQueuedFlushes = flushQueue.size();
       }
     }
   }
@@ -653,6 +664,7 @@ final class DocumentsWriterFlushControl implements Accountable {
       }
     } finally {
       flushQueue.clear();
+      numQueuedFlushes = 0;
       blockedFlushes.clear();
       updateStallState();
     }
@@ -669,8 +681,8 @@ final class DocumentsWriterFlushControl implements Accountable {
    * Returns the number of flushes that are already checked out but not yet
    * actively flushing
    */
-  synchronized int numQueuedFlushes() {
-    return flushQueue.size();
+  int numQueuedFlushes() {
+    return numQueuedFlushes;
   }
 
   /**
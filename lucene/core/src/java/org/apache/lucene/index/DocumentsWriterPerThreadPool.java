@@ -17,6 +17,7 @@
 package org.apache.lucene.index;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -107,17 +108,36 @@ final class DocumentsWriterPerThreadPool {
     }
   }
 
-  private final List<ThreadState> threadStates = new ArrayList<>();
+  // copy-on-write: thread states are only added, rarely, and iterated over by flush control all the time
+  private volatile ThreadState[] threadStates = new ThreadState[0];
 
-  private final List<ThreadState> freeList = new ArrayList<>();
+  /**
+   * Free {@link ThreadState}s, striped by thread so that concurrent indexing threads
+   * rarely compete for the same lock when checking out and returning their state.
+   */
+  private final FreeList[] freeLists;
 
   private boolean aborted;
 
+  DocumentsWriterPerThreadPool() {
+    this(Math.min(Runtime.getRuntime().availableProcessors(), 64));
+  }
+
+  DocumentsWriterPerThreadPool(int numFreeLists) {
+    if (numFreeLists < 1) {
+      throw new IllegalArgumentException("numFreeLists must be at least 1, got " + numFreeLists);
+    }
+    freeLists = new FreeList[numFreeLists];
+    for (int i = 0; i < freeLists.length; i++) {
+      freeLists[i] = new FreeList();
+    }
+  }
+
   /**
    * Returns the active number of {@link ThreadState} instances.
    */
-  synchronized int getActiveThreadStateCount() {
-    return threadStates.size();
+  int getActiveThreadStateCount() {
+    return threadStates.length;
   }
 
   synchronized void setAbort() {
@@ -149,7 +169,9 @@ final class DocumentsWriterPerThreadPool {
     }
     ThreadState threadState = new ThreadState(null);
     threadState.lock(); // lock so nobody else will get this ThreadState
-    threadStates.add(threadState);
+    final ThreadState[] newThreadStates = Arrays.copyOf(threadStates, threadStates.length + 1);
+    newThreadStates[threadStates.length] = threadState;
+    threadStates = newThreadStates;
     return threadState;
   }
 
@@ -169,38 +191,33 @@ final class DocumentsWriterPerThreadPool {
 
   /** This method is used by DocumentsWriter/FlushControl to obtain a ThreadState to do an indexing operation (add/updateDocument). */
   ThreadState getAndLock(Thread requestingThread, DocumentsWriter documentsWriter) {
+    final int start = freeListIndex(requestingThread);
     ThreadState threadState = null;
-    synchronized (this) {
-      if (freeList.isEmpty()) {
-        // ThreadState is already locked before return by this method:
-        return newThreadState();
-      } else {
-        // Important that we are LIFO here! This way if number of concurrent indexing threads was once high, but has now reduced, we only use a
-        // limited number of thread states:
-        threadState = freeList.remove(freeList.size()-1);
-
-        if (threadState.dwpt == null) {
-          // This thread-state is not initialized, e.g. it
-          // was just flushed. See if we can instead find
-          // another free thread state that already has docs
-          // indexed. This way if incoming thread concurrency
-          // has decreased, we don't leave docs
-          // indefinitely buffered, tying up RAM.  This
-          // will instead get those thread states flushed,
-          // freeing up RAM for larger segment flushes:
-          for(int i=0;i<freeList.size();i++) {
-            ThreadState ts = freeList.get(i);
-            if (ts.dwpt != null) {
-              // Use this one instead, and swap it with
-              // the un-initialized one:
-              freeList.set(i, threadState);
-              threadState = ts;
-              break;
-            }
-          }
+    // first look at the free lists that no other thread is working on, starting with our own ...
+    for (int i = 0; i < freeLists.length && threadState == null; i++) {
+      final FreeList freeList = freeLists[(start + i) % freeLists.length];
+      if (freeList.tryLock()) {
+        try {
+          threadState = freeList.poll();
+        } finally {
+          freeList.unlock();
         }
       }
     }
+    // ... then wait for the busy ones, we'd rather not create a new DWPT while there are free ones
+    for (int i = 0; i < freeLists.length && threadState == null; i++) {
+      final FreeList freeList = freeLists[(start + i) % freeLists.length];
+      freeList.lock();
+      try {
+        threadState = freeList.poll();
+      } finally {
+        freeList.unlock();
+      }
+    }
+    if (threadState == null) {
+      // ThreadState is already locked before return by this method:
+      return newThreadState();
+    }
 
     // This could take time, e.g. if the threadState is [briefly] checked for flushing:
     threadState.lock();
@@ -210,11 +227,19 @@ final class DocumentsWriterPerThreadPool {
 
   void release(ThreadState state) {
     state.unlock();
-    synchronized (this) {
+    final FreeList freeList = freeLists[freeListIndex(Thread.currentThread())];
+    freeList.lock();
+    try {
       freeList.add(state);
+    } finally {
+      freeList.unlock();
     }
   }
-  
+
+  private int freeListIndex(Thread thread) {
+    return (int) (thread.getId() % freeLists.length);
+  }
+
   /**
    * Returns the <i>i</i>th active {@link ThreadState} where <i>i</i> is the
    * given ord.
@@ -224,12 +249,56 @@ final class DocumentsWriterPerThreadPool {
    * @return the <i>i</i>th active {@link ThreadState} where <i>i</i> is the
    *         given ord.
    */
-  synchronized ThreadState getThreadState(int ord) {
-    return threadStates.get(ord);
+  ThreadState getThreadState(int ord) {
+    return threadStates[ord];
   }
 
   // TODO: merge this with getActiveThreadStateCount: they are the same!
-  synchronized int getMaxThreadStates() {
-    return threadStates.size();
+  int getMaxThreadStates() {
+    return threadStates.length;
+  }
+
+  /** A LIFO list of free {@link ThreadState}s, guarded by its own lock. */
+  @SuppressWarnings("serial")
+  private static final class FreeList extends ReentrantLock {
+    private final List<ThreadState> states = new ArrayList<>();
+
+    void add(ThreadState state) {
+      assert isHeldByCurrentThread();
+      states.add(state);
+    }
+
+    /** Returns a free state, preferably one that has docs indexed already, or {@code null} if this list is empty. */
+    ThreadState poll() {
+      assert isHeldByCurrentThread();
+      if (states.isEmpty()) {
+        return null;
+      }
+      // Important that we are LIFO here! This way if number of concurrent indexing threads was once high, but has now reduced, we only use a
+      // limited number of thread states:
+      ThreadState threadState = states.remove(states.size()-1);
+
+      if (threadState.dwpt == null) {
+        // This thread-state is not initialized, e.g. it
+        // was just flushed. See if we can instead find
+        // another free thread state that already has docs
+        // indexed. This way if incoming thread concurrency
+        // has decreased, we don't leave docs
+        // indefinitely buffered, tying up RAM.  This
+        // will instead get those thread states flushed,
+        // freeing up RAM for larger segment flushes:
+        for(int i=0;i<states.size();i++) {
+          ThreadState ts = states.get(i);
+          if (ts.dwpt != null) {
+            // Use this one instead, and swap it with
+            // the un-initialized one:
+            states.set(i, threadState);
+            threadState = ts;
+            break;
+          }
+        }
+      }
+      return threadState;
+    }
   }
 }
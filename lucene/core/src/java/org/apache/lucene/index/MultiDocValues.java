@@ -557,6 +557,17 @@ public class MultiDocValues {
    * </p>  
    */
   public static SortedDocValues getSortedValues(final IndexReader r, final String field) throws IOException {
+    return getSortedValues(r, field, null, null);
+  }
+
+  /** Same as {@link #getSortedValues(IndexReader, String)}, but the ordinal map is built incrementally
+   * from {@code previous}, the map that was built for an earlier point-in-time view of the same index.
+   * {@code previousSegments[i]} is the index of the i-th leaf of {@code r} in the reader that
+   * {@code previous} was built for, or {@code -1} if the leaf is new.
+   * @see OrdinalMap#build(IndexReader.CacheKey, SortedDocValues[], OrdinalMap, int[], float)
+   * @lucene.internal
+   */
+  public static SortedDocValues getSortedValues(final IndexReader r, final String field, OrdinalMap previous, int[] previousSegments) throws IOException {
     final List<LeafReaderContext> leaves = r.leaves();
     final int size = leaves.size();
     
@@ -589,7 +600,9 @@ public class MultiDocValues {
     } else {
       IndexReader.CacheHelper cacheHelper = r.getReaderCacheHelper();
       IndexReader.CacheKey owner = cacheHelper == null ? null : cacheHelper.getKey();
-      OrdinalMap mapping = OrdinalMap.build(owner, values, PackedInts.DEFAULT);
+      OrdinalMap mapping = previous == null
+          ? OrdinalMap.build(owner, values, PackedInts.DEFAULT)
+          : OrdinalMap.build(owner, values, previous, previousSegments, PackedInts.DEFAULT);
       return new MultiSortedDocValues(values, starts, mapping, totalCost);
     }
   }
@@ -601,6 +614,17 @@ public class MultiDocValues {
    * </p>  
    */
   public static SortedSetDocValues getSortedSetValues(final IndexReader r, final String field) throws IOException {
+    return getSortedSetValues(r, field, null, null);
+  }
+
+  /** Same as {@link #getSortedSetValues(IndexReader, String)}, but the ordinal map is built incrementally
+   * from {@code previous}, the map that was built for an earlier point-in-time view of the same index.
+   * {@code previousSegments[i]} is the index of the i-th leaf of {@code r} in the reader that
+   * {@code previous} was built for, or {@code -1} if the leaf is new.
+   * @see OrdinalMap#build(IndexReader.CacheKey, SortedSetDocValues[], OrdinalMap, int[], float)
+   * @lucene.internal
+   */
+  public static SortedSetDocValues getSortedSetValues(final IndexReader r, final String field, OrdinalMap previous, int[] previousSegments) throws IOException {
     final List<LeafReaderContext> leaves = r.leaves();
     final int size = leaves.size();
     
@@ -633,7 +657,9 @@ public class MultiDocValues {
     } else {
       IndexReader.CacheHelper cacheHelper = r.getReaderCacheHelper();
       IndexReader.CacheKey owner = cacheHelper == null ? null : cacheHelper.getKey();
-      OrdinalMap mapping = OrdinalMap.build(owner, values, PackedInts.DEFAULT);
+      OrdinalMap mapping = previous == null
+          ? OrdinalMap.build(owner, values, PackedInts.DEFAULT)
+          : OrdinalMap.build(owner, values, previous, previousSegments, PackedInts.DEFAULT);
       return new MultiSortedSetDocValues(values, starts, mapping, totalCost);
     }
   }
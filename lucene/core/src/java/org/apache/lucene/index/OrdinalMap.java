@@ -98,11 +98,19 @@ public class OrdinalMap implements Accountable {
     private final int[] newToOld, oldToNew;
 
     SegmentMap(long[] weights) {
-      newToOld = map(weights);
+      this(map(weights));
+    }
+
+    SegmentMap(int[] newToOld) {
+      this.newToOld = newToOld;
       oldToNew = inverse(newToOld);
       assert Arrays.equals(newToOld, inverse(oldToNew));
     }
 
+    int size() {
+      return newToOld.length;
+    }
+
     int newToOld(int segment) {
       return newToOld[segment];
     }
@@ -117,6 +125,48 @@ public class OrdinalMap implements Accountable {
     }
   }
 
+  /** Maps segment ords to global ords as {@code ord + delta}, with deltas stored in plain packed ints. */
+  private static final class PackedDeltas extends LongValues implements Accountable {
+    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(PackedDeltas.class);
+
+    private final PackedInts.Mutable deltas;
+
+    PackedDeltas(PackedInts.Mutable deltas) {
+      this.deltas = deltas;
+    }
+
+    @Override
+    public long get(long ord) {
+      return ord + deltas.get((int) ord);
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return BASE_RAM_BYTES_USED + deltas.ramBytesUsed();
+    }
+  }
+
+  /** Maps segment ords to global ords as {@code ord + delta}, with deltas stored in monotonic blocks. */
+  private static final class MonotonicDeltas extends LongValues implements Accountable {
+    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(MonotonicDeltas.class);
+
+    private final PackedLongValues deltas;
+
+    MonotonicDeltas(PackedLongValues deltas) {
+      this.deltas = deltas;
+    }
+
+    @Override
+    public long get(long ord) {
+      return ord + deltas.get(ord);
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return BASE_RAM_BYTES_USED + deltas.ramBytesUsed();
+    }
+  }
+
   /**
    * Create an ordinal map that uses the number of unique values of each
    * {@link SortedDocValues} instance as a weight.
@@ -168,6 +218,276 @@ public class OrdinalMap implements Accountable {
     return new OrdinalMap(owner, subs, segmentMap, acceptableOverheadRatio);
   }
 
+  /**
+   * Create an ordinal map for {@code values} that reuses the work done by {@code previous}, typically the map that was
+   * built for the same field over the previous point-in-time view of the index. This is much cheaper than
+   * {@link #build(IndexReader.CacheKey, SortedDocValues[], float) building} a new map when {@code values} mostly consists
+   * of the segments {@code previous} was built on, plus a few new (small) segments: only the terms of new segments
+   * need to be merged with the previous global ordinal space, the mappings of reused segments are just shifted.
+   * <p>
+   * Reuse is only possible if all the segments {@code previous} was built on are still there, otherwise (e.g. after
+   * a merge) this falls back to a full build.
+   *
+   * @param previousSegments for every sub of {@code values}, the index of the same segment in the subs
+   *             {@code previous} was built on, or {@code -1} if this segment is new. A segment may only be
+   *             considered the same if its values did not change, ie. same core and same doc-values generation.
+   * @see #build(IndexReader.CacheKey, SortedDocValues[], float)
+   */
+  public static OrdinalMap build(IndexReader.CacheKey owner, SortedDocValues[] values, OrdinalMap previous, int[] previousSegments,
+                                 float acceptableOverheadRatio) throws IOException {
+    final TermsEnum[] subs = new TermsEnum[values.length];
+    final long[] weights = new long[values.length];
+    for (int i = 0; i < values.length; ++i) {
+      subs[i] = values[i].termsEnum();
+      weights[i] = values[i].getValueCount();
+    }
+    return build(owner, subs, weights, previous, previousSegments, acceptableOverheadRatio);
+  }
+
+  /**
+   * Create an ordinal map for {@code values} that reuses the work done by {@code previous}.
+   * @see #build(IndexReader.CacheKey, SortedDocValues[], OrdinalMap, int[], float)
+   */
+  public static OrdinalMap build(IndexReader.CacheKey owner, SortedSetDocValues[] values, OrdinalMap previous, int[] previousSegments,
+                                 float acceptableOverheadRatio) throws IOException {
+    final TermsEnum[] subs = new TermsEnum[values.length];
+    final long[] weights = new long[values.length];
+    for (int i = 0; i < values.length; ++i) {
+      subs[i] = values[i].termsEnum();
+      weights[i] = values[i].getValueCount();
+    }
+    return build(owner, subs, weights, previous, previousSegments, acceptableOverheadRatio);
+  }
+
+  /**
+   * Returns whether building a map over new subs, whose segments relate to the segments of this map as described by
+   * {@code previousSegments}, can reuse this map, ie. whether all the segments this map was built on are still there.
+   * When this returns {@code false},
+   * {@link #build(IndexReader.CacheKey, SortedDocValues[], OrdinalMap, int[], float) incremental builds} fall back to
+   * a full build.
+   */
+  public boolean isReusable(int[] previousSegments) {
+    int numReused = 0;
+    for (int previousSegment : previousSegments) {
+      if (previousSegment >= 0) {
+        numReused++;
+      }
+    }
+    return numReused == segmentMap.size();
+  }
+
+  /** Incremental build: {@code valueCounts} are the (dense) value counts of {@code subs}. */
+  private static OrdinalMap build(IndexReader.CacheKey owner, TermsEnum[] subs, long[] valueCounts, OrdinalMap previous, int[] previousSegments,
+                                  float acceptableOverheadRatio) throws IOException {
+    if (subs.length != previousSegments.length) {
+      throw new IllegalArgumentException("subs and previousSegments must have the same length");
+    }
+    final int numPreviousSegments = previous.segmentMap.size();
+    // sorted index in the previous map -> index in subs
+    final int[] reused = new int[numPreviousSegments];
+    Arrays.fill(reused, -1);
+    int numReused = 0;
+    for (int i = 0; i < previousSegments.length; ++i) {
+      final int previousSegment = previousSegments[i];
+      if (previousSegment >= numPreviousSegments) {
+        throw new IllegalArgumentException("previous map only has " + numPreviousSegments + " segments, got " + previousSegment);
+      }
+      if (previousSegment >= 0) {
+        final int sortedIndex = previous.segmentMap.oldToNew(previousSegment);
+        if (reused[sortedIndex] != -1) {
+          throw new IllegalArgumentException("segment " + previousSegment + " of the previous map is reused more than once");
+        }
+        reused[sortedIndex] = i;
+        numReused++;
+      }
+    }
+    if (previous.isReusable(previousSegments) == false) {
+      // some segments went away (e.g. merged), so some terms might not exist anymore: start over
+      return build(owner, subs, valueCounts, acceptableOverheadRatio);
+    }
+
+    // reused segments keep their position in the sorted order, new segments come after them, by decreasing weight.
+    // This way, the first segment of all terms that existed before is unchanged.
+    final int numNewSegments = subs.length - numReused;
+    final long[] newWeights = new long[numNewSegments];
+    final int[] newSegments = new int[numNewSegments];
+    for (int i = 0, j = 0; i < subs.length; ++i) {
+      if (previousSegments[i] == -1) {
+        newWeights[j] = valueCounts[i];
+        newSegments[j++] = i;
+      }
+    }
+    final SegmentMap newSegmentMap = new SegmentMap(newWeights);
+    final int[] newToOld = new int[subs.length];
+    System.arraycopy(reused, 0, newToOld, 0, numReused);
+    for (int j = 0; j < numNewSegments; ++j) {
+      newToOld[numReused + j] = newSegments[newSegmentMap.newToOld(j)];
+    }
+    final SegmentMap segmentMap = new SegmentMap(newToOld);
+
+    if (numNewSegments == 0) {
+      // only deletions or reordering: the global ordinal space is unchanged
+      return new OrdinalMap(owner, previous.globalOrdDeltas, previous.firstSegments, previous.segmentToGlobalOrds, segmentMap);
+    }
+
+    final PreviousTerms previousTerms = new PreviousTerms(previous, subs, newToOld);
+    final long previousValueCount = previous.getValueCount();
+
+    PackedLongValues.Builder globalOrdDeltas = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+    PackedLongValues.Builder firstSegments = PackedLongValues.packedBuilder(PackedInts.COMPACT);
+    // previous globalOrd -> number of new terms that sort before it
+    PackedLongValues.Builder shifts = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+    final PackedLongValues.Builder[] ordDeltas = new PackedLongValues.Builder[numNewSegments];
+    for (int i = 0; i < ordDeltas.length; i++) {
+      ordDeltas[i] = PackedLongValues.monotonicBuilder(acceptableOverheadRatio);
+    }
+    long[] ordDeltaBits = new long[numNewSegments];
+
+    PriorityQueue<TermsEnumIndex> queue = new PriorityQueue<TermsEnumIndex>(numNewSegments) {
+        @Override
+        protected boolean lessThan(TermsEnumIndex a, TermsEnumIndex b) {
+          final int cmp = a.currentTerm.compareTo(b.currentTerm);
+          // break ties on the segment index so that the first segment of new terms is the lowest one
+          return cmp < 0 || (cmp == 0 && a.subIndex < b.subIndex);
+        }
+      };
+    for (int i = 0; i < numNewSegments; i++) {
+      TermsEnumIndex sub = new TermsEnumIndex(subs[newToOld[numReused + i]], numReused + i);
+      if (sub.next() != null) {
+        queue.add(sub);
+      }
+    }
+
+    BytesRefBuilder scratch = new BytesRefBuilder();
+    long previousGlobalOrd = 0;
+    long globalOrd = 0;
+    while (queue.size() != 0) {
+      scratch.copyBytes(queue.top().currentTerm);
+      final BytesRef term = scratch.get();
+
+      // copy all previous terms that are less than the current term of new segments
+      final long upTo = previousTerms.ceil(previousGlobalOrd, term);
+      for (; previousGlobalOrd < upTo; ++previousGlobalOrd, ++globalOrd) {
+        addPreviousTerm(previous, previousGlobalOrd, globalOrd, globalOrdDeltas, firstSegments, shifts);
+      }
+
+      final boolean existed = previousGlobalOrd < previousValueCount && previousTerms.term(previousGlobalOrd).equals(term);
+      if (existed) {
+        addPreviousTerm(previous, previousGlobalOrd, globalOrd, globalOrdDeltas, firstSegments, shifts);
+        previousGlobalOrd++;
+      } else {
+        // the queue breaks ties on the segment index, so the top is the first segment of this new term
+        firstSegments.add(queue.top().subIndex);
+        globalOrdDeltas.add(globalOrd - queue.top().termsEnum.ord());
+      }
+
+      // advance new segments past this term, recording their ord deltas
+      do {
+        TermsEnumIndex top = queue.top();
+        final int segmentIndex = top.subIndex - numReused;
+        final long delta = globalOrd - top.termsEnum.ord();
+        ordDeltaBits[segmentIndex] |= delta;
+        ordDeltas[segmentIndex].add(delta);
+        if (top.next() == null) {
+          queue.pop();
+        } else {
+          queue.updateTop();
+        }
+      } while (queue.size() != 0 && queue.top().currentTerm.equals(term));
+
+      globalOrd++;
+    }
+    for (; previousGlobalOrd < previousValueCount; ++previousGlobalOrd, ++globalOrd) {
+      addPreviousTerm(previous, previousGlobalOrd, globalOrd, globalOrdDeltas, firstSegments, shifts);
+    }
+
+    final LongValues[] segmentToGlobalOrds = new LongValues[subs.length];
+    final long numNewTerms = globalOrd - previousValueCount;
+    final PackedLongValues shiftValues = shifts.build();
+    for (int i = 0; i < numReused; ++i) {
+      final LongValues previousGlobalOrds = previous.segmentToGlobalOrds[i];
+      if (numNewTerms == 0) {
+        // no new terms: global ords are unchanged
+        segmentToGlobalOrds[i] = previousGlobalOrds;
+      } else {
+        final PackedLongValues.Builder deltas = PackedLongValues.monotonicBuilder(acceptableOverheadRatio);
+        long deltaBits = 0;
+        for (long ord = 0, valueCount = valueCounts[newToOld[i]]; ord < valueCount; ++ord) {
+          final long oldGlobalOrd = previousGlobalOrds.get(ord);
+          final long delta = oldGlobalOrd + shiftValues.get(oldGlobalOrd) - ord;
+          deltaBits |= delta;
+          deltas.add(delta);
+        }
+        segmentToGlobalOrds[i] = toGlobalOrds(deltas.build(), deltaBits, acceptableOverheadRatio);
+      }
+    }
+    for (int i = 0; i < numNewSegments; ++i) {
+      segmentToGlobalOrds[numReused + i] = toGlobalOrds(ordDeltas[i].build(), ordDeltaBits[i], acceptableOverheadRatio);
+    }
+
+    return new OrdinalMap(owner, globalOrdDeltas.build(), firstSegments.build(), segmentToGlobalOrds, segmentMap);
+  }
+
+  private static void addPreviousTerm(OrdinalMap previous, long previousGlobalOrd, long globalOrd,
+                                      PackedLongValues.Builder globalOrdDeltas, PackedLongValues.Builder firstSegments,
+                                      PackedLongValues.Builder shifts) {
+    // reused segments kept their sorted index, so the first segment is unchanged
+    firstSegments.add(previous.firstSegments.get(previousGlobalOrd));
+    globalOrdDeltas.add(globalOrd - previous.getFirstSegmentOrd(previousGlobalOrd));
+    shifts.add(globalOrd - previousGlobalOrd);
+  }
+
+  /** Gives access to the terms of the global ordinal space of a previous map, by looking them up in their first segment. */
+  private static class PreviousTerms {
+    private final OrdinalMap previous;
+    private final TermsEnum[] termsEnums; // by sorted index
+    private long cachedGlobalOrd = -1;
+    private BytesRef cachedTerm;
+
+    PreviousTerms(OrdinalMap previous, TermsEnum[] subs, int[] newToOld) {
+      this.previous = previous;
+      this.termsEnums = new TermsEnum[previous.segmentMap.size()];
+      for (int i = 0; i < termsEnums.length; ++i) {
+        termsEnums[i] = subs[newToOld[i]];
+      }
+    }
+
+    BytesRef term(long globalOrd) throws IOException {
+      if (globalOrd != cachedGlobalOrd) {
+        final TermsEnum termsEnum = termsEnums[(int) previous.firstSegments.get(globalOrd)];
+        termsEnum.seekExact(previous.getFirstSegmentOrd(globalOrd));
+        cachedTerm = termsEnum.term();
+        cachedGlobalOrd = globalOrd;
+      }
+      return cachedTerm;
+    }
+
+    /** Returns the least global ord greater than or equal to {@code from} whose term is greater than or equal to
+     *  {@code target}, or the number of previous terms if there is none. Gallops then binary searches so that the
+     *  number of lookups is logarithmic in the distance to the result. */
+    long ceil(long from, BytesRef target) throws IOException {
+      final long valueCount = previous.getValueCount();
+      long lo = from;
+      long hi = from;
+      long step = 1;
+      while (hi < valueCount && term(hi).compareTo(target) < 0) {
+        lo = hi + 1;
+        hi = Math.min(valueCount, hi + step);
+        step <<= 1;
+      }
+      // term(lo - 1) < target <= term(hi), search in [lo, hi]
+      while (lo < hi) {
+        final long mid = (lo + hi) >>> 1;
+        if (term(mid).compareTo(target) < 0) {
+          lo = mid + 1;
+        } else {
+          hi = mid;
+        }
+      }
+      return lo;
+    }
+  }
+
   private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(OrdinalMap.class);
 
   /** Cache key of whoever asked for this awful thing */
@@ -275,49 +595,60 @@ public class OrdinalMap implements Accountable {
     this.globalOrdDeltas = globalOrdDeltas.build();
     // ordDeltas is typically the bottleneck, so let's see what we can do to make it faster
     segmentToGlobalOrds = new LongValues[subs.length];
+    for (int i = 0; i < ordDeltas.length; ++i) {
+      segmentToGlobalOrds[i] = toGlobalOrds(ordDeltas[i].build(), ordDeltaBits[i], acceptableOverheadRatio);
+    }
+    this.ramBytesUsed = computeRamBytesUsed();
+  }
+
+  /** Used by incremental builds, which compute all structures upfront. */
+  private OrdinalMap(IndexReader.CacheKey owner, PackedLongValues globalOrdDeltas, PackedLongValues firstSegments,
+                     LongValues[] segmentToGlobalOrds, SegmentMap segmentMap) {
+    this.owner = owner;
+    this.globalOrdDeltas = globalOrdDeltas;
+    this.firstSegments = firstSegments;
+    this.segmentToGlobalOrds = segmentToGlobalOrds;
+    this.segmentMap = segmentMap;
+    this.ramBytesUsed = computeRamBytesUsed();
+  }
+
+  private long computeRamBytesUsed() {
     long ramBytesUsed = BASE_RAM_BYTES_USED + this.globalOrdDeltas.ramBytesUsed()
       + this.firstSegments.ramBytesUsed() + RamUsageEstimator.shallowSizeOf(segmentToGlobalOrds)
       + segmentMap.ramBytesUsed();
-    for (int i = 0; i < ordDeltas.length; ++i) {
-      final PackedLongValues deltas = ordDeltas[i].build();
-      if (ordDeltaBits[i] == 0L) {
-        // segment ords perfectly match global ordinals
-        // likely in case of low cardinalities and large segments
-        segmentToGlobalOrds[i] = LongValues.IDENTITY;
-      } else {
-        final int bitsRequired = ordDeltaBits[i] < 0 ? 64 : PackedInts.bitsRequired(ordDeltaBits[i]);
-        final long monotonicBits = deltas.ramBytesUsed() * 8;
-        final long packedBits = bitsRequired * deltas.size();
-        if (deltas.size() <= Integer.MAX_VALUE
-            && packedBits <= monotonicBits * (1 + acceptableOverheadRatio)) {
-          // monotonic compression mostly adds overhead, let's keep the mapping in plain packed ints
-          final int size = (int) deltas.size();
-          final PackedInts.Mutable newDeltas = PackedInts.getMutable(size, bitsRequired, acceptableOverheadRatio);
-          final PackedLongValues.Iterator it = deltas.iterator();
-          for (int ord = 0; ord < size; ++ord) {
-            newDeltas.set(ord, it.next());
-          }
-          assert it.hasNext() == false;
-          segmentToGlobalOrds[i] = new LongValues() {
-              @Override
-              public long get(long ord) {
-                return ord + newDeltas.get((int) ord);
-              }
-            };
-          ramBytesUsed += newDeltas.ramBytesUsed();
-        } else {
-          segmentToGlobalOrds[i] = new LongValues() {
-              @Override
-              public long get(long ord) {
-                return ord + deltas.get(ord);
-              }
-            };
-          ramBytesUsed += deltas.ramBytesUsed();
-        }
-        ramBytesUsed += RamUsageEstimator.shallowSizeOf(segmentToGlobalOrds[i]);
+    for (LongValues values : segmentToGlobalOrds) {
+      if (values instanceof Accountable) {
+        ramBytesUsed += ((Accountable) values).ramBytesUsed();
+      }
+    }
+    return ramBytesUsed;
+  }
+
+  /** Picks the most efficient representation of the mapping from segment ords to global ords, given as deltas
+   *  ({@code globalOrd - segmentOrd}) whose bitwise OR is {@code ordDeltaBits}. */
+  private static LongValues toGlobalOrds(PackedLongValues deltas, long ordDeltaBits, float acceptableOverheadRatio) {
+    if (ordDeltaBits == 0L) {
+      // segment ords perfectly match global ordinals
+      // likely in case of low cardinalities and large segments
+      return LongValues.IDENTITY;
+    }
+    final int bitsRequired = ordDeltaBits < 0 ? 64 : PackedInts.bitsRequired(ordDeltaBits);
+    final long monotonicBits = deltas.ramBytesUsed() * 8;
+    final long packedBits = bitsRequired * deltas.size();
+    if (deltas.size() <= Integer.MAX_VALUE
+        && packedBits <= monotonicBits * (1 + acceptableOverheadRatio)) {
+      // monotonic compression mostly adds overhead, let's keep the mapping in plain packed ints
+      final int size = (int) deltas.size();
+      final PackedInts.Mutable newDeltas = PackedInts.getMutable(size, bitsRequired, acceptableOverheadRatio);
+      final PackedLongValues.Iterator it = deltas.iterator();
+      for (int ord = 0; ord < size; ++ord) {
+        newDeltas.set(ord, it.next());
       }
+      assert it.hasNext() == false;
+      return new PackedDeltas(newDeltas);
+    } else {
+      return new MonotonicDeltas(deltas);
     }
-    this.ramBytesUsed = ramBytesUsed;
   }
 
   /** 
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentReader;
+
+/**
+ * A {@link UsageTrackingQueryCachingPolicy} that also takes the age of
+ * segments into account. Entries that are cached on a segment that gets merged
+ * away shortly after are wasted (see {@link LRUQueryCache#getWastedCacheCount()}),
+ * which typically happens with the small segments that are flushed by NRT
+ * reopens. So segments that were flushed rather than merged and that have been
+ * searched by less queries than the size of the history are considered young,
+ * and filters need to be reused {@link #getYoungSegmentFrequencyFactor() more}
+ * before being cached on them. Segments that survive long enough are then
+ * treated like merged segments.
+ *
+ * @lucene.experimental
+ */
+public class AdaptiveQueryCachingPolicy extends UsageTrackingQueryCachingPolicy {
+
+  private final int historySize;
+  private final int youngSegmentFrequencyFactor;
+  // the number of queries that have been used when each segment was first seen
+  private final Map<IndexReader.CacheKey, Long> firstUses = new HashMap<>();
+  private long uses;
+
+  /**
+   * Expert: Create a new instance with a configurable history size, which is
+   * also the number of queries that a flushed segment needs to be searched by
+   * before it is no longer considered young, and a configurable factor of the
+   * {@link #minFrequencyToCache minimum frequency} that filters need to reach
+   * in order to be cached on young segments.
+   */
+  public AdaptiveQueryCachingPolicy(int historySize, int youngSegmentFrequencyFactor) {
+    super(historySize);
+    if (youngSegmentFrequencyFactor < 1) {
+      throw new IllegalArgumentException("youngSegmentFrequencyFactor must be at least 1, got " + youngSegmentFrequencyFactor);
+    }
+    this.historySize = historySize;
+    this.youngSegmentFrequencyFactor = youngSegmentFrequencyFactor;
+  }
+
+  /** Create a new instance with an history size of 256 and which requires
+   *  filters to be used twice as often in order to be cached on young
+   *  segments. */
+  public AdaptiveQueryCachingPolicy() {
+    this(256, 2);
+  }
+
+  /** Return the factor of the {@link #minFrequencyToCache minimum frequency}
+   *  that filters need to reach in order to be cached on young segments. */
+  public int getYoungSegmentFrequencyFactor() {
+    return youngSegmentFrequencyFactor;
+  }
+
+  @Override
+  public void onUse(Query query) {
+    super.onUse(query);
+    synchronized (this) {
+      uses++;
+    }
+  }
+
+  @Override
+  public boolean shouldCache(Query query, LeafReaderContext context) throws IOException {
+    // check the segment first so that its age is tracked from the first time it is seen
+    final boolean youngSegment = isYoungSegment(context);
+    if (shouldCache(query) == false) {
+      return false;
+    }
+    if (youngSegment) {
+      return frequency(query) >= (long) youngSegmentFrequencyFactor * minFrequencyToCache(query);
+    }
+    return true;
+  }
+
+  /**
+   * Return whether the given segment is likely to be merged away soon: it was
+   * flushed rather than merged, and has been searched by less queries than the
+   * size of the history since this policy first saw it.
+   */
+  protected boolean isYoungSegment(LeafReaderContext context) {
+    final LeafReader reader = FilterLeafReader.unwrap(context.reader());
+    if (reader instanceof SegmentReader == false) {
+      return false;
+    }
+    final String source = ((SegmentReader) reader).getSegmentInfo().info.getDiagnostics().get(IndexWriter.SOURCE);
+    if (IndexWriter.SOURCE_FLUSH.equals(source) == false) {
+      return false;
+    }
+    final IndexReader.CacheHelper cacheHelper = reader.getCoreCacheHelper();
+    if (cacheHelper == null) {
+      return true;
+    }
+    final IndexReader.CacheKey key = cacheHelper.getKey();
+    synchronized (this) {
+      Long firstUse = firstUses.get(key);
+      if (firstUse != null) {
+        return uses - firstUse < historySize;
+      }
+      firstUses.put(key, uses);
+    }
+    // forget about the segment when it gets closed, which happens once it is merged away
+    cacheHelper.addClosedListener(this::onClose);
+    return true;
+  }
+
+  private synchronized void onClose(IndexReader.CacheKey key) {
+    firstUses.remove(key);
+  }
+
+  // pkg-private for testing
+  synchronized int numTrackedSegments() {
+    return firstUses.size();
+  }
+
+}
@@ -131,6 +131,29 @@ public final class DocValuesRewriteMethod extends MultiTermQuery.RewriteMethod {
           });
         }
 
+        @Override
+        public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+          final SortedSetDocValues fcsi = DocValues.getSortedSet(context.reader(), query.field);
+          // Terms are only intersected with the doc values dictionary if the scorer is pulled
+          final long cost = fcsi.cost();
+          final Weight weight = this;
+          return new ScorerSupplier() {
+            @Override
+            public Scorer get(long leadCost) throws IOException {
+              final Scorer scorer = scorer(context);
+              if (scorer == null) {
+                return new ConstantScoreScorer(weight, score(), scoreMode, DocIdSetIterator.empty());
+              }
+              return scorer;
+            }
+
+            @Override
+            public long cost() {
+              return cost;
+            }
+          };
+        }
+
         @Override
         public Scorer scorer(LeafReaderContext context) throws IOException {
           final SortedSetDocValues fcsi = DocValues.getSortedSet(context.reader(), query.field);
@@ -22,11 +22,18 @@ import java.io.IOException;
 
 import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.PointValues.IntersectVisitor;
+import org.apache.lucene.index.PointValues.Relation;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.DocIdSetBuilder;
+import org.apache.lucene.util.FutureArrays;
+import org.apache.lucene.util.NumericUtils;
 
 /**
  * Expert: a FieldComparator compares hits so as to determine their
@@ -138,27 +145,238 @@ public abstract class FieldComparator<T> {
 
 
   /**
-   * Base FieldComparator class for numeric types
+   * Base FieldComparator class for numeric types.
+   * <p>
+   * If the field is also indexed with points that hold the same values as its
+   * doc values (see {@link SortField#setCanUsePoints()}), the per-block min and
+   * max values of the points index are used to skip documents that can't be
+   * competitive once the queue is full, see
+   * {@link LeafFieldComparator#competitiveIterator()}.
    */
   public static abstract class NumericComparator<T extends Number> extends SimpleFieldComparator<T> {
     protected final T missingValue;
     protected final String field;
     protected NumericDocValues currentReaderValues;
+
+    private final boolean reverse;
+    private final int bytesPerDim;
+    private final PointEncoder<T> pointEncoder;
+    private int bottomSlot = -1;
+    private T topValue;
+    private boolean hitsThresholdReached;
+    // the following are per-segment, and only used when skipping with points
+    private PointValues pointValues;
+    private int maxDoc;
+    private DocIdSetIterator iterator;
+    private CompetitiveIterator competitiveIterator;
+    private int updateCounter;
+    private boolean skippedHits;
     
     public NumericComparator(String field, T missingValue) {
+      this(field, missingValue, false, 0, null);
+    }
+
+    /**
+     * Expert: Creates a comparator that uses the points of the field to skip
+     * non-competitive documents if {@code pointEncoder} is not null. The
+     * encoder must encode values on {@code bytesPerDim} bytes the way they are
+     * indexed.
+     */
+    protected NumericComparator(String field, T missingValue, boolean reverse, int bytesPerDim, PointEncoder<T> pointEncoder) {
+      if (pointEncoder != null && bytesPerDim <= 0) {
+        throw new IllegalArgumentException("bytesPerDim must be > 0 to use points, got " + bytesPerDim);
+      }
       this.field = field;
       this.missingValue = missingValue;
+      this.reverse = reverse;
+      this.bytesPerDim = bytesPerDim;
+      this.pointEncoder = pointEncoder;
+    }
+
+    /** Encodes the values of a {@link NumericComparator} the way they are indexed with points. */
+    @FunctionalInterface
+    protected interface PointEncoder<T> {
+      /** Encodes {@code value} into {@code packedValue}. */
+      void encode(T value, byte[] packedValue);
     }
 
     @Override
     protected void doSetNextReader(LeafReaderContext context) throws IOException {
       currentReaderValues = getNumericDocValues(context, field);
+      pointValues = null;
+      iterator = null;
+      competitiveIterator = null;
+      if (pointEncoder != null) {
+        pointValues = context.reader().getPointValues(field);
+        if (pointValues != null) {
+          final FieldInfo info = context.reader().getFieldInfos().fieldInfo(field);
+          if (info.getPointIndexDimensionCount() != 1 || info.getPointNumBytes() != bytesPerDim) {
+            throw new IllegalArgumentException("field=\"" + field + "\" was indexed with numIndexDimensions=" + info.getPointIndexDimensionCount()
+                + " and bytesPerDim=" + info.getPointNumBytes() + " but can only be used for sorting with numIndexDimensions=1 and bytesPerDim=" + bytesPerDim);
+          }
+          maxDoc = context.reader().maxDoc();
+          iterator = DocIdSetIterator.all(maxDoc);
+          competitiveIterator = new CompetitiveIterator();
+          updateCounter = 0;
+          // the bottom may already be known from previous segments
+          updateCompetitiveIterator();
+        }
+      }
     }
     
     /** Retrieves the NumericDocValues for the field in this segment */
     protected NumericDocValues getNumericDocValues(LeafReaderContext context, String field) throws IOException {
       return DocValues.getNumeric(context.reader(), field);
     }
+
+    /** Sub-classes must call this method when the bottom slot changes. */
+    protected void bottomChanged(int slot) throws IOException {
+      bottomSlot = slot;
+      updateCompetitiveIterator();
+    }
+
+    /** Sub-classes must call this method when the top value changes. */
+    protected void topValueChanged(T value) {
+      topValue = value;
+    }
+
+    @Override
+    public DocIdSetIterator competitiveIterator() {
+      return competitiveIterator;
+    }
+
+    @Override
+    public void setHitsThresholdReached() throws IOException {
+      hitsThresholdReached = true;
+      updateCompetitiveIterator();
+    }
+
+    private void updateCompetitiveIterator() throws IOException {
+      if (competitiveIterator == null || hitsThresholdReached == false || (bottomSlot == -1 && topValue == null)) {
+        return;
+      }
+      // the bottom may change on every competitive hit, so only try again from time to time
+      // once it has been updated many times
+      updateCounter++;
+      if (updateCounter > 256 && (updateCounter & 0x1f) != 0x1f) {
+        return;
+      }
+
+      byte[] bottomValueAsBytes = null;
+      if (bottomSlot != -1) {
+        bottomValueAsBytes = new byte[bytesPerDim];
+        pointEncoder.encode(value(bottomSlot), bottomValueAsBytes);
+      }
+      byte[] topValueAsBytes = null;
+      if (topValue != null) {
+        topValueAsBytes = new byte[bytesPerDim];
+        pointEncoder.encode(topValue, topValueAsBytes);
+      }
+      // competitive values are between the top value and the bottom value, inclusive
+      final byte[] minValueAsBytes = reverse ? bottomValueAsBytes : topValueAsBytes;
+      final byte[] maxValueAsBytes = reverse ? topValueAsBytes : bottomValueAsBytes;
+
+      // documents that have no value don't have points either, so they can't be skipped
+      // if the missing value is competitive
+      if (pointValues.getDocCount() < maxDoc) {
+        final byte[] missingValueAsBytes = new byte[bytesPerDim];
+        pointEncoder.encode(missingValue, missingValueAsBytes);
+        if ((minValueAsBytes == null || comparePoints(missingValueAsBytes, minValueAsBytes) >= 0)
+            && (maxValueAsBytes == null || comparePoints(missingValueAsBytes, maxValueAsBytes) <= 0)) {
+          return;
+        }
+      }
+
+      final int minDoc = competitiveIterator.docID() + 1;
+      final DocIdSetBuilder result = new DocIdSetBuilder(maxDoc, pointValues, field);
+      final IntersectVisitor visitor = new IntersectVisitor() {
+
+        DocIdSetBuilder.BulkAdder adder;
+
+        @Override
+        public void grow(int count) {
+          adder = result.grow(count);
+        }
+
+        @Override
+        public void visit(int docID) {
+          if (docID >= minDoc) {
+            adder.add(docID);
+          }
+        }
+
+        @Override
+        public void visit(int docID, byte[] packedValue) {
+          if (docID < minDoc) {
+            return;
+          }
+          if (minValueAsBytes != null && comparePoints(packedValue, minValueAsBytes) < 0) {
+            return;
+          }
+          if (maxValueAsBytes != null && comparePoints(packedValue, maxValueAsBytes) > 0) {
+            return;
+          }
+          adder.add(docID);
+        }
+
+        @Override
+        public Relation compare(byte[] minPackedValue, byte[] maxPackedValue) {
+          if ((minValueAsBytes != null && comparePoints(maxPackedValue, minValueAsBytes) < 0)
+              || (maxValueAsBytes != null && comparePoints(minPackedValue, maxValueAsBytes) > 0)) {
+            return Relation.CELL_OUTSIDE_QUERY;
+          }
+          if ((minValueAsBytes == null || comparePoints(minPackedValue, minValueAsBytes) >= 0)
+              && (maxValueAsBytes == null || comparePoints(maxPackedValue, maxValueAsBytes) <= 0)) {
+            return Relation.CELL_INSIDE_QUERY;
+          }
+          return Relation.CELL_CROSSES_QUERY;
+        }
+      };
+
+      // only materialize the competitive documents if that divides the number of candidates by 4 or more
+      final long estimatedNumberOfMatches = pointValues.estimatePointCount(visitor);
+      if (estimatedNumberOfMatches >= iterator.cost() >>> 2) {
+        return;
+      }
+      pointValues.intersect(visitor);
+      iterator = result.build().iterator();
+      skippedHits = true;
+    }
+
+    /** Whether the competitive iterator of some segment was narrowed, so that hits were skipped. */
+    boolean hasSkippedHits() {
+      return skippedHits;
+    }
+
+    private int comparePoints(byte[] a, byte[] b) {
+      return FutureArrays.compareUnsigned(a, 0, bytesPerDim, b, 0, bytesPerDim);
+    }
+
+    // delegates to the current iterator over competitive documents, which gets replaced as the bottom improves
+    private class CompetitiveIterator extends DocIdSetIterator {
+
+      private int doc = -1;
+
+      @Override
+      public int docID() {
+        return doc;
+      }
+
+      @Override
+      public int nextDoc() throws IOException {
+        return advance(doc + 1);
+      }
+
+      @Override
+      public int advance(int target) throws IOException {
+        return doc = iterator.advance(target);
+      }
+
+      @Override
+      public long cost() {
+        return iterator.cost();
+      }
+    }
   }
 
   /** Parses field's values as double (using {@link
@@ -173,10 +391,23 @@ public abstract class FieldComparator<T> {
      * When a document has no value for the field, {@code missingValue} is substituted.
      */
     public DoubleComparator(int numHits, String field, Double missingValue) {
-      super(field, missingValue != null ? missingValue : 0.0);
+      this(numHits, field, missingValue, false, false);
+    }
+
+    /**
+     * Creates a new comparator for {@code numHits} that may use the points of
+     * the field to skip non-competitive documents if {@code canUsePoints} is
+     * true, see {@link SortField#setCanUsePoints()}.
+     */
+    public DoubleComparator(int numHits, String field, Double missingValue, boolean reverse, boolean canUsePoints) {
+      super(field, missingValue != null ? missingValue : 0.0, reverse, Double.BYTES, canUsePoints ? DoubleComparator::encodePoint : null);
       values = new double[numHits];
     }
 
+    private static void encodePoint(Double value, byte[] packedValue) {
+      NumericUtils.longToSortableBytes(NumericUtils.doubleToSortableLong(value), packedValue, 0);
+    }
+
     private double getValueForDoc(int doc) throws IOException {
       if (currentReaderValues.advanceExact(doc)) {
         return Double.longBitsToDouble(currentReaderValues.longValue());
@@ -201,13 +432,15 @@ public abstract class FieldComparator<T> {
     }
     
     @Override
-    public void setBottom(final int bottom) {
+    public void setBottom(final int bottom) throws IOException {
       this.bottom = values[bottom];
+      bottomChanged(bottom);
     }
 
     @Override
     public void setTopValue(Double value) {
       topValue = value;
+      topValueChanged(value);
     }
 
     @Override
@@ -233,9 +466,22 @@ public abstract class FieldComparator<T> {
      * When a document has no value for the field, {@code missingValue} is substituted. 
      */
     public FloatComparator(int numHits, String field, Float missingValue) {
-      super(field, missingValue != null ? missingValue : 0.0f);
+      this(numHits, field, missingValue, false, false);
+    }
+
+    /**
+     * Creates a new comparator for {@code numHits} that may use the points of
+     * the field to skip non-competitive documents if {@code canUsePoints} is
+     * true, see {@link SortField#setCanUsePoints()}.
+     */
+    public FloatComparator(int numHits, String field, Float missingValue, boolean reverse, boolean canUsePoints) {
+      super(field, missingValue != null ? missingValue : 0.0f, reverse, Float.BYTES, canUsePoints ? FloatComparator::encodePoint : null);
       values = new float[numHits];
     }
+
+    private static void encodePoint(Float value, byte[] packedValue) {
+      NumericUtils.intToSortableBytes(NumericUtils.floatToSortableInt(value), packedValue, 0);
+    }
     
     private float getValueForDoc(int doc) throws IOException {
       if (currentReaderValues.advanceExact(doc)) {
@@ -261,13 +507,15 @@ public abstract class FieldComparator<T> {
     }
     
     @Override
-    public void setBottom(final int bottom) {
+    public void setBottom(final int bottom) throws IOException {
       this.bottom = values[bottom];
+      bottomChanged(bottom);
     }
 
     @Override
     public void setTopValue(Float value) {
       topValue = value;
+      topValueChanged(value);
     }
 
     @Override
@@ -293,12 +541,25 @@ public abstract class FieldComparator<T> {
      * When a document has no value for the field, {@code missingValue} is substituted. 
      */
     public IntComparator(int numHits, String field, Integer missingValue) {
-      super(field, missingValue != null ? missingValue : 0);
+      this(numHits, field, missingValue, false, false);
+    }
+
+    /**
+     * Creates a new comparator for {@code numHits} that may use the points of
+     * the field to skip non-competitive documents if {@code canUsePoints} is
+     * true, see {@link SortField#setCanUsePoints()}.
+     */
+    public IntComparator(int numHits, String field, Integer missingValue, boolean reverse, boolean canUsePoints) {
+      super(field, missingValue != null ? missingValue : 0, reverse, Integer.BYTES, canUsePoints ? IntComparator::encodePoint : null);
       //System.out.println("IntComparator.init");
       //new Throwable().printStackTrace(System.out);
       values = new int[numHits];
     }
 
+    private static void encodePoint(Integer value, byte[] packedValue) {
+      NumericUtils.intToSortableBytes(value, packedValue, 0);
+    }
+
     private int getValueForDoc(int doc) throws IOException {
       if (currentReaderValues.advanceExact(doc)) {
         return (int) currentReaderValues.longValue();
@@ -323,13 +584,15 @@ public abstract class FieldComparator<T> {
     }
     
     @Override
-    public void setBottom(final int bottom) {
+    public void setBottom(final int bottom) throws IOException {
       this.bottom = values[bottom];
+      bottomChanged(bottom);
     }
 
     @Override
     public void setTopValue(Integer value) {
       topValue = value;
+      topValueChanged(value);
     }
 
     @Override
@@ -355,10 +618,23 @@ public abstract class FieldComparator<T> {
      * When a document has no value for the field, {@code missingValue} is substituted. 
      */
     public LongComparator(int numHits, String field, Long missingValue) {
-      super(field, missingValue != null ? missingValue : 0L);
+      this(numHits, field, missingValue, false, false);
+    }
+
+    /**
+     * Creates a new comparator for {@code numHits} that may use the points of
+     * the field to skip non-competitive documents if {@code canUsePoints} is
+     * true, see {@link SortField#setCanUsePoints()}.
+     */
+    public LongComparator(int numHits, String field, Long missingValue, boolean reverse, boolean canUsePoints) {
+      super(field, missingValue != null ? missingValue : 0L, reverse, Long.BYTES, canUsePoints ? LongComparator::encodePoint : null);
       values = new long[numHits];
     }
 
+    private static void encodePoint(Long value, byte[] packedValue) {
+      NumericUtils.longToSortableBytes(value, packedValue, 0);
+    }
+
     private long getValueForDoc(int doc) throws IOException {
       if (currentReaderValues.advanceExact(doc)) {
         return currentReaderValues.longValue();
@@ -383,13 +659,15 @@ public abstract class FieldComparator<T> {
     }
     
     @Override
-    public void setBottom(final int bottom) {
+    public void setBottom(final int bottom) throws IOException {
       this.bottom = values[bottom];
+      bottomChanged(bottom);
     }
 
     @Override
     public void setTopValue(Long value) {
       topValue = value;
+      topValueChanged(value);
     }
 
     @Override
@@ -21,6 +21,10 @@ import java.io.IOException;
 
 /**
  * {@link LeafCollector} delegator.
+ * <p>
+ * The {@link #competitiveIterator() competitive iterator} of the wrapped
+ * collector is not exposed, since a wrapper might need to see the documents
+ * that it would skip. Wrappers that pass every document through may delegate it.
  *
  * @lucene.experimental
  */
@@ -45,8 +45,10 @@ import org.apache.lucene.index.Term;
  * entirely consumed; and doc values otherwise, ie. in the case that another
  * part of the query is already leading iteration but we still need the ability
  * to verify that some documents match.
- * <p><b>NOTE</b>This query currently only works well with point range/exact
- * queries and their equivalent doc values queries.
+ * <p><b>NOTE</b>This query works well with point range/exact queries, term
+ * ranges, prefixes and sets of terms, and their equivalent doc values queries,
+ * since their {@link ScorerSupplier}s estimate their cost without building their
+ * {@link Scorer}.
  * @lucene.experimental
  */
 public final class IndexOrDocValuesQuery extends Query {
@@ -77,6 +79,21 @@ public final class IndexOrDocValuesQuery extends Query {
     return dvQuery;
   }
 
+  /**
+   * Returns whether the doc values query should be used on a segment where the
+   * index query has the given cost and the clause that leads iteration has the
+   * given cost. Pass {@link Long#MAX_VALUE} as a lead cost if this query leads
+   * iteration.
+   */
+  public static boolean useDocValues(long indexCost, long leadCost) {
+    // At equal costs, doc values tend to be worse than points since they
+    // still need to perform one comparison per document while points can
+    // do much better than that given how values are organized. So we give
+    // an arbitrary 8x penalty to doc values.
+    final long threshold = indexCost >>> 3;
+    return threshold > leadCost;
+  }
+
   @Override
   public String toString(String field) {
     return indexQuery.toString(field);
@@ -148,15 +165,10 @@ public final class IndexOrDocValuesQuery extends Query {
         return new ScorerSupplier() {
           @Override
           public Scorer get(long leadCost) throws IOException {
-            // At equal costs, doc values tend to be worse than points since they
-            // still need to perform one comparison per document while points can
-            // do much better than that given how values are organized. So we give
-            // an arbitrary 8x penalty to doc values.
-            final long threshold = cost() >>> 3;
-            if (threshold <= leadCost) {
-              return indexScorerSupplier.get(leadCost);
-            } else {
+            if (useDocValues(cost(), leadCost)) {
               return dvScorerSupplier.get(leadCost);
+            } else {
+              return indexScorerSupplier.get(leadCost);
             }
           }
 
@@ -73,7 +73,8 @@ import org.apache.lucene.util.RoaringDocIdSet;
  * This cache exposes some global statistics ({@link #getHitCount() hit count},
  * {@link #getMissCount() miss count}, {@link #getCacheSize() number of cache
  * entries}, {@link #getCacheCount() total number of DocIdSets that have ever
- * been cached}, {@link #getEvictionCount() number of evicted entries}). In
+ * been cached}, {@link #getEvictionCount() number of evicted entries},
+ * {@link #getWastedCacheCount() number of entries evicted before being hit}). In
  * case you would like to have more fine-grained statistics, such as per-index
  * or per-query-class statistics, it is possible to override various callbacks:
  * {@link #onHit}, {@link #onMiss},
@@ -119,6 +120,7 @@ public class LRUQueryCache implements QueryCache, Accountable {
   private volatile long missCount;
   private volatile long cacheCount;
   private volatile long cacheSize;
+  private volatile long wastedCacheCount;
 
   /**
    * Expert: Create a new instance that will cache at most <code>maxSize</code>
@@ -288,6 +290,7 @@ public class LRUQueryCache implements QueryCache, Accountable {
     if (cached == null) {
       onMiss(readerKey, singleton);
     } else {
+      leafCache.onHit(singleton);
       onHit(readerKey, singleton);
     }
     return cached;
@@ -356,6 +359,7 @@ public class LRUQueryCache implements QueryCache, Accountable {
         ramBytesUsed -= HASHTABLE_RAM_BYTES_PER_ENTRY;
         final int numEntries = leafCache.cache.size();
         if (numEntries > 0) {
+          wastedCacheCount += numEntries - leafCache.hitQueries.size();
           onDocIdSetEviction(coreKey, numEntries, leafCache.ramBytesUsed);
         } else {
           assert numEntries == 0;
@@ -604,16 +608,33 @@ public class LRUQueryCache implements QueryCache, Accountable {
     return getCacheCount() - getCacheSize();
   }
 
+  /**
+   * Return the number of cache entries that have been removed from the cache,
+   * like {@link #getEvictionCount() evicted entries}, without ever having
+   * been hit. The work to build these entries was wasted, which typically
+   * happens when entries are cached on NRT segments that get merged before the
+   * query is used again. Entries that are removed by {@link #clear()} are not
+   * counted.
+   * @see #getEvictionCount()
+   * @see AdaptiveQueryCachingPolicy
+   */
+  public final long getWastedCacheCount() {
+    return wastedCacheCount;
+  }
+
   // this class is not thread-safe, everything but ramBytesUsed needs to be called under a lock
   private class LeafCache implements Accountable {
 
     private final Object key;
     private final Map<Query, DocIdSet> cache;
+    // cached queries that have been hit at least once
+    private final Set<Query> hitQueries;
     private volatile long ramBytesUsed;
 
     LeafCache(Object key) {
       this.key = key;
       cache = new IdentityHashMap<>();
+      hitQueries = Collections.newSetFromMap(new IdentityHashMap<>());
       ramBytesUsed = 0;
     }
 
@@ -633,6 +654,10 @@ public class LRUQueryCache implements QueryCache, Accountable {
       return cache.get(query);
     }
 
+    void onHit(Query query) {
+      hitQueries.add(query);
+    }
+
     void putIfAbsent(Query query, DocIdSet set) {
       assert query instanceof BoostQuery == false;
       assert query instanceof ConstantScoreQuery == false;
@@ -647,6 +672,9 @@ public class LRUQueryCache implements QueryCache, Accountable {
       assert query instanceof ConstantScoreQuery == false;
       DocIdSet removed = cache.remove(query);
       if (removed != null) {
+        if (hitQueries.remove(query) == false) {
+          wastedCacheCount += 1;
+        }
         onDocIdSetEviction(HASHTABLE_RAM_BYTES_PER_ENTRY + removed.ramBytesUsed());
       }
     }
@@ -746,7 +774,7 @@ public class LRUQueryCache implements QueryCache, Accountable {
       }
 
       if (docIdSet == null) {
-        if (policy.shouldCache(in.getQuery())) {
+        if (policy.shouldCache(in.getQuery(), context)) {
           docIdSet = cache(context);
           putIfAbsent(in.getQuery(), context, docIdSet, cacheHelper);
         } else {
@@ -827,7 +855,7 @@ public class LRUQueryCache implements QueryCache, Accountable {
       }
 
       if (docIdSet == null) {
-        if (policy.shouldCache(in.getQuery())) {
+        if (policy.shouldCache(in.getQuery(), context)) {
           docIdSet = cache(context);
           putIfAbsent(in.getQuery(), context, docIdSet, cacheHelper);
         } else {
@@ -93,4 +93,15 @@ public interface LeafCollector {
    */
   void collect(int doc) throws IOException;
 
+  /**
+   * Optionally returns an iterator over the documents that may still be
+   * competitive, which {@link BulkScorer}s may intersect with the matches of
+   * the query in order to skip the others. The default is to return
+   * {@code null}, meaning that all documents are competitive.
+   * @see LeafFieldComparator#competitiveIterator()
+   */
+  default DocIdSetIterator competitiveIterator() throws IOException {
+    return null;
+  }
+
 }
@@ -48,6 +48,10 @@ import java.io.IOException;
  *
  * </ul>
  *
+ * <p>A leaf comparator may also help skip documents that can't be
+ *    competitive, see {@link #competitiveIterator} and
+ *    {@link #setHitsThresholdReached}.</p>
+ *
  * @see FieldComparator
  * @lucene.experimental
  */
@@ -116,4 +120,24 @@ public interface LeafFieldComparator {
    * obtain the current hit's score, if necessary. */
   void setScorer(Scorable scorer) throws IOException;
 
+  /**
+   * Optionally returns an iterator over the documents of this segment that
+   * might be competitive, or {@code null} (the default) if any document may be
+   * competitive. The returned iterator is typically updated as the
+   * {@link #setBottom bottom} of the queue gets more competitive, and only
+   * after {@link #setHitsThresholdReached} has been called, so that it can
+   * only skip hits that would not be counted anyway. This is the sort
+   * equivalent of {@link Scorable#setMinCompetitiveScore}.
+   */
+  default DocIdSetIterator competitiveIterator() throws IOException {
+    return null;
+  }
+
+  /**
+   * Informs this comparator that the number of hits that needed to be counted
+   * accurately has been reached, so documents that can't be competitive may
+   * now be skipped by its {@link #competitiveIterator()}.
+   */
+  default void setHitsThresholdReached() throws IOException {}
+
 }
@@ -89,4 +89,15 @@ final class MultiLeafFieldComparator implements LeafFieldComparator {
     }
   }
 
+  @Override
+  public DocIdSetIterator competitiveIterator() throws IOException {
+    // only the first comparator decides whether a document may be competitive
+    return firstComparator.competitiveIterator();
+  }
+
+  @Override
+  public void setHitsThresholdReached() throws IOException {
+    firstComparator.setHitsThresholdReached();
+  }
+
 }
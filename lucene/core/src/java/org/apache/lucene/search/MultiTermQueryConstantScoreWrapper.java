@@ -141,10 +141,20 @@ final class MultiTermQueryConstantScoreWrapper<Q extends MultiTermQuery> extends
         final TermsEnum termsEnum = query.getTermsEnum(terms);
         assert termsEnum != null;
 
+        final List<TermAndState> collectedTerms = new ArrayList<>();
+        final boolean allTermsCollected = collectTerms(context, termsEnum, collectedTerms);
+        return rewrite(context, terms, termsEnum, collectedTerms, allTermsCollected);
+      }
+
+      /**
+       * Same as {@link #rewrite(LeafReaderContext)}, with the terms that were already collected from the given
+       * terms enum, which is left positioned on the next term unless all terms were collected.
+       */
+      private WeightOrDocIdSet rewrite(LeafReaderContext context, Terms terms, TermsEnum termsEnum,
+                                       List<TermAndState> collectedTerms, boolean allTermsCollected) throws IOException {
         PostingsEnum docs = null;
 
-        final List<TermAndState> collectedTerms = new ArrayList<>();
-        if (collectTerms(context, termsEnum, collectedTerms)) {
+        if (allTermsCollected) {
           // build a boolean query
           BooleanQuery.Builder bq = new BooleanQuery.Builder();
           for (TermAndState t : collectedTerms) {
@@ -214,6 +224,60 @@ final class MultiTermQueryConstantScoreWrapper<Q extends MultiTermQuery> extends
         return MatchesUtils.forField(query.field, () -> DisjunctionMatchesIterator.fromTermsEnum(context, doc, query, query.field, query.getTermsEnum(terms)));
       }
 
+      @Override
+      public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+        final Terms terms = context.reader().terms(query.field);
+        if (terms == null) {
+          return null;
+        }
+        // Estimate the cost from the doc freqs of the collected terms, or from the number of
+        // documents that have a value if there are too many terms to collect, so that the
+        // doc id set only needs to be built if the scorer is pulled
+        final TermsEnum termsEnum = query.getTermsEnum(terms);
+        assert termsEnum != null;
+        final List<TermAndState> collectedTerms = new ArrayList<>();
+        final boolean allTermsCollected = collectTerms(context, termsEnum, collectedTerms);
+        if (allTermsCollected && collectedTerms.isEmpty()) {
+          return null;
+        }
+        long docCount = terms.getDocCount();
+        if (docCount < 0) {
+          docCount = context.reader().maxDoc();
+        }
+        long cost = docCount;
+        if (allTermsCollected) {
+          long sumDocFreq = 0;
+          for (TermAndState t : collectedTerms) {
+            sumDocFreq += t.docFreq;
+          }
+          cost = Math.min(sumDocFreq, docCount);
+        }
+        final long estimatedCost = cost;
+        final Weight weight = this;
+        return new ScorerSupplier() {
+          @Override
+          public Scorer get(long leadCost) throws IOException {
+            // carry on with the terms enum that the cost was estimated from
+            final WeightOrDocIdSet weightOrBitSet = rewrite(context, terms, termsEnum, collectedTerms, allTermsCollected);
+            final Scorer scorer;
+            if (weightOrBitSet.weight != null) {
+              scorer = weightOrBitSet.weight.scorer(context);
+            } else {
+              scorer = scorer(weightOrBitSet.set);
+            }
+            if (scorer == null) {
+              return new ConstantScoreScorer(weight, score(), scoreMode, DocIdSetIterator.empty());
+            }
+            return scorer;
+          }
+
+          @Override
+          public long cost() {
+            return estimatedCost;
+          }
+        };
+      }
+
       @Override
       public Scorer scorer(LeafReaderContext context) throws IOException {
         final WeightOrDocIdSet weightOrBitSet = rewrite(context);
@@ -51,6 +51,11 @@ public class PositiveScoresOnlyCollector extends FilterCollector {
           in.collect(doc);
         }
       }
+
+      @Override
+      public DocIdSetIterator competitiveIterator() throws IOException {
+        return in.competitiveIterator();
+      }
       
     };
   }
@@ -19,6 +19,8 @@ package org.apache.lucene.search;
 
 import java.io.IOException;
 
+import org.apache.lucene.index.LeafReaderContext;
+
 /**
  * A policy defining which filters should be cached.
  *
@@ -44,4 +46,14 @@ public interface QueryCachingPolicy {
    *  returned. */
   boolean shouldCache(Query query) throws IOException;
 
+  /** Whether the given {@link Query} is worth caching on the given segment.
+   *  This method is called by {@link LRUQueryCache} instead of
+   *  {@link #shouldCache(Query)} on segments that are eligible for caching, so
+   *  that policies can take the segment into account, such as how long it is
+   *  expected to live before being merged away. The default implementation
+   *  returns {@link #shouldCache(Query)}. */
+  default boolean shouldCache(Query query, LeafReaderContext context) throws IOException {
+    return shouldCache(query);
+  }
+
 }
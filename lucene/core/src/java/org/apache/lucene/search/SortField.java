@@ -98,6 +98,9 @@ public class SortField {
   // Used for 'sortMissingFirst/Last'
   protected Object missingValue = null;
 
+  // Used to skip non-competitive documents of numeric sorts
+  private boolean canUsePoints = false;
+
   /** Creates a sort by terms in the given field with the type of term
    * values explicitly given.
    * @param field  Name of field to sort by.  Can be <code>null</code> if
@@ -168,6 +171,28 @@ public class SortField {
     this.missingValue = missingValue;
   }
 
+  /**
+   * For numeric sorts, declares that the field is also indexed with 1-dimension
+   * points (eg. {@link org.apache.lucene.document.IntPoint} for
+   * {@link Type#INT}) that hold exactly the same values as its doc values.
+   * The minimum and maximum values of the blocks of the points index can then
+   * be used to skip documents that can't compete with the current top hits,
+   * once the total hit count threshold of the {@link TopFieldCollector} has
+   * been reached. Results are wrong if the points don't match the doc values.
+   * This doesn't change the sort order, so it is not taken into account by
+   * {@link #equals} and {@link #hashCode}: such a sort still matches an
+   * index sort that is read back from the segments.
+   */
+  public void setCanUsePoints() {
+    this.canUsePoints = true;
+  }
+
+  /** Returns whether points can be used to skip non-competitive documents.
+   *  @see #setCanUsePoints() */
+  public boolean getCanUsePoints() {
+    return canUsePoints;
+  }
+
   /** Creates a sort with a custom comparison function.
    * @param field Name of field to sort by; cannot be <code>null</code>.
    * @param comparator Returns a comparator for sorting hits.
@@ -345,16 +370,16 @@ public class SortField {
       return new FieldComparator.DocComparator(numHits);
 
     case INT:
-      return new FieldComparator.IntComparator(numHits, field, (Integer) missingValue);
+      return new FieldComparator.IntComparator(numHits, field, (Integer) missingValue, reverse, canUsePoints);
 
     case FLOAT:
-      return new FieldComparator.FloatComparator(numHits, field, (Float) missingValue);
+      return new FieldComparator.FloatComparator(numHits, field, (Float) missingValue, reverse, canUsePoints);
 
     case LONG:
-      return new FieldComparator.LongComparator(numHits, field, (Long) missingValue);
+      return new FieldComparator.LongComparator(numHits, field, (Long) missingValue, reverse, canUsePoints);
 
     case DOUBLE:
-      return new FieldComparator.DoubleComparator(numHits, field, (Double) missingValue);
+      return new FieldComparator.DoubleComparator(numHits, field, (Double) missingValue, reverse, canUsePoints);
 
     case CUSTOM:
       assert comparatorSource != null;
@@ -35,6 +35,10 @@ import org.apache.lucene.index.SortedNumericDocValues;
  * <p>
  * Like sorting by string, this also supports sorting missing values as first or last,
  * via {@link #setMissingValue(Object)}.
+ * <p>
+ * Since the selected value is always one of the values of the document,
+ * {@link #setCanUsePoints() points} that hold all the values of the field can
+ * be used to skip non-competitive documents.
  * @see SortedNumericSelector
  */
 public class SortedNumericSortField extends SortField {
@@ -139,28 +143,28 @@ public class SortedNumericSortField extends SortField {
   public FieldComparator<?> getComparator(int numHits, int sortPos) {
     switch(type) {
       case INT:
-        return new FieldComparator.IntComparator(numHits, getField(), (Integer) missingValue) {
+        return new FieldComparator.IntComparator(numHits, getField(), (Integer) missingValue, getReverse(), getCanUsePoints()) {
           @Override
           protected NumericDocValues getNumericDocValues(LeafReaderContext context, String field) throws IOException {
             return SortedNumericSelector.wrap(DocValues.getSortedNumeric(context.reader(), field), selector, type);
           } 
         };
       case FLOAT:
-        return new FieldComparator.FloatComparator(numHits, getField(), (Float) missingValue) {
+        return new FieldComparator.FloatComparator(numHits, getField(), (Float) missingValue, getReverse(), getCanUsePoints()) {
           @Override
           protected NumericDocValues getNumericDocValues(LeafReaderContext context, String field) throws IOException {
             return SortedNumericSelector.wrap(DocValues.getSortedNumeric(context.reader(), field), selector, type);
           } 
         };
       case LONG:
-        return new FieldComparator.LongComparator(numHits, getField(), (Long) missingValue) {
+        return new FieldComparator.LongComparator(numHits, getField(), (Long) missingValue, getReverse(), getCanUsePoints()) {
           @Override
           protected NumericDocValues getNumericDocValues(LeafReaderContext context, String field) throws IOException {
             return SortedNumericSelector.wrap(DocValues.getSortedNumeric(context.reader(), field), selector, type);
           }
         };
       case DOUBLE:
-        return new FieldComparator.DoubleComparator(numHits, getField(), (Double) missingValue) {
+        return new FieldComparator.DoubleComparator(numHits, getField(), (Double) missingValue, getReverse(), getCanUsePoints()) {
           @Override
           protected NumericDocValues getNumericDocValues(LeafReaderContext context, String field) throws IOException {
             return SortedNumericSelector.wrap(DocValues.getSortedNumeric(context.reader(), field), selector, type);
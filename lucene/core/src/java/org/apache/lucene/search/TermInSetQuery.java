@@ -63,6 +63,15 @@ import org.apache.lucene.util.RamUsageEstimator;
  * However, when there are many terms, instead of merging iterators on the fly,
  * it will populate a bit set with matching docs and return a {@link Scorer}
  * over this bit set.
+ * <p>The sorted terms of the query are intersected with the terms dictionary
+ * of each segment by walking both together: the dictionary only needs to be
+ * sought for the terms that are past its current term, and the terms of the
+ * query that fall between two terms of the dictionary are skipped without any
+ * lookup.
+ * <p>The {@link ScorerSupplier} of this query estimates its cost from the
+ * statistics of the field, without reading any postings, so that it can be
+ * wrapped in an {@link IndexOrDocValuesQuery} to check the terms against doc
+ * values when the query is intersected with a more selective query.
  * <p>NOTE: This query produces scores that are equal to its boost
  */
 public class TermInSetQuery extends Query implements Accountable {
@@ -193,6 +202,71 @@ public class TermInSetQuery extends Query implements Accountable {
     }
   }
 
+  /**
+   * Intersects the sorted terms of the query with a {@link TermsEnum}, positioning the enum on
+   * each of the terms of the query it has in turn.
+   */
+  static final class SortedTermsIntersection {
+    private final TermsEnum termsEnum;
+    private final TermIterator iterator;
+    // the term the enum is positioned on, or null if it was not positioned yet
+    private BytesRef indexTerm;
+    // whether the enum is positioned on a term of the query and must move to the next term
+    private boolean matched;
+    private boolean exhausted;
+
+    SortedTermsIntersection(TermsEnum termsEnum, TermIterator iterator) {
+      this.termsEnum = termsEnum;
+      this.iterator = iterator;
+    }
+
+    /** Positions the enum on the next term of the query it has and returns true, or returns false when there is none. */
+    boolean next() throws IOException {
+      if (exhausted) {
+        return false;
+      }
+      if (matched) {
+        // terms of the query are often adjacent in the dictionary, stepping is cheaper than seeking
+        matched = false;
+        indexTerm = termsEnum.next();
+        if (indexTerm == null) {
+          exhausted = true;
+          return false;
+        }
+      }
+      for (BytesRef term = iterator.next(); term != null; term = iterator.next()) {
+        if (indexTerm != null) {
+          final int cmp = term.compareTo(indexTerm);
+          if (cmp < 0) {
+            continue; // between two terms of the dictionary
+          } else if (cmp == 0) {
+            matched = true;
+            return true;
+          }
+        }
+        switch (termsEnum.seekCeil(term)) {
+          case FOUND:
+            matched = true;
+            return true;
+          case NOT_FOUND:
+            indexTerm = termsEnum.term();
+            break;
+          case END:
+            exhausted = true;
+            return false;
+        }
+      }
+      exhausted = true;
+      return false;
+    }
+
+    /** Forgets the position of the enum, after it was moved elsewhere, so that the next term of the query is sought. */
+    void reset() {
+      indexTerm = null;
+      matched = false;
+    }
+  }
+
   private static class WeightOrDocIdSet {
     final Weight weight;
     final DocIdSet set;
@@ -242,7 +316,7 @@ public class TermInSetQuery extends Query implements Accountable {
         }
         TermsEnum termsEnum = terms.iterator();
         PostingsEnum docs = null;
-        TermIterator iterator = termData.iterator();
+        SortedTermsIntersection intersection = new SortedTermsIntersection(termsEnum, termData.iterator());
 
         // We will first try to collect up to 'threshold' terms into 'matchingTerms'
         // if there are two many terms, we will fall back to building the 'builder'
@@ -251,26 +325,25 @@ public class TermInSetQuery extends Query implements Accountable {
         List<TermAndState> matchingTerms = new ArrayList<>(threshold);
         DocIdSetBuilder builder = null;
 
-        for (BytesRef term = iterator.next(); term != null; term = iterator.next()) {
-          assert field.equals(iterator.field());
-          if (termsEnum.seekExact(term)) {
-            if (matchingTerms == null) {
-              docs = termsEnum.postings(docs, PostingsEnum.NONE);
-              builder.add(docs);
-            } else if (matchingTerms.size() < threshold) {
-              matchingTerms.add(new TermAndState(field, termsEnum));
-            } else {
-              assert matchingTerms.size() == threshold;
-              builder = new DocIdSetBuilder(reader.maxDoc(), terms);
-              docs = termsEnum.postings(docs, PostingsEnum.NONE);
+        while (intersection.next()) {
+          if (matchingTerms == null) {
+            docs = termsEnum.postings(docs, PostingsEnum.NONE);
+            builder.add(docs);
+          } else if (matchingTerms.size() < threshold) {
+            matchingTerms.add(new TermAndState(field, termsEnum));
+          } else {
+            assert matchingTerms.size() == threshold;
+            builder = new DocIdSetBuilder(reader.maxDoc(), terms);
+            docs = termsEnum.postings(docs, PostingsEnum.NONE);
+            builder.add(docs);
+            for (TermAndState t : matchingTerms) {
+              t.termsEnum.seekExact(t.term, t.state);
+              docs = t.termsEnum.postings(docs, PostingsEnum.NONE);
               builder.add(docs);
-              for (TermAndState t : matchingTerms) {
-                t.termsEnum.seekExact(t.term, t.state);
-                docs = t.termsEnum.postings(docs, PostingsEnum.NONE);
-                builder.add(docs);
-              }
-              matchingTerms = null;
             }
+            // the enum was moved back to the previous terms
+            intersection.reset();
+            matchingTerms = null;
           }
         }
         if (matchingTerms != null) {
@@ -329,6 +402,38 @@ public class TermInSetQuery extends Query implements Accountable {
         }
       }
 
+      @Override
+      public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+        final Terms terms = context.reader().terms(field);
+        if (terms == null) {
+          return null;
+        }
+        // Every term of the query matches at most one document, plus the documents beyond the first one of
+        // each term of the dictionary, which doesn't require to intersect the terms or read postings.
+        long cost = terms.getSumDocFreq();
+        final long indexedTermCount = terms.size();
+        if (indexedTermCount != -1) {
+          cost = Math.min(cost, termData.size() + cost - indexedTermCount);
+        }
+        final long estimatedCost = cost;
+        final Weight weight = this;
+        return new ScorerSupplier() {
+          @Override
+          public Scorer get(long leadCost) throws IOException {
+            final Scorer scorer = scorer(context);
+            if (scorer == null) {
+              return new ConstantScoreScorer(weight, score(), scoreMode, DocIdSetIterator.empty());
+            }
+            return scorer;
+          }
+
+          @Override
+          public long cost() {
+            return estimatedCost;
+          }
+        };
+      }
+
       @Override
       public boolean isCacheable(LeafReaderContext ctx) {
         // Only cache instances that have a reasonable size. Otherwise it might cause memory issues
@@ -123,11 +123,19 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
         public void setScorer(Scorable scorer) throws IOException {
           super.setScorer(scorer);
           updateMinCompetitiveScore(scorer);
+          if (totalHits >= totalHitsThreshold) {
+            comparator.setHitsThresholdReached();
+          }
+        }
+
+        @Override
+        public DocIdSetIterator competitiveIterator() throws IOException {
+          return comparator.competitiveIterator();
         }
 
         @Override
         public void collect(int doc) throws IOException {
-          ++totalHits;
+          countHit(comparator);
           if (queueFull) {
             if (collectedAllCompetitiveHits || reverseMul * comparator.compareBottom(doc) <= 0) {
               // since docs are visited in doc Id order, if compare is 0, it means
@@ -214,13 +222,21 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
         public void setScorer(Scorable scorer) throws IOException {
           super.setScorer(scorer);
           updateMinCompetitiveScore(scorer);
+          if (totalHits >= totalHitsThreshold) {
+            comparator.setHitsThresholdReached();
+          }
+        }
+
+        @Override
+        public DocIdSetIterator competitiveIterator() throws IOException {
+          return comparator.competitiveIterator();
         }
 
         @Override
         public void collect(int doc) throws IOException {
           //System.out.println("  collect doc=" + doc);
 
-          totalHits++;
+          countHit(comparator);
 
           if (queueFull) {
             // Fastmatch: return if this hit is no better than
@@ -332,6 +348,25 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
     }
   }
 
+  final void countHit(LeafFieldComparator comparator) throws IOException {
+    if (++totalHits == totalHitsThreshold) {
+      // hits don't need to be counted anymore, so non-competitive hits may be skipped
+      comparator.setHitsThresholdReached();
+    }
+  }
+
+  // the hit count is a lower bound as soon as the first comparator actually skipped hits
+  private Relation getTotalHitsRelation() {
+    if (totalHitsRelation == Relation.EQUAL_TO) {
+      final FieldComparator<?> firstComparator = ((FieldValueHitQueue<Entry>) pq).getComparators()[0];
+      if (firstComparator instanceof FieldComparator.NumericComparator
+          && ((FieldComparator.NumericComparator<?>) firstComparator).hasSkippedHits()) {
+        return Relation.GREATER_THAN_OR_EQUAL_TO;
+      }
+    }
+    return totalHitsRelation;
+  }
+
   /**
    * Creates a new {@link TopFieldCollector} from the given
    * arguments.
@@ -340,6 +375,11 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
    * pre-allocate a full array of length
    * <code>numHits</code>.
    *
+   * <p>When the primary sort is on a numeric field whose
+   * {@link SortField#setCanUsePoints() points can be used},
+   * documents that can't be competitive are skipped once
+   * {@code totalHitsThreshold} hits have been counted.
+   *
    * @param sort
    *          the sort criteria (SortFields).
    * @param numHits
@@ -485,7 +525,7 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
     }
 
     // If this is a maxScoring tracking collector and there were no results,
-    return new TopFieldDocs(new TotalHits(totalHits, totalHitsRelation), results, ((FieldValueHitQueue<Entry>) pq).getFields());
+    return new TopFieldDocs(new TotalHits(totalHits, getTotalHitsRelation()), results, ((FieldValueHitQueue<Entry>) pq).getFields());
   }
 
   @Override
@@ -495,6 +535,6 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
 
   /** Return whether collection terminated early. */
   public boolean isEarlyTerminated() {
-    return totalHitsRelation == Relation.GREATER_THAN_OR_EQUAL_TO;
+    return getTotalHitsRelation() == Relation.GREATER_THAN_OR_EQUAL_TO;
   }
 }
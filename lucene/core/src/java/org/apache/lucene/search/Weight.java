@@ -18,6 +18,7 @@ package org.apache.lucene.search;
 
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Set;
 
 import org.apache.lucene.index.IndexReaderContext;
@@ -211,7 +212,14 @@ public abstract class Weight implements SegmentCacheable {
     public int score(LeafCollector collector, Bits acceptDocs, int min, int max) throws IOException {
       collector.setScorer(scorer);
       if (scorer.docID() == -1 && min == 0 && max == DocIdSetIterator.NO_MORE_DOCS) {
-        scoreAll(collector, iterator, twoPhase, acceptDocs);
+        final DocIdSetIterator competitiveIterator = collector.competitiveIterator();
+        if (competitiveIterator == null) {
+          scoreAll(collector, iterator, twoPhase, acceptDocs);
+        } else {
+          // only visit the matches that the collector reports as competitive
+          final DocIdSetIterator filteredIterator = ConjunctionDISI.intersectIterators(Arrays.asList(iterator, competitiveIterator));
+          scoreAll(collector, filteredIterator, TwoPhaseIterator.unwrap(filteredIterator), acceptDocs);
+        }
         return DocIdSetIterator.NO_MORE_DOCS;
       } else {
         int doc = scorer.docID();
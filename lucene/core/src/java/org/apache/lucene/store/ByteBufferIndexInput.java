@@ -32,8 +32,10 @@ import java.nio.ByteBuffer;
  * <p>
  * For efficiency, this class requires that the buffers
  * are a power-of-two (<code>chunkSizePower</code>).
+ *
+ * @lucene.internal
  */
-abstract class ByteBufferIndexInput extends IndexInput implements RandomAccessInput {
+public abstract class ByteBufferIndexInput extends IndexInput implements RandomAccessInput {
   protected final long length;
   protected final long chunkSizeMask;
   protected final int chunkSizePower;
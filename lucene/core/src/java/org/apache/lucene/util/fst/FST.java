@@ -122,13 +122,12 @@ public final class FST<T> implements Accountable {
   // produces this output
   T emptyOutput;
 
-  /** A {@link BytesStore}, used during building, or during reading when
-   *  the FST is very large (more than 1 GB).  If the FST is less than 1
-   *  GB then bytesArray is set instead. */
+  /** A {@link BytesStore}, used during building, or null when the FST
+   *  was loaded, in which case its bytes are held by {@link #fstStore}. */
   final BytesStore bytes;
 
-  /** Used at read time when the FST fits into a single byte[]. */
-  final byte[] bytesArray;
+  /** Holds the FST bytes at read time; null while building. */
+  private final FSTStore fstStore;
 
   private long startNode = -1;
 
@@ -238,7 +237,7 @@ public final class FST<T> implements Accountable {
     this.inputType = inputType;
     this.outputs = outputs;
     version = VERSION_CURRENT;
-    bytesArray = null;
+    fstStore = null;
     bytes = new BytesStore(bytesPageBits);
     // pad: ensure no node gets address 0 which is reserved to mean
     // the stop state w/ no arcs
@@ -257,11 +256,17 @@ public final class FST<T> implements Accountable {
   /** Load a previously saved FST; maxBlockBits allows you to
    *  control the size of the byte[] pages used to hold the FST bytes. */
   public FST(DataInput in, Outputs<T> outputs, int maxBlockBits) throws IOException {
-    this.outputs = outputs;
+    this(in, outputs, new OnHeapFSTStore(maxBlockBits));
+  }
 
-    if (maxBlockBits < 1 || maxBlockBits > 30) {
-      throw new IllegalArgumentException("maxBlockBits should be 1 .. 30; got " + maxBlockBits);
-    }
+  /** Load a previously saved FST, holding its bytes in the provided
+   *  {@link FSTStore}: use {@link OnHeapFSTStore} to copy them to the heap
+   *  or {@link OffHeapFSTStore} to read them directly from an
+   *  {@link org.apache.lucene.store.IndexInput}. */
+  public FST(DataInput in, Outputs<T> outputs, FSTStore fstStore) throws IOException {
+    this.outputs = outputs;
+    bytes = null;
+    this.fstStore = fstStore;
 
     // NOTE: only reads most recent format; we don't have
     // back-compat promise for FSTs (they are experimental):
@@ -302,17 +307,8 @@ public final class FST<T> implements Accountable {
     startNode = in.readVLong();
 
     long numBytes = in.readVLong();
-    if (numBytes > 1 << maxBlockBits) {
-      // FST is big: we need multiple pages
-      bytes = new BytesStore(in, numBytes, 1<<maxBlockBits);
-      bytesArray = null;
-    } else {
-      // FST fits into a single block: use ByteArrayBytesStoreReader for less overhead
-      bytes = null;
-      bytesArray = new byte[(int) numBytes];
-      in.readBytes(bytesArray, 0, bytesArray.length);
-    }
-    
+    this.fstStore.init(in, numBytes);
+
     cacheRootArcs();
   }
 
@@ -344,8 +340,8 @@ public final class FST<T> implements Accountable {
   @Override
   public long ramBytesUsed() {
     long size = BASE_RAM_BYTES_USED;
-    if (bytesArray != null) {
-      size += bytesArray.length;
+    if (this.fstStore != null) {
+      size += this.fstStore.ramBytesUsed();
     } else {
       size += bytes.ramBytesUsed();
     }
@@ -353,6 +349,16 @@ public final class FST<T> implements Accountable {
     return size;
   }
 
+  /** Returns the number of bytes used to encode this FST, whether they
+   *  live on heap or are read from an index input. */
+  public long numBytes() {
+    if (this.fstStore != null) {
+      return this.fstStore.size();
+    } else {
+      return bytes.getPosition();
+    }
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName() + "(input=" + inputType + ",output=" + outputs;
@@ -400,8 +406,9 @@ public final class FST<T> implements Accountable {
 
       int cacheRAM = (int) ramBytesUsed(arcs);
 
-      // Don't cache if there are only a few arcs or if the cache would use > 20% RAM of the FST itself:
-      if (count >= FIXED_ARRAY_NUM_ARCS_SHALLOW && cacheRAM < ramBytesUsed()/5) {
+      // Don't cache if there are only a few arcs or if the cache would use > 20% of the size of the FST itself
+      // (measured in FST bytes rather than heap, so that off-heap FSTs cache their root arcs too):
+      if (count >= FIXED_ARRAY_NUM_ARCS_SHALLOW && cacheRAM < numBytes()/5) {
         cachedRootArcs = arcs;
         cachedArcsBytesUsed = cacheRAM;
       }
@@ -467,9 +474,8 @@ public final class FST<T> implements Accountable {
       out.writeVLong(numBytes);
       bytes.writeTo(out);
     } else {
-      assert bytesArray != null;
-      out.writeVLong(bytesArray.length);
-      out.writeBytes(bytesArray, 0, bytesArray.length);
+      assert fstStore != null;
+      fstStore.writeTo(out);
     }
   }
   
@@ -1139,8 +1145,8 @@ public final class FST<T> implements Accountable {
   /** Returns a {@link BytesReader} for this FST, positioned at
    *  position 0. */
   public BytesReader getBytesReader() {
-    if (bytesArray != null) {
-      return new ReverseBytesReader(bytesArray);
+    if (this.fstStore != null) {
+      return this.fstStore.getReverseBytesReader();
     } else {
       return bytes.getReverseReader();
     }
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.fst;
+
+import java.io.IOException;
+
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.util.Accountable;
+
+/** Abstraction for reading/writing bytes necessary for FST.
+ *
+ * @lucene.experimental */
+public interface FSTStore extends Accountable {
+
+  /** Initializes this store by consuming {@code numBytes} FST bytes from {@code in}. */
+  void init(DataInput in, long numBytes) throws IOException;
+
+  /** Returns the number of FST bytes held by this store. */
+  long size();
+
+  /** Returns a {@link FST.BytesReader} reading the FST bytes in reverse. */
+  FST.BytesReader getReverseBytesReader();
+
+  /** Writes the FST bytes to {@code out}. */
+  void writeTo(DataOutput out) throws IOException;
+}
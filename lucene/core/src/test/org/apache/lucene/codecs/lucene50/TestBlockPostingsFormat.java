@@ -25,9 +25,13 @@ import java.util.List;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.CompetitiveImpactAccumulator;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader.FSTLoadMode;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsWriter;
 import org.apache.lucene.codecs.blocktree.FieldReader;
 import org.apache.lucene.codecs.blocktree.Stats;
 import org.apache.lucene.codecs.lucene50.Lucene50ScoreSkipReader.MutableImpactList;
+import org.apache.lucene.codecs.lucene80.Lucene80Codec;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.index.BasePostingsFormatTestCase;
@@ -35,11 +39,15 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.Impact;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.store.ByteArrayDataInput;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.TestUtil;
 
 /**
@@ -77,6 +85,88 @@ public class TestBlockPostingsFormat extends BasePostingsFormatTestCase {
     d.close();
   }
 
+  public void testFSTLoadMode() throws Exception {
+    Directory d = newDirectory();
+    final PostingsFormat offHeap = new Lucene50PostingsFormat(BlockTreeTermsWriter.DEFAULT_MIN_BLOCK_SIZE,
+        BlockTreeTermsWriter.DEFAULT_MAX_BLOCK_SIZE, FSTLoadMode.OPTIMIZE_UPDATES_OFF_HEAP);
+    final PostingsFormat onHeap = new Lucene50PostingsFormat(BlockTreeTermsWriter.DEFAULT_MIN_BLOCK_SIZE,
+        BlockTreeTermsWriter.DEFAULT_MAX_BLOCK_SIZE, FSTLoadMode.ON_HEAP);
+    IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setCodec(new Lucene80Codec() {
+      @Override
+      public PostingsFormat getPostingsFormatForField(String field) {
+        return field.equals("body") ? onHeap : offHeap;
+      }
+    });
+    IndexWriter w = new IndexWriter(d, iwc);
+    for(int i=0;i<100;i++) {
+      Document doc = new Document();
+      doc.add(newStringField("id", Integer.toString(i), Field.Store.NO));
+      doc.add(newStringField("tag", Integer.toString(i % 7), Field.Store.NO));
+      doc.add(newStringField("body", Integer.toString(i % 5), Field.Store.NO));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+
+    DirectoryReader r = DirectoryReader.open(w);
+    assertEquals(1, r.leaves().size());
+    // primary keys stay on heap in OPTIMIZE_UPDATES_OFF_HEAP mode
+    assertFalse(((FieldReader) r.leaves().get(0).reader().terms("id")).isFSTOffHeap());
+    assertTrue(((FieldReader) r.leaves().get(0).reader().terms("tag")).isFSTOffHeap());
+    assertFalse(((FieldReader) r.leaves().get(0).reader().terms("body")).isFSTOffHeap());
+    TermsEnum te = r.leaves().get(0).reader().terms("tag").iterator();
+    for (int i = 0; i < 7; i++) {
+      assertTrue(te.seekExact(new BytesRef(Integer.toString(i))));
+    }
+    assertFalse(te.seekExact(new BytesRef("7")));
+    r.close();
+    w.close();
+    d.close();
+  }
+
+  public void testAutoFSTLoadMode() throws Exception {
+    // only memory-mapped terms indexes are read off-heap
+    try (Directory d = new NIOFSDirectory(createTempDir())) {
+      assertAutoFSTOffHeap(d, false);
+    }
+    try (Directory d = new MMapDirectory(createTempDir())) {
+      assertAutoFSTOffHeap(d, true);
+    }
+  }
+
+  private void assertAutoFSTOffHeap(Directory d, boolean expectOffHeap) throws Exception {
+    final PostingsFormat auto = new Lucene50PostingsFormat(BlockTreeTermsWriter.DEFAULT_MIN_BLOCK_SIZE,
+        BlockTreeTermsWriter.DEFAULT_MAX_BLOCK_SIZE, FSTLoadMode.AUTO);
+    IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setCodec(new Lucene80Codec() {
+      @Override
+      public PostingsFormat getPostingsFormatForField(String field) {
+        return auto;
+      }
+    });
+    try (IndexWriter w = new IndexWriter(d, iwc)) {
+      for (int i = 0; i < 100; i++) {
+        Document doc = new Document();
+        doc.add(newStringField("id", Integer.toString(i), Field.Store.NO));
+        doc.add(newStringField("tag", Integer.toString(i % 7), Field.Store.NO));
+        w.addDocument(doc);
+      }
+      w.forceMerge(1);
+    }
+
+    try (DirectoryReader r = DirectoryReader.open(d)) {
+      assertEquals(1, r.leaves().size());
+      // primary keys always stay on heap in AUTO mode
+      assertFalse(((FieldReader) r.leaves().get(0).reader().terms("id")).isFSTOffHeap());
+      assertEquals(expectOffHeap, ((FieldReader) r.leaves().get(0).reader().terms("tag")).isFSTOffHeap());
+      TermsEnum te = r.leaves().get(0).reader().terms("tag").iterator();
+      for (int i = 0; i < 7; i++) {
+        assertTrue(te.seekExact(new BytesRef(Integer.toString(i))));
+      }
+      assertFalse(te.seekExact(new BytesRef("7")));
+    }
+  }
+
   private void shouldFail(int minItemsInBlock, int maxItemsInBlock) {
     expectThrows(IllegalArgumentException.class, () -> {
       new Lucene50PostingsFormat(minItemsInBlock, maxItemsInBlock);
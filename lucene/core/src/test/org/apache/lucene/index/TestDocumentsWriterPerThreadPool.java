@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.lucene.index.DocumentsWriterPerThreadPool.ThreadState;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+/**
+ * Tests for {@link DocumentsWriterPerThreadPool}
+ */
+public class TestDocumentsWriterPerThreadPool extends LuceneTestCase {
+
+  public void testReuseReleasedStates() {
+    DocumentsWriterPerThreadPool pool = new DocumentsWriterPerThreadPool(TestUtil.nextInt(random(), 1, 8));
+    ThreadState first = pool.getAndLock(Thread.currentThread(), null);
+    assertTrue(first.isHeldByCurrentThread());
+    ThreadState second = pool.getAndLock(Thread.currentThread(), null);
+    assertNotSame(first, second);
+    assertEquals(2, pool.getActiveThreadStateCount());
+    pool.release(second);
+    pool.release(first);
+    assertFalse(first.isHeldByCurrentThread());
+
+    // LIFO
+    assertSame(first, pool.getAndLock(Thread.currentThread(), null));
+    assertSame(second, pool.getAndLock(Thread.currentThread(), null));
+    assertEquals(2, pool.getActiveThreadStateCount());
+    assertSame(first, pool.getThreadState(0));
+    assertSame(second, pool.getThreadState(1));
+  }
+
+  public void testNeverCheckOutStateTwice() throws Exception {
+    final DocumentsWriterPerThreadPool pool = new DocumentsWriterPerThreadPool(TestUtil.nextInt(random(), 1, 8));
+    final Set<ThreadState> checkedOut = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+    final AtomicInteger failures = new AtomicInteger();
+    final int numIters = atLeast(100);
+    final CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[TestUtil.nextInt(random(), 2, 16)];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        try {
+          start.await();
+          for (int iter = 0; iter < numIters; iter++) {
+            ThreadState state = pool.getAndLock(Thread.currentThread(), null);
+            if (checkedOut.add(state) == false) {
+              failures.incrementAndGet();
+            }
+            checkedOut.remove(state);
+            pool.release(state);
+          }
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+      });
+      threads[i].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(0, failures.get());
+    final int numStates = pool.getActiveThreadStateCount();
+    for (int i = 0; i < numStates; i++) {
+      assertFalse(pool.getThreadState(i).isLocked());
+    }
+    // all released states are free again: they are checked out before any new state gets created
+    final Set<ThreadState> reused = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (int i = 0; i < numStates; i++) {
+      assertTrue(reused.add(pool.getAndLock(Thread.currentThread(), null)));
+    }
+    assertEquals(numStates, pool.getActiveThreadStateCount());
+    assertFalse(reused.contains(pool.getAndLock(Thread.currentThread(), null)));
+    assertEquals(numStates + 1, pool.getActiveThreadStateCount());
+  }
+}
@@ -25,12 +25,14 @@ import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.LongValues;
 import org.apache.lucene.util.LuceneTestCase;
 import org.apache.lucene.util.RamUsageTester;
 import org.apache.lucene.util.TestUtil;
+import org.apache.lucene.util.packed.PackedInts;
 
 public class TestOrdinalMap extends LuceneTestCase {
 
@@ -95,4 +97,93 @@ public class TestOrdinalMap extends LuceneTestCase {
     dir.close();
   }
 
+
+  public void testIncrementalBuild() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriterConfig cfg = new IndexWriterConfig(new MockAnalyzer(random()))
+        .setCodec(TestUtil.alwaysDocValuesFormat(TestUtil.getDefaultDocValuesFormat()))
+        .setMergePolicy(NoMergePolicy.INSTANCE);
+    IndexWriter iw = new IndexWriter(dir, cfg);
+    final int maxTermLength = TestUtil.nextInt(random(), 1, 4);
+    addRandomDocuments(iw, TestUtil.nextInt(random(), 2, 5), maxTermLength);
+    DirectoryReader r = DirectoryReader.open(iw);
+    OrdinalMap previous = OrdinalMap.build(null, sortedSetValues(r), PackedInts.DEFAULT);
+
+    final int numReopens = atLeast(5);
+    for (int iter = 0; iter < numReopens; ++iter) {
+      if (random().nextBoolean()) {
+        addRandomDocuments(iw, TestUtil.nextInt(random(), 1, 3), maxTermLength);
+      }
+      if (random().nextBoolean()) {
+        iw.deleteDocuments(new Term("id", Integer.toString(random().nextInt(100))));
+      }
+      if (rarely()) {
+        iw.forceMerge(TestUtil.nextInt(random(), 1, 3));
+      }
+      DirectoryReader newReader = DirectoryReader.openIfChanged(r, iw);
+      if (newReader == null) {
+        continue;
+      }
+
+      final int[] previousSegments = new int[newReader.leaves().size()];
+      for (int i = 0; i < previousSegments.length; ++i) {
+        previousSegments[i] = -1;
+        final IndexReader.CacheKey key = newReader.leaves().get(i).reader().getCoreCacheHelper().getKey();
+        for (int j = 0; j < r.leaves().size(); ++j) {
+          if (r.leaves().get(j).reader().getCoreCacheHelper().getKey() == key) {
+            previousSegments[i] = j;
+          }
+        }
+      }
+      r.close();
+      r = newReader;
+
+      final OrdinalMap incremental = OrdinalMap.build(null, sortedSetValues(r), previous, previousSegments, PackedInts.DEFAULT);
+      final OrdinalMap full = OrdinalMap.build(null, sortedSetValues(r), PackedInts.DEFAULT);
+      assertEquals(full.getValueCount(), incremental.getValueCount());
+      final SortedSetDocValues[] values = sortedSetValues(r);
+      for (int i = 0; i < values.length; ++i) {
+        final LongValues expected = full.getGlobalOrds(i);
+        final LongValues actual = incremental.getGlobalOrds(i);
+        for (long ord = 0; ord < values[i].getValueCount(); ++ord) {
+          assertEquals(expected.get(ord), actual.get(ord));
+        }
+      }
+      for (long globalOrd = 0; globalOrd < full.getValueCount(); ++globalOrd) {
+        final int segment = incremental.getFirstSegmentNumber(globalOrd);
+        final long segmentOrd = incremental.getFirstSegmentOrd(globalOrd);
+        assertEquals(globalOrd, incremental.getGlobalOrds(segment).get(segmentOrd));
+      }
+      previous = incremental;
+    }
+
+    r.close();
+    iw.close();
+    dir.close();
+  }
+
+  private static void addRandomDocuments(IndexWriter iw, int numSegments, int maxTermLength) throws IOException {
+    for (int s = 0; s < numSegments; ++s) {
+      final int numDocs = TestUtil.nextInt(random(), 1, 50);
+      for (int i = 0; i < numDocs; ++i) {
+        Document d = new Document();
+        d.add(new StringField("id", Integer.toString(random().nextInt(100)), org.apache.lucene.document.Field.Store.NO));
+        final int numValues = random().nextInt(3);
+        for (int j = 0; j < numValues; ++j) {
+          d.add(new SortedSetDocValuesField("ssdv", new BytesRef(TestUtil.randomSimpleString(random(), maxTermLength))));
+        }
+        iw.addDocument(d);
+      }
+      iw.flush();
+    }
+  }
+
+  private static SortedSetDocValues[] sortedSetValues(IndexReader r) throws IOException {
+    final SortedSetDocValues[] values = new SortedSetDocValues[r.leaves().size()];
+    for (int i = 0; i < values.length; ++i) {
+      values[i] = DocValues.getSortedSet(r.leaves().get(i).reader(), "ssdv");
+    }
+    return values;
+  }
+
 }
@@ -101,6 +101,85 @@ public class TermInSetQueryTest extends LuceneTestCase {
     }
   }
 
+  public void testDuelWithMissingTerms() throws IOException {
+    final String field = "f";
+    final List<BytesRef> allTerms = new ArrayList<>();
+    final int numTerms = TestUtil.nextInt(random(), 1, 1 << TestUtil.nextInt(random(), 1, 10));
+    for (int i = 0; i < numTerms; ++i) {
+      allTerms.add(new BytesRef(TestUtil.randomAnalysisString(random(), 10, true)));
+    }
+    Directory dir = newDirectory();
+    RandomIndexWriter iw = new RandomIndexWriter(random(), dir);
+    final int numDocs = atLeast(100);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      doc.add(new StringField(field, allTerms.get(random().nextInt(allTerms.size())), Store.NO));
+      doc.add(new StringField("g", random().nextBoolean() ? "a" : "b", Store.NO));
+      iw.addDocument(doc);
+    }
+    final IndexReader reader = iw.getReader();
+    final IndexSearcher searcher = newSearcher(reader);
+    iw.close();
+
+    for (int i = 0; i < 100; ++i) {
+      // the terms of the query interleave with the terms of the dictionary
+      final int numQueryTerms = TestUtil.nextInt(random(), 1, 1 << TestUtil.nextInt(random(), 1, 10));
+      List<BytesRef> queryTerms = new ArrayList<>();
+      for (int j = 0; j < numQueryTerms; ++j) {
+        if (random().nextBoolean()) {
+          queryTerms.add(allTerms.get(random().nextInt(allTerms.size())));
+        } else {
+          queryTerms.add(new BytesRef(TestUtil.randomAnalysisString(random(), 10, true)));
+        }
+      }
+      final BooleanQuery.Builder bq = new BooleanQuery.Builder();
+      for (BytesRef t : queryTerms) {
+        bq.add(new TermQuery(new Term(field, t)), Occur.SHOULD);
+      }
+      final Query q1 = new ConstantScoreQuery(bq.build());
+      final Query q2 = new TermInSetQuery(field, queryTerms);
+      assertSameMatches(searcher, q1, q2, false);
+
+      // intersected with another query, the scorer is pulled from the scorer supplier
+      final Query filter = new TermQuery(new Term("g", "a"));
+      assertSameMatches(searcher,
+          new BooleanQuery.Builder().add(filter, Occur.MUST).add(q1, Occur.FILTER).build(),
+          new BooleanQuery.Builder().add(filter, Occur.MUST).add(q2, Occur.FILTER).build(), false);
+    }
+
+    IOUtils.close(reader, dir);
+  }
+
+  public void testScorerSupplierCost() throws IOException {
+    Directory dir = newDirectory();
+    RandomIndexWriter iw = new RandomIndexWriter(random(), dir);
+    final int numDocs = atLeast(100);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      doc.add(new StringField("f", Integer.toString(i % 50), Store.NO));
+      iw.addDocument(doc);
+    }
+    iw.forceMerge(1);
+    final IndexReader reader = iw.getReader();
+    final IndexSearcher searcher = newSearcher(reader, false);
+    iw.close();
+
+    List<BytesRef> queryTerms = new ArrayList<>();
+    for (int i = 0; i < 100; i += 5) {
+      queryTerms.add(new BytesRef(Integer.toString(i)));
+    }
+    final Query query = new TermInSetQuery("f", queryTerms);
+    final Weight weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1);
+    final ScorerSupplier supplier = weight.scorerSupplier(searcher.getIndexReader().leaves().get(0));
+    final Terms terms = searcher.getIndexReader().leaves().get(0).reader().terms("f");
+    final long cost = supplier.cost();
+    assertTrue(cost <= terms.getSumDocFreq());
+    assertTrue(cost >= searcher.count(query));
+    assertNotNull(supplier.get(random().nextInt(numDocs)));
+
+    IOUtils.close(reader, dir);
+  }
+
   private void assertSameMatches(IndexSearcher searcher, Query q1, Query q2, boolean scores) throws IOException {
     final int maxDoc = searcher.getIndexReader().maxDoc();
     final TopDocs td1 = searcher.search(q1, maxDoc, scores ? Sort.RELEVANCE : Sort.INDEXORDER);
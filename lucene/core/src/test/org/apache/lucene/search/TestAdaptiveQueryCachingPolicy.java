@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+import java.io.IOException;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestAdaptiveQueryCachingPolicy extends LuceneTestCase {
+
+  private static Document newDoc(String value) {
+    Document doc = new Document();
+    doc.add(new StringField("f", value, Store.NO));
+    return doc;
+  }
+
+  public void testYoungSegments() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE));
+    w.addDocument(newDoc("abc"));
+    DirectoryReader reader = DirectoryReader.open(w);
+
+    AdaptiveQueryCachingPolicy policy = new AdaptiveQueryCachingPolicy(10, 2);
+    LRUQueryCache cache = new LRUQueryCache(10, Long.MAX_VALUE, context -> true);
+    IndexSearcher searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(cache);
+    searcher.setQueryCachingPolicy(policy);
+
+    // the segment was flushed: the prefix query needs to be used 2x2 times before being cached
+    Query query = new PrefixQuery(new Term("f", "a"));
+    for (int i = 0; i < 3; ++i) {
+      assertEquals(1, searcher.count(query));
+      assertEquals(0, cache.getCacheSize());
+    }
+    assertEquals(1, searcher.count(query));
+    assertEquals(1, cache.getCacheSize());
+    assertEquals(1, policy.numTrackedSegments());
+
+    // the segment gets older as more queries are run
+    for (int i = 0; i < 10; ++i) {
+      searcher.count(new PrefixQuery(new Term("f", "x" + i)));
+    }
+    Query query2 = new PrefixQuery(new Term("f", "ab"));
+    assertEquals(1, searcher.count(query2));
+    assertEquals(1, cache.getCacheSize());
+    assertEquals(1, searcher.count(query2));
+    assertEquals(2, cache.getCacheSize());
+
+    reader.close();
+    w.close();
+    assertEquals(0, policy.numTrackedSegments());
+    dir.close();
+  }
+
+  public void testMergedSegments() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
+    w.addDocument(newDoc("abc"));
+    w.commit();
+    w.addDocument(newDoc("abd"));
+    w.forceMerge(1);
+    DirectoryReader reader = DirectoryReader.open(w);
+    assertEquals(1, reader.leaves().size());
+
+    AdaptiveQueryCachingPolicy policy = new AdaptiveQueryCachingPolicy();
+    LRUQueryCache cache = new LRUQueryCache(10, Long.MAX_VALUE, context -> true);
+    IndexSearcher searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(cache);
+    searcher.setQueryCachingPolicy(policy);
+
+    // the segment was merged: the prefix query is cached as soon as it is used twice
+    Query query = new PrefixQuery(new Term("f", "a"));
+    assertEquals(2, searcher.count(query));
+    assertEquals(0, cache.getCacheSize());
+    assertEquals(2, searcher.count(query));
+    assertEquals(1, cache.getCacheSize());
+    assertEquals(0, policy.numTrackedSegments());
+
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testIllegalFactor() {
+    expectThrows(IllegalArgumentException.class, () -> new AdaptiveQueryCachingPolicy(256, 0));
+  }
+
+}
@@ -0,0 +1,341 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.FloatDocValuesField;
+import org.apache.lucene.document.FloatPoint;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestFieldSortOptimizationSkipping extends LuceneTestCase {
+
+  private static Directory indexLongs(int numDocs, boolean withMissingValues) throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      if (withMissingValues == false || i % 10 != 0) {
+        doc.add(new NumericDocValuesField("my_field", i + 1));
+        doc.add(new LongPoint("my_field", i + 1));
+      }
+      writer.addDocument(doc);
+      if (i == 7000) writer.flush(); // two segments
+    }
+    writer.close();
+    return dir;
+  }
+
+  private static SortField newLongSortField(boolean reverse) {
+    SortField sortField = new SortField("my_field", SortField.Type.LONG, reverse);
+    sortField.setCanUsePoints();
+    return sortField;
+  }
+
+  // hits are only skipped when they are scored all at once, which AssertingIndexSearcher may not do
+  private static TopFieldDocs search(IndexReader reader, Sort sort, FieldDoc after, int numHits, int totalHitsThreshold) throws IOException {
+    IndexSearcher searcher = new IndexSearcher(reader);
+    TopFieldCollector collector = TopFieldCollector.create(sort, numHits, after, totalHitsThreshold);
+    searcher.search(new MatchAllDocsQuery(), collector);
+    return collector.topDocs();
+  }
+
+  public void testLongSortOptimization() throws IOException {
+    final int numDocs = atLeast(10000);
+    Directory dir = indexLongs(numDocs, false);
+    IndexReader reader = DirectoryReader.open(dir);
+
+    final int numHits = 3;
+    TopFieldDocs topDocs = search(reader, new Sort(newLongSortField(false)), null, numHits, numHits);
+    assertEquals(numHits, topDocs.scoreDocs.length);
+    for (int i = 0; i < numHits; i++) {
+      FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+      assertEquals(Long.valueOf(i + 1), fieldDoc.fields[0]);
+    }
+    assertEquals(TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO, topDocs.totalHits.relation);
+    assertTrue(topDocs.totalHits.value < numDocs);
+
+    // hits are counted accurately up to the threshold
+    final int totalHitsThreshold = numDocs - 1;
+    topDocs = search(reader, new Sort(newLongSortField(false)), null, numHits, totalHitsThreshold);
+    assertTrue(topDocs.totalHits.value >= totalHitsThreshold);
+
+    // values increase with doc IDs, so all hits are competitive with a descending sort
+    topDocs = search(reader, new Sort(newLongSortField(true)), null, numHits, numHits);
+    for (int i = 0; i < numHits; i++) {
+      FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+      assertEquals(Long.valueOf(numDocs - i), fieldDoc.fields[0]);
+    }
+
+    // no skipping if points may not be used
+    topDocs = search(reader, new Sort(new SortField("my_field", SortField.Type.LONG)), null, numHits, numHits);
+    assertEquals(numDocs, topDocs.totalHits.value);
+    assertEquals(TotalHits.Relation.EQUAL_TO, topDocs.totalHits.relation);
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testCachingCollectorSeesAllHits() throws IOException {
+    final int numDocs = atLeast(10000);
+    Directory dir = indexLongs(numDocs, false);
+    IndexReader reader = DirectoryReader.open(dir);
+
+    // the caching collector wraps the sorting collector, it must not let it skip hits
+    final int numHits = 3;
+    IndexSearcher searcher = new IndexSearcher(reader);
+    TopFieldCollector topCollector = TopFieldCollector.create(new Sort(newLongSortField(false)), numHits, null, numHits);
+    CachingCollector cachingCollector = CachingCollector.create(topCollector, false, numDocs);
+    searcher.search(new MatchAllDocsQuery(), cachingCollector);
+    assertTrue(cachingCollector.isCached());
+
+    TotalHitCountCollector countCollector = new TotalHitCountCollector();
+    cachingCollector.replay(countCollector);
+    assertEquals(numDocs, countCollector.getTotalHits());
+    TopFieldDocs topDocs = topCollector.topDocs();
+    for (int i = 0; i < numHits; i++) {
+      FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+      assertEquals(Long.valueOf(i + 1), fieldDoc.fields[0]);
+    }
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testSortOptimizationWithSearchAfter() throws IOException {
+    final int numDocs = atLeast(10000);
+    Directory dir = indexLongs(numDocs, false);
+    IndexReader reader = DirectoryReader.open(dir);
+
+    final int numHits = 3;
+    final int afterValue = 2000;
+    FieldDoc after = new FieldDoc(afterValue - 1, Float.NaN, new Long[] { (long) afterValue });
+    TopFieldDocs topDocs = search(reader, new Sort(newLongSortField(false)), after, numHits, numHits);
+    assertEquals(numHits, topDocs.scoreDocs.length);
+    for (int i = 0; i < numHits; i++) {
+      FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+      assertEquals(Long.valueOf(afterValue + 1 + i), fieldDoc.fields[0]);
+    }
+    // documents before the top value are skipped too
+    assertTrue(topDocs.totalHits.value < numDocs - afterValue);
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testSortOptimizationWithMissingValues() throws IOException {
+    final int numDocs = atLeast(10000);
+    Directory dir = indexLongs(numDocs, true);
+    IndexReader reader = DirectoryReader.open(dir);
+    final int numHits = 3;
+
+    // documents without a value are competitive, so they can't be skipped
+    SortField sortField = newLongSortField(false);
+    sortField.setMissingValue(0L);
+    TopFieldDocs topDocs = search(reader, new Sort(sortField), null, numHits, numHits);
+    assertEquals(numDocs, topDocs.totalHits.value);
+    assertEquals(TotalHits.Relation.EQUAL_TO, topDocs.totalHits.relation);
+    for (int i = 0; i < numHits; i++) {
+      assertEquals(Long.valueOf(0), ((FieldDoc) topDocs.scoreDocs[i]).fields[0]);
+    }
+
+    // documents without a value are not competitive
+    sortField = newLongSortField(false);
+    sortField.setMissingValue(Long.MAX_VALUE);
+    topDocs = search(reader, new Sort(sortField), null, numHits, numHits);
+    assertTrue(topDocs.totalHits.value < numDocs);
+    assertEquals(Long.valueOf(2), ((FieldDoc) topDocs.scoreDocs[0]).fields[0]);
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testIndexSort() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriterConfig config = newIndexWriterConfig();
+    config.setIndexSort(new Sort(newLongSortField(false)));
+    IndexWriter writer = new IndexWriter(dir, config);
+    final int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      long value = random().nextInt(numDocs);
+      doc.add(new NumericDocValuesField("my_field", value));
+      doc.add(new LongPoint("my_field", value));
+      writer.addDocument(doc);
+    }
+    writer.close();
+
+    // the index sort that is read back from the segments doesn't know about points
+    config = newIndexWriterConfig();
+    config.setIndexSort(new Sort(newLongSortField(false)));
+    writer = new IndexWriter(dir, config);
+    writer.addDocument(new Document());
+    writer.forceMerge(1);
+    writer.close();
+
+    // the search sort is still a prefix of the index sort
+    IndexReader reader = DirectoryReader.open(dir);
+    final int numHits = 3;
+    IndexSearcher searcher = new IndexSearcher(reader);
+    TopFieldCollector collector = TopFieldCollector.create(new Sort(newLongSortField(false)), numHits, null, numHits);
+    searcher.search(new MatchAllDocsQuery(), collector);
+    assertTrue(collector.isEarlyTerminated());
+    TopFieldDocs topDocs = collector.topDocs();
+    assertEquals(TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO, topDocs.totalHits.relation);
+    assertTrue(topDocs.totalHits.value < numDocs);
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testIllegalPoints() throws IOException {
+    Directory dir = indexLongs(10, false);
+    IndexReader reader = DirectoryReader.open(dir);
+    SortField sortField = new SortField("my_field", SortField.Type.INT);
+    sortField.setCanUsePoints();
+    IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+        () -> search(reader, new Sort(sortField), null, 3, 3));
+    assertTrue(e.getMessage().contains("bytesPerDim=8"));
+    reader.close();
+    dir.close();
+  }
+
+  public void testRandom() throws IOException {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    final int numDocs = atLeast(5000);
+    final int maxValue = random().nextBoolean() ? 100 : 1000000;
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      doc.add(new StringField("id", Integer.toString(i), Store.NO));
+      doc.add(new StringField("tag", random().nextInt(3) == 0 ? "a" : "b", Store.NO));
+      if (random().nextInt(20) != 0) {
+        int value = random().nextInt(maxValue);
+        doc.add(new IntPoint("int", value));
+        doc.add(new NumericDocValuesField("int", value));
+        doc.add(new FloatPoint("float", value / 7f));
+        doc.add(new FloatDocValuesField("float", value / 7f));
+        doc.add(new LongPoint("multi", value));
+        doc.add(new LongPoint("multi", value + 5));
+        doc.add(new SortedNumericDocValuesField("multi", value));
+        doc.add(new SortedNumericDocValuesField("multi", value + 5));
+      }
+      w.addDocument(doc);
+      if (random().nextInt(500) == 0) {
+        w.deleteDocuments(new Term("id", Integer.toString(random().nextInt(i + 1))));
+      }
+    }
+    IndexReader reader = w.getReader();
+    w.close();
+    IndexSearcher searcher = newSearcher(reader);
+
+    for (int iter = 0; iter < 50; ++iter) {
+      final boolean reverse = random().nextBoolean();
+      SortField expected, actual;
+      switch (random().nextInt(3)) {
+        case 0:
+          expected = new SortField("int", SortField.Type.INT, reverse);
+          actual = new SortField("int", SortField.Type.INT, reverse);
+          if (random().nextBoolean()) {
+            Integer missingValue = random().nextBoolean() ? random().nextInt(maxValue) : Integer.MAX_VALUE;
+            expected.setMissingValue(missingValue);
+            actual.setMissingValue(missingValue);
+          }
+          break;
+        case 1:
+          expected = new SortField("float", SortField.Type.FLOAT, reverse);
+          actual = new SortField("float", SortField.Type.FLOAT, reverse);
+          if (random().nextBoolean()) {
+            Float missingValue = random().nextBoolean() ? random().nextFloat() * maxValue : Float.NEGATIVE_INFINITY;
+            expected.setMissingValue(missingValue);
+            actual.setMissingValue(missingValue);
+          }
+          break;
+        default:
+          SortedNumericSelector.Type selector = random().nextBoolean() ? SortedNumericSelector.Type.MIN : SortedNumericSelector.Type.MAX;
+          expected = new SortedNumericSortField("multi", SortField.Type.LONG, reverse, selector);
+          actual = new SortedNumericSortField("multi", SortField.Type.LONG, reverse, selector);
+          break;
+      }
+      actual.setCanUsePoints();
+      final boolean tieBreak = random().nextBoolean();
+      Sort expectedSort = tieBreak ? new Sort(expected, SortField.FIELD_DOC) : new Sort(expected);
+      Sort actualSort = tieBreak ? new Sort(actual, SortField.FIELD_DOC) : new Sort(actual);
+
+      Query query;
+      switch (random().nextInt(3)) {
+        case 0:
+          query = new MatchAllDocsQuery();
+          break;
+        case 1:
+          query = new TermQuery(new Term("tag", "a"));
+          break;
+        default:
+          query = new BooleanQuery.Builder()
+              .add(new MatchAllDocsQuery(), Occur.MUST)
+              .add(new TermQuery(new Term("tag", "b")), Occur.FILTER)
+              .build();
+          break;
+      }
+
+      final int numHits = TestUtil.nextInt(random(), 1, 50);
+      final int totalHitsThreshold = TestUtil.nextInt(random(), 1, 1000);
+      FieldDoc after = null;
+      for (int page = 0; page < 3; ++page) {
+        TopFieldCollector expectedCollector = TopFieldCollector.create(expectedSort, numHits, after, Integer.MAX_VALUE);
+        TopFieldCollector actualCollector = TopFieldCollector.create(actualSort, numHits, after, totalHitsThreshold);
+        searcher.search(query, expectedCollector);
+        searcher.search(query, actualCollector);
+        TopFieldDocs expectedDocs = expectedCollector.topDocs();
+        TopFieldDocs actualDocs = actualCollector.topDocs();
+        CheckHits.checkEqual(query, expectedDocs.scoreDocs, actualDocs.scoreDocs);
+        for (int i = 0; i < expectedDocs.scoreDocs.length; ++i) {
+          assertArrayEquals(((FieldDoc) expectedDocs.scoreDocs[i]).fields, ((FieldDoc) actualDocs.scoreDocs[i]).fields);
+        }
+        assertTrue(actualDocs.totalHits.value <= expectedDocs.totalHits.value);
+        assertTrue(actualDocs.totalHits.value >= Math.min(totalHitsThreshold, expectedDocs.totalHits.value));
+        if (actualDocs.totalHits.relation == TotalHits.Relation.EQUAL_TO) {
+          assertEquals(expectedDocs.totalHits.value, actualDocs.totalHits.value);
+        }
+        if (expectedDocs.scoreDocs.length == 0) {
+          break;
+        }
+        after = (FieldDoc) expectedDocs.scoreDocs[expectedDocs.scoreDocs.length - 1];
+      }
+    }
+
+    reader.close();
+    dir.close();
+  }
+}
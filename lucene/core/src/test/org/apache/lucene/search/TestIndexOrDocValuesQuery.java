@@ -17,11 +17,13 @@
 package org.apache.lucene.search;
 
 import java.io.IOException;
+import java.util.Locale;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
@@ -29,6 +31,7 @@ import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.LuceneTestCase;
 import org.apache.lucene.util.TestUtil;
 
@@ -86,4 +89,51 @@ public class TestIndexOrDocValuesQuery extends LuceneTestCase {
     dir.close();
   }
 
+  public void testTermRangesAndPrefixes() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
+    for (int i = 0; i < 2000; ++i) {
+      Document doc = new Document();
+      String id = String.format(Locale.ROOT, "%04d", i);
+      doc.add(new StringField("f1", i == 100 ? "foo" : "bar", Store.NO));
+      doc.add(new StringField("f2", id, Store.NO));
+      doc.add(new SortedDocValuesField("f2", new BytesRef(id)));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    IndexReader reader = DirectoryReader.open(w);
+    IndexSearcher searcher = newSearcher(reader);
+    searcher.setQueryCache(null);
+
+    // The term query is more selective than the range, so the IndexOrDocValuesQuery should use doc values
+    final Query q1 = new BooleanQuery.Builder()
+        .add(new TermQuery(new Term("f1", "foo")), Occur.MUST)
+        .add(new IndexOrDocValuesQuery(
+            TermRangeQuery.newStringRange("f2", "0050", "1500", true, true),
+            SortedDocValuesField.newSlowRangeQuery("f2", new BytesRef("0050"), new BytesRef("1500"), true, true)), Occur.MUST)
+        .build();
+
+    final Weight w1 = searcher.createWeight(searcher.rewrite(q1), ScoreMode.COMPLETE, 1);
+    final Scorer s1 = w1.scorer(searcher.getIndexReader().leaves().get(0));
+    assertNotNull(s1.twoPhaseIterator()); // means we use doc values
+    assertEquals(1, searcher.count(q1));
+
+    // The prefix is more selective than the term query, so the IndexOrDocValuesQuery should use postings
+    PrefixQuery dvPrefix = new PrefixQuery(new Term("f2", "004"));
+    dvPrefix.setRewriteMethod(new DocValuesRewriteMethod());
+    final Query q2 = new BooleanQuery.Builder()
+        .add(new TermQuery(new Term("f1", "bar")), Occur.MUST)
+        .add(new IndexOrDocValuesQuery(new PrefixQuery(new Term("f2", "004")), dvPrefix), Occur.MUST)
+        .build();
+
+    final Weight w2 = searcher.createWeight(searcher.rewrite(q2), ScoreMode.COMPLETE, 1);
+    final Scorer s2 = w2.scorer(searcher.getIndexReader().leaves().get(0));
+    assertNull(s2.twoPhaseIterator()); // means we use postings
+    assertEquals(10, searcher.count(q2));
+
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
 }
@@ -598,6 +598,49 @@ public class TestLRUQueryCache extends LuceneTestCase {
     dir.close();
   }
 
+  public void testWastedCacheCount() throws IOException {
+    final LRUQueryCache queryCache = new LRUQueryCache(1, 10000000, context -> true);
+
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    for (String color : Arrays.asList("blue", "red")) {
+      Document doc = new Document();
+      doc.add(new StringField("color", color, Store.NO));
+      w.addDocument(doc);
+    }
+
+    final DirectoryReader reader = w.getReader();
+    final int segmentCount = reader.leaves().size();
+    final IndexSearcher searcher = new IndexSearcher(reader);
+    final Query query = new TermQuery(new Term("color", "red"));
+    final Query query2 = new TermQuery(new Term("color", "blue"));
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+
+    // cached, then hit
+    searcher.search(new ConstantScoreQuery(query), 1);
+    searcher.search(new ConstantScoreQuery(query), 1);
+    assertEquals(0, queryCache.getWastedCacheCount());
+
+    // evicted after having been hit
+    searcher.search(new ConstantScoreQuery(query2), 1);
+    assertEquals(1 * segmentCount, queryCache.getEvictionCount());
+    assertEquals(0, queryCache.getWastedCacheCount());
+
+    // evicted before having been hit
+    searcher.search(new ConstantScoreQuery(query), 1);
+    assertEquals(2 * segmentCount, queryCache.getEvictionCount());
+    assertEquals(1 * segmentCount, queryCache.getWastedCacheCount());
+
+    // segment cores closed before having been hit
+    reader.close();
+    w.close();
+    assertEquals(3 * segmentCount, queryCache.getEvictionCount());
+    assertEquals(2 * segmentCount, queryCache.getWastedCacheCount());
+
+    dir.close();
+  }
+
   public void testFineGrainedStats() throws IOException {
     Directory dir1 = newDirectory();
     final RandomIndexWriter w1 = new RandomIndexWriter(random(), dir1);
@@ -1198,6 +1198,56 @@ public class TestFSTs extends LuceneTestCase {
     dir.close();
   }
 
+  public void testOffHeapFSTStore() throws Exception {
+    final PositiveIntOutputs outputs = PositiveIntOutputs.getSingleton();
+    final Builder<Long> b = new Builder<>(FST.INPUT_TYPE.BYTE1, outputs);
+    final Set<BytesRef> terms = new TreeSet<>();
+    final int numTerms = atLeast(200);
+    while (terms.size() < numTerms) {
+      terms.add(new BytesRef(TestUtil.randomSimpleString(random(), 1, 10)));
+    }
+    final IntsRefBuilder scratch = new IntsRefBuilder();
+    long ord = 0;
+    for (BytesRef term : terms) {
+      b.add(Util.toIntsRef(term, scratch), ord++);
+    }
+    final FST<Long> fst = b.finish();
+
+    Directory dir = newDirectory();
+    IndexOutput out = dir.createOutput("fst", IOContext.DEFAULT);
+    fst.save(out);
+    out.writeInt(42);
+    out.close();
+
+    IndexInput in = dir.openInput("fst", IOContext.DEFAULT);
+    final FST<Long> offHeap = new FST<>(in, outputs, new OffHeapFSTStore());
+    // the input must be positioned after the FST, like with an on-heap store
+    assertEquals(42, in.readInt());
+    assertEquals(fst.numBytes(), offHeap.numBytes());
+    assertTrue(offHeap.ramBytesUsed() < fst.ramBytesUsed());
+
+    ord = 0;
+    for (BytesRef term : terms) {
+      assertEquals(Long.valueOf(ord++), Util.get(offHeap, term));
+    }
+    assertNull(Util.get(offHeap, new BytesRef("not a simple string")));
+
+    // saving an off-heap FST copies its bytes from the input
+    out = dir.createOutput("fst2", IOContext.DEFAULT);
+    offHeap.save(out);
+    out.close();
+    IndexInput in2 = dir.openInput("fst2", IOContext.DEFAULT);
+    final FST<Long> onHeap = new FST<>(in2, outputs);
+    in2.close();
+    ord = 0;
+    for (BytesRef term : terms) {
+      assertEquals(Long.valueOf(ord++), Util.get(onHeap, term));
+    }
+
+    in.close();
+    dir.close();
+  }
+
   private void checkStopNodes(FST<Long> fst, PositiveIntOutputs outputs) throws Exception {
     final Long nothing = outputs.getNoOutput();
     FST.Arc<Long> startArc = fst.getFirstArc(new FST.Arc<Long>());
@@ -45,6 +45,7 @@ import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.MultiPhraseQuery;
@@ -168,6 +169,8 @@ public class WeightedSpanTermExtractor {
       if (q != null) {
         extract(q, boost, terms);
       }
+    } else if (query instanceof IndexOrDocValuesQuery) {
+      extract(((IndexOrDocValuesQuery) query).getIndexQuery(), boost, terms);
     } else if (query instanceof CommonTermsQuery) {
       // specialized since rewriting would change the result query 
       // this query is index sensitive.
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search.uhighlight;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.memory.MemoryIndex;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.IOSupplier;
+
+/**
+ * A bounded, least recently used cache of the analyzed content of highlighted documents, for the fields that are
+ * highlighted with {@link UnifiedHighlighter.OffsetSource#ANALYSIS}. A cached document is only re-analyzed once it
+ * has been evicted, and unlike term vectors nothing is stored in the index. The entries of a segment are dropped
+ * when the segment is closed.
+ * <p>
+ * The size is bounded by the memory of the cached {@link MemoryIndex} instances, as reported by
+ * {@link MemoryIndex#ramBytesUsed()}. Each of them allocates at least a byte block and an int block, 64KB, even for
+ * a short content. This class is thread-safe and meant to be shared by the highlighters of an index.
+ *
+ * @see UnifiedHighlighter#setAnalysisOffsetsCache(AnalysisOffsetsCache)
+ * @lucene.experimental
+ */
+public class AnalysisOffsetsCache implements Accountable {
+
+  private final Predicate<String> fieldMatcher;
+  private final long maxRamBytes;
+  private final Map<Key, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+  private final Set<IndexReader.CacheKey> segments = new HashSet<>();
+  private long ramBytesUsed;
+  private long hitCount;
+  private long missCount;
+
+  /**
+   * @param fieldMatcher the fields to cache
+   * @param maxRamBytes  the max memory of the cached analysis
+   */
+  public AnalysisOffsetsCache(Predicate<String> fieldMatcher, long maxRamBytes) {
+    if (maxRamBytes < 0) {
+      throw new IllegalArgumentException("maxRamBytes must be >= 0, got " + maxRamBytes);
+    }
+    this.fieldMatcher = Objects.requireNonNull(fieldMatcher);
+    this.maxRamBytes = maxRamBytes;
+  }
+
+  /** Whether the analysis of this field is cached */
+  public boolean accepts(String field) {
+    return fieldMatcher.test(field);
+  }
+
+  /**
+   * Returns the cached analysis of the content of a document, a reader with a single document, or computes it
+   * with the given supplier. Documents of readers that can't be cached by core, or whose analysis is too large to
+   * be cached, are always analyzed.
+   */
+  LeafReader get(LeafReader reader, String field, int docId, String content, IOSupplier<MemoryIndex> analyzer)
+      throws IOException {
+    IndexReader.CacheHelper cacheHelper = reader == null ? null : reader.getCoreCacheHelper();
+    if (cacheHelper == null) {
+      return toReader(analyzer.get());
+    }
+
+    Key key = new Key(cacheHelper.getKey(), field, docId, content);
+    synchronized (this) {
+      Entry cached = cache.get(key);
+      if (cached != null) {
+        hitCount++;
+        return cached.reader;
+      }
+      missCount++;
+    }
+
+    // analyze outside of the lock, concurrent misses of the same document are rare and harmless
+    MemoryIndex memoryIndex = analyzer.get();
+    Entry analyzed = new Entry(toReader(memoryIndex), memoryIndex.ramBytesUsed());
+    if (analyzed.ramBytes > maxRamBytes) {
+      return analyzed.reader;
+    }
+    synchronized (this) {
+      if (segments.add(key.segment)) {
+        cacheHelper.addClosedListener(this::clearSegment);
+      }
+      Entry previous = cache.put(key, analyzed);
+      if (previous != null) {
+        ramBytesUsed -= previous.ramBytes;
+      }
+      ramBytesUsed += analyzed.ramBytes;
+      for (Iterator<Entry> it = cache.values().iterator(); ramBytesUsed > maxRamBytes && it.hasNext(); ) {
+        ramBytesUsed -= it.next().ramBytes;
+        it.remove();
+      }
+    }
+    return analyzed.reader;
+  }
+
+  private static LeafReader toReader(MemoryIndex memoryIndex) {
+    return (LeafReader) memoryIndex.createSearcher().getIndexReader();
+  }
+
+  private synchronized void clearSegment(IndexReader.CacheKey segment) {
+    segments.remove(segment);
+    for (Iterator<Map.Entry<Key, Entry>> it = cache.entrySet().iterator(); it.hasNext(); ) {
+      Map.Entry<Key, Entry> entry = it.next();
+      if (entry.getKey().segment == segment) {
+        ramBytesUsed -= entry.getValue().ramBytes;
+        it.remove();
+      }
+    }
+  }
+
+  /** Removes all entries */
+  public synchronized void clear() {
+    cache.clear();
+    segments.clear();
+    ramBytesUsed = 0;
+  }
+
+  /** The number of cached documents */
+  public synchronized int size() {
+    return cache.size();
+  }
+
+  /** The memory of the cached analysis */
+  @Override
+  public synchronized long ramBytesUsed() {
+    return ramBytesUsed;
+  }
+
+  /** The number of lookups that found the analysis in the cache */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /** The number of lookups that had to analyze the content */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  private static final class Entry {
+    final LeafReader reader;
+    final long ramBytes;
+
+    Entry(LeafReader reader, long ramBytes) {
+      this.reader = reader;
+      this.ramBytes = ramBytes;
+    }
+  }
+
+  private static final class Key {
+    final IndexReader.CacheKey segment;
+    final String field;
+    final int docId;
+    // the content depends on the max length and on how the values are loaded, so it is part of the key
+    final int length;
+    final int contentHash;
+
+    Key(IndexReader.CacheKey segment, String field, int docId, String content) {
+      this.segment = segment;
+      this.field = field;
+      this.docId = docId;
+      this.length = content.length();
+      this.contentHash = content.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == null || obj.getClass() != Key.class) {
+        return false;
+      }
+      Key that = (Key) obj;
+      return segment == that.segment && docId == that.docId && length == that.length
+          && contentHash == that.contentHash && field.equals(that.field);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * (31 * segment.hashCode() + field.hashCode()) + docId) + contentHash;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search.uhighlight;
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.memory.MemoryIndex;
+
+/**
+ * Like {@link MemoryIndexOffsetStrategy}, but the {@link MemoryIndex} holds all the terms of the content rather
+ * than the ones of the query, so that it can be kept in an {@link AnalysisOffsetsCache} and reused by later
+ * queries.
+ *
+ * @lucene.internal
+ */
+public class CachedAnalysisOffsetStrategy extends AnalysisOffsetStrategy {
+
+  private final AnalysisOffsetsCache cache;
+
+  public CachedAnalysisOffsetStrategy(UHComponents components, Analyzer analyzer, AnalysisOffsetsCache cache) {
+    super(components, analyzer);
+    this.cache = cache;
+  }
+
+  @Override
+  public OffsetsEnum getOffsetsEnum(LeafReader reader, int docId, String content) throws IOException {
+    LeafReader analyzed = cache.get(reader, getField(), docId, content, () -> analyze(content));
+    if (reader == null) {
+      return createOffsetsEnumFromReader(analyzed, 0);
+    } else {
+      return createOffsetsEnumFromReader(
+          new OverlaySingleDocTermsLeafReader(
+              reader,
+              analyzed,
+              getField(),
+              docId),
+          docId);
+    }
+  }
+
+  private MemoryIndex analyze(String content) throws IOException {
+    // payloads might be needed by position sensitive queries
+    MemoryIndex memoryIndex = new MemoryIndex(true, true);//true==store offsets
+    memoryIndex.addField(getField(), tokenStream(content));//note: calls tokenStream.reset() & close()
+    memoryIndex.freeze(); // the cached reader may be used by several threads
+    return memoryIndex;
+  }
+}
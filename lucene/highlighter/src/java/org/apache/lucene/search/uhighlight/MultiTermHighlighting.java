@@ -31,6 +31,7 @@ import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.DisjunctionMaxQuery;
 import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.spans.SpanBoostQuery;
 import org.apache.lucene.search.spans.SpanMultiTermQueryWrapper;
@@ -83,6 +84,9 @@ class MultiTermHighlighting {
     } else if (query instanceof BoostQuery) {
       list.addAll(Arrays.asList(extractAutomata(((BoostQuery) query).getQuery(), fieldMatcher, lookInSpan,
           preRewriteFunc)));
+    } else if (query instanceof IndexOrDocValuesQuery) {
+      list.addAll(Arrays.asList(extractAutomata(((IndexOrDocValuesQuery) query).getIndexQuery(), fieldMatcher,
+          lookInSpan, preRewriteFunc)));
     } else if (query instanceof FunctionScoreQuery) {
       list.addAll(Arrays.asList(extractAutomata(((FunctionScoreQuery) query).getWrappedQuery(), fieldMatcher,
           lookInSpan, preRewriteFunc)));
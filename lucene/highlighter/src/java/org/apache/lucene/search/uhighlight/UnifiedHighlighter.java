@@ -139,6 +139,8 @@ public class UnifiedHighlighter {
 
   private int cacheFieldValCharsThreshold = DEFAULT_CACHE_CHARS_THRESHOLD;
 
+  private AnalysisOffsetsCache analysisOffsetsCache; // null means analyze every time
+
   /**
    * Calls {@link Weight#extractTerms(Set)} on an empty index for the query.
    */
@@ -199,6 +201,14 @@ public class UnifiedHighlighter {
     this.cacheFieldValCharsThreshold = cacheFieldValCharsThreshold;
   }
 
+  /**
+   * Caches the analysis of the fields accepted by the cache when their {@link OffsetSource} is
+   * {@link OffsetSource#ANALYSIS}. The cache can be shared by several highlighters of the same index.
+   */
+  public void setAnalysisOffsetsCache(AnalysisOffsetsCache analysisOffsetsCache) {
+    this.analysisOffsetsCache = analysisOffsetsCache;
+  }
+
   public void setFieldMatcher(Predicate<String> predicate) {
     this.defaultFieldMatcher = predicate;
   }
@@ -304,6 +314,11 @@ public class UnifiedHighlighter {
     return cacheFieldValCharsThreshold;
   }
 
+  /** The cache of the analysis of the fields highlighted with {@link OffsetSource#ANALYSIS}, or null */
+  public AnalysisOffsetsCache getAnalysisOffsetsCache() {
+    return analysisOffsetsCache;
+  }
+
   /**
    * ... as passed in from constructor.
    */
@@ -758,7 +773,7 @@ public class UnifiedHighlighter {
     CharacterRunAutomaton[] automata = getAutomata(field, query, highlightFlags);
     OffsetSource offsetSource = getOptimizedOffsetSource(field, terms, phraseHelper, automata);
     UHComponents components = new UHComponents(field, fieldMatcher, query, terms, phraseHelper, automata, highlightFlags);
-    return new FieldHighlighter(field,
+    return newFieldHighlighter(field,
         getOffsetStrategy(offsetSource, components),
         new SplittingBreakIterator(getBreakIterator(field), UnifiedHighlighter.MULTIVAL_SEP_CHAR),
         getScorer(field),
@@ -767,6 +782,18 @@ public class UnifiedHighlighter {
         getFormatter(field));
   }
 
+  /**
+   * Creates the {@link FieldHighlighter} of a field from its components. Subclasses may return a subclass, for
+   * instance to instrument {@link FieldHighlighter#highlightFieldForDoc}.
+   */
+  protected FieldHighlighter newFieldHighlighter(String field, FieldOffsetStrategy fieldOffsetStrategy,
+                                                 BreakIterator breakIterator, PassageScorer passageScorer,
+                                                 int maxPassages, int maxNoHighlightPassages,
+                                                 PassageFormatter passageFormatter) {
+    return new FieldHighlighter(field, fieldOffsetStrategy, breakIterator, passageScorer, maxPassages,
+        maxNoHighlightPassages, passageFormatter);
+  }
+
   protected static BytesRef[] filterExtractedTerms(Predicate<String> fieldMatcher, Set<Term> queryTerms) {
     // Strip off the redundant field and sort the remaining terms
     SortedSet<BytesRef> filteredTerms = new TreeSet<>();
@@ -857,7 +884,9 @@ public class UnifiedHighlighter {
   protected FieldOffsetStrategy getOffsetStrategy(OffsetSource offsetSource, UHComponents components) {
     switch (offsetSource) {
       case ANALYSIS:
-        if (!components.getPhraseHelper().hasPositionSensitivity() &&
+        if (analysisOffsetsCache != null && analysisOffsetsCache.accepts(components.getField())) {
+          return new CachedAnalysisOffsetStrategy(components, getIndexAnalyzer(), analysisOffsetsCache);
+        } else if (!components.getPhraseHelper().hasPositionSensitivity() &&
             !components.getHighlightFlags().contains(HighlightFlag.PASSAGE_RELEVANCY_OVER_SPEED) &&
             !components.getHighlightFlags().contains(HighlightFlag.WEIGHT_MATCHES)) {
           //skip using a memory index since it's pure term filtering
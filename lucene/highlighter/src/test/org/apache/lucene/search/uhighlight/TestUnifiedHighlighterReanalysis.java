@@ -20,14 +20,21 @@ import java.io.IOException;
 
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PhraseQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.LuceneTestCase;
 import org.junit.Test;
@@ -69,4 +76,64 @@ public class TestUnifiedHighlighterReanalysis extends LuceneTestCase {
     }
   }
 
+  @Test
+  public void testAnalysisOffsetsCache() throws IOException {
+    try (Directory directory = newDirectory()) {
+      try (RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory, indexAnalyzer)) {
+        int numDocs = atLeast(10);
+        for (int i = 0; i < numDocs; i++) {
+          Document doc = new Document();
+          // stored without offsets, so it is highlighted from its analysis
+          doc.add(new Field("body", "This is test number " + i + ". Just a test highlighting from the analysis. " +
+              (i % 2 == 0 ? "Highlighting again." : "Nothing else."), TextField.TYPE_STORED));
+          indexWriter.addDocument(doc);
+        }
+        indexWriter.commit();
+      }
+
+      AnalysisOffsetsCache cache = new AnalysisOffsetsCache("body"::equals, Long.MAX_VALUE);
+      try (IndexReader indexReader = DirectoryReader.open(directory)) {
+        IndexSearcher searcher = new IndexSearcher(indexReader);
+        UnifiedHighlighter expected = new UnifiedHighlighter(searcher, indexAnalyzer);
+        UnifiedHighlighter cached = new UnifiedHighlighter(searcher, indexAnalyzer);
+        cached.setAnalysisOffsetsCache(cache);
+
+        Query[] queries = new Query[] {
+            new TermQuery(new Term("body", "highlighting")),
+            new PhraseQuery("body", "just", "a", "test"),
+            new BooleanQuery.Builder()
+                .add(new TermQuery(new Term("body", "analysis")), BooleanClause.Occur.SHOULD)
+                .add(new PhraseQuery("body", "highlighting", "again"), BooleanClause.Occur.SHOULD)
+                .build()
+        };
+        for (int round = 0; round < 2; round++) {
+          for (Query query : queries) {
+            TopDocs topDocs = searcher.search(query, 100, Sort.INDEXORDER);
+            assertArrayEquals(expected.highlight("body", query, topDocs), cached.highlight("body", query, topDocs));
+          }
+        }
+        assertEquals(indexReader.maxDoc(), cache.size());
+        assertEquals(indexReader.maxDoc(), cache.getMissCount());
+        assertTrue(cache.getHitCount() > 0);
+        assertTrue(cache.ramBytesUsed() > 0);
+
+        // a cache that can only hold half of the analysis evicts the least recently used documents
+        AnalysisOffsetsCache bounded = new AnalysisOffsetsCache("body"::equals, cache.ramBytesUsed() / 2);
+        cached.setAnalysisOffsetsCache(bounded);
+        for (Query query : queries) {
+          TopDocs topDocs = searcher.search(query, 100, Sort.INDEXORDER);
+          assertArrayEquals(expected.highlight("body", query, topDocs), cached.highlight("body", query, topDocs));
+        }
+        assertTrue(bounded.size() < indexReader.maxDoc());
+        assertTrue(bounded.ramBytesUsed() <= cache.ramBytesUsed() / 2);
+        bounded.clear();
+        assertEquals(0, bounded.size());
+        assertEquals(0, bounded.ramBytesUsed());
+      }
+      // the segments are closed
+      assertEquals(0, cache.size());
+      assertEquals(0, cache.ramBytesUsed());
+    }
+  }
+
 }
@@ -183,6 +183,15 @@ public class TestUnifiedHighlighterExtensibility extends LuceneTestCase {
         return super.getOffsetStrategy(offsetSource, components);
       }
 
+      @Override
+      protected FieldHighlighter newFieldHighlighter(String field, FieldOffsetStrategy fieldOffsetStrategy,
+                                                     BreakIterator breakIterator, PassageScorer passageScorer,
+                                                     int maxPassages, int maxNoHighlightPassages,
+                                                     PassageFormatter passageFormatter) {
+        return new CustomFieldHighlighter(field, fieldOffsetStrategy, breakIterator, passageScorer, maxPassages,
+            maxNoHighlightPassages, passageFormatter);
+      }
+
       @Override
       public int getMaxLength() {
         return maxLength;
@@ -668,6 +668,13 @@ public class MemoryIndex {
       info.freeze();
     }
   }
+
+  /**
+   * Returns the number of bytes allocated by the internal memory pools, which hold the terms, postings and payloads.
+   */
+  public long ramBytesUsed() {
+    return bytesUsed.get();
+  }
   
   /**
    * Convenience method that efficiently returns the relevance score by
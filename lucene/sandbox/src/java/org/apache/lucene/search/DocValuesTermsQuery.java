@@ -28,6 +28,7 @@ import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.PrefixCodedTerms;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.index.PrefixCodedTerms.TermIterator;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
@@ -87,7 +88,14 @@ import org.apache.lucene.util.LongBitSet;
  * perform faster.
  *
  * <p>
- * Which query is best is very application dependent.
+ * The sorted set of terms is intersected with the sorted
+ * terms of the doc values, so the terms dictionary of the
+ * doc values is only sought for the terms that are past
+ * its current term.
+ * <p>
+ * Which query is best is very application dependent. To let
+ * the query planner pick one depending on the other clauses
+ * of the query, wrap both in an {@link IndexOrDocValuesQuery}.
  *
  * @lucene.experimental
  */
@@ -168,17 +176,49 @@ public class DocValuesTermsQuery extends Query {
   public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
     return new ConstantScoreWeight(this, boost) {
 
+      @Override
+      public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+        final SortedSetDocValues values = DocValues.getSortedSet(context.reader(), field);
+        final long cost = values.cost();
+        final Weight weight = this;
+        // only look up the terms if the scorer is needed, e.g. not when an IndexOrDocValuesQuery picks the index
+        return new ScorerSupplier() {
+          @Override
+          public Scorer get(long leadCost) throws IOException {
+            final Scorer scorer = scorer(context);
+            if (scorer == null) {
+              return new ConstantScoreScorer(weight, score(), scoreMode, DocIdSetIterator.empty());
+            }
+            return scorer;
+          }
+
+          @Override
+          public long cost() {
+            return cost;
+          }
+        };
+      }
+
       @Override
       public Scorer scorer(LeafReaderContext context) throws IOException {
         final SortedSetDocValues values = DocValues.getSortedSet(context.reader(), field);
         final LongBitSet bits = new LongBitSet(values.getValueCount());
         boolean matchesAtLeastOneTerm = false;
+        final TermsEnum termsEnum = values.termsEnum();
         TermIterator iterator = termData.iterator();
+        BytesRef valuesTerm = null; // the term termsEnum is positioned on
         for (BytesRef term = iterator.next(); term != null; term = iterator.next()) {
-          final long ord = values.lookupTerm(term);
-          if (ord >= 0) {
+          if (valuesTerm != null && term.compareTo(valuesTerm) < 0) {
+            continue; // between two terms of the doc values
+          }
+          final TermsEnum.SeekStatus status = termsEnum.seekCeil(term);
+          if (status == TermsEnum.SeekStatus.END) {
+            break;
+          }
+          valuesTerm = termsEnum.term();
+          if (status == TermsEnum.SeekStatus.FOUND) {
             matchesAtLeastOneTerm = true;
-            bits.set(ord);
+            bits.set(termsEnum.ord());
           }
         }
         if (matchesAtLeastOneTerm == false) {
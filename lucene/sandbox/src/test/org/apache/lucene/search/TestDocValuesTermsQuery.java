@@ -82,7 +82,12 @@ public class TestDocValuesTermsQuery extends LuceneTestCase {
         final int numQueryTerms = TestUtil.nextInt(random(), 1, 1 << TestUtil.nextInt(random(), 1, 8));
         List<Term> queryTerms = new ArrayList<>();
         for (int j = 0; j < numQueryTerms; ++j) {
-          queryTerms.add(allTerms.get(random().nextInt(allTerms.size())));
+          if (random().nextInt(4) == 0) {
+            // most likely not in the doc values
+            queryTerms.add(new Term("f", TestUtil.randomAnalysisString(random(), 10, true)));
+          } else {
+            queryTerms.add(allTerms.get(random().nextInt(allTerms.size())));
+          }
         }
         final BooleanQuery.Builder bq = new BooleanQuery.Builder();
         for (Term term : queryTerms) {
@@ -17,6 +17,7 @@
 package org.apache.lucene.search.spell;
 
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.MultiTerms;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.Terms;
@@ -27,15 +28,23 @@ import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.AttributeSource;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.CharsRefBuilder;
+import org.apache.lucene.util.ThreadInterruptedException;
 import org.apache.lucene.util.automaton.LevenshteinAutomata;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 /**
  * Simple automaton-based spellchecker.
@@ -85,6 +94,10 @@ public class DirectSpellChecker {
   private Comparator<SuggestWord> comparator = SuggestWordQueue.DEFAULT_COMPARATOR;
   /** the string distance to use */
   private StringDistance distance = INTERNAL_LEVENSHTEIN;
+  /** executor to draw candidates from the segments concurrently, or null */
+  private Executor executor;
+  /** max number of concurrent tasks drawing candidates, negative for one per segment */
+  private int threads;
 
   /** Creates a DirectSpellChecker with default configuration values */
   public DirectSpellChecker() {}
@@ -279,6 +292,40 @@ public class DirectSpellChecker {
     this.distance = distance;
   }
 
+  /**
+   * Get the executor candidates are drawn with, or null if they are drawn in the calling thread.
+   */
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Get the max number of tasks candidates are drawn with.
+   */
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * Set the executor to draw candidates from the term dictionaries of the
+   * segments concurrently, each of up to <code>threads</code> tasks enumerating
+   * a consecutive slice of the segments, the last one in the calling thread.
+   * A negative number of threads means one task per segment. The candidates
+   * of the segments are then merged and ranked with their total document
+   * frequency.
+   * <p>
+   * The default, a null executor or 0 threads, enumerates the merged
+   * term dictionary of all segments in the calling thread.
+   * <p>
+   * Note: with a custom {@link #setDistance(StringDistance) distance}, the
+   * candidates are only ranked by the distance once they are merged, so the
+   * suggestions may slightly differ from the ones drawn in the calling thread.
+   */
+  public void setExecutor(Executor executor, int threads) {
+    this.executor = executor;
+    this.threads = threads;
+  }
+
   /**
    * Calls {@link #suggestSimilar(Term, int, IndexReader, SuggestMode) 
    *       suggestSimilar(term, numSug, ir, SuggestMode.SUGGEST_WHEN_NOT_IN_INDEX)}
@@ -398,6 +445,9 @@ public class DirectSpellChecker {
    */
   protected Collection<ScoreTerm> suggestSimilar(Term term, int numSug, IndexReader ir, int docfreq, int editDistance,
                                                  float accuracy, final CharsRefBuilder spare) throws IOException {
+    if (executor != null && threads != 0 && ir.leaves().size() > 1) {
+      return suggestSimilarConcurrently(term, numSug, ir, docfreq, editDistance, accuracy, spare);
+    }
     
     AttributeSource atts = new AttributeSource();
     MaxNonCompetitiveBoostAttribute maxBoostAtt =
@@ -463,6 +513,135 @@ public class DirectSpellChecker {
     return stQueue;
   }
 
+  /**
+   * Like {@link #suggestSimilar(Term, int, IndexReader, int, int, float, CharsRefBuilder)}, but
+   * draws the candidates of slices of the segments concurrently with the {@link #getExecutor() executor}.
+   */
+  private Collection<ScoreTerm> suggestSimilarConcurrently(Term term, int numSug, IndexReader ir, int docfreq,
+                                                           int editDistance, float accuracy,
+                                                           CharsRefBuilder spare) throws IOException {
+    List<LeafReaderContext> leaves = ir.leaves();
+    int numSlices = threads < 0 ? leaves.size() : Math.min(threads, leaves.size());
+    List<FutureTask<Map<BytesRef, Float>>> futures = new ArrayList<>(numSlices);
+    for (int slice = 0; slice < numSlices; ++slice) {
+      List<LeafReaderContext> sliceLeaves = leaves.subList(leaves.size() * slice / numSlices,
+          leaves.size() * (slice + 1) / numSlices);
+      FutureTask<Map<BytesRef, Float>> future = new FutureTask<>(() -> {
+        Map<BytesRef, Float> candidates = new HashMap<>();
+        for (LeafReaderContext leaf : sliceLeaves) {
+          Terms terms = leaf.reader().terms(term.field());
+          if (terms != null) {
+            collectCandidates(terms, term, numSug, docfreq, editDistance, accuracy, candidates);
+          }
+        }
+        return candidates;
+      });
+      futures.add(future);
+      if (slice == numSlices - 1) {
+        future.run();
+      } else {
+        executor.execute(future);
+      }
+    }
+
+    Map<BytesRef, Float> candidates = new HashMap<>();
+    for (FutureTask<Map<BytesRef, Float>> future : futures) {
+      try {
+        candidates.putAll(future.get());
+      } catch (InterruptedException e) {
+        throw new ThreadInterruptedException(e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new RuntimeException(cause);
+      }
+    }
+
+    // rank the candidates with their docFreq over all segments
+    final PriorityQueue<ScoreTerm> stQueue = new PriorityQueue<>();
+    for (Map.Entry<BytesRef, Float> candidate : candidates.entrySet()) {
+      int df = ir.docFreq(new Term(term.field(), candidate.getKey()));
+      if (df <= docfreq) {
+        continue;
+      }
+      float score = candidate.getValue();
+      final String termAsString;
+      if (distance == INTERNAL_LEVENSHTEIN) {
+        termAsString = null;
+      } else {
+        spare.copyUTF8Bytes(candidate.getKey());
+        termAsString = spare.toString();
+        score = distance.getDistance(term.text(), termAsString);
+      }
+      if (score < accuracy) {
+        continue;
+      }
+      ScoreTerm st = new ScoreTerm();
+      st.term = candidate.getKey();
+      st.boost = score;
+      st.docfreq = df;
+      st.termAsString = termAsString;
+      st.score = score;
+      stQueue.offer(st);
+      if (stQueue.size() > numSug) {
+        stQueue.poll();
+      }
+    }
+    return stQueue;
+  }
+
+  /**
+   * Collects the terms of one segment that may be among the <code>numSug</code> best
+   * suggestions over all segments, with their boost.
+   * <p>
+   * A term with no more than <code>docfreq</code> documents in the segment may still have more over
+   * all segments, so only the terms with more documents in the segment make the others uncompetitive.
+   */
+  private void collectCandidates(Terms terms, Term term, int numSug, int docfreq, int editDistance,
+                                 float accuracy, Map<BytesRef, Float> candidates) throws IOException {
+    AttributeSource atts = new AttributeSource();
+    MaxNonCompetitiveBoostAttribute maxBoostAtt =
+      atts.addAttribute(MaxNonCompetitiveBoostAttribute.class);
+    FuzzyTermsEnum e = new FuzzyTermsEnum(terms, atts, term, editDistance, Math.max(minPrefix, editDistance-1), true);
+    // a custom distance only scores the candidates once they are merged
+    final boolean prune = distance == INTERNAL_LEVENSHTEIN;
+    final PriorityQueue<Float> competitive = new PriorityQueue<>();
+
+    BytesRef queryTerm = new BytesRef(term.text());
+    BytesRef candidateTerm;
+    BoostAttribute boostAtt =
+      e.attributes().addAttribute(BoostAttribute.class);
+    while ((candidateTerm = e.next()) != null) {
+      float boost = boostAtt.getBoost();
+      // terms come in order, so a tie loses against the terms already seen
+      if (prune && (boost < accuracy || (competitive.size() >= numSug && boost <= competitive.peek()))) {
+        continue;
+      }
+
+      // ignore exact match of the same term
+      if (queryTerm.bytesEquals(candidateTerm)) {
+        continue;
+      }
+
+      candidates.put(BytesRef.deepCopyOf(candidateTerm), boost);
+      if (prune && e.docFreq() > docfreq) {
+        competitive.offer(boost);
+        if (competitive.size() > numSug) {
+          competitive.poll();
+        }
+        if (competitive.size() >= numSug) {
+          maxBoostAtt.setMaxNonCompetitiveBoost(competitive.peek());
+        }
+      }
+    }
+  }
+
   /**
    * Holds a spelling correction for internal usage inside {@link DirectSpellChecker}.
    */
@@ -16,6 +16,11 @@
  */
 package org.apache.lucene.search.spell;
 
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.analysis.MockTokenizer;
@@ -28,6 +33,8 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.English;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.NamedThreadFactory;
+import org.apache.lucene.util.TestUtil;
 
 public class TestDirectSpellChecker extends LuceneTestCase {
   
@@ -257,4 +264,51 @@ public class TestDirectSpellChecker extends LuceneTestCase {
     
     IOUtils.close(ir, writer, dir, analyzer);
   }
+
+  // the candidates drawn from the segments concurrently are the same as the ones drawn sequentially
+  public void testExecutor() throws Exception {
+    Directory dir = newDirectory();
+    Analyzer analyzer = new MockAnalyzer(random(), MockTokenizer.SIMPLE, true);
+    RandomIndexWriter writer = new RandomIndexWriter(random(), dir, analyzer);
+
+    for (int i = 0; i < 1000; i++) {
+      Document doc = new Document();
+      doc.add(newTextField("numbers", English.intToEnglish(i), Field.Store.NO));
+      writer.addDocument(doc);
+      if (random().nextInt(100) == 0) {
+        writer.commit();
+      }
+    }
+
+    IndexReader ir = writer.getReader();
+    ExecutorService executor = Executors.newFixedThreadPool(2, new NamedThreadFactory("TestDirectSpellChecker"));
+    try {
+      String[] misspellings = { "fvie", "seevntene", "tousand", "hundrd", "nnie", "twnety", "eihgt" };
+      for (String misspelled : misspellings) {
+        for (SuggestMode mode : SuggestMode.values()) {
+          DirectSpellChecker spellChecker = new DirectSpellChecker();
+          spellChecker.setMaxQueryFrequency(1f);
+          spellChecker.setThresholdFrequency(random().nextInt(3));
+          int numSug = TestUtil.nextInt(random(), 1, 5);
+          SuggestWord[] expected = spellChecker.suggestSimilar(new Term("numbers", misspelled), numSug, ir, mode);
+          spellChecker.setExecutor(executor, random().nextBoolean() ? -1 : TestUtil.nextInt(random(), 1, 4));
+          SuggestWord[] actual = spellChecker.suggestSimilar(new Term("numbers", misspelled), numSug, ir, mode);
+          assertEquals(toString(expected), toString(actual));
+        }
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    IOUtils.close(ir, writer, dir, analyzer);
+  }
+
+  private static String toString(SuggestWord[] suggestions) {
+    String[] strings = new String[suggestions.length];
+    for (int i = 0; i < suggestions.length; i++) {
+      strings[i] = suggestions[i].string + "/" + suggestions[i].freq + "/" + suggestions[i].score;
+    }
+    return Arrays.toString(strings);
+  }
 }
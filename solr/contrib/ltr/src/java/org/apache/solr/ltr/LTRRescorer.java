@@ -31,6 +31,9 @@ import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.Weight;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.handler.component.ResponseBuilder;
+import org.apache.solr.request.SolrRequestInfo;
 import org.apache.solr.search.SolrIndexSearcher;
 
 
@@ -144,51 +147,37 @@ public class LTRRescorer extends Rescorer {
       int topN, LTRScoringQuery.ModelWeight modelWeight, ScoreDoc[] hits, List<LeafReaderContext> leaves,
       ScoreDoc[] reranked) throws IOException {
 
-    int readerUpto = -1;
-    int endDoc = 0;
-    int docBase = 0;
-
-    LTRScoringQuery.ModelWeight.ModelScorer scorer = null;
+    // Extract the features of all the hits first, one segment at a time and
+    // one feature after the other, then score them all with the model.
+    final int numExtractedFeatures = modelWeight.getNumExtractedFeatures();
+    final float[][] extractedFeatureValues = new float[hits.length][numExtractedFeatures];
+    final boolean[][] extractedFeatureUsed = new boolean[hits.length][numExtractedFeatures];
     int hitUpto = 0;
-    final FeatureLogger featureLogger = scoringQuery.getFeatureLogger();
-
     while (hitUpto < hits.length) {
-      final ScoreDoc hit = hits[hitUpto];
-      final int docID = hit.doc;
-      LeafReaderContext readerContext = null;
-      while (docID >= endDoc) {
-        readerUpto++;
-        readerContext = leaves.get(readerUpto);
-        endDoc = readerContext.docBase + readerContext.reader().maxDoc();
-      }
-      // We advanced to another segment
-      if (readerContext != null) {
-        docBase = readerContext.docBase;
-        scorer = modelWeight.scorer(readerContext);
+      final LeafReaderContext readerContext = leaves.get(ReaderUtil.subIndex(hits[hitUpto].doc, leaves));
+      final int endDoc = readerContext.docBase + readerContext.reader().maxDoc();
+      int segmentEnd = hitUpto + 1;
+      while (segmentEnd < hits.length && hits[segmentEnd].doc < endDoc) {
+        segmentEnd++;
       }
-      // Scorer for a LTRScoringQuery.ModelWeight should never be null since we always have to
-      // call score
-      // even if no feature scorers match, since a model might use that info to
-      // return a
-      // non-zero score. Same applies for the case of advancing a LTRScoringQuery.ModelWeight.ModelScorer
-      // past the target
-      // doc since the model algorithm still needs to compute a potentially
-      // non-zero score from blank features.
-      assert (scorer != null);
-      final int targetDoc = docID - docBase;
-      scorer.docID();
-      scorer.iterator().advance(targetDoc);
-
-      scorer.getDocInfo().setOriginalDocScore(hit.score);
-      hit.score = scorer.score();
+      modelWeight.extractFeatures(readerContext, hits, hitUpto, segmentEnd,
+          extractedFeatureValues, extractedFeatureUsed);
+      hitUpto = segmentEnd;
+    }
+    final float[] scores = new float[hits.length];
+    modelWeight.scoreExtractedFeatures(extractedFeatureValues, hits.length, scores);
+    addFeatureExtractionDebugInfo(modelWeight);
+
+    final FeatureLogger featureLogger = scoringQuery.getFeatureLogger();
+    for (hitUpto = 0; hitUpto < hits.length; hitUpto++) {
+      final ScoreDoc hit = hits[hitUpto];
+      hit.score = scores[hitUpto];
       if (hitUpto < topN) {
         reranked[hitUpto] = hit;
         // if the heap is not full, maybe I want to log the features for this
         // document
-        if (featureLogger != null && indexSearcher instanceof SolrIndexSearcher) {
-          featureLogger.log(hit.doc, scoringQuery, (SolrIndexSearcher)indexSearcher,
-              modelWeight.getFeaturesInfo());
-        }
+        logFeatures(featureLogger, indexSearcher, hit, modelWeight,
+            extractedFeatureValues[hitUpto], extractedFeatureUsed[hitUpto]);
       } else if (hitUpto == topN) {
         // collected topN document, I create the heap
         heapify(reranked, topN);
@@ -202,16 +191,44 @@ public class LTRRescorer extends Rescorer {
         if (hit.score > reranked[0].score) {
           reranked[0] = hit;
           heapAdjust(reranked, topN, 0);
-          if (featureLogger != null && indexSearcher instanceof SolrIndexSearcher) {
-            featureLogger.log(hit.doc, scoringQuery, (SolrIndexSearcher)indexSearcher,
-                modelWeight.getFeaturesInfo());
-          }
+          logFeatures(featureLogger, indexSearcher, hit, modelWeight,
+              extractedFeatureValues[hitUpto], extractedFeatureUsed[hitUpto]);
         }
       }
-      hitUpto++;
     }
   }
 
+  private void logFeatures(FeatureLogger featureLogger, IndexSearcher indexSearcher, ScoreDoc hit,
+      LTRScoringQuery.ModelWeight modelWeight, float[] extractedFeatureValues, boolean[] extractedFeatureUsed) {
+    if (featureLogger != null && indexSearcher instanceof SolrIndexSearcher) {
+      modelWeight.loadFeaturesInfo(extractedFeatureValues, extractedFeatureUsed);
+      featureLogger.log(hit.doc, scoringQuery, (SolrIndexSearcher)indexSearcher,
+          modelWeight.getFeaturesInfo());
+    }
+  }
+
+  /**
+   * Reports how long the extraction of each feature took in the debug section
+   * of the response when timing debug information was requested.
+   */
+  private static void addFeatureExtractionDebugInfo(LTRScoringQuery.ModelWeight modelWeight) {
+    final SolrRequestInfo requestInfo = SolrRequestInfo.getRequestInfo();
+    if (requestInfo == null) {
+      return;
+    }
+    final ResponseBuilder rb = requestInfo.getResponseBuilder();
+    if (rb == null || !rb.isDebugTimings()) {
+      return;
+    }
+    final long[] featureExtractionNanos = modelWeight.getFeatureExtractionNanos();
+    final SimpleOrderedMap<Object> featureTimings = new SimpleOrderedMap<>();
+    for (int i = 0; i < featureExtractionNanos.length; ++i) {
+      featureTimings.add(modelWeight.getExtractedFeatureName(i),
+          featureExtractionNanos[i] / 1000000d);
+    }
+    rb.addDebug(featureTimings, "ltr", "featureExtractionTime");
+  }
+
   @Override
   public Explanation explain(IndexSearcher searcher,
       Explanation firstPassExplanation, int docID) throws IOException {
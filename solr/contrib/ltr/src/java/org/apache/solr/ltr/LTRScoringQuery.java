@@ -40,6 +40,7 @@ import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Weight;
@@ -351,6 +352,11 @@ public class LTRScoringQuery extends Query {
      *
      */
     final private FeatureInfo[] featuresInfo;
+
+    // position in extractedFeatureWeights of each of the modelFeatureWeights
+    final private int[] modelFeatureExtractedPositions;
+    // nanoseconds spent by extractFeatures on each of the extractedFeatureWeights
+    final private long[] featureExtractionNanos;
     /*
      * @param modelFeatureWeights
      *     - should be the same size as the number of features used by the model
@@ -368,7 +374,16 @@ public class LTRScoringQuery extends Query {
       this.modelFeatureWeights = modelFeatureWeights;
       this.modelFeatureValuesNormalized = new float[modelFeatureWeights.length];
       this.featuresInfo = new FeatureInfo[allFeaturesSize];
+      this.modelFeatureExtractedPositions = new int[modelFeatureWeights.length];
+      this.featureExtractionNanos = new long[extractedFeatureWeights.length];
       setFeaturesInfo();
+      final int[] extractedPositions = new int[allFeaturesSize];
+      for (int i = 0; i < extractedFeatureWeights.length; ++i) {
+        extractedPositions[extractedFeatureWeights[i].getIndex()] = i;
+      }
+      for (int i = 0; i < modelFeatureWeights.length; ++i) {
+        modelFeatureExtractedPositions[i] = extractedPositions[modelFeatureWeights[i].getIndex()];
+      }
     }
 
     private void setFeaturesInfo(){
@@ -399,6 +414,95 @@ public class LTRScoringQuery extends Query {
       return extractedFeatureWeights;
     }
 
+    public int getNumExtractedFeatures() {
+      return extractedFeatureWeights.length;
+    }
+
+    public String getExtractedFeatureName(int position) {
+      return extractedFeatureWeights[position].getName();
+    }
+
+    /**
+     * Returns the time in nanoseconds that {@link #extractFeatures} spent on each
+     * extracted feature, in the same order as the columns it fills.
+     */
+    public long[] getFeatureExtractionNanos() {
+      return featureExtractionNanos;
+    }
+
+    /**
+     * Extracts the features of {@code hits[from:to]}, which must all belong to the
+     * given segment and be sorted by doc id. Features are extracted column by
+     * column: the scorer of a feature goes once through all the hits before the
+     * next feature is looked at, instead of every feature scorer being advanced
+     * for every hit.
+     *
+     * @param extractedFeatureValues
+     *          receives, for each hit, the values of the extracted features;
+     *          features that don't match a hit get their default value
+     * @param extractedFeatureUsed
+     *          receives, for each hit, whether each extracted feature matched
+     */
+    public void extractFeatures(LeafReaderContext context, ScoreDoc[] hits, int from, int to,
+        float[][] extractedFeatureValues, boolean[][] extractedFeatureUsed) throws IOException {
+      final DocInfo docInfo = new DocInfo();
+      for (int j = 0; j < extractedFeatureWeights.length; ++j) {
+        final long start = System.nanoTime();
+        final Feature.FeatureWeight featureWeight = extractedFeatureWeights[j];
+        final float defaultValue = featureWeight.getDefaultValue();
+        final Feature.FeatureWeight.FeatureScorer scorer = featureWeight.scorer(context);
+        final DocIdSetIterator iterator;
+        if (scorer != null) {
+          scorer.setDocInfo(docInfo);
+          iterator = scorer.iterator();
+        } else {
+          iterator = null;
+        }
+        for (int i = from; i < to; ++i) {
+          final int doc = hits[i].doc - context.docBase;
+          if (iterator != null && iterator.docID() < doc) {
+            iterator.advance(doc);
+          }
+          if (iterator != null && iterator.docID() == doc) {
+            docInfo.setOriginalDocScore(hits[i].score);
+            extractedFeatureValues[i][j] = scorer.score();
+            extractedFeatureUsed[i][j] = true;
+          } else {
+            extractedFeatureValues[i][j] = defaultValue;
+            extractedFeatureUsed[i][j] = false;
+          }
+        }
+        featureExtractionNanos[j] += System.nanoTime() - start;
+      }
+    }
+
+    /**
+     * Normalizes the features extracted by {@link #extractFeatures} for the
+     * first {@code numDocs} hits and scores them all with the model at once.
+     */
+    public void scoreExtractedFeatures(float[][] extractedFeatureValues, int numDocs, float[] scores) {
+      final float[][] modelFeatureValues = new float[numDocs][modelFeatureWeights.length];
+      for (int i = 0; i < numDocs; ++i) {
+        for (int pos = 0; pos < modelFeatureExtractedPositions.length; ++pos) {
+          modelFeatureValues[i][pos] = extractedFeatureValues[i][modelFeatureExtractedPositions[pos]];
+        }
+        ltrScoringModel.normalizeFeaturesInPlace(modelFeatureValues[i]);
+      }
+      ltrScoringModel.score(modelFeatureValues, numDocs, scores);
+    }
+
+    /**
+     * Loads the features of one hit, as extracted by {@link #extractFeatures},
+     * into {@link #getFeaturesInfo()} so that they can be logged.
+     */
+    public void loadFeaturesInfo(float[] extractedFeatureValues, boolean[] extractedFeatureUsed) {
+      for (int j = 0; j < extractedFeatureWeights.length; ++j) {
+        final FeatureInfo fInfo = featuresInfo[extractedFeatureWeights[j].getIndex()];
+        fInfo.setValue(extractedFeatureValues[j]);
+        fInfo.setUsed(extractedFeatureUsed[j]);
+      }
+    }
+
     /**
      * Goes through all the stored feature values, and calculates the normalized
      * values for all the features that will be used for scoring.
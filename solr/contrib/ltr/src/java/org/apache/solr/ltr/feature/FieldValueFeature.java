@@ -23,16 +23,28 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.util.BytesRef;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.schema.BoolField;
+import org.apache.solr.schema.NumberType;
+import org.apache.solr.schema.NumericFieldType;
+import org.apache.solr.schema.SchemaField;
+import org.apache.solr.search.SolrIndexSearcher;
 
 /**
- * This feature returns the value of a field in the current document
+ * This feature returns the value of a field in the current document.
+ * Single-valued numeric and boolean fields that have docValues are read
+ * from their docValues, other fields from their stored value.
  * Example configuration:
  * <pre>{
   "name":  "rawHits",
@@ -84,13 +96,39 @@ public class FieldValueFeature extends Feature {
 
   public class FieldValueFeatureWeight extends FeatureWeight {
 
+    // the schema field, if its values can be read from docValues
+    private final SchemaField docValuesField;
+
     public FieldValueFeatureWeight(IndexSearcher searcher,
         SolrQueryRequest request, Query originalQuery, Map<String,String[]> efi) {
       super(FieldValueFeature.this, searcher, request, originalQuery, efi);
+      SchemaField schemaField = null;
+      if (searcher instanceof SolrIndexSearcher) {
+        schemaField = ((SolrIndexSearcher) searcher).getSchema().getFieldOrNull(field);
+      }
+      if (schemaField != null && schemaField.hasDocValues() && !schemaField.multiValued()
+          && (schemaField.getType() instanceof NumericFieldType || schemaField.getType() instanceof BoolField)) {
+        docValuesField = schemaField;
+      } else {
+        docValuesField = null;
+      }
     }
 
     @Override
     public FeatureScorer scorer(LeafReaderContext context) throws IOException {
+      if (docValuesField != null) {
+        final FieldInfo fieldInfo = context.reader().getFieldInfos().fieldInfo(field);
+        final DocValuesType docValuesType = fieldInfo == null ? DocValuesType.NONE : fieldInfo.getDocValuesType();
+        if (docValuesType == DocValuesType.NUMERIC && docValuesField.getType() instanceof NumericFieldType) {
+          return new NumericDocValuesFieldValueFeatureScorer(this, context,
+              DocIdSetIterator.all(DocIdSetIterator.NO_MORE_DOCS),
+              DocValues.getNumeric(context.reader(), field), docValuesField.getType().getNumberType());
+        } else if (docValuesType == DocValuesType.SORTED && docValuesField.getType() instanceof BoolField) {
+          return new SortedDocValuesFieldValueFeatureScorer(this, context,
+              DocIdSetIterator.all(DocIdSetIterator.NO_MORE_DOCS),
+              DocValues.getSorted(context.reader(), field));
+        }
+      }
       return new FieldValueFeatureScorer(this, context,
           DocIdSetIterator.all(DocIdSetIterator.NO_MORE_DOCS));
     }
@@ -146,5 +184,80 @@ public class FieldValueFeature extends Feature {
         return Float.POSITIVE_INFINITY;
       }
     }
+
+    /**
+     * Reads the value of a single-valued numeric field from its docValues.
+     * Documents without a value get the default value, like documents without
+     * a stored value do.
+     */
+    public class NumericDocValuesFieldValueFeatureScorer extends FeatureScorer {
+
+      final private NumericDocValues docValues;
+      final private NumberType numberType;
+
+      public NumericDocValuesFieldValueFeatureScorer(FeatureWeight weight,
+          LeafReaderContext context, DocIdSetIterator itr,
+          NumericDocValues docValues, NumberType numberType) {
+        super(weight, itr);
+        this.docValues = docValues;
+        this.numberType = numberType;
+      }
+
+      @Override
+      public float score() throws IOException {
+        if (!docValues.advanceExact(itr.docID())) {
+          return getDefaultValue();
+        }
+        final long value = docValues.longValue();
+        switch (numberType) {
+          case FLOAT:
+            return Float.intBitsToFloat((int) value);
+          case DOUBLE:
+            return (float) Double.longBitsToDouble(value);
+          default:
+            return value;
+        }
+      }
+
+      @Override
+      public float getMaxScore(int upTo) throws IOException {
+        return Float.POSITIVE_INFINITY;
+      }
+    }
+
+    /**
+     * Reads the value of a single-valued boolean field from its docValues.
+     */
+    public class SortedDocValuesFieldValueFeatureScorer extends FeatureScorer {
+
+      final private SortedDocValues docValues;
+
+      public SortedDocValuesFieldValueFeatureScorer(FeatureWeight weight,
+          LeafReaderContext context, DocIdSetIterator itr, SortedDocValues docValues) {
+        super(weight, itr);
+        this.docValues = docValues;
+      }
+
+      @Override
+      public float score() throws IOException {
+        if (docValues.advanceExact(itr.docID())) {
+          final BytesRef bytes = docValues.binaryValue();
+          if (bytes.length == 1) {
+            if (bytes.bytes[bytes.offset] == BoolField.TRUE_TOKEN[0]) {
+              return 1;
+            }
+            if (bytes.bytes[bytes.offset] == BoolField.FALSE_TOKEN[0]) {
+              return 0;
+            }
+          }
+        }
+        return getDefaultValue();
+      }
+
+      @Override
+      public float getMaxScore(int upTo) throws IOException {
+        return Float.POSITIVE_INFINITY;
+      }
+    }
   }
 }
@@ -259,6 +259,25 @@ public abstract class LTRScoringModel {
    */
   public abstract float score(float[] modelFeatureValuesNormalized);
 
+  /**
+   * Scores a batch of documents. The default implementation calls
+   * {@link #score(float[])} for each of the first {@code numDocs} feature
+   * vectors, models that can evaluate several documents at once more
+   * efficiently should override it.
+   *
+   * @param modelFeatureValuesNormalized
+   *          normalized feature values, one array per document
+   * @param numDocs
+   *          number of documents to score
+   * @param scores
+   *          receives the score of each document
+   */
+  public void score(float[][] modelFeatureValuesNormalized, int numDocs, float[] scores) {
+    for (int i = 0; i < numDocs; ++i) {
+      scores[i] = score(modelFeatureValuesNormalized[i]);
+    }
+  }
+
   /**
    * Similar to the score() function, except it returns an explanation of how
    * the features were used to calculate the score.
@@ -17,6 +17,7 @@
 package org.apache.solr.ltr.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -103,6 +104,10 @@ public class MultipleAdditiveTreesModel extends LTRScoringModel {
    * influence the class hashCode, equals, etc.
    */
   private List<RegressionTree> trees;
+  /**
+   * flat representation of {@link #trees} used for scoring, built by {@link #validate()}
+   */
+  private CompiledTrees compiledTrees;
 
   private RegressionTree createRegressionTree(Map<String,Object> map) {
     final RegressionTree rt = new RegressionTree();
@@ -330,10 +335,14 @@ public class MultipleAdditiveTreesModel extends LTRScoringModel {
     for (RegressionTree tree : trees) {
       tree.validate();
     }
+    compiledTrees = new CompiledTrees(trees, features.size());
   }
 
   @Override
   public float score(float[] modelFeatureValuesNormalized) {
+    if (compiledTrees != null && modelFeatureValuesNormalized.length >= compiledTrees.numFeatures) {
+      return compiledTrees.score(modelFeatureValuesNormalized);
+    }
     float score = 0;
     for (final RegressionTree t : trees) {
       score += t.score(modelFeatureValuesNormalized);
@@ -341,6 +350,114 @@ public class MultipleAdditiveTreesModel extends LTRScoringModel {
     return score;
   }
 
+  /**
+   * Evaluates the trees one after the other for all documents, so that the nodes
+   * of a tree are only loaded once per batch.
+   */
+  @Override
+  public void score(float[][] modelFeatureValuesNormalized, int numDocs, float[] scores) {
+    boolean compiled = compiledTrees != null;
+    for (int i = 0; i < numDocs && compiled; ++i) {
+      compiled = modelFeatureValuesNormalized[i].length >= compiledTrees.numFeatures;
+    }
+    if (compiled) {
+      compiledTrees.score(modelFeatureValuesNormalized, numDocs, scores);
+    } else {
+      for (int i = 0; i < numDocs; ++i) {
+        scores[i] = score(modelFeatureValuesNormalized[i]);
+      }
+    }
+  }
+
+  /**
+   * The trees of the model flattened into primitive arrays. Nodes are stored in pre-order,
+   * so the left child of a split node is the next node and only the right child needs to be
+   * recorded. Splits on features that the model does not have are stored as leaves with a
+   * value of zero, which is what {@link RegressionTreeNode#score(float[])} returns for them.
+   */
+  private static final class CompiledTrees {
+    private final int numFeatures;
+    private final int[] roots;
+    private final float[] weights;
+    /** feature index of split nodes, -1 for leaves */
+    private int[] featureIndexes;
+    /** threshold of split nodes, value of leaves */
+    private float[] values;
+    /** right child of split nodes */
+    private int[] rightChildren;
+    private int numNodes;
+
+    CompiledTrees(List<RegressionTree> trees, int numFeatures) {
+      this.numFeatures = numFeatures;
+      roots = new int[trees.size()];
+      weights = new float[trees.size()];
+      featureIndexes = new int[16];
+      values = new float[16];
+      rightChildren = new int[16];
+      for (int i = 0; i < roots.length; ++i) {
+        final RegressionTree tree = trees.get(i);
+        weights[i] = tree.weight.floatValue();
+        roots[i] = add(tree.root);
+      }
+      featureIndexes = Arrays.copyOf(featureIndexes, numNodes);
+      values = Arrays.copyOf(values, numNodes);
+      rightChildren = Arrays.copyOf(rightChildren, numNodes);
+    }
+
+    private int add(RegressionTreeNode node) {
+      if (numNodes == featureIndexes.length) {
+        final int newLength = featureIndexes.length << 1;
+        featureIndexes = Arrays.copyOf(featureIndexes, newLength);
+        values = Arrays.copyOf(values, newLength);
+        rightChildren = Arrays.copyOf(rightChildren, newLength);
+      }
+      final int index = numNodes++;
+      if (node.isLeaf()) {
+        featureIndexes[index] = -1;
+        values[index] = node.value;
+      } else if (node.featureIndex < 0 || node.featureIndex >= numFeatures) {
+        // unsupported feature
+        featureIndexes[index] = -1;
+        values[index] = 0f;
+      } else {
+        featureIndexes[index] = node.featureIndex;
+        values[index] = node.threshold.floatValue();
+        add(node.left);
+        // don't inline: add() may grow the arrays
+        final int right = add(node.right);
+        rightChildren[index] = right;
+      }
+      return index;
+    }
+
+    private int leaf(int node, float[] featureVector) {
+      int featureIndex;
+      while ((featureIndex = featureIndexes[node]) >= 0) {
+        node = featureVector[featureIndex] <= values[node] ? node + 1 : rightChildren[node];
+      }
+      return node;
+    }
+
+    float score(float[] featureVector) {
+      float score = 0;
+      for (int i = 0; i < roots.length; ++i) {
+        score += weights[i] * values[leaf(roots[i], featureVector)];
+      }
+      return score;
+    }
+
+    void score(float[][] featureVectors, int numDocs, float[] scores) {
+      Arrays.fill(scores, 0, numDocs, 0f);
+      for (int i = 0; i < roots.length; ++i) {
+        final int root = roots[i];
+        final float weight = weights[i];
+        for (int doc = 0; doc < numDocs; ++doc) {
+          scores[doc] += weight * values[leaf(root, featureVectors[doc])];
+        }
+      }
+    }
+  }
+
   // /////////////////////////////////////////
   // produces a string that looks like:
   // 40.0 = multipleadditivetreesmodel [ org.apache.solr.ltr.model.MultipleAdditiveTreesModel ]
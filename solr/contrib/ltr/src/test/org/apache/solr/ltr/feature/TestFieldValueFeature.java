@@ -16,13 +16,17 @@
  */
 package org.apache.solr.ltr.feature;
 
+import java.util.Map;
+
 import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.ltr.FeatureLoggerTestUtils;
 import org.apache.solr.ltr.TestRerankBase;
 import org.apache.solr.ltr.model.LinearModel;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.noggit.ObjectBuilder;
 
 public class TestFieldValueFeature extends TestRerankBase {
 
@@ -33,21 +37,21 @@ public class TestFieldValueFeature extends TestRerankBase {
     setuptest(false);
 
     assertU(adoc("id", "1", "title", "w1", "description", "w1", "popularity",
-        "1","isTrendy","true"));
+        "1","isTrendy","true", "dvIntPopularity", "1", "dvIsTrendy", "true"));
     assertU(adoc("id", "2", "title", "w2 2asd asdd didid", "description",
-        "w2 2asd asdd didid", "popularity", "2"));
+        "w2 2asd asdd didid", "popularity", "2", "dvIntPopularity", "2"));
     assertU(adoc("id", "3", "title", "w3", "description", "w3", "popularity",
-        "3","isTrendy","true"));
+        "3","isTrendy","true", "dvIntPopularity", "3", "dvIsTrendy", "true"));
     assertU(adoc("id", "4", "title", "w4", "description", "w4", "popularity",
-        "4","isTrendy","false"));
+        "4","isTrendy","false", "dvIntPopularity", "4", "dvIsTrendy", "false"));
     assertU(adoc("id", "5", "title", "w5", "description", "w5", "popularity",
-        "5","isTrendy","true"));
+        "5","isTrendy","true", "dvIntPopularity", "5", "dvIsTrendy", "true"));
     assertU(adoc("id", "6", "title", "w1 w2", "description", "w1 w2",
-        "popularity", "6","isTrendy","false"));
+        "popularity", "6","isTrendy","false", "dvIntPopularity", "6", "dvIsTrendy", "false"));
     assertU(adoc("id", "7", "title", "w1 w2 w3 w4 w5", "description",
-        "w1 w2 w3 w4 w5 w8", "popularity", "7","isTrendy","true"));
+        "w1 w2 w3 w4 w5 w8", "popularity", "7","isTrendy","true", "dvIntPopularity", "7", "dvIsTrendy", "true"));
     assertU(adoc("id", "8", "title", "w1 w1 w1 w2 w2 w8", "description",
-        "w1 w1 w1 w2 w2", "popularity", "8","isTrendy","false"));
+        "w1 w1 w1 w2 w2", "popularity", "8","isTrendy","false", "dvIntPopularity", "8", "dvIsTrendy", "false"));
 
     // a document without the popularity field
     assertU(adoc("id", "42", "title", "NO popularity", "description", "NO popularity"));
@@ -59,6 +63,15 @@ public class TestFieldValueFeature extends TestRerankBase {
 
     loadModel("popularity-model", LinearModel.class.getName(),
             new String[] {"popularity"}, "{\"weights\":{\"popularity\":1.0}}");
+
+    loadFeature("dvIntPopularity", FieldValueFeature.class.getName(), "docValuesStore",
+            "{\"field\":\"dvIntPopularity\"}");
+    loadFeature("dvIsTrendy", FieldValueFeature.class.getName(), "docValuesStore",
+            "{\"field\":\"dvIsTrendy\"}");
+
+    loadModel("docValues-model", LinearModel.class.getName(),
+            new String[] {"dvIntPopularity", "dvIsTrendy"}, "docValuesStore",
+            "{\"weights\":{\"dvIntPopularity\":1.0,\"dvIsTrendy\":0.5}}");
   }
 
   @AfterClass
@@ -204,5 +217,54 @@ public class TestFieldValueFeature extends TestRerankBase {
 
   }
 
+  @Test
+  public void testDocValuesOnlyFields() throws Exception {
+    SolrQuery query = new SolrQuery();
+    query.setQuery("*:*");
+    query.add("fl", "*, score");
+    query.add("rows", "4");
+    query.add("rq", "{!ltr model=docValues-model reRankDocs=9}");
+
+    assertJQ("/query" + query.toQueryString(), "/response/docs/[0]/id=='8'");
+    assertJQ("/query" + query.toQueryString(), "/response/docs/[0]/score==8.0");
+    assertJQ("/query" + query.toQueryString(), "/response/docs/[1]/id=='7'");
+    assertJQ("/query" + query.toQueryString(), "/response/docs/[1]/score==7.5");
+    assertJQ("/query" + query.toQueryString(), "/response/docs/[2]/id=='6'");
+    assertJQ("/query" + query.toQueryString(), "/response/docs/[3]/id=='5'");
+    assertJQ("/query" + query.toQueryString(), "/response/docs/[3]/score==5.5");
+
+    query = new SolrQuery();
+    query.setQuery("id:2");
+    query.add("rq", "{!ltr model=docValues-model reRankDocs=4}");
+    query.add("fl", "[fv]");
+    assertJQ("/query" + query.toQueryString(),
+            "/response/docs/[0]/=={'[fv]':'"+FeatureLoggerTestUtils.toFeatureVector("dvIntPopularity","2.0","dvIsTrendy","0.0")+"'}");
+
+    query = new SolrQuery();
+    query.setQuery("id:42");
+    query.add("rq", "{!ltr model=docValues-model reRankDocs=4}");
+    query.add("fl", "[fv]");
+    assertJQ("/query" + query.toQueryString(),
+            "/response/docs/[0]/=={'[fv]':'"+FeatureLoggerTestUtils.toFeatureVector("dvIntPopularity","0.0","dvIsTrendy","0.0")+"'}");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testFeatureExtractionTimeInDebug() throws Exception {
+    final SolrQuery query = new SolrQuery();
+    query.setQuery("*:*");
+    query.add("rq", "{!ltr model=docValues-model reRankDocs=9}");
+    query.add(CommonParams.DEBUG, CommonParams.TIMING);
+
+    final String res = restTestHarness.query("/query" + query.toQueryString());
+    final Map<String,Object> debug = (Map<String,Object>) ((Map<String,Object>) ObjectBuilder
+        .fromJSON(res)).get("debug");
+    final Map<String,Object> featureExtractionTime = (Map<String,Object>)
+        ((Map<String,Object>) debug.get("ltr")).get("featureExtractionTime");
+    assertEquals(2, featureExtractionTime.size());
+    assertTrue(((Number) featureExtractionTime.get("dvIntPopularity")).doubleValue() >= 0);
+    assertTrue(((Number) featureExtractionTime.get("dvIsTrendy")).doubleValue() >= 0);
+  }
+
 
 }
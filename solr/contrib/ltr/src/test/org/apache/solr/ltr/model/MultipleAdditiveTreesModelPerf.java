@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.ltr.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.lucene.util.SuppressForbidden;
+import org.apache.solr.core.SolrResourceLoader;
+import org.apache.solr.ltr.feature.Feature;
+import org.apache.solr.ltr.feature.ValueFeature;
+import org.apache.solr.ltr.norm.IdentityNormalizer;
+import org.apache.solr.util.RTimer;
+
+/**
+ * Measures the per-document cost of scoring with a {@link MultipleAdditiveTreesModel},
+ * one document at a time (as the reranker does) and in batches.
+ * <p>
+ * Usage: <code>MultipleAdditiveTreesModelPerf numTrees maxDepth numFeatures numDocs iterations</code>,
+ * eg. <code>800 8 50 500 1000</code> to rerank 500 docs with 800 trees.
+ */
+public class MultipleAdditiveTreesModelPerf {
+
+  static Random rand = getRandom();
+
+  @SuppressForbidden(reason = "No testcase, use of java.util.Random allowed")
+  private static Random getRandom() {
+    return new Random();
+  }
+
+  static Map<String,Object> randomNode(int depth, int numFeatures) {
+    final Map<String,Object> node = new HashMap<>();
+    if (depth <= 0) {
+      node.put("value", Float.toString(rand.nextFloat() * 100 - 50));
+    } else {
+      node.put("feature", "f" + rand.nextInt(numFeatures));
+      node.put("threshold", Float.toString(rand.nextFloat()));
+      node.put("left", randomNode(depth - 1 - (rand.nextInt(4) == 0 ? 1 : 0), numFeatures));
+      node.put("right", randomNode(depth - 1, numFeatures));
+    }
+    return node;
+  }
+
+  public static void main(String[] args) throws Exception {
+    final int numTrees = Integer.parseInt(args[0]);
+    final int maxDepth = Integer.parseInt(args[1]);
+    final int numFeatures = Integer.parseInt(args[2]);
+    final int numDocs = Integer.parseInt(args[3]);
+    final int iter = Integer.parseInt(args[4]);
+
+    final List<Feature> features = new ArrayList<>();
+    for (int i = 0; i < numFeatures; ++i) {
+      features.add(new ValueFeature("f" + i, Collections.singletonMap("value", 1)));
+    }
+    final List<Object> trees = new ArrayList<>();
+    for (int i = 0; i < numTrees; ++i) {
+      final Map<String,Object> tree = new HashMap<>();
+      tree.put("weight", "0.1");
+      tree.put("root", randomNode(maxDepth, numFeatures));
+      trees.add(tree);
+    }
+    final Map<String,Object> params = new HashMap<>();
+    params.put("trees", trees);
+    final MultipleAdditiveTreesModel model = (MultipleAdditiveTreesModel) LTRScoringModel.getInstance(
+        new SolrResourceLoader(), MultipleAdditiveTreesModel.class.getName(), "perf", features,
+        Collections.nCopies(numFeatures, IdentityNormalizer.INSTANCE), "perf", features, params);
+
+    final float[][] featureVectors = new float[numDocs][numFeatures];
+    for (float[] featureVector : featureVectors) {
+      for (int i = 0; i < numFeatures; ++i) {
+        featureVector[i] = rand.nextFloat();
+      }
+    }
+    final float[] scores = new float[numDocs];
+
+    float ret = 0;
+    for (int warmup = 0; warmup < 2; ++warmup) {
+      RTimer timer = new RTimer();
+      for (int it = 0; it < iter; ++it) {
+        for (int doc = 0; doc < numDocs; ++doc) {
+          ret += model.score(featureVectors[doc]);
+        }
+      }
+      final double perDoc = timer.getTime() * 1000000 / ((double) iter * numDocs);
+      timer = new RTimer();
+      for (int it = 0; it < iter; ++it) {
+        model.score(featureVectors, numDocs, scores);
+        ret += scores[0];
+      }
+      final double perDocBatch = timer.getTime() * 1000000 / ((double) iter * numDocs);
+      System.out.println((warmup == 0 ? "warmup " : "") + "ns/doc score=" + (long) perDoc + " batch=" + (long) perDocBatch);
+    }
+    System.out.println("ret=" + ret);
+  }
+}
@@ -18,8 +18,18 @@ package org.apache.solr.ltr.model;
 
 import static org.hamcrest.core.StringContains.containsString;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.lucene.search.Explanation;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.ltr.TestRerankBase;
+import org.apache.solr.ltr.feature.Feature;
+import org.apache.solr.ltr.norm.IdentityNormalizer;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -243,4 +253,65 @@ public class TestMultipleAdditiveTreesModel extends TestRerankBase {
       assertEquals(expectedException.toString(), actualException.toString());
     }
   }
+
+  @Test
+  public void testCompiledTreesScoreLikeTrees() throws Exception {
+    final Random random = random();
+    final int numFeatures = random.nextInt(10) + 1;
+    final List<String> names = new ArrayList<>();
+    for (int i = 0; i < numFeatures; ++i) {
+      names.add("f" + i);
+    }
+    final List<Feature> features = getFeatures(names);
+    final List<Object> trees = new ArrayList<>();
+    final int numTrees = atLeast(20);
+    for (int i = 0; i < numTrees; ++i) {
+      final Map<String,Object> tree = new HashMap<>();
+      tree.put("weight", Float.toString(random.nextFloat() * 2 - 1));
+      // also split on features that the model does not have
+      tree.put("root", randomTreeNode(random, random.nextInt(8), numFeatures + 2));
+      trees.add(tree);
+    }
+    final Map<String,Object> params = new HashMap<>();
+    params.put("trees", trees);
+    final MultipleAdditiveTreesModel model = (MultipleAdditiveTreesModel) LTRScoringModel.getInstance(solrResourceLoader,
+        MultipleAdditiveTreesModel.class.getName(), "randomtreesmodel", features,
+        Collections.nCopies(numFeatures, IdentityNormalizer.INSTANCE), "test", features, params);
+
+    final int numDocs = atLeast(50);
+    final float[][] featureVectors = new float[numDocs][numFeatures];
+    for (float[] featureVector : featureVectors) {
+      for (int i = 0; i < numFeatures; ++i) {
+        featureVector[i] = random.nextInt(20) == 0 ? Float.NaN : random.nextFloat();
+      }
+    }
+    final float[] scores = new float[numDocs];
+    model.score(featureVectors, numDocs, scores);
+    for (int doc = 0; doc < numDocs; ++doc) {
+      // the explanation walks the trees node by node
+      final List<Explanation> featureExplanations = new ArrayList<>();
+      for (float value : featureVectors[doc]) {
+        featureExplanations.add(Explanation.match(value, "feature"));
+      }
+      float expected = 0;
+      for (Explanation tree : model.explain(null, doc, 0, featureExplanations).getDetails()) {
+        expected += tree.getValue().floatValue();
+      }
+      assertEquals(expected, model.score(featureVectors[doc]), 0f);
+      assertEquals(expected, scores[doc], 0f);
+    }
+  }
+
+  private static Map<String,Object> randomTreeNode(Random random, int depth, int numFeatures) {
+    final Map<String,Object> node = new HashMap<>();
+    if (depth == 0 || random.nextInt(4) == 0) {
+      node.put("value", Float.toString(random.nextFloat() * 100 - 50));
+    } else {
+      node.put("feature", "f" + random.nextInt(numFeatures));
+      node.put("threshold", Float.toString(random.nextFloat()));
+      node.put("left", randomTreeNode(random, depth - 1, numFeatures));
+      node.put("right", randomTreeNode(random, depth - 1, numFeatures));
+    }
+    return node;
+  }
 }
@@ -21,12 +21,19 @@ import static org.apache.solr.common.params.CommonParams.ID;
 import java.io.Closeable;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.solr.client.solrj.cloud.SolrCloudManager;
 import org.apache.solr.client.solrj.impl.ClusterStateProvider;
@@ -45,10 +52,12 @@ import org.apache.solr.common.SolrCloseable;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.cloud.ClusterState;
 import org.apache.solr.common.cloud.ConnectionManager;
+import org.apache.solr.common.cloud.Replica;
 import org.apache.solr.common.cloud.SolrZkClient;
 import org.apache.solr.common.cloud.ZkNodeProps;
 import org.apache.solr.common.cloud.ZkStateReader;
 import org.apache.solr.common.params.CollectionParams;
+import org.apache.solr.common.util.ExecutorUtil;
 import org.apache.solr.common.util.IOUtils;
 import org.apache.solr.common.util.ObjectReleaseTracker;
 import org.apache.solr.common.util.Pair;
@@ -59,6 +68,7 @@ import org.apache.solr.handler.admin.CollectionsHandler;
 import org.apache.solr.handler.component.HttpShardHandler;
 import org.apache.solr.logging.MDCLoggingContext;
 import org.apache.solr.update.UpdateShardHandler;
+import org.apache.solr.util.DefaultSolrThreadFactory;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
 import org.slf4j.Logger;
@@ -77,6 +87,9 @@ public class Overseer implements SolrCloseable {
   public static final int STATE_UPDATE_DELAY = ZkStateReader.STATE_UPDATE_DELAY;
   public static final int STATE_UPDATE_BATCH_SIZE = Integer.getInteger("solr.OverseerStateUpdateBatchSize", 10000);
   public static final int STATE_UPDATE_MAX_QUEUE = 20000;
+  // number of threads used to apply state updates of different collections concurrently, 1 disables it
+  public static final int STATE_UPDATE_THREADS = Integer.getInteger("solr.OverseerStateUpdateThreads",
+      Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
 
   public static final int NUM_RESPONSES_TO_STORE = 10000;
   public static final String OVERSEER_ELECT = "/overseer_elect";
@@ -107,6 +120,9 @@ public class Overseer implements SolrCloseable {
 
     private boolean isClosed = false;
 
+    // applies the updates of different collections concurrently, null if disabled
+    private ExecutorService collectionUpdateExecutor;
+
     public ClusterStateUpdater(final ZkStateReader reader, final String myId, Stats zkStats) {
       this.zkClient = reader.getZkClient();
       this.zkStats = zkStats;
@@ -138,6 +154,10 @@ public class Overseer implements SolrCloseable {
       }
 
       log.info("Starting to work on the main queue : {}", LeaderElector.getNodeName(myId));
+      if (STATE_UPDATE_THREADS > 1) {
+        collectionUpdateExecutor = ExecutorUtil.newMDCAwareFixedThreadPool(STATE_UPDATE_THREADS,
+            new DefaultSolrThreadFactory("OverseerStateUpdateCollection"));
+      }
       try {
         ZkStateWriter zkStateWriter = null;
         ClusterState clusterState = null;
@@ -222,32 +242,24 @@ public class Overseer implements SolrCloseable {
             log.error("Exception in Overseer main queue loop", e);
           }
           try {
-            Set<String> processedNodes = new HashSet<>();
+            // queue node name -> System.nanoTime() when it was peeked, used to report the update latency
+            Map<String, Long> processedNodes = new LinkedHashMap<>();
             while (queue != null && !queue.isEmpty()) {
-              for (Pair<String, byte[]> head : queue) {
-                byte[] data = head.second();
-                final ZkNodeProps message = ZkNodeProps.load(data);
-                log.debug("processMessage: queueSize: {}, message = {} current state version: {}", stateUpdateQueue.getZkStats().getQueueLength(), message, clusterState.getZkClusterStateVersion());
-
-                processedNodes.add(head.first());
-                fallbackQueueSize = processedNodes.size();
-                // The callback always be called on this thread
-                clusterState = processQueueItem(message, clusterState, zkStateWriter, true, () -> {
-                  stateUpdateQueue.remove(processedNodes);
-                  processedNodes.clear();
-                });
-              }
+              // if writing the batch fails, every message of it gets replayed one by one
+              fallbackQueueSize = processedNodes.size() + queue.size();
+              // The callback always be called on this thread
+              clusterState = processQueueItems(queue, clusterState, zkStateWriter, processedNodes,
+                  () -> removeProcessedNodes(processedNodes));
               if (isClosed) break;
               // if an event comes in the next 100ms batch it together
-              queue = new LinkedList<>(stateUpdateQueue.peekElements(1000, 100, node -> !processedNodes.contains(node)));
+              queue = new LinkedList<>(stateUpdateQueue.peekElements(1000, 100, node -> !processedNodes.containsKey(node)));
             }
             fallbackQueueSize = processedNodes.size();
             // we should force write all pending updates because the next iteration might sleep until there
             // are more items in the main queue
             clusterState = zkStateWriter.writePendingUpdates();
             // clean work queue
-            stateUpdateQueue.remove(processedNodes);
-            processedNodes.clear();
+            removeProcessedNodes(processedNodes);
           } catch (KeeperException.SessionExpiredException e) {
             log.warn("Solr cannot talk to ZK, exiting Overseer main queue loop", e);
             return;
@@ -263,6 +275,9 @@ public class Overseer implements SolrCloseable {
         }
       } finally {
         log.info("Overseer Loop exiting : {}", LeaderElector.getNodeName(myId));
+        if (collectionUpdateExecutor != null) {
+          ExecutorUtil.shutdownAndAwaitTermination(collectionUpdateExecutor);
+        }
         //do this in a separate thread because any wait is interrupted in this main thread
         new Thread(this::checkIfIamStillLeader, "OverseerExitThread").start();
       }
@@ -278,11 +293,211 @@ public class Overseer implements SolrCloseable {
       return !(e instanceof InterruptedException);
     }
 
+    /**
+     * Removes the given queue nodes, whose updates have been written to ZooKeeper, from the
+     * state update queue.
+     */
+    private void removeProcessedNodes(Map<String, Long> processedNodes) throws KeeperException, InterruptedException {
+      final long now = System.nanoTime();
+      for (long peekTime : processedNodes.values()) {
+        stats.time("state_update_latency", now - peekTime, TimeUnit.NANOSECONDS);
+      }
+      stateUpdateQueue.remove(processedNodes.keySet());
+      processedNodes.clear();
+    }
+
+    /**
+     * Processes a batch of messages peeked from the state update queue. Two things are done
+     * differently from processing the messages one after the other:
+     * <ul>
+     *   <li>a replica state change that is followed, in the same batch, by another state change of the
+     *   same replica is skipped when the later one overwrites all of its effects, see
+     *   {@link #findSupersedingMessages(List)},</li>
+     *   <li>runs of consecutive messages that each only modify a single, existing collection are
+     *   grouped by collection and the collections are mutated concurrently, each starting from the
+     *   same cluster state.</li>
+     * </ul>
+     */
+    private ClusterState processQueueItems(List<Pair<String, byte[]>> queue, ClusterState clusterState,
+        ZkStateWriter zkStateWriter, Map<String, Long> processedNodes, ZkStateWriter.ZkWriteCallback callback) throws Exception {
+      final Long peekTime = System.nanoTime();
+      final List<ZkNodeProps> messages = new ArrayList<>(queue.size());
+      for (Pair<String, byte[]> head : queue) {
+        messages.add(ZkNodeProps.load(head.second()));
+      }
+      final int[] superseding = findSupersedingMessages(messages);
+
+      int i = 0;
+      while (i < messages.size()) {
+        int end = i;
+        while (end < messages.size() && isCollectionLocal(messages.get(end), clusterState)) {
+          end++;
+        }
+        if (end == i) {
+          final ZkNodeProps message = messages.get(i);
+          log.debug("processMessage: queueSize: {}, message = {} current state version: {}", stateUpdateQueue.getZkStats().getQueueLength(), message, clusterState.getZkClusterStateVersion());
+          processedNodes.put(queue.get(i).first(), peekTime);
+          clusterState = processQueueItem(message, clusterState, zkStateWriter, true, callback);
+          i++;
+          continue;
+        }
+
+        // group the run by collection, keeping the order of the messages of each collection
+        final Map<String, List<Integer>> runByCollection = new LinkedHashMap<>();
+        for (int j = i; j < end; ++j) {
+          runByCollection.computeIfAbsent(messages.get(j).getStr(ZkStateReader.COLLECTION_PROP), c -> new ArrayList<>()).add(j);
+          processedNodes.put(queue.get(j).first(), peekTime);
+        }
+        for (Map.Entry<String, List<Integer>> entry : runByCollection.entrySet()) {
+          for (int j : entry.getValue()) {
+            if (OverseerAction.get(messages.get(j).getStr(QUEUE_OPERATION)) == OverseerAction.STATE) {
+              clusterState = zkStateWriter.refreshReplicaStates(clusterState, entry.getKey());
+              break;
+            }
+          }
+        }
+        final ClusterState runState = clusterState;
+        final List<ZkWriteCommand> zkWriteCommands = new ArrayList<>(runByCollection.size());
+        if (collectionUpdateExecutor == null || runByCollection.size() == 1) {
+          for (Map.Entry<String, List<Integer>> entry : runByCollection.entrySet()) {
+            zkWriteCommands.add(updateCollection(runState, entry.getKey(), entry.getValue(), messages, superseding));
+          }
+        } else {
+          final Timer.Context timerContext = stats.time("state_update_concurrent");
+          try {
+            final List<Future<ZkWriteCommand>> futures = new ArrayList<>(runByCollection.size());
+            for (Map.Entry<String, List<Integer>> entry : runByCollection.entrySet()) {
+              futures.add(collectionUpdateExecutor.submit(
+                  () -> updateCollection(runState, entry.getKey(), entry.getValue(), messages, superseding)));
+            }
+            for (Future<ZkWriteCommand> future : futures) {
+              try {
+                zkWriteCommands.add(future.get());
+              } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception) {
+                  throw (Exception) e.getCause();
+                }
+                throw e;
+              }
+            }
+          } finally {
+            timerContext.stop();
+          }
+        }
+        clusterState = zkStateWriter.enqueueUpdate(clusterState, zkWriteCommands, callback);
+        i = end;
+      }
+      return clusterState;
+    }
+
+    /**
+     * Applies the given messages, which all only modify the given collection, one after the
+     * other and returns the resulting state of the collection.
+     */
+    private ZkWriteCommand updateCollection(ClusterState clusterState, String collection, List<Integer> messageIndexes,
+        List<ZkNodeProps> messages, int[] superseding) {
+      boolean modified = false;
+      for (int index : messageIndexes) {
+        final ZkNodeProps message = messages.get(index);
+        final String operation = message.getStr(QUEUE_OPERATION);
+        if (superseding[index] >= 0 && canSkip(clusterState, message, messages.get(superseding[index]))) {
+          stats.success("state_update_coalesced");
+          continue;
+        }
+        List<ZkWriteCommand> zkWriteCommands = null;
+        final Timer.Context timerContext = stats.time(operation);
+        try {
+          zkWriteCommands = processMessage(clusterState, message, operation);
+          stats.success(operation);
+        } catch (Exception e) {
+          log.error("Overseer could not process the current clusterstate state update message, skipping the message: " + message, e);
+          stats.error(operation);
+        } finally {
+          timerContext.stop();
+        }
+        if (zkWriteCommands != null) {
+          for (ZkWriteCommand cmd : zkWriteCommands) {
+            if (cmd == ZkStateWriter.NO_OP) continue;
+            assert collection.equals(cmd.name) : cmd.name;
+            clusterState = clusterState.copyWith(cmd.name, cmd.collection);
+            modified = true;
+          }
+        }
+      }
+      return modified ? new ZkWriteCommand(collection, clusterState.getCollectionOrNull(collection)) : ZkStateWriter.NO_OP;
+    }
+
+    /**
+     * Returns whether the message only reads and modifies the state of its own collection, which
+     * must exist, so that it can be applied concurrently with the messages of other collections.
+     */
+    private boolean isCollectionLocal(ZkNodeProps message, ClusterState clusterState) {
+      final OverseerAction action = OverseerAction.get(message.getStr(QUEUE_OPERATION));
+      if (action != OverseerAction.STATE && action != OverseerAction.LEADER) {
+        return false;
+      }
+      final String collection = message.getStr(ZkStateReader.COLLECTION_PROP);
+      if (collection == null || !clusterState.hasCollection(collection)) {
+        return false;
+      }
+      // a replica that is not registered yet gets a core node name assigned, keep that sequential
+      return action == OverseerAction.LEADER || message.getStr(ZkStateReader.CORE_NODE_NAME_PROP) != null;
+    }
+
+    /**
+     * For each message, finds the index of a later message of the batch that sets the state of the
+     * same replica, if any, with only state changes of other replicas in between. Returns -1 for
+     * messages that have no such successor.
+     */
+    private int[] findSupersedingMessages(List<ZkNodeProps> messages) {
+      final int[] superseding = new int[messages.size()];
+      final Map<List<String>, Integer> nextStateMessages = new HashMap<>();
+      for (int i = messages.size() - 1; i >= 0; --i) {
+        final ZkNodeProps message = messages.get(i);
+        final List<String> replicaKey = stateMessageReplicaKey(message);
+        if (replicaKey == null) {
+          // anything but a state change of an identified replica ends the chains
+          nextStateMessages.clear();
+          superseding[i] = -1;
+        } else {
+          final Integer next = nextStateMessages.put(replicaKey, i);
+          superseding[i] = next == null ? -1 : next;
+        }
+      }
+      return superseding;
+    }
+
+    private List<String> stateMessageReplicaKey(ZkNodeProps message) {
+      if (OverseerAction.get(message.getStr(QUEUE_OPERATION)) != OverseerAction.STATE) {
+        return null;
+      }
+      final String collection = message.getStr(ZkStateReader.COLLECTION_PROP);
+      final String shard = message.getStr(ZkStateReader.SHARD_ID_PROP);
+      final String coreNodeName = message.getStr(ZkStateReader.CORE_NODE_NAME_PROP);
+      if (collection == null || shard == null || coreNodeName == null) {
+        return null;
+      }
+      return Arrays.asList(collection, shard, coreNodeName);
+    }
+
+    /**
+     * A state change can be skipped when a later one of the same replica overwrites everything it
+     * does: the replica properties are replaced by the ones of the later message, so this is the case
+     * unless the skipped message would create the collection, would complete a shard split by
+     * making a replica active, or the later message would not create the replica if it's missing.
+     */
+    private boolean canSkip(ClusterState clusterState, ZkNodeProps message, ZkNodeProps supersedingMessage) {
+      return clusterState.hasCollection(message.getStr(ZkStateReader.COLLECTION_PROP))
+          && !Objects.equals(Replica.State.ACTIVE.toString(), message.getStr(ZkStateReader.STATE_PROP))
+          && supersedingMessage.getBool(ZkStateReader.FORCE_SET_STATE_PROP, true);
+    }
+
     private ClusterState processQueueItem(ZkNodeProps message, ClusterState clusterState, ZkStateWriter zkStateWriter, boolean enableBatching, ZkStateWriter.ZkWriteCallback callback) throws Exception {
       final String operation = message.getStr(QUEUE_OPERATION);
       if (operation == null) {
         throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Message missing " + QUEUE_OPERATION + ":" + message);
       }
+      clusterState = refreshReplicaStates(clusterState, message, zkStateWriter);
       List<ZkWriteCommand> zkWriteCommands = null;
       final Timer.Context timerContext = stats.time(operation);
       try {
@@ -308,6 +523,28 @@ public class Overseer implements SolrCloseable {
       return clusterState;
     }
 
+    /**
+     * Brings the per-replica states the given message reads up to date: only state updates check
+     * replica states (e.g. to complete a shard split), and marking a node down must not miss
+     * replicas that became active without going through the Overseer.
+     */
+    private ClusterState refreshReplicaStates(ClusterState clusterState, ZkNodeProps message, ZkStateWriter zkStateWriter)
+        throws KeeperException, InterruptedException {
+      final OverseerAction action = OverseerAction.get(message.getStr(QUEUE_OPERATION));
+      if (action == OverseerAction.STATE) {
+        final String collection = message.getStr(ZkStateReader.COLLECTION_PROP);
+        if (collection != null) {
+          return zkStateWriter.refreshReplicaStates(clusterState, collection);
+        }
+      } else if (action == OverseerAction.DOWNNODE) {
+        final String nodeName = message.getStr(ZkStateReader.NODE_NAME_PROP);
+        if (nodeName != null) {
+          return zkStateWriter.refreshReplicaStatesOfNode(clusterState, nodeName);
+        }
+      }
+      return clusterState;
+    }
+
     private void checkIfIamStillLeader() {
       if (zkController != null && (zkController.getCoreContainer().isShutDown() || zkController.isClosed())) {
         return;//shutting down no need to go further
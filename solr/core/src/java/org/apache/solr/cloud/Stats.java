@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.codahale.metrics.Timer;
@@ -54,43 +55,32 @@ public class Stats {
   }
 
   public void success(String operation) {
-    String op = operation.toLowerCase(Locale.ROOT);
-    Stat stat = stats.get(op);
-    if (stat == null) {
-      stat = new Stat();
-      stats.put(op, stat);
-    }
-    stat.success.incrementAndGet();
+    getOrCreate(operation).success.incrementAndGet();
   }
 
   public void error(String operation) {
-    String op = operation.toLowerCase(Locale.ROOT);
-    Stat stat = stats.get(op);
-    if (stat == null) {
-      stat = new Stat();
-      stats.put(op, stat);
-    }
-    stat.errors.incrementAndGet();
+    getOrCreate(operation).errors.incrementAndGet();
   }
 
   public Timer.Context time(String operation) {
-    String op = operation.toLowerCase(Locale.ROOT);
-    Stat stat = stats.get(op);
-    if (stat == null) {
-      stat = new Stat();
-      stats.put(op, stat);
-    }
-    return stat.requestTime.time();
+    return getOrCreate(operation).requestTime.time();
+  }
+
+  /**
+   * Records a duration that was measured by the caller, for operations whose
+   * start and end do not happen in the same place.
+   */
+  public void time(String operation, long duration, TimeUnit unit) {
+    getOrCreate(operation).requestTime.update(duration, unit);
+  }
+
+  // stats may be updated concurrently, e.g. by the Overseer's state update threads
+  private Stat getOrCreate(String operation) {
+    return stats.computeIfAbsent(operation.toLowerCase(Locale.ROOT), op -> new Stat());
   }
 
   public void storeFailureDetails(String operation, ZkNodeProps request, SolrResponse resp) {
-    String op = operation.toLowerCase(Locale.ROOT);
-    Stat stat = stats.get(op);
-    if (stat == null) {
-      stat = new Stat();
-      stats.put(op, stat);
-    }
-    LinkedList<FailedOp> failedOps = stat.failureDetails;
+    LinkedList<FailedOp> failedOps = getOrCreate(operation).failureDetails;
     synchronized (failedOps)  {
       if (failedOps.size() >= MAX_STORED_FAILURES)  {
         failedOps.removeFirst();
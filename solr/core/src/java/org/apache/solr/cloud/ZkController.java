@@ -76,6 +76,7 @@ import org.apache.solr.common.cloud.DefaultZkCredentialsProvider;
 import org.apache.solr.common.cloud.DocCollection;
 import org.apache.solr.common.cloud.LiveNodesListener;
 import org.apache.solr.common.cloud.OnReconnect;
+import org.apache.solr.common.cloud.PerReplicaStates;
 import org.apache.solr.common.cloud.Replica;
 import org.apache.solr.common.cloud.Replica.Type;
 import org.apache.solr.common.cloud.Slice;
@@ -1564,12 +1565,46 @@ public class ZkController implements Closeable {
       if (updateLastState) {
         cd.getCloudDescriptor().setLastPublished(state);
       }
+      if (canPublishPerReplicaState(m)) {
+        // plain state changes of known replicas of collections with per-replica states only need to
+        // change their own state znode, there is no need to go through the Overseer
+        PerReplicaStates.persist(ZkStateReader.getCollectionPath(collection), coreNodeName, state, zkClient);
+        return;
+      }
       overseerJobQueue.offer(Utils.toJSON(m));
     } finally {
       MDCLoggingContext.clear();
     }
   }
 
+  /**
+   * Whether a state message only changes the state of a replica of a collection with per-replica states, so that it
+   * can be published without the Overseer. Anything else needs the Overseer: registering new replicas, changing
+   * other properties of a replica (e.g. after it moved to another node), and replicas of shards that are not active
+   * since their state changes may complete a shard split.
+   */
+  private boolean canPublishPerReplicaState(ZkNodeProps message) {
+    final String coreNodeName = message.getStr(ZkStateReader.CORE_NODE_NAME_PROP);
+    if (coreNodeName == null || message.containsKey(ZkStateReader.SHARED_STORAGE_PROP)) {
+      return false;
+    }
+    final DocCollection coll = zkStateReader.getClusterState().getCollectionOrNull(message.getStr(ZkStateReader.COLLECTION_PROP));
+    if (coll == null || !coll.isPerReplicaState()) {
+      return false;
+    }
+    final Slice slice = coll.getSlice(message.getStr(ZkStateReader.SHARD_ID_PROP));
+    if (slice == null || slice.getState() != Slice.State.ACTIVE) {
+      return false;
+    }
+    final Replica replica = slice.getReplica(coreNodeName);
+    return replica != null
+        && Objects.equals(replica.getBaseUrl(), message.getStr(ZkStateReader.BASE_URL_PROP))
+        && Objects.equals(replica.getNodeName(), message.getStr(ZkStateReader.NODE_NAME_PROP))
+        && Objects.equals(replica.getCoreName(), message.getStr(ZkStateReader.CORE_NAME_PROP))
+        && Objects.equals(replica.getStr(ZkStateReader.ROLES_PROP), message.getStr(ZkStateReader.ROLES_PROP))
+        && replica.getType().toString().equals(message.getStr(ZkStateReader.REPLICA_TYPE));
+  }
+
   public ZkShardTerms getShardTerms(String collection, String shardId) {
     return getCollectionTerms(collection).getShard(shardId);
   }
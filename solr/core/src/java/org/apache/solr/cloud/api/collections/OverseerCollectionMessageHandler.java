@@ -183,6 +183,7 @@ public class OverseerCollectionMessageHandler implements OverseerMessageHandler,
       ZkStateReader.MAX_SHARDS_PER_NODE, "1",
       ZkStateReader.AUTO_ADD_REPLICAS, "false",
       DocCollection.RULE, null,
+      DocCollection.PER_REPLICA_STATE, null,
       POLICY, null,
       SNITCH, null,
       WITH_COLLECTION, null,
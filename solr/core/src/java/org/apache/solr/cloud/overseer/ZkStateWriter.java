@@ -17,7 +17,9 @@
 package org.apache.solr.cloud.overseer;
 
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -27,10 +29,13 @@ import org.apache.solr.cloud.Overseer;
 import org.apache.solr.cloud.Stats;
 import org.apache.solr.common.cloud.ClusterState;
 import org.apache.solr.common.cloud.DocCollection;
+import org.apache.solr.common.cloud.PerReplicaStates;
+import org.apache.solr.common.cloud.Replica;
 import org.apache.solr.common.cloud.ZkStateReader;
 import org.apache.solr.common.util.Utils;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
 import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,6 +70,8 @@ public class ZkStateWriter {
   protected final Stats stats;
 
   protected Map<String, DocCollection> updates = new HashMap<>();
+  // replica state changes of collections with per-replica states, a null state means the replica was removed
+  protected Map<String, Map<String, Replica.State>> replicaStateUpdates = new HashMap<>();
   private int numUpdates = 0;
   protected ClusterState clusterState = null;
   protected boolean isClusterStateModified = false;
@@ -118,6 +125,9 @@ public class ZkStateWriter {
       if (!isClusterStateModified && clusterStateGetModifiedWith(cmd, prevState)) {
         isClusterStateModified = true;
       }
+      if (cmd.collection != null && cmd.collection.isPerReplicaState()) {
+        trackReplicaStateChanges(prevState.getCollectionOrNull(cmd.name), cmd.collection);
+      }
       prevState = prevState.copyWith(cmd.name, cmd.collection);
       if (cmd.collection == null || cmd.collection.getStateFormat() != 1) {
         updates.put(cmd.name, cmd.collection);
@@ -137,6 +147,92 @@ public class ZkStateWriter {
     return clusterState;
   }
 
+  /**
+   * Brings the replica states of a collection with per-replica states up to date, since its replicas
+   * publish state changes without going through the Overseer. States changed by updates that were not
+   * written yet are kept.
+   *
+   * @param state   the cluster state the message is going to be applied on
+   * @param collection the collection whose replica states the message reads
+   * @return the cluster state with up to date replica states
+   */
+  public ClusterState refreshReplicaStates(ClusterState state, String collection) throws KeeperException, InterruptedException {
+    return refreshReplicaStates(state, state.getCollectionOrNull(collection));
+  }
+
+  /**
+   * Brings the replica states of the collections with per-replica states that have replicas on the given
+   * node up to date.
+   * @see #refreshReplicaStates(ClusterState, String)
+   */
+  public ClusterState refreshReplicaStatesOfNode(ClusterState state, String nodeName) throws KeeperException, InterruptedException {
+    for (DocCollection c : state.getCollectionsMap().values()) {
+      if (c.isPerReplicaState() && !c.getReplicas(nodeName).isEmpty()) {
+        state = refreshReplicaStates(state, c);
+      }
+    }
+    return state;
+  }
+
+  private ClusterState refreshReplicaStates(ClusterState state, DocCollection c) throws KeeperException, InterruptedException {
+    if (c == null || !c.isPerReplicaState() || c.getStateFormat() == 1) return state;
+    String path = ZkStateReader.getCollectionPath(c.getName());
+    PerReplicaStates states;
+    try {
+      states = PerReplicaStates.fetch(path, reader.getZkClient(), null);
+    } catch (KeeperException.NoNodeException e) {
+      // not written yet
+      return state;
+    }
+    Map<String, Replica.State> pending = replicaStateUpdates.get(c.getName());
+    if (pending != null && !pending.isEmpty()) {
+      List<String> children = new ArrayList<>();
+      for (PerReplicaStates.State s : states.getStates().values()) {
+        if (!pending.containsKey(s.replica)) children.add(s.asString);
+      }
+      states = new PerReplicaStates(states.cversion, children);
+    }
+    return state.copyWith(c.getName(), states.applyTo(c));
+  }
+
+  /**
+   * Records the replicas whose state was changed by a command, only those have their per-replica
+   * state written: the state of the other replicas may have been published directly by their node.
+   */
+  private void trackReplicaStateChanges(DocCollection previous, DocCollection collection) {
+    Map<String, Replica.State> changes = replicaStateUpdates.computeIfAbsent(collection.getName(), k -> new LinkedHashMap<>());
+    for (Replica replica : collection.getReplicas()) {
+      Replica previousReplica = previous == null ? null : previous.getReplica(replica.getName());
+      if (previousReplica == null || previousReplica.getState() != replica.getState()) {
+        changes.put(replica.getName(), replica.getState());
+      }
+    }
+    if (previous != null) {
+      for (Replica replica : previous.getReplicas()) {
+        if (collection.getReplica(replica.getName()) == null) {
+          changes.put(replica.getName(), null);
+        }
+      }
+    }
+  }
+
+  private void writeReplicaStates(String path, Map<String, Replica.State> changes) throws KeeperException, InterruptedException {
+    if (changes == null || changes.isEmpty()) return;
+    PerReplicaStates states = PerReplicaStates.fetch(path, reader.getZkClient(), null);
+    List<Op> ops = new ArrayList<>();
+    for (Map.Entry<String, Replica.State> change : changes.entrySet()) {
+      if (change.getValue() == null) {
+        ops.addAll(states.deleteReplicaOps(path, change.getKey()));
+      } else {
+        ops.addAll(states.setStateOps(path, change.getKey(), change.getValue()));
+      }
+    }
+    if (!ops.isEmpty()) {
+      log.debug("going to update {} replica states of {}", changes.size(), path);
+      reader.getZkClient().multi(ops, true);
+    }
+  }
+
   private boolean isNoOps(List<ZkWriteCommand> cmds) {
     for (ZkWriteCommand cmd : cmds) {
       if (cmd != NO_OP) return false;
@@ -205,12 +301,16 @@ public class ZkStateWriter {
               DocCollection newCollection = new DocCollection(name, c.getSlicesMap(), c.getProperties(), c.getRouter(), 0, path);
               clusterState = clusterState.copyWith(name, newCollection);
             }
+            if (c.isPerReplicaState()) {
+              writeReplicaStates(path, replicaStateUpdates.get(name));
+            }
           } else if (c.getStateFormat() == 1) {
             isClusterStateModified = true;
           }
         }
 
         updates.clear();
+        replicaStateUpdates.clear();
         numUpdates = 0;
       }
 
@@ -48,11 +48,14 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import com.codahale.metrics.Timer;
 import org.apache.http.auth.AuthSchemeProvider;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.config.Lookup;
@@ -75,6 +78,7 @@ import org.apache.solr.cloud.autoscaling.AutoScalingHandler;
 import org.apache.solr.common.AlreadyClosedException;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.cloud.ClusterState;
 import org.apache.solr.common.cloud.DocCollection;
 import org.apache.solr.common.cloud.Replica;
 import org.apache.solr.common.cloud.Replica.State;
@@ -177,6 +181,17 @@ public class CoreContainer {
 
   private final OrderedExecutor replayUpdatesExecutor;
 
+  /**
+   * Whether the firstSearcher warming of replicas that are not going to lead their shard is deferred
+   * until all the cores are loaded on startup, so that the cores that need to be ready first are not
+   * slowed down by it.
+   */
+  static final boolean DEFER_REPLICA_WARMING = Boolean.parseBoolean(System.getProperty("solr.deferReplicaWarming", "true"));
+
+  private final Set<String> coresWithDeferredWarming = ConcurrentHashMap.newKeySet();
+
+  private volatile Timer coreLoadTimer;
+
   protected volatile LogWatcher logging = null;
 
   private volatile CloserThread backgroundCloser = null;
@@ -615,6 +630,7 @@ public class CoreContainer {
         metricTag,true, "lazy", SolrInfoBean.Category.CONTAINER.toString(), "cores");
     metricManager.registerGauge(null, registryName, () -> solrCores.getAllCoreNames().size() - solrCores.getLoadedCoreNames().size(),
         metricTag,true, "unloaded", SolrInfoBean.Category.CONTAINER.toString(), "cores");
+    coreLoadTimer = metricManager.timer(null, registryName, "loadTime", SolrInfoBean.Category.CONTAINER.toString(), "cores");
     Path dataHome = cfg.getSolrDataHome() != null ? cfg.getSolrDataHome() : cfg.getCoreRootDirectory();
     metricManager.registerGauge(null, registryName, () -> dataHome.toFile().getTotalSpace(),
         metricTag,true, "totalSpace", SolrInfoBean.Category.CONTAINER.toString(), "fs");
@@ -678,6 +694,15 @@ public class CoreContainer {
       checkForDuplicateCoreNames(cds);
       status |= CORE_DISCOVERY_COMPLETE;
 
+      if (isZooKeeperAware() && DEFER_REPLICA_WARMING) {
+        ClusterState clusterState = getZkController().getClusterState();
+        for (CoreDescriptor cd : cds) {
+          if (cd.isLoadOnStartup() && !isLikelyLeader(cd, clusterState)) {
+            coresWithDeferredWarming.add(cd.getName());
+          }
+        }
+      }
+
       for (final CoreDescriptor cd : cds) {
         if (cd.isTransient() || !cd.isLoadOnStartup()) {
           solrCores.addCoreDescriptor(cd);
@@ -730,10 +755,12 @@ public class CoreContainer {
             }
           } finally {
             ExecutorUtil.shutdownAndAwaitTermination(coreLoadExecutor);
+            warmDeferredCores();
           }
         });
       } else {
         ExecutorUtil.shutdownAndAwaitTermination(coreLoadExecutor);
+        warmDeferredCores();
       }
     }
 
@@ -1174,6 +1201,7 @@ public class CoreContainer {
       throw new SolrException(ErrorCode.SERVICE_UNAVAILABLE, "Solr has been shutdown.");
     }
 
+    final long startNanos = System.nanoTime();
     SolrCore core = null;
     try {
       MDCLoggingContext.setCoreDescriptor(this, dcore);
@@ -1198,6 +1226,13 @@ public class CoreContainer {
 
       registerCore(dcore, core, publishState, newCollection);
 
+      final long loadNanos = System.nanoTime() - startNanos;
+      core.setLoadTimeMs(TimeUnit.NANOSECONDS.toMillis(loadNanos));
+      if (coreLoadTimer != null) {
+        coreLoadTimer.update(loadNanos, TimeUnit.NANOSECONDS);
+      }
+      log.info("Loaded SolrCore '{}' in {} ms", dcore.getName(), core.getLoadTimeMs());
+
       return core;
     } catch (Exception e) {
       coreInitFailures.put(dcore.getName(), new CoreLoadFailure(dcore, e));
@@ -1223,6 +1258,45 @@ public class CoreContainer {
     }
   }
 
+  /**
+   * @return true if the given core is likely to become the leader of its shard, that is when the
+   * current leader is this core or is not live. Replicas that cannot become leaders never are.
+   */
+  private boolean isLikelyLeader(CoreDescriptor cd, ClusterState clusterState) {
+    CloudDescriptor cloudDescriptor = cd.getCloudDescriptor();
+    if (cloudDescriptor == null) {
+      return true;
+    }
+    if (cloudDescriptor.getReplicaType() == Replica.Type.PULL) {
+      return false;
+    }
+    DocCollection collection = clusterState.getCollectionOrNull(cloudDescriptor.getCollectionName());
+    Replica leader = collection == null || cloudDescriptor.getShardId() == null ? null
+        : collection.getLeader(cloudDescriptor.getShardId());
+    return leader == null || leader.getName().equals(cloudDescriptor.getCoreNodeName())
+        || !clusterState.liveNodesContain(leader.getNodeName());
+  }
+
+  boolean isFirstSearcherWarmingDeferred(String coreName) {
+    return coresWithDeferredWarming.contains(coreName);
+  }
+
+  /**
+   * Runs the firstSearcher warming that was deferred while the cores were loaded on startup.
+   */
+  private void warmDeferredCores() {
+    for (String coreName : coresWithDeferredWarming) {
+      coresWithDeferredWarming.remove(coreName);
+      try (SolrCore core = solrCores.getCoreFromAnyList(coreName, true)) {
+        if (core != null) {
+          core.runDeferredFirstSearcherWarming();
+        }
+      } catch (Exception e) {
+        SolrException.log(log, "Error warming SolrCore " + coreName, e);
+      }
+    }
+  }
+
   public boolean isSharedFs(CoreDescriptor cd) {
     try (SolrCore core = this.getCore(cd.getName())) {
       if (core != null) {
@@ -134,9 +134,16 @@ public class NodeConfig {
     return updateShardHandlerConfig;
   }
 
+  /**
+   * @return the configured number of threads used to load cores on startup, or by default one per
+   * available processor but at least {@link NodeConfigBuilder#DEFAULT_CORE_LOAD_THREADS} (or
+   * {@link NodeConfigBuilder#DEFAULT_CORE_LOAD_THREADS_IN_CLOUD} in SolrCloud mode) since loading
+   * cores is mostly spent waiting for index files to be opened
+   */
   public int getCoreLoadThreadCount(boolean zkAware) {
     return coreLoadThreads == null ?
-        (zkAware ? NodeConfigBuilder.DEFAULT_CORE_LOAD_THREADS_IN_CLOUD : NodeConfigBuilder.DEFAULT_CORE_LOAD_THREADS)
+        Math.max(zkAware ? NodeConfigBuilder.DEFAULT_CORE_LOAD_THREADS_IN_CLOUD : NodeConfigBuilder.DEFAULT_CORE_LOAD_THREADS,
+            Runtime.getRuntime().availableProcessors())
         : coreLoadThreads;
   }
 
@@ -228,7 +235,7 @@ public class NodeConfig {
     private String configSetsHandlerClass = DEFAULT_CONFIGSETSHANDLERCLASS;
     private LogWatcherConfig logWatcherConfig = new LogWatcherConfig(true, null, null, 50);
     private CloudConfig cloudConfig;
-    private int coreLoadThreads = DEFAULT_CORE_LOAD_THREADS;
+    private Integer coreLoadThreads;
     private int replayUpdatesThreads = Runtime.getRuntime().availableProcessors();
     @Deprecated
     //Remove in 7.0 and put it all in the transientCache element in solrconfig.xml
@@ -23,6 +23,7 @@ import java.util.Locale;
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesFormat;
 import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.codecs.bloom.BloomFilteringPostingsFormat;
 import org.apache.lucene.codecs.lucene50.Lucene50StoredFieldsFormat.Mode;
 import org.apache.lucene.codecs.lucene80.Lucene80Codec;
 import org.apache.solr.common.SolrException.ErrorCode;
@@ -40,7 +41,10 @@ import org.slf4j.LoggerFactory;
  * <br>
  * Also, a string argument with name <code>compressionMode</code> can be
  * provided to chose between the different compression options for
- * stored fields
+ * stored fields.
+ * <br>
+ * Field types using the <code>BloomFilter</code> postings format get the
+ * default postings format wrapped with a bloom filter.
  * 
  * @lucene.experimental
  */
@@ -52,6 +56,13 @@ public class SchemaCodecFactory extends CodecFactory implements SolrCoreAware {
   public static final String COMPRESSION_MODE = "compressionMode";
   
   public static final Mode SOLR_DEFAULT_COMPRESSION_MODE = Mode.BEST_SPEED;
+
+  /**
+   * Name of the postings format to declare on a field type (typically the one of the uniqueKey field) to
+   * add a per-segment bloom filter on top of the default postings format, so that id lookups can skip
+   * the segments that don't contain the id.
+   */
+  public static final String BLOOM_POSTINGS_FORMAT = BloomFilteringPostingsFormat.BLOOM_CODEC_NAME;
   
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   
@@ -92,11 +103,17 @@ public class SchemaCodecFactory extends CodecFactory implements SolrCoreAware {
       log.debug("Using default compressionMode: " + compressionMode);
     }
     codec = new Lucene80Codec(compressionMode) {
+      // the SPI instance of the bloom format can only read, writing needs a delegate
+      private final PostingsFormat bloomPostingsFormat = new BloomFilteringPostingsFormat(super.getPostingsFormatForField(null));
+
       @Override
       public PostingsFormat getPostingsFormatForField(String field) {
         final SchemaField schemaField = core.getLatestSchema().getFieldOrNull(field);
         if (schemaField != null) {
           String postingsFormatName = schemaField.getType().getPostingsFormat();
+          if (BLOOM_POSTINGS_FORMAT.equals(postingsFormatName)) {
+            return bloomPostingsFormat;
+          }
           if (postingsFormatName != null) {
             return PostingsFormat.forName(postingsFormatName);
           }
@@ -252,6 +252,8 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
     useFilterForSortedQuery = getBool("query/useFilterForSortedQuery", false);
     queryResultWindowSize = Math.max(1, getInt("query/queryResultWindowSize", 1));
     queryResultMaxDocsCached = getInt("query/queryResultMaxDocsCached", Integer.MAX_VALUE);
+    idLookupCacheSize = getInt("query/idLookupCacheSize", 0);
+    uninvertPerSegment = getBool("query/uninvertPerSegment", false);
     enableLazyFieldLoading = getBool("query/enableLazyFieldLoading", false);
     
     useRangeVersionsForPeerSync = getBool("peerSync/useRangeVersions", true);
@@ -564,6 +566,10 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
   public final boolean useFilterForSortedQuery;
   public final int queryResultWindowSize;
   public final int queryResultMaxDocsCached;
+  /** Maximum number of unique key lookups cached per searcher, see {@link org.apache.solr.search.IdLookupCache}; 0 disables it. */
+  public final int idLookupCacheSize;
+  /** Whether terms faceting on multi-valued fields without docValues uninverts per segment rather than over the top-level reader. */
+  public final boolean uninvertPerSegment;
   public final boolean enableLazyFieldLoading;
   
   public final boolean useRangeVersionsForPeerSync;
@@ -901,6 +907,8 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
     m.put("useFilterForSortedQuery", useFilterForSortedQuery);
     m.put("queryResultWindowSize", queryResultWindowSize);
     m.put("queryResultMaxDocsCached", queryResultMaxDocsCached);
+    m.put("idLookupCacheSize", idLookupCacheSize);
+    m.put("uninvertPerSegment", uninvertPerSegment);
     m.put("enableLazyFieldLoading", enableLazyFieldLoading);
     m.put("maxBooleanClauses", booleanQueryMaxClauseCount);
     for (SolrPluginInfo plugin : plugins) {
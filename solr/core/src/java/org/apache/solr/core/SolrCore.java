@@ -54,6 +54,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -251,6 +252,23 @@ public final class SolrCore implements SolrInfoBean, SolrMetricProducer, Closeab
     return TimeUnit.MILLISECONDS.convert(System.nanoTime() - startNanoTime, TimeUnit.NANOSECONDS);
   }
 
+  private volatile long loadTimeMs = -1;
+
+  /**
+   * @return how long it took to create and register this core, or -1 if it is not loaded yet
+   */
+  public long getLoadTimeMs() {
+    return loadTimeMs;
+  }
+
+  void setLoadTimeMs(long loadTimeMs) {
+    this.loadTimeMs = loadTimeMs;
+  }
+
+  // whether the firstSearcher listeners should only run once all the cores of the node are loaded
+  private final boolean deferFirstSearcherWarming;
+  private final AtomicBoolean firstSearcherWarmingDeferred = new AtomicBoolean();
+
   private final RestManager restManager;
 
   public RestManager getRestManager() {
@@ -901,6 +919,7 @@ public final class SolrCore implements SolrInfoBean, SolrMetricProducer, Closeab
     assert ObjectReleaseTracker.track(searcherExecutor); // ensure that in unclean shutdown tests we still close this
 
     this.coreContainer = coreContainer;
+    this.deferFirstSearcherWarming = prev == null && coreContainer.isFirstSearcherWarmingDeferred(name);
 
     final CountDownLatch latch = new CountDownLatch(1);
 
@@ -1166,6 +1185,7 @@ public final class SolrCore implements SolrInfoBean, SolrMetricProducer, Closeab
 
     manager.registerGauge(this, registry, () -> name == null ? "(null)" : name, getMetricTag(), true, "coreName", Category.CORE.toString());
     manager.registerGauge(this, registry, () -> startTime, getMetricTag(), true, "startTime", Category.CORE.toString());
+    manager.registerGauge(this, registry, () -> loadTimeMs, getMetricTag(), true, "loadTime", Category.CORE.toString());
     manager.registerGauge(this, registry, () -> getOpenCount(), getMetricTag(), true, "refCount", Category.CORE.toString());
     manager.registerGauge(this, registry, () -> resourceLoader.getInstancePath().toString(), getMetricTag(), true, "instanceDir", Category.CORE.toString());
     manager.registerGauge(this, registry, () -> isClosed() ? "(closed)" : getIndexDir(), getMetricTag(), true, "indexDir", Category.CORE.toString());
@@ -1868,6 +1888,51 @@ public final class SolrCore implements SolrInfoBean, SolrMetricProducer, Closeab
     return getSearcher(false,true,null);
   }
 
+  /**
+   * @return true if the firstSearcher listeners should not run now but once all the cores of the
+   * node are loaded, see {@link #runDeferredFirstSearcherWarming()}
+   */
+  private boolean deferFirstSearcherWarming() {
+    if (deferFirstSearcherWarming && firstSearcherWarmingDeferred.compareAndSet(false, true)) {
+      log.info("{}Deferring firstSearcher warming until all cores are loaded", logid);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Runs the firstSearcher listeners against the current searcher if they were deferred when this
+   * core was loaded on startup. The listeners run in the background, on the searcher executor.
+   */
+  void runDeferredFirstSearcherWarming() {
+    if (!firstSearcherWarmingDeferred.compareAndSet(true, false) || isClosed()) {
+      return;
+    }
+    final RefCounted<SolrIndexSearcher> searcherHolder = getSearcher();
+    try {
+      searcherExecutor.submit(() -> {
+        Timer.Context warmupContext = newSearcherWarmupTimer.time();
+        try {
+          for (SolrEventListener listener : firstSearcherListeners) {
+            listener.newSearcher(searcherHolder.get(), null);
+          }
+        } catch (Throwable e) {
+          SolrException.log(log, null, e);
+          if (e instanceof Error) {
+            throw (Error) e;
+          }
+        } finally {
+          warmupContext.close();
+          searcherHolder.decref();
+        }
+        return null;
+      });
+    } catch (RuntimeException e) {
+      searcherHolder.decref();
+      throw e;
+    }
+  }
+
   /**
    * Executes the lambda with the {@link SolrIndexSearcher}.  This is more convenient than using
    * {@link #getSearcher()} since there is no ref-counting business to worry about.
@@ -2310,7 +2375,7 @@ public final class SolrCore implements SolrInfoBean, SolrMetricProducer, Closeab
           });
         }
 
-        if (currSearcher == null) {
+        if (currSearcher == null && !deferFirstSearcherWarming()) {
           future = searcherExecutor.submit(() -> {
             try {
               for (SolrEventListener listener : firstSearcherListeners) {
@@ -472,6 +472,7 @@ public class CollectionsHandler extends RequestHandlerBase implements Permission
           SHARDS_PROP,
           STATE_FORMAT,
           AUTO_ADD_REPLICAS,
+          DocCollection.PER_REPLICA_STATE,
           RULE,
           SNITCH,
           PULL_REPLICAS,
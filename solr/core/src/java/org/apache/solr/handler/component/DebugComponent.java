@@ -29,7 +29,17 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.ScorerSupplier;
+import org.apache.lucene.search.Weight;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
@@ -39,6 +49,9 @@ import org.apache.solr.common.util.SuppressForbidden;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.search.DocList;
 import org.apache.solr.search.QueryParsing;
+import org.apache.solr.search.QueryUtils;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.search.SolrIndexSearcher.ProcessedFilter;
 import org.apache.solr.search.facet.FacetDebugInfo;
 import org.apache.solr.util.SolrPluginUtils;
 
@@ -136,6 +149,13 @@ public class DebugComponent extends SearchComponent
           }
           info.add("parsed_filter_queries",fqs);
         }
+
+        if (rb.isDebugQuery() && rb.getQuery() != null) {
+          NamedList<Object> indexOrDocValues = getIndexOrDocValuesInfo(rb);
+          if (indexOrDocValues.size() > 0) {
+            info.add("indexOrDocValues", indexOrDocValues);
+          }
+        }
         
         // Add this directly here?
         rb.rsp.add("debug", rb.getDebugInfo() );
@@ -144,6 +164,95 @@ public class DebugComponent extends SearchComponent
   }
 
 
+  /**
+   * Tells how the {@link IndexOrDocValuesQuery}s that are required by the main query and the
+   * filters are expected to run: for each of them, on how many segments it uses the index or
+   * checks doc values, given the summed costs of its index query and of the clause that leads
+   * iteration on these segments.
+   */
+  private NamedList<Object> getIndexOrDocValuesInfo(ResponseBuilder rb) throws IOException {
+    SolrIndexSearcher searcher = rb.req.getSearcher();
+    Query query = QueryUtils.makeQueryable(rb.getQuery());
+    if (rb.getFilters() != null) {
+      // filters are intersected the same way as when searching
+      ProcessedFilter pf = searcher.getProcessedFilter(null, rb.getFilters());
+      if (pf.filter != null) {
+        query = new BooleanQuery.Builder().add(query, Occur.MUST).add(pf.filter, Occur.FILTER).build();
+      }
+    }
+
+    List<Query> required = new ArrayList<>();
+    addRequiredClauses(searcher.rewrite(query), required);
+    NamedList<Object> info = new SimpleOrderedMap<>();
+    if (required.stream().noneMatch(q -> q instanceof IndexOrDocValuesQuery)) {
+      return info;
+    }
+
+    List<Weight> weights = new ArrayList<>(required.size());
+    for (Query q : required) {
+      weights.add(searcher.createWeight(q, ScoreMode.COMPLETE_NO_SCORES, 1));
+    }
+    long[] indexSegments = new long[required.size()];
+    long[] docValuesSegments = new long[required.size()];
+    long[] indexCosts = new long[required.size()];
+    long[] leadCosts = new long[required.size()];
+    long[] costs = new long[required.size()];
+    leaves: for (LeafReaderContext context : searcher.getTopReaderContext().leaves()) {
+      long leadCost = Long.MAX_VALUE;
+      for (int i = 0; i < weights.size(); i++) {
+        ScorerSupplier supplier = weights.get(i).scorerSupplier(context);
+        if (supplier == null) {
+          // nothing to run on this segment
+          continue leaves;
+        }
+        costs[i] = supplier.cost();
+        leadCost = Math.min(leadCost, costs[i]);
+      }
+      for (int i = 0; i < weights.size(); i++) {
+        if (required.get(i) instanceof IndexOrDocValuesQuery) {
+          if (IndexOrDocValuesQuery.useDocValues(costs[i], leadCost)) {
+            docValuesSegments[i]++;
+          } else {
+            indexSegments[i]++;
+          }
+          indexCosts[i] += costs[i];
+          leadCosts[i] += leadCost;
+        }
+      }
+    }
+
+    for (int i = 0; i < required.size(); i++) {
+      if (required.get(i) instanceof IndexOrDocValuesQuery) {
+        NamedList<Object> queryInfo = new SimpleOrderedMap<>();
+        queryInfo.add("indexSegments", indexSegments[i]);
+        queryInfo.add("docValuesSegments", docValuesSegments[i]);
+        queryInfo.add("indexCost", indexCosts[i]);
+        queryInfo.add("leadCost", leadCosts[i]);
+        info.add(QueryParsing.toString(required.get(i), rb.req.getSchema()), queryInfo);
+      }
+    }
+    return info;
+  }
+
+  /** Collects the clauses that are intersected to find the matches of the given query. */
+  private static void addRequiredClauses(Query query, List<Query> required) {
+    if (query instanceof BoostQuery) {
+      addRequiredClauses(((BoostQuery) query).getQuery(), required);
+    } else if (query instanceof ConstantScoreQuery) {
+      addRequiredClauses(((ConstantScoreQuery) query).getQuery(), required);
+    } else if (query instanceof BooleanQuery
+        && ((BooleanQuery) query).getMinimumNumberShouldMatch() == 0
+        && ((BooleanQuery) query).clauses().stream().anyMatch(BooleanClause::isRequired)) {
+      for (BooleanClause clause : ((BooleanQuery) query).clauses()) {
+        if (clause.isRequired()) {
+          addRequiredClauses(clause.getQuery(), required);
+        }
+      }
+    } else {
+      required.add(query);
+    }
+  }
+
   private void doDebugTrack(ResponseBuilder rb) {
     SolrQueryRequest req = rb.req;
     String rid = req.getParams().get(CommonParams.REQUEST_ID);
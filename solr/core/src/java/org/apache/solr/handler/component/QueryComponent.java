@@ -94,9 +94,11 @@ import org.apache.solr.search.grouping.distributed.command.QueryCommand.Builder;
 import org.apache.solr.search.grouping.distributed.command.SearchGroupsFieldCommand;
 import org.apache.solr.search.grouping.distributed.command.TopGroupsFieldCommand;
 import org.apache.solr.search.grouping.distributed.requestfactory.SearchGroupsRequestFactory;
+import org.apache.solr.search.grouping.distributed.requestfactory.SinglePassGroupsRequestFactory;
 import org.apache.solr.search.grouping.distributed.requestfactory.StoredFieldsShardRequestFactory;
 import org.apache.solr.search.grouping.distributed.requestfactory.TopGroupsShardRequestFactory;
 import org.apache.solr.search.grouping.distributed.responseprocessor.SearchGroupShardResponseProcessor;
+import org.apache.solr.search.grouping.distributed.responseprocessor.SinglePassGroupsShardResponseProcessor;
 import org.apache.solr.search.grouping.distributed.responseprocessor.StoredFieldsShardResponseProcessor;
 import org.apache.solr.search.grouping.distributed.responseprocessor.TopGroupsShardResponseProcessor;
 import org.apache.solr.search.grouping.distributed.shardresultserializer.SearchGroupsResultTransformer;
@@ -360,6 +362,9 @@ public class QueryComponent extends SearchComponent
         } else if (params.getBool(GroupParams.GROUP_DISTRIBUTED_SECOND, false)) {
           doProcessGroupedDistributedSearchSecondPhase(rb, cmd, result);
           return;
+        } else if (params.getBool(GroupParams.GROUP_DISTRIBUTED_SINGLE, false)) {
+          doProcessGroupedDistributedSearchSinglePass(rb, cmd, result);
+          return;
         }
 
         doProcessGroupedSearch(rb, cmd, result);
@@ -512,12 +517,21 @@ public class QueryComponent extends SearchComponent
     } else if (rb.stage < ResponseBuilder.STAGE_TOP_GROUPS) {
       nextStage = ResponseBuilder.STAGE_TOP_GROUPS;
     } else if (rb.stage == ResponseBuilder.STAGE_TOP_GROUPS) {
-      shardRequestFactory = new SearchGroupsRequestFactory();
-      nextStage = ResponseBuilder.STAGE_EXECUTE_QUERY;
+      if (isSinglePassGrouping(rb)) {
+        // the search groups and the top groups come back together, skip STAGE_EXECUTE_QUERY
+        shardRequestFactory = new SinglePassGroupsRequestFactory();
+        nextStage = ResponseBuilder.STAGE_GET_FIELDS;
+      } else {
+        shardRequestFactory = new SearchGroupsRequestFactory();
+        nextStage = ResponseBuilder.STAGE_EXECUTE_QUERY;
+      }
     } else if (rb.stage < ResponseBuilder.STAGE_EXECUTE_QUERY) {
       nextStage = ResponseBuilder.STAGE_EXECUTE_QUERY;
     } else if (rb.stage == ResponseBuilder.STAGE_EXECUTE_QUERY) {
-      shardRequestFactory = new TopGroupsShardRequestFactory();
+      // another component may still have asked for this stage
+      if (!isSinglePassGrouping(rb)) {
+        shardRequestFactory = new TopGroupsShardRequestFactory();
+      }
       nextStage = ResponseBuilder.STAGE_GET_FIELDS;
     } else if (rb.stage < ResponseBuilder.STAGE_GET_FIELDS) {
       nextStage = ResponseBuilder.STAGE_GET_FIELDS;
@@ -534,6 +548,20 @@ public class QueryComponent extends SearchComponent
     return nextStage;
   }
 
+  /**
+   * Whether the shards compute their top groups on their own, as requested by {@link GroupParams#GROUP_DISTRIBUTED_SINGLE_PASS}.
+   * This is only correct when all documents of a group reside on the same shard, which is up to the caller: even with
+   * router.field set to the group field, documents indexed with an explicit _route_ are placed elsewhere.
+   * Only a single group.field is supported.
+   */
+  protected boolean isSinglePassGrouping(ResponseBuilder rb) {
+    GroupingSpecification groupingSpec = rb.getGroupingSpec();
+    if (groupingSpec.getFields().length != 1 || groupingSpec.getQueries().length > 0 || groupingSpec.getFunctions().length > 0) {
+      return false;
+    }
+    return rb.req.getParams().getBool(GroupParams.GROUP_DISTRIBUTED_SINGLE_PASS, false);
+  }
+
   protected int regularDistributedProcess(ResponseBuilder rb) {
     if (rb.stage < ResponseBuilder.STAGE_PARSE_QUERY)
       return ResponseBuilder.STAGE_PARSE_QUERY;
@@ -565,7 +593,9 @@ public class QueryComponent extends SearchComponent
 
   protected void handleGroupedResponses(ResponseBuilder rb, ShardRequest sreq) {
     ShardResponseProcessor responseProcessor = null;
-    if ((sreq.purpose & ShardRequest.PURPOSE_GET_TOP_GROUPS) != 0) {
+    if ((sreq.purpose & ShardRequest.PURPOSE_GET_TOP_GROUPS) != 0 && (sreq.purpose & ShardRequest.PURPOSE_GET_TOP_IDS) != 0) {
+      responseProcessor = new SinglePassGroupsShardResponseProcessor();
+    } else if ((sreq.purpose & ShardRequest.PURPOSE_GET_TOP_GROUPS) != 0) {
       responseProcessor = new SearchGroupShardResponseProcessor();
     } else if ((sreq.purpose & ShardRequest.PURPOSE_GET_TOP_IDS) != 0) {
       responseProcessor = new TopGroupsShardResponseProcessor();
@@ -1246,7 +1276,7 @@ public class QueryComponent extends SearchComponent
     return true;
   }
 
-  private void doProcessGroupedDistributedSearchFirstPhase(ResponseBuilder rb, QueryCommand cmd, QueryResult result) throws IOException {
+  private Map<String, SearchGroupsFieldCommand> doProcessGroupedDistributedSearchFirstPhase(ResponseBuilder rb, QueryCommand cmd, QueryResult result) throws IOException {
 
     GroupingSpecification groupingSpec = rb.getGroupingSpec();
     assert null != groupingSpec : "GroupingSpecification is null";
@@ -1263,14 +1293,16 @@ public class QueryComponent extends SearchComponent
         .setIncludeHitCount(true)
         .setSearcher(searcher);
 
+    Map<String, SearchGroupsFieldCommand> fieldCommands = new LinkedHashMap<>();
     for (String field : groupingSpec.getFields()) {
-      topsGroupsActionBuilder.addCommandField(new SearchGroupsFieldCommand.Builder()
+      SearchGroupsFieldCommand fieldCommand = new SearchGroupsFieldCommand.Builder()
           .setField(schema.getField(field))
           .setGroupSort(groupingSpec.getGroupSort())
           .setTopNGroups(cmd.getOffset() + cmd.getLen())
           .setIncludeGroupCount(groupingSpec.isIncludeGroupCount())
-          .build()
-      );
+          .build();
+      fieldCommands.put(field, fieldCommand);
+      topsGroupsActionBuilder.addCommandField(fieldCommand);
     }
 
     CommandHandler commandHandler = topsGroupsActionBuilder.build();
@@ -1280,6 +1312,24 @@ public class QueryComponent extends SearchComponent
     rsp.add("firstPhase", commandHandler.processResult(result, serializer));
     rsp.add("totalHitCount", commandHandler.getTotalHitCount());
     rb.setResult(result);
+    return fieldCommands;
+  }
+
+  private void doProcessGroupedDistributedSearchSinglePass(ResponseBuilder rb, QueryCommand cmd, QueryResult result) throws IOException, SyntaxError {
+    // the groups of this shard are the final groups, no need to wait for the other shards
+    Map<String, SearchGroupsFieldCommand> fieldCommands = doProcessGroupedDistributedSearchFirstPhase(rb, cmd, new QueryResult());
+    Map<String, Collection<SearchGroup<BytesRef>>> topGroups = new LinkedHashMap<>();
+    List<String> nullGroupFields = new ArrayList<>();
+    for (Map.Entry<String, SearchGroupsFieldCommand> entry : fieldCommands.entrySet()) {
+      Collection<SearchGroup<BytesRef>> searchGroups = entry.getValue().result().getSearchGroups();
+      topGroups.put(entry.getKey(), searchGroups != null ? searchGroups : Collections.<SearchGroup<BytesRef>>emptyList());
+      if (entry.getValue().hasNullGroup()) {
+        nullGroupFields.add(entry.getKey());
+      }
+    }
+    // the null group may be spread over several shards, let the merge count it once
+    rb.rsp.add(SinglePassGroupsShardResponseProcessor.NULL_GROUP_FIELDS, nullGroupFields);
+    doProcessGroupedDistributedSearchSecondPhase(rb, cmd, result, topGroups);
   }
 
   private void doProcessGroupedDistributedSearchSecondPhase(ResponseBuilder rb, QueryCommand cmd, QueryResult result) throws IOException, SyntaxError {
@@ -1287,24 +1337,10 @@ public class QueryComponent extends SearchComponent
     GroupingSpecification groupingSpec = rb.getGroupingSpec();
     assert null != groupingSpec : "GroupingSpecification is null";
 
-    SolrQueryRequest req = rb.req;
-    SolrQueryResponse rsp = rb.rsp;
-
-    SolrParams params = req.getParams();
-
-    SolrIndexSearcher searcher = req.getSearcher();
-    IndexSchema schema = searcher.getSchema();
-
-    boolean needScores = (cmd.getFlags() & SolrIndexSearcher.GET_SCORES) != 0;
-
-    CommandHandler.Builder secondPhaseBuilder = new CommandHandler.Builder()
-        .setQueryCommand(cmd)
-        .setTruncateGroups(groupingSpec.isTruncateGroups() && groupingSpec.getFields().length > 0)
-        .setSearcher(searcher);
-
-    int docsToCollect = Grouping.getMax(groupingSpec.getWithinGroupOffset(), groupingSpec.getWithinGroupLimit(), searcher.maxDoc());
-    docsToCollect = Math.max(docsToCollect, 1);
+    SolrParams params = rb.req.getParams();
+    IndexSchema schema = rb.req.getSearcher().getSchema();
 
+    Map<String, Collection<SearchGroup<BytesRef>>> topGroupsByField = new LinkedHashMap<>();
     for (String field : groupingSpec.getFields()) {
       SchemaField schemaField = schema.getField(field);
       String[] topGroupsParam = params.getParams(GroupParams.GROUP_DISTRIBUTED_TOPGROUPS_PREFIX + field);
@@ -1322,14 +1358,42 @@ public class QueryComponent extends SearchComponent
         }
         topGroups.add(searchGroup);
       }
+      topGroupsByField.put(field, topGroups);
+    }
+
+    doProcessGroupedDistributedSearchSecondPhase(rb, cmd, result, topGroupsByField);
+  }
+
+  private void doProcessGroupedDistributedSearchSecondPhase(ResponseBuilder rb, QueryCommand cmd, QueryResult result,
+                                                            Map<String, Collection<SearchGroup<BytesRef>>> topGroupsByField) throws IOException, SyntaxError {
+
+    GroupingSpecification groupingSpec = rb.getGroupingSpec();
+    assert null != groupingSpec : "GroupingSpecification is null";
+
+    SolrQueryRequest req = rb.req;
+    SolrQueryResponse rsp = rb.rsp;
+
+    SolrIndexSearcher searcher = req.getSearcher();
+    IndexSchema schema = searcher.getSchema();
+
+    boolean needScores = (cmd.getFlags() & SolrIndexSearcher.GET_SCORES) != 0;
+
+    CommandHandler.Builder secondPhaseBuilder = new CommandHandler.Builder()
+        .setQueryCommand(cmd)
+        .setTruncateGroups(groupingSpec.isTruncateGroups() && groupingSpec.getFields().length > 0)
+        .setSearcher(searcher);
+
+    int docsToCollect = Grouping.getMax(groupingSpec.getWithinGroupOffset(), groupingSpec.getWithinGroupLimit(), searcher.maxDoc());
+    docsToCollect = Math.max(docsToCollect, 1);
 
+    for (Map.Entry<String, Collection<SearchGroup<BytesRef>>> entry : topGroupsByField.entrySet()) {
       secondPhaseBuilder.addCommandField(
           new TopGroupsFieldCommand.Builder()
               .setQuery(cmd.getQuery())
-              .setField(schemaField)
+              .setField(schema.getField(entry.getKey()))
               .setGroupSort(groupingSpec.getGroupSort())
               .setSortWithinGroup(groupingSpec.getSortWithinGroup())
-              .setFirstPhaseGroups(topGroups)
+              .setFirstPhaseGroups(entry.getValue())
               .setMaxDocPerGroup(docsToCollect)
               .setNeedScores(needScores)
               .setNeedMaxScore(needScores)
@@ -293,6 +293,7 @@ public class SpellCheckComponent extends SearchComponent implements SolrCoreAwar
         .setMaxCollationEvaluations(maxCollationEvaluations)
         .setSuggestionsMayOverlap(suggestionsMayOverlap)
         .setDocCollectionLimit(maxCollationCollectDocs)
+        .setThreads(params.getInt(SPELLCHECK_COLLATE_THREADS, 0))
     ;
     List<SpellCheckCollation> collations = collator.collate(spellingResult, q, rb);
     //by sorting here we guarantee a non-distributed request returns all 
@@ -32,6 +32,9 @@ import java.util.*;
  * Implementation of {@link org.apache.calcite.rel.core.Aggregate} relational expression in Solr.
  */
 class SolrAggregate extends Aggregate implements SolrRel {
+  /** The metric that COUNT(DISTINCT x) is pushed down as, see {@link org.apache.solr.client.solrj.io.stream.metrics.CountDistinctMetric} */
+  static final String COUNT_DISTINCT = "COUNTDIST";
+
   private static final List<SqlAggFunction> SUPPORTED_AGGREGATIONS = Arrays.asList(
       SqlStdOperatorTable.COUNT,
       SqlStdOperatorTable.SUM,
@@ -72,7 +75,7 @@ class SolrAggregate extends Aggregate implements SolrRel {
       AggregateCall aggCall = namedAggCall.getKey();
 
       Pair<String, String> metric = toSolrMetric(implementor, aggCall, inNames);
-      implementor.addReverseAggMapping(namedAggCall.getValue(), metric.getKey().toLowerCase(Locale.ROOT)+"("+metric.getValue()+")");
+      implementor.addReverseAggMapping(namedAggCall.getValue(), Implementor.metricIdentifier(metric.getKey(), metric.getValue()));
       implementor.addMetricPair(namedAggCall.getValue(), metric.getKey(), metric.getValue());
       /*
       if(aggCall.getName() == null) {
@@ -89,6 +92,16 @@ class SolrAggregate extends Aggregate implements SolrRel {
     }
   }
 
+  /** Returns whether all the aggregate calls can be computed by Solr, among distinct calls only COUNT(DISTINCT x) can */
+  static boolean isSupported(List<AggregateCall> aggCalls) {
+    for(AggregateCall aggCall : aggCalls) {
+      if(aggCall.isDistinct() && (aggCall.getAggregation().equals(SqlStdOperatorTable.COUNT) == false || aggCall.getArgList().size() != 1)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private Pair<String, String> toSolrMetric(Implementor implementor, AggregateCall aggCall, List<String> inNames) {
     SqlAggFunction aggregation = aggCall.getAggregation();
     List<Integer> args = aggCall.getArgList();
@@ -100,7 +113,11 @@ class SolrAggregate extends Aggregate implements SolrRel {
       case 1:
         String inName = inNames.get(args.get(0));
         String name = implementor.fieldMappings.getOrDefault(inName, inName);
-        if(SUPPORTED_AGGREGATIONS.contains(aggregation)) {
+        if(aggCall.isDistinct()) {
+          if(aggregation.equals(SqlStdOperatorTable.COUNT)) {
+            return new Pair<>(COUNT_DISTINCT, name);
+          }
+        } else if(SUPPORTED_AGGREGATIONS.contains(aggregation)) {
           return new Pair<>(aggregation.getName(), name);
         }
       default:
@@ -301,11 +301,16 @@ class SolrFilter extends Filter implements SolrRel {
 
     private String translateComparison(RexNode node) {
       Pair<String, RexLiteral> binaryTranslated = null;
+      SqlKind kind = node.getKind();
       if (((RexCall) node).getOperands().size() == 2) {
         binaryTranslated = translateBinary((RexCall) node);
+        if (((RexCall) node).getOperands().get(0).getKind() == SqlKind.LITERAL) {
+          // 5 < count(*) is translated as count(*) > 5
+          kind = kind.reverse();
+        }
       }
 
-      switch (node.getKind()) {
+      switch (kind) {
         case EQUALS:
           String terms = binaryTranslated.getValue().toString().trim();
           String clause = "eq(" + binaryTranslated.getKey() + "," + terms + ")";
@@ -345,6 +350,9 @@ class SolrFilter extends Filter implements SolrRel {
       }
       final Pair<String, RexLiteral> b = translateBinary2(right, left);
       if (b != null) {
+        if(reverseAggMappings.containsKey(b.getKey())) {
+          return new Pair<String, RexLiteral>(reverseAggMappings.get(b.getKey()),b.getValue());
+        }
         return b;
       }
       throw new AssertionError("cannot translate call " + call);
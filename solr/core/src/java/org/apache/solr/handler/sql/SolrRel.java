@@ -20,6 +20,7 @@ import org.apache.calcite.plan.Convention;
 import org.apache.calcite.plan.RelOptTable;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.util.Pair;
+import org.apache.solr.client.solrj.io.stream.metrics.CountDistinctMetric;
 
 import java.util.*;
 
@@ -61,6 +62,12 @@ interface SolrRel extends RelNode {
       }
     }
 
+    /** Returns the identifier of the streaming {@link org.apache.solr.client.solrj.io.stream.metrics.Metric} that computes the aggregate */
+    static String metricIdentifier(String metric, String column) {
+      String functionName = SolrAggregate.COUNT_DISTINCT.equals(metric) ? CountDistinctMetric.COUNT_DISTINCT : metric.toLowerCase(Locale.ROOT);
+      return functionName + "(" + column + ")";
+    }
+
     void addQuery(String query) {
       this.query = query;
     }
@@ -83,7 +90,7 @@ interface SolrRel extends RelNode {
       column = this.fieldMappings.getOrDefault(column, column);
       this.metricPairs.add(new Pair<>(metric, column));
 
-      String metricIdentifier = metric.toLowerCase(Locale.ROOT) + "(" + column + ")";
+      String metricIdentifier = metricIdentifier(metric, column);
       if(outName != null) {
         this.addFieldMapping(outName, metricIdentifier, true);
       }
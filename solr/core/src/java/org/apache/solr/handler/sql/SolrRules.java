@@ -231,6 +231,12 @@ class SolrRules {
       super(LogicalAggregate.class, "SolrAggregateRule");
     }
 
+    @Override
+    public boolean matches(RelOptRuleCall call) {
+      // other distinct aggregates are left to Calcite, which expands them into a group by
+      return SolrAggregate.isSupported(((LogicalAggregate) call.rel(0)).getAggCallList());
+    }
+
     @Override
     public RelNode convert(RelNode rel) {
       final LogicalAggregate agg = (LogicalAggregate) rel;
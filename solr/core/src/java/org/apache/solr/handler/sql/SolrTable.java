@@ -49,6 +49,7 @@ import org.apache.solr.client.solrj.io.stream.*;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionParser;
 import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
 import org.apache.solr.client.solrj.io.stream.metrics.*;
+import org.apache.solr.common.cloud.ZkStateReader;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.handler.StreamHandler;
@@ -131,7 +132,7 @@ class SolrTable extends AbstractQueryableTable implements TranslatableTable {
         if(buckets.isEmpty()) {
           tupleStream = handleStats(zk, collection, q, metricPairs, fields);
         } else {
-          if(mapReduce) {
+          if(mapReduce || (hasCountDistinct(metricPairs) && !isSingleShard(zk, collection))) {
             tupleStream = handleGroupByMapReduce(zk,
                                                  collection,
                                                  properties,
@@ -225,6 +226,24 @@ class SolrTable extends AbstractQueryableTable implements TranslatableTable {
     }
   }
 
+  private static boolean hasCountDistinct(List<Pair<String, String>> metricPairs) {
+    for(Pair<String, String> metricPair : metricPairs) {
+      if(SolrAggregate.COUNT_DISTINCT.equals(metricPair.getKey())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * JSON facets merge the unique() counts of several shards approximately, so an exact COUNT(DISTINCT x)
+   * is only computed by facets on single shard collections, and by map_reduce otherwise.
+   */
+  private static boolean isSingleShard(String zk, String collection) throws IOException {
+    ZkStateReader zkStateReader = StreamHandler.getClientCache().getCloudSolrClient(zk).getZkStateReader();
+    return CloudSolrStream.getSlices(collection, zkStateReader, true).length == 1;
+  }
+
   private List<Metric> buildMetrics(List<Pair<String, String>> metricPairs, boolean ifEmptyCount) {
     List<Metric> metrics = new ArrayList<>(metricPairs.size());
     metrics.addAll(metricPairs.stream().map(this::getMetric).collect(Collectors.toList()));
@@ -247,6 +266,8 @@ class SolrTable extends AbstractQueryableTable implements TranslatableTable {
         return new MaxMetric(metricPair.getValue());
       case "AVG":
         return new MeanMetric(metricPair.getValue());
+      case SolrAggregate.COUNT_DISTINCT:
+        return new CountDistinctMetric(metricPair.getValue());
       default:
         throw new IllegalArgumentException(metricPair.getKey());
     }
@@ -494,6 +515,7 @@ class SolrTable extends AbstractQueryableTable implements TranslatableTable {
         .withFunctionName("max", MaxMetric.class)
         .withFunctionName("avg", MeanMetric.class)
         .withFunctionName("count", CountMetric.class)
+        .withFunctionName("countDist", CountDistinctMetric.class)
         .withFunctionName("and", AndEvaluator.class)
         .withFunctionName("or", OrEvaluator.class)
         .withFunctionName("not", NotEvaluator.class)
@@ -522,8 +544,8 @@ class SolrTable extends AbstractQueryableTable implements TranslatableTable {
       tupleStream = parallelStream;
     }
 
-    //TODO: Currently we are not pushing down the having clause.
-    //      We need to push down the having clause to ensure that LIMIT does not cut off records prior to the having filter.
+    // The having clause is evaluated by the workers, right after the rollup, so the LIMIT below never cuts off
+    // records prior to the having filter.
 
     if(orders != null && orders.size() > 0) {
       if(!sortsEqual(buckets, sortDirection, orders)) {
@@ -610,7 +632,9 @@ class SolrTable extends AbstractQueryableTable implements TranslatableTable {
       sorts = getComps(orders);
     }
 
-    int overfetch = (int)(limit * 1.25);
+    // JSON facets can't filter buckets on their metrics, so when there is a having clause all the buckets
+    // are fetched, otherwise the LIMIT could be reached with buckets that the having filter drops.
+    int overfetch = havingPredicate == null ? (int)(limit * 1.25) : -1;
 
     TupleStream tupleStream = new FacetStream(zkHost,
                                               collection,
@@ -631,6 +655,7 @@ class SolrTable extends AbstractQueryableTable implements TranslatableTable {
         .withFunctionName("max", MaxMetric.class)
         .withFunctionName("avg", MeanMetric.class)
         .withFunctionName("count", CountMetric.class)
+        .withFunctionName("countDist", CountDistinctMetric.class)
         .withFunctionName("and", AndEvaluator.class)
         .withFunctionName("or", OrEvaluator.class)
         .withFunctionName("not", NotEvaluator.class)
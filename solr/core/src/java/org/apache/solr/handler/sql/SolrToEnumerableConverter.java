@@ -24,6 +24,7 @@ import org.apache.calcite.linq4j.tree.Expressions;
 import org.apache.calcite.linq4j.tree.MethodCallExpression;
 import org.apache.calcite.plan.*;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
 import org.apache.calcite.rel.convert.ConverterImpl;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.type.RelDataType;
@@ -54,6 +55,35 @@ class SolrToEnumerableConverter extends ConverterImpl implements EnumerableRel {
     return super.computeSelfCost(planner, mq).multiplyBy(.1);
   }
 
+  @Override
+  public RelWriter explainTerms(RelWriter pw) {
+    super.explainTerms(pw);
+    // While planning the input is a set of alternatives, once a plan was chosen show what is pushed down to Solr
+    if(isSolrPlan(getInput())) {
+      final SolrRel.Implementor solrImplementor = new SolrRel.Implementor();
+      solrImplementor.visitChild(0, getInput());
+      pw.itemIf("q", solrImplementor.query, solrImplementor.query != null)
+          .itemIf("buckets", solrImplementor.buckets, !solrImplementor.buckets.isEmpty())
+          .itemIf("metrics", solrImplementor.metricPairs, !solrImplementor.metricPairs.isEmpty())
+          .itemIf("having", solrImplementor.havingPredicate, solrImplementor.havingPredicate != null)
+          .itemIf("sort", solrImplementor.orders, !solrImplementor.orders.isEmpty())
+          .itemIf("limit", solrImplementor.limitValue, solrImplementor.limitValue != null);
+    }
+    return pw;
+  }
+
+  private static boolean isSolrPlan(RelNode node) {
+    if(!(node instanceof SolrRel)) {
+      return false;
+    }
+    for(RelNode input : node.getInputs()) {
+      if(!isSolrPlan(input)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public Result implement(EnumerableRelImplementor implementor, Prefer pref) {
     // Generates a call to "query" with the appropriate fields
     final BlockBuilder list = new BlockBuilder();
@@ -18,20 +18,36 @@ package org.apache.solr.highlight;
 
 import java.io.IOException;
 import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Predicate;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.uhighlight.AnalysisOffsetsCache;
 import org.apache.lucene.search.uhighlight.CustomSeparatorBreakIterator;
 import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.FieldHighlighter;
+import org.apache.lucene.search.uhighlight.FieldOffsetStrategy;
 import org.apache.lucene.search.uhighlight.LengthGoalBreakIterator;
 import org.apache.lucene.search.uhighlight.PassageFormatter;
 import org.apache.lucene.search.uhighlight.PassageScorer;
@@ -42,8 +58,11 @@ import org.apache.solr.common.params.HighlightParams;
 import org.apache.solr.common.params.SolrParams;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.common.util.StrUtils;
 import org.apache.solr.core.PluginInfo;
+import org.apache.solr.handler.component.ResponseBuilder;
 import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.request.SolrRequestInfo;
 import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.SchemaField;
 import org.apache.solr.search.DocIterator;
@@ -81,6 +100,7 @@ import org.apache.solr.util.plugin.PluginInfoInitialized;
  * &lt;int name="hl.cacheFieldValCharsThreshold"&gt;524288&lt;/int&gt;
  * &lt;str name="hl.offsetSource"&gt;&lt;/str&gt;
  * &lt;bool name="hl.weightMatches"&gt;true&lt;/bool&gt;
+ * &lt;int name="hl.threads"&gt;0&lt;/int&gt;
  * &lt;/lst&gt;
  * &lt;/requestHandler&gt;
  * </pre>
@@ -111,7 +131,18 @@ import org.apache.solr.util.plugin.PluginInfoInitialized;
  * <li>hl.cacheFieldValCharsThreshold (int) controls how many characters from a field are cached. default is 524288 (1MB in 2 byte chars)
  * <li>hl.offsetSource (string) specifies which offset source to use, prefers postings, but will use what's available if not specified
  * <li>hl.weightMatches (bool) enables Lucene Weight Matches mode</li>
+ * <li>hl.threads (int) highlights the documents on up to this many threads, at most the number of processors.
+ * default is 0, the request thread only. With debug timing, the time spent highlighting each field is reported.</li>
  * </ul>
+ * <p>
+ * The analysis of the fields highlighted with offset source ANALYSIS can be cached across requests, rather than
+ * re-analyzing the stored text of each document, with these init args of the highlighter:
+ * <pre class="prettyprint">
+ * &lt;highlighting class="solr.UnifiedSolrHighlighter"&gt;
+ * &lt;str name="offsetsCacheFields"&gt;title,body&lt;/str&gt;
+ * &lt;double name="offsetsCacheMaxRamMB"&gt;64&lt;/double&gt;
+ * &lt;/highlighting&gt;
+ * </pre>
  *
  * @lucene.experimental
  */
@@ -119,9 +150,39 @@ public class UnifiedSolrHighlighter extends SolrHighlighter implements PluginInf
 
   protected static final String SNIPPET_SEPARATOR = "\u0000";
   private static final String[] ZERO_LEN_STR_ARRAY = new String[0];
+  /** Highlighting is CPU bound, using more threads than processors only adds overhead */
+  private static final int MAX_THREADS = Runtime.getRuntime().availableProcessors();
+
+  /** Init arg, the comma separated fields whose analysis is cached */
+  public static final String OFFSETS_CACHE_FIELDS = "offsetsCacheFields";
+  /**
+   * Init arg, the max memory of the cached analysis in megabytes. The analysis of a document takes at least 64KB,
+   * see {@link AnalysisOffsetsCache}.
+   */
+  public static final String OFFSETS_CACHE_MAX_RAM_MB = "offsetsCacheMaxRamMB";
+  public static final double DEFAULT_OFFSETS_CACHE_MAX_RAM_MB = 64;
+
+  private AnalysisOffsetsCache analysisOffsetsCache;
 
   @Override
   public void init(PluginInfo info) {
+    Object fields = info.initArgs == null ? null : info.initArgs.get(OFFSETS_CACHE_FIELDS);
+    if (fields != null) {
+      Set<String> cachedFields = new HashSet<>();
+      for (String field : StrUtils.splitSmart(fields.toString(), ',')) {
+        if (!field.trim().isEmpty()) {
+          cachedFields.add(field.trim());
+        }
+      }
+      Object maxRamMB = info.initArgs.get(OFFSETS_CACHE_MAX_RAM_MB);
+      double maxRamMBValue = maxRamMB == null ? DEFAULT_OFFSETS_CACHE_MAX_RAM_MB : Double.parseDouble(maxRamMB.toString());
+      analysisOffsetsCache = new AnalysisOffsetsCache(cachedFields::contains, (long) (maxRamMBValue * 1024 * 1024));
+    }
+  }
+
+  /** The cache of the analysis of the fields highlighted with offset source ANALYSIS, or null */
+  public AnalysisOffsetsCache getAnalysisOffsetsCache() {
+    return analysisOffsetsCache;
   }
 
   @Override
@@ -146,10 +207,92 @@ public class UnifiedSolrHighlighter extends SolrHighlighter implements PluginInf
     }
 
     UnifiedHighlighter highlighter = getHighlighter(req);
-    Map<String, String[]> snippets = highlighter.highlightFields(fieldNames, query, docIDs, maxPassages);
+    if (analysisOffsetsCache != null) {
+      highlighter.setAnalysisOffsetsCache(analysisOffsetsCache);
+    }
+    int threads = params.getInt(HighlightParams.THREADS, 0);
+    Map<String, String[]> snippets;
+    if (threads <= 0 || docIDs.length <= 1) {
+      snippets = highlighter.highlightFields(fieldNames, query, docIDs, maxPassages);
+    } else {
+      Executor executor = req.getCore().getCoreContainer().getUpdateShardHandler().getUpdateExecutor();
+      snippets = highlightFieldsConcurrently(highlighter, fieldNames, query, docIDs, maxPassages, executor, threads);
+    }
+
+    if (highlighter instanceof SolrExtendedUnifiedHighlighter) {
+      NamedList<Object> fieldTimings = ((SolrExtendedUnifiedHighlighter) highlighter).getFieldTimings(fieldNames);
+      ResponseBuilder rb = getResponseBuilder();
+      if (fieldTimings != null && rb != null) {
+        rb.addDebugInfo("highlighting", fieldTimings);
+      }
+    }
     return encodeSnippets(keys, fieldNames, snippets);
   }
 
+  /**
+   * Highlights consecutive slices of the documents concurrently, the last slice in the calling thread. The
+   * {@link UnifiedHighlighter} is thread-safe, each slice loads its own field values.
+   *
+   * @param threads the max number of slices, bounded by the number of processors
+   */
+  protected Map<String, String[]> highlightFieldsConcurrently(UnifiedHighlighter highlighter, String[] fieldNames,
+                                                              Query query, int[] docIDs, int[] maxPassages,
+                                                              Executor executor, int threads) throws IOException {
+    int numSlices = Math.min(Math.min(threads, MAX_THREADS), docIDs.length);
+    List<Future<Map<String, String[]>>> futures = new ArrayList<>(numSlices);
+    for (int slice = 0; slice < numSlices; ++slice) {
+      int[] sliceDocIDs = Arrays.copyOfRange(docIDs, sliceStart(slice, numSlices, docIDs.length),
+          sliceStart(slice + 1, numSlices, docIDs.length));
+      Callable<Map<String, String[]>> callable = () -> highlighter.highlightFields(fieldNames, query, sliceDocIDs, maxPassages);
+      FutureTask<Map<String, String[]>> future = new FutureTask<>(callable);
+      futures.add(future);
+      if (slice == numSlices - 1) {
+        future.run();
+      } else {
+        executor.execute(future);
+      }
+    }
+
+    Map<String, String[]> snippets = new HashMap<>();
+    for (String field : fieldNames) {
+      snippets.put(field, new String[docIDs.length]);
+    }
+    for (int slice = 0; slice < numSlices; ++slice) {
+      Map<String, String[]> sliceSnippets;
+      try {
+        sliceSnippets = futures.get(slice).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new RuntimeException(cause);
+      }
+      int start = sliceStart(slice, numSlices, docIDs.length);
+      for (Map.Entry<String, String[]> entry : sliceSnippets.entrySet()) {
+        String[] sliceValues = entry.getValue();
+        System.arraycopy(sliceValues, 0, snippets.get(entry.getKey()), start, sliceValues.length);
+      }
+    }
+    return snippets;
+  }
+
+  private static int sliceStart(int slice, int numSlices, int numDocs) {
+    return (int) ((long) numDocs * slice / numSlices);
+  }
+
+  private static ResponseBuilder getResponseBuilder() {
+    SolrRequestInfo info = SolrRequestInfo.getRequestInfo();
+    return info == null ? null : info.getResponseBuilder();
+  }
+
   /**
    * Creates an instance of the Lucene {@link UnifiedHighlighter}. Provided for subclass extension so that
    * a subclass can return a subclass of {@link SolrExtendedUnifiedHighlighter}.
@@ -233,6 +376,9 @@ public class UnifiedSolrHighlighter extends SolrHighlighter implements PluginInf
 
     protected final IndexSchema schema;
     protected final RTimerTree loadFieldValuesTimer;
+    private int loadingFieldValues; // guarded by loadFieldValuesTimer
+    /** Nanoseconds spent highlighting each field, null unless timings are debugged */
+    protected final Map<String, LongAdder> fieldTimings;
 
     public SolrExtendedUnifiedHighlighter(SolrQueryRequest req) {
       super(req.getSearcher(), req.getSchema().getIndexAnalyzer());
@@ -251,6 +397,51 @@ public class UnifiedSolrHighlighter extends SolrHighlighter implements PluginInf
       }
       loadFieldValuesTimer = timerTree.sub("loadFieldValues"); // we assume a new timer, state of STARTED
       loadFieldValuesTimer.pause(); // state of PAUSED now with about zero time. Will fail if state isn't STARTED.
+
+      ResponseBuilder rb = getResponseBuilder();
+      fieldTimings = rb != null && rb.isDebugTimings() ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * Returns the time spent highlighting each of the fields, in milliseconds, or null if it wasn't tracked.
+     * With {@link HighlightParams#THREADS} this is the sum over the threads.
+     */
+    public NamedList<Object> getFieldTimings(String[] fieldNames) {
+      if (fieldTimings == null) {
+        return null;
+      }
+      NamedList<Object> timings = new SimpleOrderedMap<>();
+      for (String field : fieldNames) {
+        LongAdder nanos = fieldTimings.get(field);
+        NamedList<Object> timing = new SimpleOrderedMap<>();
+        timing.add("time", (double) TimeUnit.NANOSECONDS.toMillis(nanos == null ? 0L : nanos.sum()));
+        timings.add(field, timing);
+      }
+      return timings;
+    }
+
+    @Override
+    protected FieldHighlighter newFieldHighlighter(String field, FieldOffsetStrategy fieldOffsetStrategy,
+                                                   BreakIterator breakIterator, PassageScorer passageScorer,
+                                                   int maxPassages, int maxNoHighlightPassages,
+                                                   PassageFormatter passageFormatter) {
+      if (fieldTimings == null) {
+        return super.newFieldHighlighter(field, fieldOffsetStrategy, breakIterator, passageScorer, maxPassages,
+            maxNoHighlightPassages, passageFormatter);
+      }
+      final LongAdder timing = fieldTimings.computeIfAbsent(field, f -> new LongAdder());
+      return new FieldHighlighter(field, fieldOffsetStrategy, breakIterator, passageScorer, maxPassages,
+          maxNoHighlightPassages, passageFormatter) {
+        @Override
+        public Object highlightFieldForDoc(LeafReader reader, int docId, String content) throws IOException {
+          long start = System.nanoTime();
+          try {
+            return super.highlightFieldForDoc(reader, docId, content);
+          } finally {
+            timing.add(System.nanoTime() - start);
+          }
+        }
+      };
     }
 
     @Override
@@ -384,11 +575,20 @@ public class UnifiedSolrHighlighter extends SolrHighlighter implements PluginInf
     protected List<CharSequence[]> loadFieldValues(String[] fields, DocIdSetIterator docIter, int
         cacheCharsThreshold) throws IOException {
       // Time loading field values.  It can be an expensive part of highlighting.
-      loadFieldValuesTimer.resume();
+      // With hl.threads the timer runs while any of the threads is loading.
+      synchronized (loadFieldValuesTimer) {
+        if (loadingFieldValues++ == 0) {
+          loadFieldValuesTimer.resume();
+        }
+      }
       try {
         return super.loadFieldValues(fields, docIter, cacheCharsThreshold);
       } finally {
-        loadFieldValuesTimer.pause(); // note: doesn't need to be "stopped"; pause is fine.
+        synchronized (loadFieldValuesTimer) {
+          if (--loadingFieldValues == 0) {
+            loadFieldValuesTimer.pause(); // note: doesn't need to be "stopped"; pause is fine.
+          }
+        }
       }
     }
 
@@ -18,8 +18,10 @@ package org.apache.solr.index;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.lucene.index.*;
 import org.apache.lucene.index.MultiDocValues.MultiSortedDocValues;
@@ -59,6 +61,16 @@ public final class SlowCompositeReaderWrapper extends LeafReader {
   // but do we really need to optimize slow-wrapper any more?
   final Map<String,OrdinalMap> cachedOrdMaps = new HashMap<>();
 
+  // ordinal maps of a previous view of the same index, used to build ours incrementally, see reuseOrdinalMaps.
+  // Guarded by cachedOrdMaps, entries are removed as soon as they have been reused.
+  private Map<String,OrdinalMap> previousOrdMaps = new HashMap<>();
+  private Map<CacheKey,Integer> previousCores; // core key -> leaf ord in the previous reader
+  private FieldInfos[] previousFieldInfos;
+
+  private final LongAdder ordMapBuilds = new LongAdder();
+  private final LongAdder incrementalOrdMapBuilds = new LongAdder();
+  private final LongAdder ordMapBuildNanos = new LongAdder();
+
   /** This method is sugar for getting an {@link LeafReader} from
    * an {@link IndexReader} of any kind. If the reader is already atomic,
    * it is returned unchanged, otherwise wrapped by this class.
@@ -156,9 +168,13 @@ public final class SlowCompositeReaderWrapper extends LeafReader {
       map = cachedOrdMaps.get(field);
       if (map == null) {
         // uncached, or not a multi dv
-        SortedDocValues dv = MultiDocValues.getSortedValues(in, field);
+        final long start = System.nanoTime();
+        final OrdinalMap previous = previousOrdMaps.remove(field);
+        final int[] previousSegments = previous == null ? null : previousSegments(field);
+        SortedDocValues dv = MultiDocValues.getSortedValues(in, field, previous, previousSegments);
         if (dv instanceof MultiSortedDocValues) {
           map = ((MultiSortedDocValues)dv).mapping;
+          recordOrdMapBuild(start, previous != null && previous.isReusable(previousSegments));
           IndexReader.CacheHelper cacheHelper = getReaderCacheHelper();
           if (cacheHelper != null && map.owner == cacheHelper.getKey()) {
             cachedOrdMaps.put(field, map);
@@ -198,9 +214,13 @@ public final class SlowCompositeReaderWrapper extends LeafReader {
       map = cachedOrdMaps.get(field);
       if (map == null) {
         // uncached, or not a multi dv
-        SortedSetDocValues dv = MultiDocValues.getSortedSetValues(in, field);
+        final long start = System.nanoTime();
+        final OrdinalMap previous = previousOrdMaps.remove(field);
+        final int[] previousSegments = previous == null ? null : previousSegments(field);
+        SortedSetDocValues dv = MultiDocValues.getSortedSetValues(in, field, previous, previousSegments);
         if (dv instanceof MultiDocValues.MultiSortedSetDocValues) {
           map = ((MultiDocValues.MultiSortedSetDocValues)dv).mapping;
+          recordOrdMapBuild(start, previous != null && previous.isReusable(previousSegments));
           IndexReader.CacheHelper cacheHelper = getReaderCacheHelper();
           if (cacheHelper != null && map.owner == cacheHelper.getKey()) {
             cachedOrdMaps.put(field, map);
@@ -234,6 +254,87 @@ public final class SlowCompositeReaderWrapper extends LeafReader {
     return new MultiDocValues.MultiSortedSetDocValues(values, starts, map, cost);
   }
 
+  /**
+   * Lets this reader build its ordinal maps incrementally from the ones that {@code previous}, a wrapper
+   * over an earlier point-in-time view of the same index, has built so far: after a reopen that only added
+   * a few small segments, only the terms of the new segments need to be merged into the global ordinal space.
+   * Only ordinal maps that are not built yet benefit from this.
+   */
+  public void reuseOrdinalMaps(SlowCompositeReaderWrapper previous) {
+    final Map<String,OrdinalMap> maps;
+    synchronized (previous.cachedOrdMaps) {
+      maps = new HashMap<>(previous.cachedOrdMaps);
+    }
+    // don't hold on to the previous leaves, they might have been merged away
+    final List<LeafReaderContext> leaves = previous.in.leaves();
+    final Map<CacheKey,Integer> cores = new HashMap<>();
+    final FieldInfos[] fieldInfos = new FieldInfos[leaves.size()];
+    for (LeafReaderContext context : leaves) {
+      final CacheHelper cacheHelper = context.reader().getCoreCacheHelper();
+      if (cacheHelper != null) {
+        cores.put(cacheHelper.getKey(), context.ord);
+      }
+      fieldInfos[context.ord] = context.reader().getFieldInfos();
+    }
+    synchronized (cachedOrdMaps) {
+      maps.keySet().removeAll(cachedOrdMaps.keySet());
+      previousOrdMaps = maps;
+      previousCores = cores;
+      previousFieldInfos = fieldInfos;
+    }
+  }
+
+  /** For every leaf, the ord of the same segment in the previous reader, or -1 if it is new or its values changed. */
+  private int[] previousSegments(String field) {
+    final List<LeafReaderContext> leaves = in.leaves();
+    final int[] previousSegments = new int[leaves.size()];
+    for (int i = 0; i < previousSegments.length; ++i) {
+      previousSegments[i] = -1;
+      final LeafReader reader = leaves.get(i).reader();
+      final CacheHelper cacheHelper = reader.getCoreCacheHelper();
+      final Integer previousOrd = cacheHelper == null ? null : previousCores.get(cacheHelper.getKey());
+      // doc-values updates share the core but change values
+      if (previousOrd != null
+          && docValuesGen(previousFieldInfos[previousOrd], field) == docValuesGen(reader.getFieldInfos(), field)) {
+        previousSegments[i] = previousOrd;
+      }
+    }
+    if (previousOrdMaps.isEmpty()) {
+      previousCores = null;
+      previousFieldInfos = null;
+    }
+    return previousSegments;
+  }
+
+  private static long docValuesGen(FieldInfos fieldInfos, String field) {
+    final FieldInfo fieldInfo = fieldInfos.fieldInfo(field);
+    return fieldInfo == null ? -1 : fieldInfo.getDocValuesGen();
+  }
+
+  private void recordOrdMapBuild(long start, boolean incremental) {
+    ordMapBuildNanos.add(System.nanoTime() - start);
+    ordMapBuilds.increment();
+    if (incremental) {
+      incrementalOrdMapBuilds.increment();
+    }
+  }
+
+  /** Number of ordinal maps built by this reader. */
+  public long getOrdinalMapBuilds() {
+    return ordMapBuilds.sum();
+  }
+
+  /** Number of ordinal maps that were built incrementally from the map of a previous reader, see {@link #reuseOrdinalMaps}.
+   *  Builds that had to start over because segments of the previous reader went away are not counted. */
+  public long getIncrementalOrdinalMapBuilds() {
+    return incrementalOrdMapBuilds.sum();
+  }
+
+  /** Total time spent building ordinal maps, in nanoseconds. */
+  public long getOrdinalMapBuildNanos() {
+    return ordMapBuildNanos.sum();
+  }
+
   @Override
   public NumericDocValues getNormValues(String field) throws IOException {
     ensureOpen();
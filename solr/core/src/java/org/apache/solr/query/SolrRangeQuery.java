@@ -41,6 +41,7 @@ import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.ScorerSupplier;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.util.AttributeSource;
@@ -484,6 +485,37 @@ public final class SolrRangeQuery extends ExtendedQueryBase implements DocSetPro
       }
     }
 
+    @Override
+    public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+      final Terms terms = context.reader().terms(SolrRangeQuery.this.getField());
+      if (terms == null) {
+        return null;
+      }
+      // estimate the cost from the first terms, or the number of documents that have a value if
+      // there are more, so that the doc set only needs to be built if the scorer is pulled
+      final long count = collectTerms(context, SolrRangeQuery.this.getTermsEnum(context), new ArrayList<>());
+      if (count == -1) {
+        return null;
+      }
+      final long docCount = terms.getDocCount() < 0 ? context.reader().maxDoc() : terms.getDocCount();
+      final long cost = count < 0 ? Math.min(-count - 1, docCount) : docCount;
+      return new ScorerSupplier() {
+        @Override
+        public Scorer get(long leadCost) throws IOException {
+          final Scorer scorer = scorer(context);
+          if (scorer == null) {
+            return new ConstantScoreScorer(ConstWeight.this, score(), scoreMode, DocIdSetIterator.empty());
+          }
+          return scorer;
+        }
+
+        @Override
+        public long cost() {
+          return cost;
+        }
+      };
+    }
+
     @Override
     public Scorer scorer(LeafReaderContext context) throws IOException {
       final SegState weightOrBitSet = getSegState(context);
@@ -18,6 +18,7 @@ package org.apache.solr.schema;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -25,8 +26,14 @@ import java.util.Map;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.queries.function.ValueSource;
 import org.apache.lucene.queries.function.valuesource.SortedSetFieldSource;
+import org.apache.lucene.search.DocValuesRewriteMethod;
+import org.apache.lucene.search.DocValuesTermsQuery;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.SortedSetSelector;
 import org.apache.lucene.util.BytesRef;
@@ -69,6 +76,52 @@ public class StrField extends PrimitiveFieldType {
   }
 
 
+  /**
+   * Returns true if the given field is indexed and its doc values hold the same terms as its index.
+   * Term range, prefix and set queries on such fields are wrapped in an {@link IndexOrDocValuesQuery}
+   * so that they may check doc values instead of postings when another clause leads iteration.
+   */
+  public boolean hasDocValuesMatchingIndex(SchemaField field) {
+    return field.indexed() && field.hasDocValues();
+  }
+
+  @Override
+  public Query getRangeQuery(QParser parser, SchemaField field, String part1, String part2, boolean minInclusive, boolean maxInclusive) {
+    Query query = super.getRangeQuery(parser, field, part1, part2, minInclusive, maxInclusive);
+    if (hasDocValuesMatchingIndex(field)) {
+      query = new IndexOrDocValuesQuery(query, SortedSetDocValuesField.newSlowRangeQuery(field.getName(),
+          part1 == null ? null : new BytesRef(toInternal(part1)),
+          part2 == null ? null : new BytesRef(toInternal(part2)),
+          minInclusive, maxInclusive));
+    }
+    return query;
+  }
+
+  @Override
+  public Query getPrefixQuery(QParser parser, SchemaField sf, String termStr) {
+    Query query = super.getPrefixQuery(parser, sf, termStr);
+    if (hasDocValuesMatchingIndex(sf)) {
+      PrefixQuery dvQuery = new PrefixQuery(new Term(sf.getName(), termStr));
+      dvQuery.setRewriteMethod(new DocValuesRewriteMethod());
+      query = new IndexOrDocValuesQuery(query, dvQuery);
+    }
+    return query;
+  }
+
+  @Override
+  public Query getSetQuery(QParser parser, SchemaField field, Collection<String> externalVals) {
+    Query query = super.getSetQuery(parser, field, externalVals);
+    if (hasDocValuesMatchingIndex(field)) {
+      BytesRef[] values = new BytesRef[externalVals.size()];
+      int i = 0;
+      for (String externalVal : externalVals) {
+        values[i++] = new BytesRef(toInternal(externalVal));
+      }
+      query = new IndexOrDocValuesQuery(query, new DocValuesTermsQuery(field.getName(), values));
+    }
+    return query;
+  }
+
   @Override
   public boolean isUtf8Field() {
     return true;
@@ -57,6 +57,12 @@ public class UUIDField extends StrField {
     restrictProps(TOKENIZED);
   }
 
+  @Override
+  public boolean hasDocValuesMatchingIndex(SchemaField field) {
+    // doc values hold the values as given while indexed terms are lower cased
+    return false;
+  }
+
   @Override
   public SortField getSortField(SchemaField field, boolean reverse) {
     return getStringSort(field, reverse);
@@ -17,6 +17,7 @@
 package org.apache.solr.search;
 
 import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -59,10 +60,13 @@ import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BitSet;
 import org.apache.lucene.util.BitSetIterator;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefHash;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.LongValues;
+import org.apache.lucene.util.SparseFixedBitSet;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.params.SolrParams;
@@ -122,6 +126,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
   public static final String NULL_EXPAND = "expand";
   public static final String HINT_TOP_FC = "top_fc";
   public static final String HINT_MULTI_DOCVALUES = "multi_docvalues";
+  public static final String HINT_PER_SEGMENT = "per_segment";
 
 
   public QParser createParser(String qstr, SolrParams localParams, SolrParams params, SolrQueryRequest request) {
@@ -304,7 +309,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         : null;
 
       this.hint = localParams.get("hint");
-      this.size = localParams.getInt("size", 100000); //Only used for collapsing on int fields.
+      this.size = localParams.getInt("size", 100000); //The expected number of groups, see OrdSlots for string fields.
 
       {
         final SolrRequestInfo info = SolrRequestInfo.getRequestInfo();
@@ -485,16 +490,18 @@ public class CollapsingQParserPlugin extends QParserPlugin {
   * Collapses on Ordinal Values using Score to select the group head.
   */
 
-  private static class OrdScoreCollector extends DelegatingCollector {
+  private static class OrdScoreCollector extends DelegatingCollector implements OrdSlots.SlotArrays {
 
     private LeafReaderContext[] contexts;
     private final DocValuesProducer collapseValuesProducer;
-    private FixedBitSet collapsedSet;
+    private final SegmentGroups segmentGroups;
+    private BitSet collapsedSet;
     private SortedDocValues collapseValues;
     private OrdinalMap ordinalMap;
     private SortedDocValues segmentValues;
     private LongValues segmentOrdinalMap;
     private MultiDocValues.MultiSortedDocValues multiSortedDocValues;
+    private OrdSlots slots;
     private int[] ords;
     private float[] scores;
     private int maxDoc;
@@ -510,23 +517,28 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     public OrdScoreCollector(int maxDoc,
                              int segments,
                              DocValuesProducer collapseValuesProducer,
+                             SegmentGroups segmentGroups,
                              int nullPolicy,
+                             int size,
                              IntIntHashMap boostDocsMap) throws IOException {
       this.maxDoc = maxDoc;
       this.contexts = new LeafReaderContext[segments];
-      this.collapsedSet = new FixedBitSet(maxDoc);
       this.collapseValuesProducer = collapseValuesProducer;
-      this.collapseValues = collapseValuesProducer.getSorted(null);
-      
-      int valueCount = collapseValues.getValueCount();
-      if(collapseValues instanceof MultiDocValues.MultiSortedDocValues) {
-        this.multiSortedDocValues = (MultiDocValues.MultiSortedDocValues)collapseValues;
-        this.ordinalMap = multiSortedDocValues.mapping;
-      }
-      this.ords = new int[valueCount];
-      Arrays.fill(this.ords, -1);
-      this.scores = new float[valueCount];
-      Arrays.fill(this.scores, -Float.MAX_VALUE);
+      this.segmentGroups = segmentGroups;
+
+      int valueCount = -1;
+      if(segmentGroups == null) {
+        this.collapseValues = collapseValuesProducer.getSorted(null);
+        valueCount = collapseValues.getValueCount();
+        if(collapseValues instanceof MultiDocValues.MultiSortedDocValues) {
+          this.multiSortedDocValues = (MultiDocValues.MultiSortedDocValues)collapseValues;
+          this.ordinalMap = multiSortedDocValues.mapping;
+        }
+      }
+      this.slots = new OrdSlots(valueCount, size, this);
+      this.collapsedSet = slots.newBitSet(maxDoc);
+      this.ords = slots.newInts(-1);
+      this.scores = slots.newFloats(-Float.MAX_VALUE);
       this.nullPolicy = nullPolicy;
       if(nullPolicy == CollapsingPostFilter.NULL_POLICY_EXPAND) {
         nullScores = new FloatArrayList();
@@ -551,11 +563,28 @@ public class CollapsingQParserPlugin extends QParserPlugin {
 
     @Override public ScoreMode scoreMode() { return ScoreMode.COMPLETE; }
 
+    @Override
+    public void grow(int length) {
+      ords = OrdSlots.grow(ords, length, -1);
+      scores = OrdSlots.grow(scores, length, -Float.MAX_VALUE);
+    }
+
+    @Override
+    public void densify(int[] slotOrds) {
+      ords = slots.toDense(ords, slotOrds, -1);
+      scores = slots.toDense(scores, slotOrds, -Float.MAX_VALUE);
+      if (boostOrds != null) {
+        OrdSlots.remap(boostOrds, slotOrds);
+      }
+    }
+
     @Override
     protected void doSetNextReader(LeafReaderContext context) throws IOException {
       this.contexts[context.ord] = context;
       this.docBase = context.docBase;
-      if(ordinalMap != null) {
+      if(segmentGroups != null) {
+        segmentGroups.setNextReader(context, true);
+      } else if(ordinalMap != null) {
         this.segmentValues = this.multiSortedDocValues.values[context.ord];
         this.segmentOrdinalMap = ordinalMap.getGlobalOrds(context.ord);
       } else {
@@ -567,7 +596,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     public void collect(int contextDoc) throws IOException {
       int globalDoc = contextDoc+this.docBase;
       int ord = -1;
-      if(this.ordinalMap != null) {
+      if(segmentGroups != null) {
+        ord = segmentGroups.group(contextDoc);
+      } else if(this.ordinalMap != null) {
         //Handle ordinalMapping case
         if (segmentValues.advanceExact(contextDoc)) {
           ord = (int)segmentOrdinalMap.get(segmentValues.ordValue());
@@ -583,18 +614,20 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         }
       }
 
+      int slot = slots.slot(ord);
+
       // Check to see if we have documents boosted by the QueryElevationComponent
       if(boosts && mergeBoost.boost(globalDoc)) {
         boostDocs.add(globalDoc);
-        boostOrds.add(ord);
+        boostOrds.add(slot);
         return;
       }
 
-      if(ord > -1) {
+      if(slot > -1) {
         float score = scorer.score();
-        if(score > scores[ord]) {
-          ords[ord] = globalDoc;
-          scores[ord] = score;
+        if(score > scores[slot]) {
+          ords[slot] = globalDoc;
+          scores[slot] = score;
         }
       } else if(nullPolicy == CollapsingPostFilter.NULL_POLICY_COLLAPSE) {
         float score = scorer.score();
@@ -622,10 +655,10 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       if(this.boostOrds != null) {
         int s = boostOrds.size();
         for(int i=0; i<s; i++) {
-          int ord = this.boostOrds.get(i);
-          if(ord > -1) {
+          int slot = this.boostOrds.get(i);
+          if(slot > -1) {
             //Remove any group heads that are in the same groups as boosted documents.
-            ords[ord] = -1;
+            ords[slot] = -1;
           }
           //Add the boosted docs to the collapsedSet
           this.collapsedSet.set(boostDocs.get(i));
@@ -644,14 +677,18 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       int currentContext = 0;
       int currentDocBase = 0;
 
-      collapseValues = collapseValuesProducer.getSorted(null);
-      
-      if(collapseValues instanceof MultiDocValues.MultiSortedDocValues) {
-        this.multiSortedDocValues = (MultiDocValues.MultiSortedDocValues)collapseValues;
-        this.ordinalMap = multiSortedDocValues.mapping;
+      if(segmentGroups == null) {
+        collapseValues = collapseValuesProducer.getSorted(null);
+
+        if(collapseValues instanceof MultiDocValues.MultiSortedDocValues) {
+          this.multiSortedDocValues = (MultiDocValues.MultiSortedDocValues)collapseValues;
+          this.ordinalMap = multiSortedDocValues.mapping;
+        }
       }
 
-      if(ordinalMap != null) {
+      if(segmentGroups != null) {
+        segmentGroups.setNextReader(contexts[currentContext], false);
+      } else if(ordinalMap != null) {
         this.segmentValues = this.multiSortedDocValues.values[currentContext];
         this.segmentOrdinalMap = this.ordinalMap.getGlobalOrds(currentContext);
       } else {
@@ -672,7 +709,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
           nextDocBase = currentContext+1 < contexts.length ? contexts[currentContext+1].docBase : maxDoc;
           leafDelegate = delegate.getLeafCollector(contexts[currentContext]);
           leafDelegate.setScorer(dummy);
-          if(ordinalMap != null) {
+          if(segmentGroups != null) {
+            segmentGroups.setNextReader(contexts[currentContext], false);
+          } else if(ordinalMap != null) {
             this.segmentValues = this.multiSortedDocValues.values[currentContext];
             this.segmentOrdinalMap = this.ordinalMap.getGlobalOrds(currentContext);
           }
@@ -681,7 +720,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         int contextDoc = docId-currentDocBase;
 
         int ord = -1;
-        if(this.ordinalMap != null) {
+        if(segmentGroups != null) {
+          ord = segmentGroups.find(contextDoc);
+        } else if(this.ordinalMap != null) {
           //Handle ordinalMapping case
           if (segmentValues.advanceExact(contextDoc)) {
             ord = (int)segmentOrdinalMap.get(segmentValues.ordValue());
@@ -694,7 +735,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         }
 
         if(ord > -1) {
-          dummy.score = scores[ord];
+          dummy.score = scores[slots.get(ord)];
         } else if(boosts && mergeBoost.boost(docId)) {
           //Ignore so it doesn't mess up the null scoring.
         } else if(this.nullPolicy == CollapsingPostFilter.NULL_POLICY_COLLAPSE) {
@@ -707,6 +748,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         leafDelegate.collect(contextDoc);
       }
 
+      slots.release(ords);
+      slots.release(scores);
+
       if(delegate instanceof DelegatingCollector) {
         ((DelegatingCollector) delegate).finish();
       }
@@ -914,6 +958,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
   private static class OrdFieldValueCollector extends DelegatingCollector {
     private LeafReaderContext[] contexts;
     private DocValuesProducer collapseValuesProducer;
+    private SegmentGroups segmentGroups;
     private SortedDocValues collapseValues;
     protected OrdinalMap ordinalMap;
     protected SortedDocValues segmentValues;
@@ -929,7 +974,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     public OrdFieldValueCollector(int maxDoc,
                                   int segments,
                                   DocValuesProducer collapseValuesProducer,
+                                  SegmentGroups segmentGroups,
                                   int nullPolicy,
+                                  int size,
                                   GroupHeadSelector groupHeadSelector,
                                   SortSpec sortSpec,
                                   boolean needsScores,
@@ -942,19 +989,23 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       this.maxDoc = maxDoc;
       this.contexts = new LeafReaderContext[segments];
       this.collapseValuesProducer = collapseValuesProducer;
-      this.collapseValues = collapseValuesProducer.getSorted(null);
-      if(collapseValues instanceof MultiDocValues.MultiSortedDocValues) {
-        this.multiSortedDocValues = (MultiDocValues.MultiSortedDocValues)collapseValues;
-        this.ordinalMap = multiSortedDocValues.mapping;
+      this.segmentGroups = segmentGroups;
+      int valueCount = -1;
+      if(segmentGroups == null) {
+        this.collapseValues = collapseValuesProducer.getSorted(null);
+        if(collapseValues instanceof MultiDocValues.MultiSortedDocValues) {
+          this.multiSortedDocValues = (MultiDocValues.MultiSortedDocValues)collapseValues;
+          this.ordinalMap = multiSortedDocValues.mapping;
+        }
+        valueCount = collapseValues.getValueCount();
       }
 
-      int valueCount = collapseValues.getValueCount();
       this.nullPolicy = nullPolicy;
       this.needsScores = needsScores;
       if (null != sortSpec) {
-        this.collapseStrategy = new OrdSortSpecStrategy(maxDoc, nullPolicy, new int[valueCount], groupHeadSelector, this.needsScores, boostDocs, sortSpec, searcher, collapseValues);
+        this.collapseStrategy = new OrdSortSpecStrategy(maxDoc, nullPolicy, valueCount, size, groupHeadSelector, this.needsScores, boostDocs, sortSpec, searcher, collapseValues);
       } else if (funcQuery != null) {
-        this.collapseStrategy =  new OrdValueSourceStrategy(maxDoc, nullPolicy, new int[valueCount], groupHeadSelector, this.needsScores, boostDocs, funcQuery, searcher, collapseValues);
+        this.collapseStrategy =  new OrdValueSourceStrategy(maxDoc, nullPolicy, valueCount, size, groupHeadSelector, this.needsScores, boostDocs, funcQuery, searcher, collapseValues);
       } else {
         NumberType numType = fieldType.getNumberType();
         if (null == numType) {
@@ -962,15 +1013,15 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         }
         switch (numType) {
           case INTEGER: {
-            this.collapseStrategy = new OrdIntStrategy(maxDoc, nullPolicy, new int[valueCount], groupHeadSelector, this.needsScores, boostDocs, collapseValues);
+            this.collapseStrategy = new OrdIntStrategy(maxDoc, nullPolicy, valueCount, size, groupHeadSelector, this.needsScores, boostDocs, collapseValues);
             break;
           }
           case FLOAT: {
-            this.collapseStrategy = new OrdFloatStrategy(maxDoc, nullPolicy, new int[valueCount], groupHeadSelector, this.needsScores, boostDocs, collapseValues);
+            this.collapseStrategy = new OrdFloatStrategy(maxDoc, nullPolicy, valueCount, size, groupHeadSelector, this.needsScores, boostDocs, collapseValues);
             break;
           }
           case LONG: {
-            this.collapseStrategy =  new OrdLongStrategy(maxDoc, nullPolicy, new int[valueCount], groupHeadSelector, this.needsScores, boostDocs, collapseValues);
+            this.collapseStrategy =  new OrdLongStrategy(maxDoc, nullPolicy, valueCount, size, groupHeadSelector, this.needsScores, boostDocs, collapseValues);
             break;
           }
           default: {
@@ -990,7 +1041,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       this.contexts[context.ord] = context;
       this.docBase = context.docBase;
       this.collapseStrategy.setNextReader(context);
-      if(ordinalMap != null) {
+      if(segmentGroups != null) {
+        segmentGroups.setNextReader(context, true);
+      } else if(ordinalMap != null) {
         this.segmentValues = this.multiSortedDocValues.values[context.ord];
         this.segmentOrdinalMap = ordinalMap.getGlobalOrds(context.ord);
       } else {
@@ -1001,7 +1054,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     public void collect(int contextDoc) throws IOException {
       int globalDoc = contextDoc+this.docBase;
       int ord = -1;
-      if(this.ordinalMap != null) {
+      if(segmentGroups != null) {
+        ord = segmentGroups.group(contextDoc);
+      } else if(this.ordinalMap != null) {
         if (segmentValues.advanceExact(contextDoc)) {
           ord = (int)segmentOrdinalMap.get(segmentValues.ordValue());
         }
@@ -1010,7 +1065,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
           ord = segmentValues.ordValue();
         }
       }
-      collapseStrategy.collapse(ord, contextDoc, globalDoc);
+      collapseStrategy.collapse(collapseStrategy.slot(ord), contextDoc, globalDoc);
     }
 
     public void finish() throws IOException {
@@ -1021,12 +1076,16 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       int currentContext = 0;
       int currentDocBase = 0;
 
-      this.collapseValues = collapseValuesProducer.getSorted(null);
-      if(collapseValues instanceof MultiDocValues.MultiSortedDocValues) {
-        this.multiSortedDocValues = (MultiDocValues.MultiSortedDocValues)collapseValues;
-        this.ordinalMap = multiSortedDocValues.mapping;
+      if(segmentGroups == null) {
+        this.collapseValues = collapseValuesProducer.getSorted(null);
+        if(collapseValues instanceof MultiDocValues.MultiSortedDocValues) {
+          this.multiSortedDocValues = (MultiDocValues.MultiSortedDocValues)collapseValues;
+          this.ordinalMap = multiSortedDocValues.mapping;
+        }
       }
-      if(ordinalMap != null) {
+      if(segmentGroups != null) {
+        segmentGroups.setNextReader(contexts[currentContext], false);
+      } else if(ordinalMap != null) {
         this.segmentValues = this.multiSortedDocValues.values[currentContext];
         this.segmentOrdinalMap = this.ordinalMap.getGlobalOrds(currentContext);
       } else {
@@ -1054,7 +1113,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
           nextDocBase = currentContext+1 < contexts.length ? contexts[currentContext+1].docBase : maxDoc;
           leafDelegate = delegate.getLeafCollector(contexts[currentContext]);
           leafDelegate.setScorer(dummy);
-          if(ordinalMap != null) {
+          if(segmentGroups != null) {
+            segmentGroups.setNextReader(contexts[currentContext], false);
+          } else if(ordinalMap != null) {
             this.segmentValues = this.multiSortedDocValues.values[currentContext];
             this.segmentOrdinalMap = this.ordinalMap.getGlobalOrds(currentContext);
           }
@@ -1064,7 +1125,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
 
         if(this.needsScores){
           int ord = -1;
-          if(this.ordinalMap != null) {
+          if(segmentGroups != null) {
+            ord = segmentGroups.find(contextDoc);
+          } else if(this.ordinalMap != null) {
             //Handle ordinalMapping case
             if (segmentValues.advanceExact(contextDoc)) {
               ord = (int) segmentOrdinalMap.get(segmentValues.ordValue());
@@ -1077,7 +1140,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
           }
 
           if(ord > -1) {
-            dummy.score = scores[ord];
+            dummy.score = scores[collapseStrategy.getSlot(ord)];
           } else if (mergeBoost != null && mergeBoost.boost(globalDoc)) {
             //It's an elevated doc so no score is needed
             dummy.score = 0F;
@@ -1092,6 +1155,8 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         leafDelegate.collect(contextDoc);
       }
 
+      collapseStrategy.release();
+
       if(delegate instanceof DelegatingCollector) {
         ((DelegatingCollector) delegate).finish();
       }
@@ -1269,13 +1334,16 @@ public class CollapsingQParserPlugin extends QParserPlugin {
                                             SolrIndexSearcher searcher) throws IOException {
 
       DocValuesProducer docValuesProducer = null;
+      SegmentGroups segmentGroups = null;
       FunctionQuery funcQuery = null;
 
       FieldType collapseFieldType = searcher.getSchema().getField(collapseField).getType();
       String defaultValue = searcher.getSchema().getField(collapseField).getDefaultValue();
 
       if(collapseFieldType instanceof StrField) {
-        if(HINT_TOP_FC.equals(hint)) {
+        if(HINT_PER_SEGMENT.equals(hint)) {
+          segmentGroups = new SegmentGroups(collapseField);
+        } else if(HINT_TOP_FC.equals(hint)) {
           @SuppressWarnings("resource")
           final LeafReader uninvertingReader = getTopFieldCacheReader(searcher, collapseField);
 
@@ -1297,6 +1365,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         if(HINT_TOP_FC.equals(hint)) {
           throw new IOException("top_fc hint is only supported when collapsing on String Fields");
         }
+        if(HINT_PER_SEGMENT.equals(hint)) {
+          throw new IOException("per_segment hint is only supported when collapsing on String Fields");
+        }
       }
 
       FieldType minMaxFieldType = null;
@@ -1326,7 +1397,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         
         if (collapseFieldType instanceof StrField) {
 
-          return new OrdScoreCollector(maxDoc, leafCount, docValuesProducer, nullPolicy, boostDocs);
+          return new OrdScoreCollector(maxDoc, leafCount, docValuesProducer, segmentGroups, nullPolicy, size, boostDocs);
 
         } else if (isNumericCollapsible(collapseFieldType)) {
 
@@ -1358,7 +1429,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
           return new OrdFieldValueCollector(maxDoc,
                                             leafCount,
                                             docValuesProducer,
+                                            segmentGroups,
                                             nullPolicy,
+                                            size,
                                             groupHeadSelector,
                                             sortSpec,
                                             needsScores,
@@ -1447,14 +1520,15 @@ public class CollapsingQParserPlugin extends QParserPlugin {
    * using min/max field value to select the group head.
    *
    */
-  private static abstract class OrdFieldValueStrategy {
+  private static abstract class OrdFieldValueStrategy implements OrdSlots.SlotArrays {
     protected int nullPolicy;
+    protected OrdSlots slots;
     protected int[] ords; 
     protected Scorable scorer;
     protected FloatArrayList nullScores;
     protected float nullScore;
     protected float[] scores;
-    protected FixedBitSet collapsedSet;
+    protected BitSet collapsedSet;
     protected int nullDoc = -1;
     protected boolean needsScores;
     protected boolean boosts;
@@ -1463,20 +1537,24 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     protected MergeBoost mergeBoost;
     protected boolean boosted;
 
-    public abstract void collapse(int ord, int contextDoc, int globalDoc) throws IOException;
+    /**
+     * @param slot the slot of the group of the document as returned by {@link #slot}, or -1 if it has no value
+     */
+    public abstract void collapse(int slot, int contextDoc, int globalDoc) throws IOException;
     public abstract void setNextReader(LeafReaderContext context) throws IOException;
 
     public OrdFieldValueStrategy(int maxDoc,
-                                 int[] ords,
+                                 int valueCount,
+                                 int size,
                                  int nullPolicy,
                                  boolean needsScores,
                                  IntIntHashMap boostDocsMap,
                                  SortedDocValues values) {
-      this.ords = ords;
-      Arrays.fill(ords, -1);
+      this.slots = new OrdSlots(valueCount, size, this);
+      this.ords = slots.newInts(-1);
       this.nullPolicy = nullPolicy;
       this.needsScores = needsScores;
-      this.collapsedSet = new FixedBitSet(maxDoc);
+      this.collapsedSet = slots.newBitSet(maxDoc);
       if(boostDocsMap != null) {
         this.boosts = true;
         this.boostOrds = new IntArrayList();
@@ -1499,7 +1577,42 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       return this.mergeBoost;
     }
 
-    public FixedBitSet getCollapsedSet() {
+    /** @return the slot of the group of the ordinal, which is added if it's new */
+    public int slot(int ord) {
+      return slots.slot(ord);
+    }
+
+    /** @return the slot of the group of the ordinal, which must have been collected */
+    public int getSlot(int ord) {
+      return slots.get(ord);
+    }
+
+    @Override
+    public void grow(int length) {
+      ords = OrdSlots.grow(ords, length, -1);
+      if (scores != null) {
+        scores = OrdSlots.grow(scores, length, 0f);
+      }
+    }
+
+    @Override
+    public void densify(int[] slotOrds) {
+      ords = slots.toDense(ords, slotOrds, -1);
+      if (scores != null) {
+        scores = slots.toDense(scores, slotOrds, 0f);
+      }
+      if (boostOrds != null) {
+        OrdSlots.remap(boostOrds, slotOrds);
+      }
+    }
+
+    /** Hands the per group arrays back for reuse, once the group heads were collected */
+    public void release() {
+      slots.release(ords);
+      slots.release(scores);
+    }
+
+    public BitSet getCollapsedSet() {
       if(nullDoc > -1) {
         this.collapsedSet.set(nullDoc);
       }
@@ -1507,9 +1620,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       if(this.boostOrds != null) {
         int s = boostOrds.size();
         for(int i=0; i<s; i++) {
-          int ord = boostOrds.get(i);
-          if(ord > -1) {
-            ords[ord] = -1;
+          int slot = boostOrds.get(i);
+          if(slot > -1) {
+            ords[slot] = -1;
           }
           collapsedSet.set(boostDocs.get(i));
         }
@@ -1553,47 +1666,67 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     private NumericDocValues minMaxValues;
     private IntCompare comp;
     private int nullVal;
+    private int initVal;
     private int[] ordVals;
 
     public OrdIntStrategy(int maxDoc,
                           int nullPolicy,
-                          int[] ords,
+                          int valueCount,
+                          int size,
                           GroupHeadSelector groupHeadSelector,
                           boolean needsScores,
                           IntIntHashMap boostDocs,
                           SortedDocValues values) throws IOException {
-      super(maxDoc, ords, nullPolicy, needsScores, boostDocs, values);
+      super(maxDoc, valueCount, size, nullPolicy, needsScores, boostDocs, values);
       this.field = groupHeadSelector.selectorText;
-      this.ordVals = new int[ords.length];
 
       assert GroupHeadSelectorType.MIN_MAX.contains(groupHeadSelector.type);
       
       if (GroupHeadSelectorType.MAX.equals(groupHeadSelector.type)) {
         comp = new MaxIntComp();
-        Arrays.fill(ordVals, Integer.MIN_VALUE);
+        this.initVal = Integer.MIN_VALUE;
       } else {
         comp = new MinIntComp();
-        Arrays.fill(ordVals, Integer.MAX_VALUE);
+        this.initVal = Integer.MAX_VALUE;
         this.nullVal = Integer.MAX_VALUE;
       }
+      this.ordVals = slots.newInts(initVal);
 
       if(needsScores) {
-        this.scores = new float[ords.length];
+        this.scores = slots.newFloats(0f);
         if(nullPolicy == CollapsingPostFilter.NULL_POLICY_EXPAND) {
           nullScores = new FloatArrayList();
         }
       }
     }
 
+    @Override
+    public void grow(int length) {
+      super.grow(length);
+      ordVals = OrdSlots.grow(ordVals, length, initVal);
+    }
+
+    @Override
+    public void densify(int[] slotOrds) {
+      super.densify(slotOrds);
+      ordVals = slots.toDense(ordVals, slotOrds, initVal);
+    }
+
+    @Override
+    public void release() {
+      super.release();
+      slots.release(ordVals);
+    }
+
     public void setNextReader(LeafReaderContext context) throws IOException {
       this.minMaxValues = DocValues.getNumeric(context.reader(), this.field);
     }
 
-    public void collapse(int ord, int contextDoc, int globalDoc) throws IOException {
+    public void collapse(int slot, int contextDoc, int globalDoc) throws IOException {
 
       if(this.boosted && mergeBoost.boost(globalDoc)) {
         this.boostDocs.add(globalDoc);
-        this.boostOrds.add(ord);
+        this.boostOrds.add(slot);
         return;
       }
 
@@ -1604,12 +1737,12 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         currentVal = 0;
       }
       
-      if(ord > -1) {
-        if(comp.test(currentVal, ordVals[ord])) {
-          ords[ord] = globalDoc;
-          ordVals[ord] = currentVal;
+      if(slot > -1) {
+        if(comp.test(currentVal, ordVals[slot])) {
+          ords[slot] = globalDoc;
+          ordVals[slot] = currentVal;
           if(needsScores) {
-            scores[ord] = scorer.score();
+            scores[slot] = scorer.score();
           }
         }
       } else if(this.nullPolicy == CollapsingPostFilter.NULL_POLICY_COLLAPSE) {
@@ -1639,48 +1772,68 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     private NumericDocValues minMaxValues;
     private FloatCompare comp;
     private float nullVal;
+    private float initVal;
     private float[] ordVals;
 
     public OrdFloatStrategy(int maxDoc,
                             int nullPolicy,
-                            int[] ords,
+                            int valueCount,
+                            int size,
                             GroupHeadSelector groupHeadSelector,
                             boolean needsScores,
                             IntIntHashMap boostDocs,
                             SortedDocValues values) throws IOException {
-      super(maxDoc, ords, nullPolicy, needsScores, boostDocs, values);
+      super(maxDoc, valueCount, size, nullPolicy, needsScores, boostDocs, values);
       this.field = groupHeadSelector.selectorText;
-      this.ordVals = new float[ords.length];
       
       assert GroupHeadSelectorType.MIN_MAX.contains(groupHeadSelector.type);
 
       if (GroupHeadSelectorType.MAX.equals(groupHeadSelector.type)) {
         comp = new MaxFloatComp();
-        Arrays.fill(ordVals, -Float.MAX_VALUE);
+        this.initVal = -Float.MAX_VALUE;
         this.nullVal = -Float.MAX_VALUE;
       } else {
         comp = new MinFloatComp();
-        Arrays.fill(ordVals, Float.MAX_VALUE);
+        this.initVal = Float.MAX_VALUE;
         this.nullVal = Float.MAX_VALUE;
       }
+      this.ordVals = slots.newFloats(initVal);
 
       if(needsScores) {
-        this.scores = new float[ords.length];
+        this.scores = slots.newFloats(0f);
         if(nullPolicy == CollapsingPostFilter.NULL_POLICY_EXPAND) {
           nullScores = new FloatArrayList();
         }
       }
     }
 
+    @Override
+    public void grow(int length) {
+      super.grow(length);
+      ordVals = OrdSlots.grow(ordVals, length, initVal);
+    }
+
+    @Override
+    public void densify(int[] slotOrds) {
+      super.densify(slotOrds);
+      ordVals = slots.toDense(ordVals, slotOrds, initVal);
+    }
+
+    @Override
+    public void release() {
+      super.release();
+      slots.release(ordVals);
+    }
+
     public void setNextReader(LeafReaderContext context) throws IOException {
       this.minMaxValues = DocValues.getNumeric(context.reader(), this.field);
     }
 
-    public void collapse(int ord, int contextDoc, int globalDoc) throws IOException {
+    public void collapse(int slot, int contextDoc, int globalDoc) throws IOException {
 
       if(this.boosted && mergeBoost.boost(globalDoc)) {
         this.boostDocs.add(globalDoc);
-        this.boostOrds.add(ord);
+        this.boostOrds.add(slot);
         return;
       }
 
@@ -1693,12 +1846,12 @@ public class CollapsingQParserPlugin extends QParserPlugin {
 
       float currentVal = Float.intBitsToFloat(currentMinMax);
 
-      if(ord > -1) {
-        if(comp.test(currentVal, ordVals[ord])) {
-          ords[ord] = globalDoc;
-          ordVals[ord] = currentVal;
+      if(slot > -1) {
+        if(comp.test(currentVal, ordVals[slot])) {
+          ords[slot] = globalDoc;
+          ordVals[slot] = currentVal;
           if(needsScores) {
-            scores[ord] = scorer.score();
+            scores[slot] = scorer.score();
           }
         }
       } else if(this.nullPolicy == CollapsingPostFilter.NULL_POLICY_COLLAPSE) {
@@ -1729,45 +1882,65 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     private NumericDocValues minMaxVals;
     private LongCompare comp;
     private long nullVal;
+    private long initVal;
     private long[] ordVals;
 
     public OrdLongStrategy(int maxDoc,
                            int nullPolicy,
-                           int[] ords,
+                           int valueCount,
+                           int size,
                            GroupHeadSelector groupHeadSelector,
                            boolean needsScores,
                            IntIntHashMap boostDocs, SortedDocValues values) throws IOException {
-      super(maxDoc, ords, nullPolicy, needsScores, boostDocs, values);
+      super(maxDoc, valueCount, size, nullPolicy, needsScores, boostDocs, values);
       this.field = groupHeadSelector.selectorText;
-      this.ordVals = new long[ords.length];
 
       assert GroupHeadSelectorType.MIN_MAX.contains(groupHeadSelector.type);
       
       if (GroupHeadSelectorType.MAX.equals(groupHeadSelector.type)) {
         comp = new MaxLongComp();
-        Arrays.fill(ordVals, Long.MIN_VALUE);
+        this.initVal = Long.MIN_VALUE;
       } else {
         this.nullVal = Long.MAX_VALUE;
         comp = new MinLongComp();
-        Arrays.fill(ordVals, Long.MAX_VALUE);
+        this.initVal = Long.MAX_VALUE;
       }
+      this.ordVals = slots.newLongs(initVal);
 
       if(needsScores) {
-        this.scores = new float[ords.length];
+        this.scores = slots.newFloats(0f);
         if(nullPolicy == CollapsingPostFilter.NULL_POLICY_EXPAND) {
           nullScores = new FloatArrayList();
         }
       }
     }
 
+    @Override
+    public void grow(int length) {
+      super.grow(length);
+      ordVals = OrdSlots.grow(ordVals, length, initVal);
+    }
+
+    @Override
+    public void densify(int[] slotOrds) {
+      super.densify(slotOrds);
+      ordVals = slots.toDense(ordVals, slotOrds, initVal);
+    }
+
+    @Override
+    public void release() {
+      super.release();
+      slots.release(ordVals);
+    }
+
     public void setNextReader(LeafReaderContext context) throws IOException {
       this.minMaxVals = DocValues.getNumeric(context.reader(), this.field);
     }
 
-    public void collapse(int ord, int contextDoc, int globalDoc) throws IOException {
+    public void collapse(int slot, int contextDoc, int globalDoc) throws IOException {
 
       if(boosted && mergeBoost.boost(globalDoc)) {
-        this.boostOrds.add(ord);
+        this.boostOrds.add(slot);
         this.boostDocs.add(globalDoc);
         return;
       }
@@ -1779,12 +1952,12 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         currentVal = 0;
       }
 
-      if(ord > -1) {
-        if(comp.test(currentVal, ordVals[ord])) {
-          ords[ord] = globalDoc;
-          ordVals[ord] = currentVal;
+      if(slot > -1) {
+        if(comp.test(currentVal, ordVals[slot])) {
+          ords[slot] = globalDoc;
+          ordVals[slot] = currentVal;
           if(needsScores) {
-            scores[ord] = scorer.score();
+            scores[slot] = scorer.score();
           }
         }
       } else if(this.nullPolicy == CollapsingPostFilter.NULL_POLICY_COLLAPSE) {
@@ -1814,6 +1987,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     private float nullVal;
     private ValueSource valueSource;
     private FunctionValues functionValues;
+    private float initVal;
     private float[] ordVals;
     private Map rcontext;
     private final CollapseScore collapseScore = new CollapseScore();
@@ -1821,47 +1995,66 @@ public class CollapsingQParserPlugin extends QParserPlugin {
 
     public OrdValueSourceStrategy(int maxDoc,
                                   int nullPolicy,
-                                  int[] ords,
+                                  int valueCount,
+                                  int size,
                                   GroupHeadSelector groupHeadSelector,
                                   boolean needsScores,
                                   IntIntHashMap boostDocs,
                                   FunctionQuery funcQuery,
                                   IndexSearcher searcher,
                                   SortedDocValues values) throws IOException {
-      super(maxDoc, ords, nullPolicy, needsScores, boostDocs, values);
+      super(maxDoc, valueCount, size, nullPolicy, needsScores, boostDocs, values);
       this.valueSource = funcQuery.getValueSource();
       this.rcontext = ValueSource.newContext(searcher);
-      this.ordVals = new float[ords.length];
 
       assert GroupHeadSelectorType.MIN_MAX.contains(groupHeadSelector.type);
       
       if (GroupHeadSelectorType.MAX.equals(groupHeadSelector.type)) {
         comp = new MaxFloatComp();
-        Arrays.fill(ordVals, -Float.MAX_VALUE );
+        this.initVal = -Float.MAX_VALUE;
       } else {
         this.nullVal = Float.MAX_VALUE;
         comp = new MinFloatComp();
-        Arrays.fill(ordVals, Float.MAX_VALUE);
+        this.initVal = Float.MAX_VALUE;
       }
+      this.ordVals = slots.newFloats(initVal);
 
       collapseScore.setupIfNeeded(groupHeadSelector, rcontext);
 
       if(this.needsScores) {
-        this.scores = new float[ords.length];
+        this.scores = slots.newFloats(0f);
         if(nullPolicy == CollapsingPostFilter.NULL_POLICY_EXPAND) {
           nullScores = new FloatArrayList();
         }
       }
     }
 
+    @Override
+    public void grow(int length) {
+      super.grow(length);
+      ordVals = OrdSlots.grow(ordVals, length, initVal);
+    }
+
+    @Override
+    public void densify(int[] slotOrds) {
+      super.densify(slotOrds);
+      ordVals = slots.toDense(ordVals, slotOrds, initVal);
+    }
+
+    @Override
+    public void release() {
+      super.release();
+      slots.release(ordVals);
+    }
+
     public void setNextReader(LeafReaderContext context) throws IOException {
       functionValues = this.valueSource.getValues(rcontext, context);
     }
 
-    public void collapse(int ord, int contextDoc, int globalDoc) throws IOException {
+    public void collapse(int slot, int contextDoc, int globalDoc) throws IOException {
 
       if(boosted && mergeBoost.boost(globalDoc)) {
-        this.boostOrds.add(ord);
+        this.boostOrds.add(slot);
         this.boostDocs.add(globalDoc);
       }
 
@@ -1872,12 +2065,12 @@ public class CollapsingQParserPlugin extends QParserPlugin {
 
       float currentVal = functionValues.floatVal(contextDoc);
 
-      if(ord > -1) {
-        if(comp.test(currentVal, ordVals[ord])) {
-          ords[ord] = globalDoc;
-          ordVals[ord] = currentVal;
+      if(slot > -1) {
+        if(comp.test(currentVal, ordVals[slot])) {
+          ords[slot] = globalDoc;
+          ordVals[slot] = currentVal;
           if(needsScores) {
-            scores[ord] = score;
+            scores[slot] = score;
           }
         }
       } else if(this.nullPolicy == CollapsingPostFilter.NULL_POLICY_COLLAPSE) {
@@ -1911,14 +2104,15 @@ public class CollapsingQParserPlugin extends QParserPlugin {
 
     public OrdSortSpecStrategy(int maxDoc,
                                int nullPolicy,
-                               int[] ords,
+                               int valueCount,
+                               int size,
                                GroupHeadSelector groupHeadSelector,
                                boolean needsScores,
                                IntIntHashMap boostDocs,
                                SortSpec sortSpec,
                                IndexSearcher searcher,
                                SortedDocValues values) throws IOException {
-      super(maxDoc, ords, nullPolicy, needsScores, boostDocs, values);
+      super(maxDoc, valueCount, size, nullPolicy, needsScores, boostDocs, values);
       
       assert GroupHeadSelectorType.SORT.equals(groupHeadSelector.type);
       
@@ -1928,13 +2122,25 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       this.compareState = new SortFieldsCompare(sort.getSort(), ords.length);
 
       if (this.needsScores) {
-        this.scores = new float[ords.length];
+        this.scores = slots.newFloats(0f);
         if(nullPolicy == CollapsingPostFilter.NULL_POLICY_EXPAND) {
           nullScores = new FloatArrayList();
         }
       }
     }
 
+    @Override
+    public void grow(int length) {
+      super.grow(length);
+      compareState.grow(length);
+    }
+
+    @Override
+    public void densify(int[] slotOrds) {
+      super.densify(slotOrds);
+      compareState.remap(slotOrds, slots.valueCount());
+    }
+
     @Override
     public void setNextReader(LeafReaderContext context) throws IOException {
       compareState.setNextReader(context);
@@ -1947,10 +2153,10 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     }
     
     @Override
-    public void collapse(int ord, int contextDoc, int globalDoc) throws IOException {
+    public void collapse(int slot, int contextDoc, int globalDoc) throws IOException {
       
       if(boosted && mergeBoost.boost(globalDoc)) {
-        this.boostOrds.add(ord);
+        this.boostOrds.add(slot);
         this.boostDocs.add(globalDoc);
       }
 
@@ -1958,20 +2164,20 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         this.score = scorer.score();
       }
 
-      if (ord > -1) { // real collapseKey
-        if (-1 == ords[ord]) {
-          // we've never seen this ord (aka: collapseKey) before, treat it as group head for now
-          compareState.setGroupValues(ord, contextDoc);
-          ords[ord] = globalDoc;
+      if (slot > -1) { // real collapseKey
+        if (-1 == ords[slot]) {
+          // we've never seen this slot (aka: collapseKey) before, treat it as group head for now
+          compareState.setGroupValues(slot, contextDoc);
+          ords[slot] = globalDoc;
           if (needsScores) {
-            scores[ord] = score;
+            scores[slot] = score;
           }
         } else {
-          // test this ord to see if it's a new group leader
-          if (compareState.testAndSetGroupValues(ord, contextDoc)) {
-            ords[ord] = globalDoc;
+          // test this slot to see if it's a new group leader
+          if (compareState.testAndSetGroupValues(slot, contextDoc)) {
+            ords[slot] = globalDoc;
             if (needsScores) {
-              scores[ord] = score;
+              scores[slot] = score;
             }
           }
         }
@@ -2610,6 +2816,296 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     }
   }
 
+  /**
+   * Maps the global ordinals of a collapse field to the slots of the per group arrays of the ordinal
+   * collectors and strategies.
+   * <p>
+   * When the expected number of groups (the <code>size</code> local param) is small compared to the number
+   * of values of the field, slots are handed out in the order the groups are first collected and the arrays
+   * grow with the number of groups, so that memory depends on the collected groups rather than on the
+   * cardinality of the field. Once there are <code>valueCount / SPARSE_RATIO</code> groups, arrays sized to
+   * the number of values are cheaper and the slots become the ordinals themselves.
+   * <p>
+   * When the number of values is unknown (-1), the ordinals are expected to be handed out in increasing order,
+   * as by {@link SegmentGroups}, and are the slots of arrays that grow with them.
+   */
+  static class OrdSlots {
+
+    /** The arrays that are indexed by slot. */
+    interface SlotArrays {
+      /** Grows the arrays to the given length, with initial values in the new slots */
+      void grow(int length);
+      /** Replaces the arrays with dense arrays, the values of slot <code>i</code> move to <code>slotOrds[i]</code> */
+      void densify(int[] slotOrds);
+    }
+
+    static final int SPARSE_RATIO = 16;
+
+    private final int valueCount;
+    private final int maxSparseGroups;
+    private final SlotArrays arrays;
+    private IntIntHashMap slots; // null once dense
+    private int[] slotOrds;
+    private int capacity;
+
+    OrdSlots(int valueCount, int expectedGroups, SlotArrays arrays) {
+      this.valueCount = valueCount;
+      this.maxSparseGroups = valueCount / SPARSE_RATIO;
+      this.arrays = arrays;
+      if (valueCount < 0) {
+        this.capacity = Math.max(expectedGroups, 1);
+      } else if (expectedGroups < maxSparseGroups) {
+        this.capacity = Math.max(expectedGroups, 1);
+        this.slots = new IntIntHashMap(capacity);
+        this.slotOrds = new int[capacity];
+      } else {
+        this.capacity = valueCount;
+      }
+    }
+
+    boolean isDense() {
+      return slots == null;
+    }
+
+    int valueCount() {
+      return valueCount;
+    }
+
+    /** @return the slot of the ordinal, which is added if it's new, or -1 if the ordinal is -1 */
+    int slot(int ord) {
+      if (ord < 0 || slots == null) {
+        if (ord >= capacity) {
+          capacity = ArrayUtil.oversize(ord + 1, Integer.BYTES);
+          arrays.grow(capacity);
+        }
+        return ord;
+      }
+      int index = slots.indexOf(ord);
+      if (slots.indexExists(index)) {
+        return slots.indexGet(index);
+      }
+      int slot = slots.size();
+      if (slot == maxSparseGroups) {
+        int[] ords = Arrays.copyOf(slotOrds, slot);
+        slots = null;
+        slotOrds = null;
+        capacity = valueCount;
+        arrays.densify(ords);
+        return ord;
+      }
+      slots.indexInsert(index, ord, slot);
+      if (slot == capacity) {
+        capacity = ArrayUtil.oversize(slot + 1, Integer.BYTES);
+        slotOrds = Arrays.copyOf(slotOrds, capacity);
+        arrays.grow(capacity);
+      }
+      slotOrds[slot] = ord;
+      return slot;
+    }
+
+    /** @return the slot of the ordinal, or -1 if it was never added */
+    int get(int ord) {
+      if (ord < 0 || slots == null) {
+        return ord;
+      }
+      int index = slots.indexOf(ord);
+      return slots.indexExists(index) ? slots.indexGet(index) : -1;
+    }
+
+    /** @return whether the arrays are sized to the number of values, and come from the {@link OrdArrayPool} */
+    private boolean isPooled() {
+      return slots == null && valueCount >= 0;
+    }
+
+    BitSet newBitSet(int maxDoc) {
+      return slots == null ? new FixedBitSet(maxDoc) : new SparseFixedBitSet(maxDoc);
+    }
+
+    int[] newInts(int initialValue) {
+      int[] array = isPooled() ? OrdArrayPool.takeInts(capacity) : new int[capacity];
+      Arrays.fill(array, initialValue);
+      return array;
+    }
+
+    float[] newFloats(float initialValue) {
+      float[] array = isPooled() ? OrdArrayPool.takeFloats(capacity) : new float[capacity];
+      Arrays.fill(array, initialValue);
+      return array;
+    }
+
+    long[] newLongs(long initialValue) {
+      long[] array = isPooled() ? OrdArrayPool.takeLongs(capacity) : new long[capacity];
+      Arrays.fill(array, initialValue);
+      return array;
+    }
+
+    int[] toDense(int[] values, int[] slotOrds, int initialValue) {
+      int[] dense = newInts(initialValue);
+      for (int slot = 0; slot < slotOrds.length; slot++) {
+        dense[slotOrds[slot]] = values[slot];
+      }
+      return dense;
+    }
+
+    float[] toDense(float[] values, int[] slotOrds, float initialValue) {
+      float[] dense = newFloats(initialValue);
+      for (int slot = 0; slot < slotOrds.length; slot++) {
+        dense[slotOrds[slot]] = values[slot];
+      }
+      return dense;
+    }
+
+    long[] toDense(long[] values, int[] slotOrds, long initialValue) {
+      long[] dense = newLongs(initialValue);
+      for (int slot = 0; slot < slotOrds.length; slot++) {
+        dense[slotOrds[slot]] = values[slot];
+      }
+      return dense;
+    }
+
+    /** Hands a dense array back to the pool, sparse arrays are left to the garbage collector */
+    void release(Object array) {
+      if (isPooled() && array != null) {
+        OrdArrayPool.release(array);
+      }
+    }
+
+    static int[] grow(int[] values, int length, int initialValue) {
+      int[] grown = Arrays.copyOf(values, length);
+      Arrays.fill(grown, values.length, length, initialValue);
+      return grown;
+    }
+
+    static float[] grow(float[] values, int length, float initialValue) {
+      float[] grown = Arrays.copyOf(values, length);
+      Arrays.fill(grown, values.length, length, initialValue);
+      return grown;
+    }
+
+    static long[] grow(long[] values, int length, long initialValue) {
+      long[] grown = Arrays.copyOf(values, length);
+      Arrays.fill(grown, values.length, length, initialValue);
+      return grown;
+    }
+
+    /** Replaces the slots of the list with the ordinals they map to */
+    static void remap(IntArrayList slotList, int[] slotOrds) {
+      for (int i = 0; i < slotList.size(); i++) {
+        int slot = slotList.get(i);
+        if (slot > -1) {
+          slotList.set(i, slotOrds[slot]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Numbers the groups of a string collapse field by term, one segment at a time, so that collapsing
+   * doesn't need the top level ordinals of the field and the {@link OrdinalMap} that backs them, which
+   * is rebuilt for every new searcher. Groups are numbered in the order their terms are first collected,
+   * and the term of a segment ordinal is looked up once per segment.
+   */
+  static class SegmentGroups {
+
+    private final String field;
+    private final BytesRefHash terms = new BytesRefHash();
+    private SortedDocValues values;
+    private int[] segmentGroups;
+
+    SegmentGroups(String field) {
+      this.field = field;
+    }
+
+    /**
+     * @param collect whether groups will be added for the docs of this segment, rather than
+     * only looked up with {@link #find}
+     */
+    void setNextReader(LeafReaderContext context, boolean collect) throws IOException {
+      this.values = DocValues.getSorted(context.reader(), field);
+      if (collect) {
+        this.segmentGroups = new int[values.getValueCount()];
+        Arrays.fill(segmentGroups, -1);
+      } else {
+        this.segmentGroups = null;
+      }
+    }
+
+    /** @return the group of the doc, which is added if it's new, or -1 if the doc has no value */
+    int group(int contextDoc) throws IOException {
+      if (values.advanceExact(contextDoc) == false) {
+        return -1;
+      }
+      int ord = values.ordValue();
+      int group = segmentGroups[ord];
+      if (group == -1) {
+        group = terms.add(values.lookupOrd(ord));
+        if (group < 0) {
+          group = -group - 1;
+        }
+        segmentGroups[ord] = group;
+      }
+      return group;
+    }
+
+    /** @return the group of the doc, or -1 if the doc has no value or its group was never added */
+    int find(int contextDoc) throws IOException {
+      if (values.advanceExact(contextDoc) == false) {
+        return -1;
+      }
+      return terms.find(values.lookupOrd(values.ordValue()));
+    }
+  }
+
+  /**
+   * Keeps the last few dense arrays released by the ordinal collectors, softly referenced, so that the
+   * next requests collapsing on a field with the same number of values reuse them rather than allocate
+   * arrays sized to the cardinality of the field every time.
+   */
+  static final class OrdArrayPool {
+
+    private static final int MAX_ARRAYS = 8;
+    private static final List<SoftReference<Object>> arrays = new ArrayList<>();
+
+    private OrdArrayPool() {
+    }
+
+    static int[] takeInts(int length) {
+      Object array = take(int[].class, length);
+      return array == null ? new int[length] : (int[]) array;
+    }
+
+    static float[] takeFloats(int length) {
+      Object array = take(float[].class, length);
+      return array == null ? new float[length] : (float[]) array;
+    }
+
+    static long[] takeLongs(int length) {
+      Object array = take(long[].class, length);
+      return array == null ? new long[length] : (long[]) array;
+    }
+
+    private static synchronized Object take(Class<?> type, int length) {
+      for (Iterator<SoftReference<Object>> it = arrays.iterator(); it.hasNext(); ) {
+        Object array = it.next().get();
+        if (array == null) {
+          it.remove();
+        } else if (array.getClass() == type && java.lang.reflect.Array.getLength(array) == length) {
+          it.remove();
+          return array;
+        }
+      }
+      return null;
+    }
+
+    static synchronized void release(Object array) {
+      if (arrays.size() == MAX_ARRAYS) {
+        arrays.remove(0);
+      }
+      arrays.add(new SoftReference<>(array));
+    }
+  }
+
+
   /** 
    * Class for comparing documents according to a list of SortField clauses and 
    * tracking the groupHeadLeaders and their sort values.  groups will be identified 
@@ -2781,6 +3277,17 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     public void grow(int minSize) {
       groupHeadValues = ArrayUtil.grow(groupHeadValues, minSize);
     }
+
+    /**
+     * Moves the values of each collapseKey to the key it maps to, keys that are not mapped are dropped
+     */
+    public void remap(int[] newKeys, int numGroups) {
+      Object[][] values = new Object[numGroups][];
+      for (int key = 0; key < newKeys.length; key++) {
+        values[newKeys[key]] = groupHeadValues[key];
+      }
+      groupHeadValues = values;
+    }
   }
     
   private static interface IntCompare {
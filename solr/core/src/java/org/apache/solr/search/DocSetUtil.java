@@ -32,6 +32,7 @@ import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
 import org.apache.lucene.search.LeafCollector;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
@@ -119,6 +120,11 @@ public class DocSetUtil {
   // implementers of DocSetProducer should not call this with themselves or it will result in an infinite loop
   public static DocSet createDocSet(SolrIndexSearcher searcher, Query query, DocSet filter) throws IOException {
 
+    if (query instanceof IndexOrDocValuesQuery) {
+      // all matches are needed, which the index is better at finding
+      query = ((IndexOrDocValuesQuery) query).getIndexQuery();
+    }
+
     if (filter != null) {
         Filter luceneFilter = filter.getTopFilter();
         query = new BooleanQuery.Builder()
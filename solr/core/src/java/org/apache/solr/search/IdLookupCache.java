@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.util.ConcurrentLRUCache;
+
+/**
+ * A bounded cache of unique key lookups made against a single {@link SolrIndexSearcher}.
+ * <p>
+ * The reader of a searcher never changes, so entries can't become stale: the cache is dropped
+ * along with its searcher, which makes every (NRT) reopen invalidate it. Both the position of
+ * the document ({@link SolrIndexSearcher#lookupId(BytesRef)}) and, once it has been read, its
+ * <code>_version_</code> are remembered, so that the update path, which repeatedly resolves the
+ * same ids against the realtime searcher, skips the terms dictionary and doc values.
+ * Misses are cached too, since most ids looked up while adding new documents do not exist yet.
+ *
+ * @lucene.internal
+ */
+public final class IdLookupCache {
+
+  private static final class Entry {
+    final long segAndDoc;
+    volatile Long version;
+
+    Entry(long segAndDoc) {
+      this.segAndDoc = segAndDoc;
+    }
+  }
+
+  private final ConcurrentLRUCache<BytesRef,Entry> cache;
+
+  /** Creates a cache holding at most <code>size</code> ids. */
+  public IdLookupCache(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("size must be positive: " + size);
+    }
+    this.cache = new ConcurrentLRUCache<>(size, Math.max(1, (int) (size * 0.9)));
+  }
+
+  /**
+   * Returns the result of {@link SolrIndexSearcher#lookupId(BytesRef)} for this id, or null if it is not cached.
+   */
+  public Long getSegAndDoc(BytesRef idBytes) {
+    final Entry entry = cache.get(idBytes);
+    return entry == null ? null : entry.segAndDoc;
+  }
+
+  /**
+   * Records the result of {@link SolrIndexSearcher#lookupId(BytesRef)} for this id, -1 if it has no live document.
+   */
+  public void putSegAndDoc(BytesRef idBytes, long segAndDoc) {
+    cache.put(BytesRef.deepCopyOf(idBytes), new Entry(segAndDoc));
+  }
+
+  /**
+   * Returns the cached version of the live document with this id, or null if it is not cached.
+   */
+  public Long getVersion(BytesRef idBytes) {
+    final Entry entry = cache.get(idBytes);
+    return entry == null ? null : entry.version;
+  }
+
+  /**
+   * Records the version of the live document with this id, which must have been found by
+   * {@link SolrIndexSearcher#lookupId(BytesRef)} before.
+   */
+  public void putVersion(BytesRef idBytes, long version) {
+    final Entry entry = cache.get(idBytes);
+    if (entry != null) {
+      entry.version = version;
+    }
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  public long getLookups() {
+    return cache.getStats().getCumulativeLookups();
+  }
+
+  public long getHits() {
+    return cache.getStats().getCumulativeHits();
+  }
+
+  /** Releases the cache. */
+  public void close() {
+    cache.destroy();
+  }
+}
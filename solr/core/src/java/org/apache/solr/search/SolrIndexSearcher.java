@@ -126,6 +126,9 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
   // list of all caches associated with this searcher.
   private final SolrCache[] cacheList;
 
+  // unique key lookups, also enabled on realtime searchers since the update path relies on them
+  private final IdLookupCache idLookupCache;
+
   private DirectoryFactory directoryFactory;
 
   private final LeafReader leafReader;
@@ -299,6 +302,9 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       this.cacheList = NO_CACHES;
     }
 
+    this.idLookupCache = solrConfig.idLookupCacheSize > 0 && schema.getUniqueKeyField() != null
+        ? new IdLookupCache(solrConfig.idLookupCacheSize) : null;
+
     // We already have our own filter cache
     setQueryCache(null);
 
@@ -473,6 +479,10 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       cache.close();
     }
 
+    if (idLookupCache != null) {
+      idLookupCache.close();
+    }
+
     if (releaseDirectory) {
       directoryFactory.release(getIndexReader().directory());
     }
@@ -664,7 +674,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
    * @return the first document number containing the term
    */
   public int getFirstMatch(Term t) throws IOException {
-    long pair = lookupId(t.field(), t.bytes());
+    long pair = lookupId(t.field(), t.bytes(), false);
     if (pair == -1) {
       return -1;
     } else {
@@ -681,17 +691,38 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
    * @lucene.internal
    */
   public long lookupId(BytesRef idBytes) throws IOException {
-    return lookupId(schema.getUniqueKeyField().getName(), idBytes);
+    if (idLookupCache == null) {
+      return lookupId(schema.getUniqueKeyField().getName(), idBytes, true);
+    }
+    Long segAndDoc = idLookupCache.getSegAndDoc(idBytes);
+    if (segAndDoc == null) {
+      segAndDoc = lookupId(schema.getUniqueKeyField().getName(), idBytes, true);
+      idLookupCache.putSegAndDoc(idBytes, segAndDoc);
+    }
+    return segAndDoc;
+  }
+
+  /**
+   * Returns the cache of unique key lookups of this searcher, or null if it is disabled.
+   *
+   * @see SolrConfig#idLookupCacheSize
+   */
+  public IdLookupCache getIdLookupCache() {
+    return idLookupCache;
   }
 
-  private long lookupId(String field, BytesRef idBytes) throws IOException {
-    for (int i = 0, c = leafContexts.size(); i < c; i++) {
+  private long lookupId(String field, BytesRef idBytes, boolean newestFirst) throws IOException {
+    // Unique keys visit the newest segments first: updates tend to hit recently added documents,
+    // and since there is at most one live document per id we can stop at the first match.
+    for (int n = 0, c = leafContexts.size(); n < c; n++) {
+      final int i = newestFirst ? c - 1 - n : n;
       final LeafReaderContext leaf = leafContexts.get(i);
       final LeafReader reader = leaf.reader();
 
       final Terms terms = reader.terms(field);
       if (terms == null) continue;
 
+      // with a bloom filtered postings format, seekExact rejects most absent ids without touching the terms index
       TermsEnum te = terms.iterator();
       if (te.seekExact(idBytes)) {
         PostingsEnum docs = te.postings(null, PostingsEnum.NONE);
@@ -2141,6 +2172,10 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
   public void warm(SolrIndexSearcher old) {
     // Make sure this is first! filters can help queryResults execute!
     long warmingStartTime = System.nanoTime();
+    // let the top-level ordinal maps be built incrementally from the ones of the old searcher, before warming uses them
+    if (leafReader instanceof SlowCompositeReaderWrapper && old.leafReader instanceof SlowCompositeReaderWrapper) {
+      ((SlowCompositeReaderWrapper) leafReader).reuseOrdinalMaps((SlowCompositeReaderWrapper) old.leafReader);
+    }
     // warm the caches in order...
     ModifiableSolrParams params = new ModifiableSolrParams();
     params.add("warming", "true");
@@ -2281,6 +2316,17 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     manager.registerGauge(this, registry, () -> reader.toString(), tag, true, "reader", Category.SEARCHER.toString(), scope);
     manager.registerGauge(this, registry, () -> reader.directory().toString(), tag, true, "readerDir", Category.SEARCHER.toString(), scope);
     manager.registerGauge(this, registry, () -> reader.getVersion(), tag, true, "indexVersion", Category.SEARCHER.toString(), scope);
+    if (idLookupCache != null) {
+      manager.registerGauge(this, registry, () -> idLookupCache.size(), tag, true, "idLookupCacheSize", Category.SEARCHER.toString(), scope);
+      manager.registerGauge(this, registry, () -> idLookupCache.getLookups(), tag, true, "idLookupCacheLookups", Category.SEARCHER.toString(), scope);
+      manager.registerGauge(this, registry, () -> idLookupCache.getHits(), tag, true, "idLookupCacheHits", Category.SEARCHER.toString(), scope);
+    }
+    if (leafReader instanceof SlowCompositeReaderWrapper) {
+      final SlowCompositeReaderWrapper wrapper = (SlowCompositeReaderWrapper) leafReader;
+      manager.registerGauge(this, registry, () -> wrapper.getOrdinalMapBuilds(), tag, true, "ordinalMapBuilds", Category.SEARCHER.toString(), scope);
+      manager.registerGauge(this, registry, () -> wrapper.getIncrementalOrdinalMapBuilds(), tag, true, "ordinalMapIncrementalBuilds", Category.SEARCHER.toString(), scope);
+      manager.registerGauge(this, registry, () -> TimeUnit.NANOSECONDS.toMillis(wrapper.getOrdinalMapBuildNanos()), tag, true, "ordinalMapBuildTime", Category.SEARCHER.toString(), scope);
+    }
 
   }
 
@@ -26,6 +26,7 @@ import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.DocValuesTermsQuery;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
 import org.apache.lucene.search.MatchNoDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermInSetQuery;
@@ -39,6 +40,8 @@ import org.apache.solr.common.params.SolrParams;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.schema.FieldType;
 import org.apache.solr.schema.PointField;
+import org.apache.solr.schema.SchemaField;
+import org.apache.solr.schema.StrField;
 
 /**
  * Finds documents whose specified field has any of the specified values. It's like
@@ -48,6 +51,8 @@ import org.apache.solr.schema.PointField;
  * <br><code>separator</code>: the separator delimiting the values in the query string, defaulting to a comma.
  * If it's a " " then it splits on any consecutive whitespace.
  * <br><code>method</code>: Any of termsFilter (default), booleanQuery, automaton, docValuesTermsFilter.
+ * With termsFilter on a string field that is indexed and has docValues, the terms are either looked up in the
+ * index or checked against the docValues of the documents, whichever is cheaper given the rest of the query.
  * <p>
  * Note that if no values are specified then the query matches no documents.
  */
@@ -138,7 +143,14 @@ public class TermsQParserPlugin extends QParserPlugin {
           bytesRefs[i] = term.toBytesRef();
         }
 
-        return method.makeFilter(fname, bytesRefs);
+        Query filter = method.makeFilter(fname, bytesRefs);
+        if (method == Method.termsFilter && ft instanceof StrField) {
+          SchemaField sf = req.getSchema().getFieldOrNull(fname);
+          if (sf != null && ((StrField) ft).hasDocValuesMatchingIndex(sf)) {
+            filter = new IndexOrDocValuesQuery(filter, Method.docValuesTermsFilter.makeFilter(fname, bytesRefs));
+          }
+        }
+        return filter;
       }
     };
   }
@@ -121,7 +121,7 @@ public class FacetField extends FacetRequestSorted {
 
     if (fcontext.facetInfo != null) {
       // refinement... we will end up either skipping the entire facet, or doing calculating only specific facet buckets
-      if (multiToken && !sf.hasDocValues() && method!=FacetMethod.DV && sf.isUninvertible()) {
+      if (multiToken && !sf.hasDocValues() && method!=FacetMethod.DV && sf.isUninvertible() && !uninvertPerSegment(fcontext)) {
         // Match the access method from the first phase.
         // It won't always matter, but does currently for an all-values bucket
         return new FacetFieldProcessorByArrayUIF(fcontext, this, sf);
@@ -186,10 +186,22 @@ public class FacetField extends FacetRequestSorted {
       return new FacetFieldProcessorByArrayDV(fcontext, this, sf);
     }
 
+    if (uninvertPerSegment(fcontext)) {
+      // per-segment uninverted fields (cached by core, so reopening only uninverts new segments) merged with
+      // the top-level ordinal map
+      return new FacetFieldProcessorByArrayDV(fcontext, this, sf);
+    }
+
     // Top-level multi-valued field cache (UIF)
     return new FacetFieldProcessorByArrayUIF(fcontext, this, sf);
   }
 
+  /** Whether to uninvert per segment rather than using UnInvertedField: only when configured, and only if no explicit
+   *  method was requested so that {@code method:uif} keeps using the top-level field cache. */
+  private boolean uninvertPerSegment(FacetContext fcontext) {
+    return method == FacetMethod.SMART && fcontext.searcher.getCore().getSolrConfig().uninvertPerSegment;
+  }
+
   @Override
   public FacetMerger createFacetMerger(Object prototype) {
     return new FacetFieldMerger(this);
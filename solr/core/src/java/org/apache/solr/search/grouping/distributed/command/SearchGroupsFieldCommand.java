@@ -32,6 +32,7 @@ import org.apache.lucene.search.grouping.SearchGroup;
 import org.apache.lucene.search.grouping.TermGroupSelector;
 import org.apache.lucene.search.grouping.ValueSourceGroupSelector;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.mutable.MutableValue;
 import org.apache.solr.schema.FieldType;
 import org.apache.solr.schema.SchemaField;
 import org.apache.solr.search.grouping.Command;
@@ -120,6 +121,21 @@ public class SearchGroupsFieldCommand implements Command<SearchGroupsFieldComman
     return collectors;
   }
 
+  /**
+   * Whether some documents have no value for the group field. Only known when the group count is included.
+   */
+  public boolean hasNullGroup() {
+    if (allGroupsCollector == null) {
+      return false;
+    }
+    for (Object group : allGroupsCollector.getGroups()) {
+      if (group == null || (group instanceof MutableValue && !((MutableValue) group).exists())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public SearchGroupsFieldCommandResult result() throws IOException {
     final Collection<SearchGroup<BytesRef>> topGroups;
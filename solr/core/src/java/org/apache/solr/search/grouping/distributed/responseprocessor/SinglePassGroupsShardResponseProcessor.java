@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.grouping.distributed.responseprocessor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.grouping.GroupDocs;
+import org.apache.lucene.search.grouping.SearchGroup;
+import org.apache.lucene.search.grouping.TopGroups;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.CharsRefBuilder;
+import org.apache.solr.common.params.ShardParams;
+import org.apache.solr.handler.component.ResponseBuilder;
+import org.apache.solr.handler.component.ShardRequest;
+import org.apache.solr.handler.component.ShardResponse;
+import org.apache.solr.schema.FieldType;
+
+/**
+ * Concrete implementation for merging shard responses that contain both the search groups and the top groups of
+ * each shard. The search groups are merged first, then the documents of every merged group are taken from the
+ * shard(s) that returned the group. The null group is the only group that may be spread over several shards, so
+ * it is counted once in the group count of a field no matter how many shards report it.
+ */
+public class SinglePassGroupsShardResponseProcessor extends TopGroupsShardResponseProcessor {
+
+  /** Key of the shard response listing the group fields for which the shard has documents without a value */
+  public static final String NULL_GROUP_FIELDS = "nullGroupFields";
+
+  private final Map<String, Integer> duplicateNullGroups = new HashMap<>();
+
+  @Override
+  public void process(ResponseBuilder rb, ShardRequest shardRequest) {
+    boolean shardsTolerant = ShardParams.getShardsTolerantAsBool(rb.req.getParams());
+    Map<String, Integer> nullGroupShards = new HashMap<>();
+    for (ShardResponse srsp : shardRequest.responses) {
+      if (shardsTolerant && srsp.getException() != null) {
+        continue;
+      }
+      @SuppressWarnings("unchecked")
+      List<String> nullGroupFields = (List<String>) srsp.getSolrResponse().getResponse().get(NULL_GROUP_FIELDS);
+      if (nullGroupFields != null) {
+        for (String field : nullGroupFields) {
+          nullGroupShards.merge(field, 1, Integer::sum);
+        }
+      }
+    }
+    for (Map.Entry<String, Integer> entry : nullGroupShards.entrySet()) {
+      if (entry.getValue() > 1) {
+        duplicateNullGroups.put(entry.getKey(), entry.getValue() - 1);
+      }
+    }
+
+    new SearchGroupShardResponseProcessor().process(rb, shardRequest);
+    for (Map.Entry<String, Integer> entry : duplicateNullGroups.entrySet()) {
+      Integer groupCount = rb.mergedGroupCounts.get(entry.getKey());
+      if (groupCount != null) {
+        rb.mergedGroupCounts.put(entry.getKey(), groupCount - entry.getValue());
+      }
+    }
+    super.process(rb, shardRequest);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected TopGroups<BytesRef> mergeTopGroups(ResponseBuilder rb, String groupField, TopGroups<BytesRef>[] shardTopGroups,
+                                               Sort groupSort, Sort withinGroupSort, int groupOffset, int docsPerGroup) {
+    int totalHitCount = 0;
+    Integer totalGroupCount = null;
+    List<Map<BytesRef, GroupDocs<BytesRef>>> shardGroups = new ArrayList<>(shardTopGroups.length);
+    for (TopGroups<BytesRef> shard : shardTopGroups) {
+      totalHitCount += shard.totalHitCount;
+      if (shard.totalGroupCount != null) {
+        totalGroupCount = totalGroupCount == null ? shard.totalGroupCount : totalGroupCount + shard.totalGroupCount;
+      }
+      Map<BytesRef, GroupDocs<BytesRef>> groups = new HashMap<>(shard.groups.length);
+      for (GroupDocs<BytesRef> group : shard.groups) {
+        groups.put(group.groupValue, group);
+      }
+      shardGroups.add(groups);
+    }
+
+    // the shard responses carry the readable group values
+    FieldType fieldType = rb.req.getSearcher().getSchema().getField(groupField).getType();
+    Collection<SearchGroup<BytesRef>> searchGroups = rb.mergedSearchGroups.get(groupField);
+    List<GroupDocs<BytesRef>> mergedGroups = new ArrayList<>(searchGroups == null ? 0 : searchGroups.size());
+    int totalGroupedHitCount = 0;
+    float maxScore = Float.MIN_VALUE;
+    if (searchGroups != null) {
+      CharsRefBuilder spare = new CharsRefBuilder();
+      for (SearchGroup<BytesRef> searchGroup : searchGroups) {
+        BytesRef groupValue = searchGroup.groupValue == null ? null
+            : new BytesRef(fieldType.indexedToReadable(searchGroup.groupValue, spare).toString());
+        List<TopGroups<BytesRef>> owners = new ArrayList<>(1);
+        for (Map<BytesRef, GroupDocs<BytesRef>> groups : shardGroups) {
+          GroupDocs<BytesRef> group = groups.get(groupValue);
+          if (group != null) {
+            owners.add(new TopGroups<>(groupSort.getSort(), withinGroupSort.getSort(), 0, 0, new GroupDocs[] {group}, group.maxScore));
+          }
+        }
+        if (owners.isEmpty()) {
+          continue; // the shard holding this group failed and shards.tolerant=true
+        }
+        // usually a single shard, only the null group may be spread over several shards
+        GroupDocs<BytesRef> merged = TopGroups.merge(owners.toArray(new TopGroups[owners.size()]), groupSort, withinGroupSort,
+            groupOffset, docsPerGroup, TopGroups.ScoreMergeMode.None).groups[0];
+        totalGroupedHitCount += merged.totalHits.value;
+        maxScore = Math.max(maxScore, merged.maxScore);
+        mergedGroups.add(merged);
+      }
+    }
+
+    TopGroups<BytesRef> result = new TopGroups<>(groupSort.getSort(), withinGroupSort.getSort(), totalHitCount,
+        totalGroupedHitCount, mergedGroups.toArray(new GroupDocs[mergedGroups.size()]), maxScore);
+    if (totalGroupCount == null) {
+      return result;
+    }
+    return new TopGroups<>(result, totalGroupCount - duplicateNullGroups.getOrDefault(groupField, 0));
+  }
+}
@@ -161,7 +161,7 @@ public class TopGroupsShardResponseProcessor implements ShardResponseProcessor {
           docsPerGroup += subTopGroups.totalGroupedHitCount;
         }
       }
-      rb.mergedTopGroups.put(groupField, TopGroups.merge(topGroups.toArray(topGroupsArr), groupSort, withinGroupSort, groupOffsetDefault, docsPerGroup, TopGroups.ScoreMergeMode.None));
+      rb.mergedTopGroups.put(groupField, mergeTopGroups(rb, groupField, topGroups.toArray(topGroupsArr), groupSort, withinGroupSort, groupOffsetDefault, docsPerGroup));
     }
 
     for (String query : commandTopDocs.keySet()) {
@@ -215,4 +215,13 @@ public class TopGroupsShardResponseProcessor implements ShardResponseProcessor {
 
     rb.resultIds = resultIds;
   }
+
+  /**
+   * Merges the top groups of one field from all shards. All shards are expected to return the same groups in the
+   * same order.
+   */
+  protected TopGroups<BytesRef> mergeTopGroups(ResponseBuilder rb, String groupField, TopGroups<BytesRef>[] shardTopGroups,
+                                               Sort groupSort, Sort withinGroupSort, int groupOffset, int docsPerGroup) {
+    return TopGroups.merge(shardTopGroups, groupSort, withinGroupSort, groupOffset, docsPerGroup, TopGroups.ScoreMergeMode.None);
+  }
 }
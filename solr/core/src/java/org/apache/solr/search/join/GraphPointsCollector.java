@@ -67,6 +67,11 @@ public class GraphPointsCollector extends GraphEdgeCollector {
     }
   }
 
+  @Override
+  public int getNumEdges() {
+    return set.cardinality();
+  }
+
   @Override
   public Query getResultQuery(SchemaField matchField, boolean useAutomaton) {
     if (set.cardinality() == 0) return null;
@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Executor;
 
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
@@ -59,6 +60,8 @@ import org.apache.solr.search.SolrIndexSearcher;
  * maxDepth = the max depth to traverse.  (start nodes is depth=1)
  * onlyLeafNodes = only return documents that have no edge id values.
  * returnRoot = if false, the documents matching the initial query will not be returned.
+ * threads = the number of threads that process the segments of each hop, 0 (the default) to use the calling thread only,
+ *           at most the number of available processors.
  *
  * @lucene.experimental
  */
@@ -77,6 +80,9 @@ public class GraphQuery extends Query {
 
   /** Use automaton compilation for graph query traversal (experimental + expert use only) */
   private boolean useAutn = true;
+
+  /** The number of threads processing the segments of a hop, negative for one per segment. Doesn't change the result. */
+  private int threads = 0;
   
   /** If this is true, the graph traversal result will only return documents that 
    * do not have a value in the edge field. (Only leaf nodes returned from the graph) */
@@ -126,6 +132,9 @@ public class GraphQuery extends Query {
     sb.append("[returnRoot=" + returnRoot + "]");
     sb.append("[onlyLeafNodes=" + onlyLeafNodes + "]");
     sb.append("[useAutn=" + useAutn + "]");
+    if (threads != 0) {
+      sb.append("[threads=" + threads + "]");
+    }
     return sb.toString();
   }
   
@@ -133,6 +142,7 @@ public class GraphQuery extends Query {
     
     final SolrIndexSearcher fromSearcher;
     private int currentDepth = -1;
+    private long numEdges = 0;
     private Filter filter;
     private DocSet resultSet;
     SchemaField collectSchemaField;  // the field to collect values from
@@ -157,6 +167,8 @@ public class GraphQuery extends Query {
       final boolean exists = (cs != null && cs.iterator().advance(doc) == doc);
       if (exists) {
         List<Explanation> subs = new ArrayList<Explanation>();
+        subs.add(Explanation.match(currentDepth, "depth reached"));
+        subs.add(Explanation.match(numEdges, "edges traversed"));
         return Explanation.match(1.0F, "Graph Match", subs);
       } else {
         List<Explanation> subs = new ArrayList<Explanation>();
@@ -171,6 +183,9 @@ public class GraphQuery extends Query {
      * @throws IOException - if a sub search fails... maybe other cases too! :)
      */
     private DocSet getDocSet() throws IOException {
+      if (!isUseAutn() && GraphTraversal.canTraverse(matchSchemaField, collectSchemaField)) {
+        return traverse();
+      }
       // Size that the bit set needs to be.
       int capacity = fromSearcher.getRawReader().maxDoc();
       // The bit set to contain the results that match the query.
@@ -206,6 +221,7 @@ public class GraphQuery extends Query {
           graphResultCollector.setCollectDocs(fromSet.getBits());
 
           fromSearcher.search(frontierQuery, graphResultCollector);
+          numEdges += graphResultCollector.getNumEdges();
 
           frontierQuery = graphResultCollector.getResultQuery(matchSchemaField, isUseAutn());
           // If there is a filter to be used while crawling the graph, add that.
@@ -243,6 +259,29 @@ public class GraphQuery extends Query {
       }
     }
     
+    /**
+     * Computes the matching doc set without running a query for each hop, see {@link GraphTraversal}.
+     * The traversal filter is resolved once, through the filter cache.
+     */
+    private DocSet traverse() throws IOException {
+      FixedBitSet rootBits = fromSearcher.getDocSetBits(q).getBits();
+      DocSet filterSet = traversalFilter == null ? null : fromSearcher.getDocSet(traversalFilter);
+      Executor executor = threads == 0 ? null : fromSearcher.getCore().getCoreContainer().getUpdateShardHandler().getUpdateExecutor();
+      GraphTraversal traversal = new GraphTraversal(fromSearcher, matchSchemaField, collectSchemaField, filterSet, executor, threads);
+      FixedBitSet resultBits = traversal.traverse(rootBits, maxDepth);
+      currentDepth = traversal.getDepth();
+      numEdges = traversal.getNumEdges();
+      if (!returnRoot) {
+        resultBits.andNot(rootBits);
+      }
+      BitDocSet resultSet = new BitDocSet(resultBits);
+      if (onlyLeafNodes) {
+        return resultSet.intersection(resolveLeafNodes());
+      } else {
+        return resultSet;
+      }
+    }
+
     private DocSet resolveLeafNodes() throws IOException {
       String field = collectSchemaField.getName();
       BooleanQuery.Builder leafNodeQuery = new BooleanQuery.Builder();
@@ -378,7 +417,8 @@ public class GraphQuery extends Query {
   
   /**
    * @return If true , an automaton query will be compiled for each new frontier traversal
-   * this helps to avoid max boolean clause errors.
+   * this helps to avoid max boolean clause errors. If false, graphs of string node ids are traversed
+   * with docValues ordinals instead of a query for each hop.
    */
   public boolean isUseAutn() {
     return useAutn;
@@ -387,6 +427,18 @@ public class GraphQuery extends Query {
   public void setUseAutn(boolean useAutn) {
     this.useAutn = useAutn;
   }
+
+  /**
+   * @return the number of threads that process the segments of each hop, 0 for the calling thread only
+   * and a negative number for one task per segment, up to the number of available processors.
+   */
+  public int getThreads() {
+    return threads;
+  }
+
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
   
   /**
    * @return if true only documents that do not have a value in the edge id field will be returned.
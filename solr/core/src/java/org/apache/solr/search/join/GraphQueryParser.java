@@ -58,6 +58,8 @@ public class GraphQueryParser extends QParser {
     // if true, an automaton will be compiled to issue the next graph hop
     // this avoid having a large number of boolean clauses. (and it's faster too!)
     boolean useAutn = localParams.getBool("useAutn", false);
+    // the number of threads processing the segments of each hop, 0 for the calling thread only
+    int threads = localParams.getInt("threads", 0);
 
     // Construct a graph query object based on parameters passed in.
     GraphQuery gq = new GraphQuery(rootNodeQuery, fromField, toField, traversalFilter);
@@ -66,6 +68,7 @@ public class GraphQueryParser extends QParser {
     gq.setOnlyLeafNodes(onlyLeafNodes);
     gq.setReturnRoot(returnRootNodes);
     gq.setUseAutn(useAutn);
+    gq.setThreads(threads);
     // return the parsed graph query.
     return gq;
   }
@@ -111,6 +111,9 @@ abstract class GraphEdgeCollector extends SimpleCollector implements Collector {
 
   public abstract Query getResultQuery(SchemaField matchField, boolean useAutomaton);
 
+  /** @return the number of distinct edge ids collected */
+  public abstract int getNumEdges();
+
   @Override
   public ScoreMode scoreMode() {
     return ScoreMode.COMPLETE_NO_SCORES;
@@ -153,6 +156,11 @@ class GraphTermsCollector extends GraphEdgeCollector {
     }
   }
 
+  @Override
+  public int getNumEdges() {
+    return collectorTerms == null ? 0 : collectorTerms.size();
+  }
+
   @Override
   public Query getResultQuery(SchemaField matchField, boolean useAutomaton) {
     if (collectorTerms == null || collectorTerms.size() == 0) {
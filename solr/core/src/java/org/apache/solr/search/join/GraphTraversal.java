@@ -0,0 +1,340 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.join;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefHash;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.LongBitSet;
+import org.apache.solr.schema.SchemaField;
+import org.apache.solr.search.DocSet;
+import org.apache.solr.search.SolrIndexSearcher;
+
+/**
+ * Breadth first traversal of a graph of string node ids that does not go through a query for each hop.
+ * <p>
+ * The edge ids of the documents in the frontier are collected as ordinal bitsets of the edge field's docValues,
+ * and resolved to the documents of the next hop with the postings of the node field, or with an ordinal bitset
+ * of its docValues if it is not indexed. Each hop processes the segments in parallel when an executor is given,
+ * and edge ids that were already traversed are not looked up again.
+ *
+ * @lucene.internal
+ */
+class GraphTraversal {
+
+  /** Segments are CPU bound to traverse, using more tasks than processors only adds overhead */
+  private static final int MAX_THREADS = Runtime.getRuntime().availableProcessors();
+
+  private final SolrIndexSearcher searcher;
+  private final SchemaField matchField;
+  private final SchemaField collectField;
+  /** the documents that may be reached, null for all the live documents */
+  private final DocSet traversalFilter;
+  private final Executor executor;
+  private final int threads;
+
+  /** all the documents visited so far */
+  private final FixedBitSet visited;
+  /** the edge ids that were already traversed */
+  private final BytesRefHash traversedEdges = new BytesRefHash();
+
+  private int depth;
+  private long numEdges;
+
+  /**
+   * @param matchField the field with the node id
+   * @param collectField the field containing the edge ids
+   * @param traversalFilter the documents that may be reached from the frontier, or null
+   * @param executor the executor to process the segments of a hop with, or null to process them in the calling thread
+   * @param threads the max number of segment groups processed concurrently, negative for one task per segment.
+   *                In any case, no more tasks than available processors are used.
+   */
+  GraphTraversal(SolrIndexSearcher searcher, SchemaField matchField, SchemaField collectField, DocSet traversalFilter,
+                 Executor executor, int threads) {
+    this.searcher = searcher;
+    this.matchField = matchField;
+    this.collectField = collectField;
+    this.traversalFilter = traversalFilter;
+    this.executor = executor;
+    this.threads = threads;
+    this.visited = new FixedBitSet(searcher.getRawReader().maxDoc());
+  }
+
+  /** Returns whether the node field can be traversed without queries, the edge field is read through docValues either way */
+  static boolean canTraverse(SchemaField matchField, SchemaField collectField) {
+    return !matchField.getType().isPointField() && !collectField.getType().isPointField()
+        && (matchField.indexed() || matchField.hasDocValues());
+  }
+
+  /**
+   * Traverses the graph from the given root documents.
+   *
+   * @param roots the documents matching the start query, which is not modified
+   * @param maxDepth the number of hops to traverse, -1 for no limit
+   * @return all the documents visited, including the roots
+   */
+  FixedBitSet traverse(FixedBitSet roots, int maxDepth) throws IOException {
+    visited.or(roots);
+    FixedBitSet frontier = roots;
+    while (maxDepth == -1 || depth < maxDepth) {
+      List<BytesRef> edges = collectEdges(frontier);
+      if (edges.isEmpty()) {
+        break;
+      }
+      frontier = matchEdges(edges);
+      if (frontier == null) {
+        break;
+      }
+      depth++;
+      visited.or(frontier);
+    }
+    return visited;
+  }
+
+  /** @return the number of hops that reached new documents */
+  int getDepth() {
+    return depth;
+  }
+
+  /** @return the number of distinct edge ids traversed */
+  long getNumEdges() {
+    return numEdges;
+  }
+
+  /** Collects the edge ids of the frontier that were not traversed yet, in sorted order */
+  private List<BytesRef> collectEdges(FixedBitSet frontier) throws IOException {
+    List<List<BytesRef>> perSegment = forEachSegment(context -> collectEdges(context, frontier));
+    List<BytesRef> edges = new ArrayList<>();
+    for (List<BytesRef> segmentEdges : perSegment) {
+      for (BytesRef edge : segmentEdges) {
+        if (traversedEdges.add(edge) >= 0) {
+          edges.add(edge);
+        }
+      }
+    }
+    numEdges += edges.size();
+    Collections.sort(edges);
+    return edges;
+  }
+
+  private List<BytesRef> collectEdges(LeafReaderContext context, FixedBitSet frontier) throws IOException {
+    int docBase = context.docBase;
+    int maxDoc = context.reader().maxDoc();
+    SortedSetDocValues values = DocValues.getSortedSet(context.reader(), collectField.getName());
+    if (values.getValueCount() == 0) {
+      return Collections.emptyList();
+    }
+    LongBitSet ords = new LongBitSet(values.getValueCount());
+    boolean found = false;
+    for (int doc = nextSetBit(frontier, docBase, docBase + maxDoc); doc != DocIdSetIterator.NO_MORE_DOCS;
+         doc = nextSetBit(frontier, doc + 1, docBase + maxDoc)) {
+      int segDoc = doc - docBase;
+      if (values.docID() < segDoc && values.advance(segDoc) == DocIdSetIterator.NO_MORE_DOCS) {
+        break;
+      }
+      if (values.docID() == segDoc) {
+        for (long ord = values.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = values.nextOrd()) {
+          ords.set(ord);
+          found = true;
+        }
+      }
+    }
+    if (!found) {
+      return Collections.emptyList();
+    }
+    // ords are sorted like the terms
+    List<BytesRef> edges = new ArrayList<>();
+    for (long ord = ords.nextSetBit(0); ord != -1; ord = ord + 1 < ords.length() ? ords.nextSetBit(ord + 1) : -1) {
+      edges.add(BytesRef.deepCopyOf(values.lookupOrd(ord)));
+    }
+    return edges;
+  }
+
+  /** Finds the documents that were not visited yet and have one of the given node ids, returns null if there are none */
+  private FixedBitSet matchEdges(List<BytesRef> edges) throws IOException {
+    List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
+    List<FixedBitSet> perSegment = forEachSegment(context -> matchEdges(context, edges));
+    FixedBitSet next = null;
+    for (int i = 0; i < leaves.size(); ++i) {
+      FixedBitSet segmentDocs = perSegment.get(i);
+      if (segmentDocs == null) {
+        continue;
+      }
+      if (next == null) {
+        next = new FixedBitSet(visited.length());
+      }
+      int docBase = leaves.get(i).docBase;
+      for (int doc = segmentDocs.nextSetBit(0); doc != DocIdSetIterator.NO_MORE_DOCS;
+           doc = doc + 1 < segmentDocs.length() ? segmentDocs.nextSetBit(doc + 1) : DocIdSetIterator.NO_MORE_DOCS) {
+        next.set(docBase + doc);
+      }
+    }
+    return next;
+  }
+
+  private FixedBitSet matchEdges(LeafReaderContext context, List<BytesRef> edges) throws IOException {
+    int docBase = context.docBase;
+    Bits liveDocs = context.reader().getLiveDocs();
+    FixedBitSet docs = null;
+    if (matchField.indexed()) {
+      Terms terms = context.reader().terms(matchField.getName());
+      if (terms == null) {
+        return null;
+      }
+      TermsEnum termsEnum = terms.iterator();
+      PostingsEnum postings = null;
+      for (BytesRef edge : edges) {
+        if (!termsEnum.seekExact(edge)) {
+          continue;
+        }
+        postings = termsEnum.postings(postings, PostingsEnum.NONE);
+        for (int doc = postings.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = postings.nextDoc()) {
+          if (accept(docBase + doc, doc, liveDocs)) {
+            if (docs == null) {
+              docs = new FixedBitSet(context.reader().maxDoc());
+            }
+            docs.set(doc);
+          }
+        }
+      }
+    } else {
+      SortedSetDocValues values = DocValues.getSortedSet(context.reader(), matchField.getName());
+      if (values.getValueCount() == 0) {
+        return null;
+      }
+      // the frontier as a bitset of this segment's ordinals
+      LongBitSet ords = new LongBitSet(values.getValueCount());
+      TermsEnum termsEnum = values.termsEnum();
+      boolean found = false;
+      for (BytesRef edge : edges) {
+        if (termsEnum.seekExact(edge)) {
+          ords.set(termsEnum.ord());
+          found = true;
+        }
+      }
+      if (!found) {
+        return null;
+      }
+      for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+        for (long ord = values.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = values.nextOrd()) {
+          if (ords.get(ord)) {
+            if (accept(docBase + doc, doc, liveDocs)) {
+              if (docs == null) {
+                docs = new FixedBitSet(context.reader().maxDoc());
+              }
+              docs.set(doc);
+            }
+            break;
+          }
+        }
+      }
+    }
+    return docs;
+  }
+
+  private boolean accept(int doc, int segDoc, Bits liveDocs) {
+    if (visited.get(doc)) {
+      return false;
+    }
+    if (traversalFilter != null) {
+      // the filter only contains live documents
+      return traversalFilter.exists(doc);
+    }
+    return liveDocs == null || liveDocs.get(segDoc);
+  }
+
+  private static int nextSetBit(FixedBitSet bits, int from, int to) {
+    if (from >= to) {
+      return DocIdSetIterator.NO_MORE_DOCS;
+    }
+    int doc = bits.nextSetBit(from);
+    return doc < to ? doc : DocIdSetIterator.NO_MORE_DOCS;
+  }
+
+  private interface SegmentTask<T> {
+    T process(LeafReaderContext context) throws IOException;
+  }
+
+  /** Processes each segment, concurrently when there is an executor, and returns the results in the order of the segments */
+  private <T> List<T> forEachSegment(SegmentTask<T> task) throws IOException {
+    List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
+    int numGroups = Math.min(threads < 0 ? leaves.size() : Math.min(threads, leaves.size()), MAX_THREADS);
+    List<T> results = new ArrayList<>(Collections.nCopies(leaves.size(), null));
+    if (executor == null || numGroups <= 1) {
+      for (int i = 0; i < leaves.size(); ++i) {
+        results.set(i, task.process(leaves.get(i)));
+      }
+      return results;
+    }
+
+    List<Future<Void>> futures = new ArrayList<>(numGroups);
+    for (int group = 0; group < numGroups; ++group) {
+      final int first = group;
+      Callable<Void> callable = () -> {
+        for (int i = first; i < leaves.size(); i += numGroups) {
+          results.set(i, task.process(leaves.get(i)));
+        }
+        return null;
+      };
+      FutureTask<Void> future = new FutureTask<>(callable);
+      futures.add(future);
+      if (group == numGroups - 1) {
+        // the last group is processed by the calling thread
+        future.run();
+      } else {
+        executor.execute(future);
+      }
+    }
+    for (Future<Void> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new RuntimeException(cause);
+      }
+    }
+    return results;
+  }
+}
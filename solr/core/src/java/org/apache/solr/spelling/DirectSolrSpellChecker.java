@@ -20,11 +20,15 @@ import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.spell.DirectSpellChecker;
 import org.apache.lucene.search.spell.StringDistance;
+import org.apache.lucene.search.spell.SuggestMode;
 import org.apache.lucene.search.spell.SuggestWord;
 import org.apache.lucene.search.spell.SuggestWordFrequencyComparator;
 import org.apache.lucene.search.spell.SuggestWordQueue;
@@ -55,6 +59,11 @@ import org.slf4j.LoggerFactory;
  *   <li>thresholdTokenFrequency: sets {@link DirectSpellChecker#setThresholdFrequency(float)}.
  *   <li>minQueryLength: sets {@link DirectSpellChecker#setMinQueryLength(int)}.
  *   <li>maxQueryFrequency: sets {@link DirectSpellChecker#setMaxQueryFrequency(float)}.
+ *   <li>threads: draws the candidates from the segments on up to this many threads, see
+ *       {@link DirectSpellChecker#setExecutor(java.util.concurrent.Executor, int)}. At most the
+ *       number of processors, 0, the default, for the request thread only.
+ *   <li>suggestionCacheSize: caches the suggestions of up to this many terms per searcher.
+ *       0, the default, disables the cache.
  * </ul>
  * @see DirectSpellChecker
  */
@@ -88,8 +97,20 @@ public class DirectSolrSpellChecker extends SolrSpellChecker {
   
   public static final String MAXQUERYFREQUENCY = "maxQueryFrequency";
   public static final float DEFAULT_MAXQUERYFREQUENCY = 0.01f;
+
+  public static final String THREADS = "threads";
+  public static final int DEFAULT_THREADS = 0;
+  /** Drawing candidates is CPU bound, using more threads than processors only adds overhead */
+  private static final int MAX_THREADS = Runtime.getRuntime().availableProcessors();
+
+  public static final String SUGGESTION_CACHE_SIZE = "suggestionCacheSize";
+  public static final int DEFAULT_SUGGESTION_CACHE_SIZE = 0;
   
   private DirectSpellChecker checker = new DirectSpellChecker();
+
+  private int suggestionCacheSize = DEFAULT_SUGGESTION_CACHE_SIZE;
+  /** the suggestions of the most recent searcher, replaced when a new searcher is used */
+  private volatile SuggestionCache suggestionCache;
   
   @Override
   public String init(NamedList config, SolrCore core) {
@@ -160,6 +181,18 @@ public class DirectSolrSpellChecker extends SolrSpellChecker {
     checker.setMinQueryLength(minQueryLength);
     checker.setMaxQueryFrequency(maxQueryFrequency);
     checker.setLowerCaseTerms(false);
+
+    int threads = DEFAULT_THREADS;
+    Integer threadsParam = params.getInt(THREADS);
+    if (threadsParam != null)
+      threads = threadsParam;
+    if (threads > 0)
+      checker.setExecutor(core.getCoreContainer().getUpdateShardHandler().getUpdateExecutor(),
+          Math.min(threads, MAX_THREADS));
+
+    Integer cacheSize = params.getInt(SUGGESTION_CACHE_SIZE);
+    if (cacheSize != null)
+      suggestionCacheSize = cacheSize;
     
     return name;
   }
@@ -183,7 +216,7 @@ public class DirectSolrSpellChecker extends SolrSpellChecker {
       Term term = new Term(field, tokenText);
       int freq = options.reader.docFreq(term);
       int count = (options.alternativeTermCount > 0 && freq > 0) ? options.alternativeTermCount: options.count;
-      SuggestWord[] suggestions = checker.suggestSimilar(term, count,options.reader, options.suggestMode, accuracy);
+      SuggestWord[] suggestions = suggestSimilar(term, count, options.reader, options.suggestMode, accuracy);
       result.addFrequency(token, freq);
             
       // If considering alternatives to "correctly-spelled" terms, then add the
@@ -217,6 +250,77 @@ public class DirectSolrSpellChecker extends SolrSpellChecker {
     }
     return result;
   }
+
+  private SuggestWord[] suggestSimilar(Term term, int count, IndexReader reader, SuggestMode suggestMode,
+                                       float accuracy) throws IOException {
+    IndexReader.CacheHelper cacheHelper = reader.getReaderCacheHelper();
+    if (suggestionCacheSize <= 0 || cacheHelper == null) {
+      return checker.suggestSimilar(term, count, reader, suggestMode, accuracy);
+    }
+    SuggestionCache cache = suggestionCache;
+    if (cache == null || cache.readerKey != cacheHelper.getKey()) {
+      cache = new SuggestionCache(cacheHelper.getKey(), suggestionCacheSize);
+      suggestionCache = cache;
+    }
+    String key = term.text() + '/' + count + '/' + suggestMode + '/' + accuracy;
+    SuggestWord[] suggestions;
+    synchronized (cache) {
+      suggestions = cache.get(key);
+      if (suggestions == null) {
+        cache.missCount++;
+      } else {
+        cache.hitCount++;
+      }
+    }
+    if (suggestions == null) {
+      suggestions = checker.suggestSimilar(term, count, reader, suggestMode, accuracy);
+      synchronized (cache) {
+        cache.put(key, suggestions);
+      }
+    }
+    return suggestions;
+  }
+
+  /** The number of suggestions served by the cache of the current searcher. */
+  long getSuggestionCacheHitCount() {
+    SuggestionCache cache = suggestionCache;
+    if (cache == null) {
+      return 0;
+    }
+    synchronized (cache) {
+      return cache.hitCount;
+    }
+  }
+
+  /** The number of suggestions drawn from the index and put in the cache of the current searcher. */
+  long getSuggestionCacheMissCount() {
+    SuggestionCache cache = suggestionCache;
+    if (cache == null) {
+      return 0;
+    }
+    synchronized (cache) {
+      return cache.missCount;
+    }
+  }
+
+  /** The suggestions of the terms of one searcher, least recently used first. */
+  private static class SuggestionCache extends LinkedHashMap<String, SuggestWord[]> {
+    final IndexReader.CacheKey readerKey;
+    final int maxSize;
+    long hitCount;
+    long missCount;
+
+    SuggestionCache(IndexReader.CacheKey readerKey, int maxSize) {
+      super(16, 0.75f, true);
+      this.readerKey = readerKey;
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, SuggestWord[]> eldest) {
+      return size() > maxSize;
+    }
+  }
   
   @Override
   public float getAccuracy() {
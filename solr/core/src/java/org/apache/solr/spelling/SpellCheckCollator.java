@@ -20,6 +20,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 import org.apache.lucene.index.IndexReader;
 import org.apache.solr.common.params.CommonParams;
@@ -34,6 +37,7 @@ import org.apache.solr.handler.component.QueryComponent;
 import org.apache.solr.handler.component.ResponseBuilder;
 import org.apache.solr.handler.component.SearchComponent;
 import org.apache.solr.request.LocalSolrQueryRequest;
+import org.apache.solr.request.SolrRequestInfo;
 import org.apache.solr.response.SolrQueryResponse;
 import org.apache.solr.search.EarlyTerminatingCollectorException;
 import org.apache.solr.search.SolrIndexSearcher;
@@ -44,11 +48,14 @@ import static org.apache.solr.common.params.CommonParams.ID;
 
 public class SpellCheckCollator {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  /** The re-queries are CPU bound, testing more collations at once than processors only adds overhead */
+  private static final int MAX_THREADS = Runtime.getRuntime().availableProcessors();
   private int maxCollations = 1;
   private int maxCollationTries = 0;
   private int maxCollationEvaluations = 10000;
   private boolean suggestionsMayOverlap = false;
   private int docCollectionLimit = 0;
+  private int threads = 0;
 
   public List<SpellCheckCollation> collate(SpellingResult result,
       String originalQuery, ResponseBuilder ultimateResponse) {
@@ -90,114 +97,194 @@ public class SpellCheckCollator {
         maxNumberToIterate, maxCollationEvaluations, suggestionsMayOverlap);
     while (tryNo < maxTries && collNo < maxCollations && possibilityIter.hasNext()) {
 
-      PossibilityIterator.RankedSpellPossibility possibility = possibilityIter.next();
-      String collationQueryStr = getCollation(originalQuery, possibility.corrections);
-      long hits = 0;
-
+      // the possibilities verified concurrently, in the order they are ranked
+      int numPossibilities = 1;
+      if (verifyCandidateWithQuery && threads > 0) {
+        numPossibilities = Math.min(Math.min(threads, MAX_THREADS), maxTries - tryNo);
+      }
+      List<PossibilityIterator.RankedSpellPossibility> possibilities = new ArrayList<>(numPossibilities);
+      List<String> collationQueryStrs = new ArrayList<>(numPossibilities);
+      while (possibilities.size() < numPossibilities && possibilityIter.hasNext()) {
+        PossibilityIterator.RankedSpellPossibility possibility = possibilityIter.next();
+        possibilities.add(possibility);
+        collationQueryStrs.add(getCollation(originalQuery, possibility.corrections));
+      }
+      long[] possibilityHits = new long[possibilities.size()];
       if (verifyCandidateWithQuery) {
-        tryNo++;
-        SolrParams origParams = ultimateResponse.req.getParams();
-        ModifiableSolrParams params = new ModifiableSolrParams(origParams);  
-        Iterator<String> origParamIterator = origParams.getParameterNamesIterator();
-        int pl = SpellingParams.SPELLCHECK_COLLATE_PARAM_OVERRIDE.length();
-        while (origParamIterator.hasNext()) {
-          String origParamName = origParamIterator.next();
-          if (origParamName
-              .startsWith(SpellingParams.SPELLCHECK_COLLATE_PARAM_OVERRIDE)
-              && origParamName.length() > pl) {
-            String[] val = origParams.getParams(origParamName);
-            if (val.length == 1 && val[0].length() == 0) {
-              params.set(origParamName.substring(pl), (String[]) null);
-            } else {
-              params.set(origParamName.substring(pl), val);
-            }
-          }
-        }
-        params.set(CommonParams.Q, collationQueryStr);
-        params.remove(CommonParams.START);
-        params.set(CommonParams.ROWS, "" + docCollectionLimit);
-        // we don't want any stored fields
-        params.set(CommonParams.FL, ID);
-        // we'll sort by doc id to ensure no scoring is done.
-        params.set(CommonParams.SORT, "_docid_ asc");
-        // CursorMark does not like _docid_ sorting, and we don't need it.
-        params.remove(CursorMarkParams.CURSOR_MARK_PARAM);
-        // If a dismax query, don't add unnecessary clauses for scoring
-        params.remove(DisMaxParams.TIE);
-        params.remove(DisMaxParams.PF);
-        params.remove(DisMaxParams.PF2);
-        params.remove(DisMaxParams.PF3);
-        params.remove(DisMaxParams.BQ);
-        params.remove(DisMaxParams.BF);
-        // Collate testing does not support Grouping (see SOLR-2577)
-        params.remove(GroupParams.GROUP);
-        
-        // Collate testing does not support the Collapse QParser (See SOLR-8807)
-        params.remove("expand");
-        String[] filters = params.getParams(CommonParams.FQ);
-        if (filters != null) {
-          List<String> filtersToApply = new ArrayList<>(filters.length);
-          for (String fq : filters) {
-            if (!fq.startsWith("{!collapse")) {
-              filtersToApply.add(fq);
-            }
-          }
-          params.set("fq", filtersToApply.toArray(new String[filtersToApply.size()]));
-        }      
+        possibilityHits = getHits(collationQueryStrs, ultimateResponse, queryComponent, maxDocId);
+      }
 
-        // creating a request here... make sure to close it!
-        ResponseBuilder checkResponse = new ResponseBuilder(
-            new LocalSolrQueryRequest(ultimateResponse.req.getCore(), params),
-            new SolrQueryResponse(), Arrays.<SearchComponent> asList(queryComponent)); 
-        checkResponse.setQparser(ultimateResponse.getQparser());
-        checkResponse.setFilters(ultimateResponse.getFilters());
-        checkResponse.setQueryString(collationQueryStr);
-        checkResponse.components = Arrays.<SearchComponent>asList(queryComponent);
+      for (int i = 0; i < possibilities.size() && collNo < maxCollations; i++) {
+        PossibilityIterator.RankedSpellPossibility possibility = possibilities.get(i);
+        String collationQueryStr = collationQueryStrs.get(i);
+        long hits = possibilityHits[i];
 
-        try {
-          queryComponent.prepare(checkResponse);
-          if (docCollectionLimit > 0) {
-            int f = checkResponse.getFieldFlags();
-            checkResponse.setFieldFlags(f |= SolrIndexSearcher.TERMINATE_EARLY);            
-          }
-          queryComponent.process(checkResponse);
-          hits = ((Number) checkResponse.rsp.getToLog().get("hits")).longValue();
-        } catch (EarlyTerminatingCollectorException etce) {
-          assert (docCollectionLimit > 0);
-          assert 0 < etce.getNumberScanned();
-          assert 0 < etce.getNumberCollected();
+        if (verifyCandidateWithQuery) {
+          tryNo++;
+        }
+        if (hits > 0 || !verifyCandidateWithQuery) {
+          collNo++;
+          SpellCheckCollation collation = new SpellCheckCollation();
+          collation.setCollationQuery(collationQueryStr);
+          collation.setHits(hits);
+          collation.setInternalRank(suggestionsMayOverlap ? ((possibility.rank * 1000) + possibility.index) : possibility.rank);
 
-          if (etce.getNumberScanned() == maxDocId) {
-            hits = etce.getNumberCollected();
-          } else {
-            hits = (long) ( ((float)( maxDocId * etce.getNumberCollected() )) 
-                           / (float)etce.getNumberScanned() );
+          NamedList<String> misspellingsAndCorrections = new NamedList<>();
+          for (SpellCheckCorrection corr : possibility.corrections) {
+            misspellingsAndCorrections.add(corr.getOriginal().toString(), corr.getCorrection());
           }
-        } catch (Exception e) {
-          log.warn("Exception trying to re-query to check if a spell check possibility would return any hits.", e);
+          collation.setMisspellingsAndCorrections(misspellingsAndCorrections);
+          collations.add(collation);
+        }
+        if (log.isDebugEnabled()) {
+          log.debug("Collation: " + collationQueryStr + (verifyCandidateWithQuery ? (" will return " + hits + " hits.") : ""));
+        }
+      }
+    }
+    return collations;
+  }
+
+  /**
+   * Returns the number of hits of each of the collation queries, re-querying the index with
+   * up to {@link #setThreads(int) threads} of them concurrently, the last one in the calling thread.
+   */
+  private long[] getHits(List<String> collationQueryStrs, ResponseBuilder ultimateResponse,
+                         QueryComponent queryComponent, int maxDocId) {
+    long[] hits = new long[collationQueryStrs.size()];
+    if (hits.length == 1) {
+      hits[0] = getHits(collationQueryStrs.get(0), ultimateResponse, queryComponent, maxDocId);
+      return hits;
+    }
+    Executor executor = ultimateResponse.req.getCore().getCoreContainer().getUpdateShardHandler().getUpdateExecutor();
+    List<FutureTask<Long>> futures = new ArrayList<>(hits.length);
+    for (int i = 0; i < hits.length; i++) {
+      String collationQueryStr = collationQueryStrs.get(i);
+      FutureTask<Long> future = new FutureTask<>(() -> {
+        // the re-queries see the same request info, e.g. NOW, as in the calling thread
+        boolean setRequestInfo = SolrRequestInfo.getRequestInfo() == null;
+        if (setRequestInfo) {
+          SolrRequestInfo.setRequestInfo(new SolrRequestInfo(ultimateResponse.req, ultimateResponse.rsp));
+        }
+        try {
+          return getHits(collationQueryStr, ultimateResponse, queryComponent, maxDocId);
         } finally {
-          checkResponse.req.close();  
+          if (setRequestInfo) {
+            SolrRequestInfo.clearRequestInfo();
+          }
         }
+      });
+      futures.add(future);
+      if (i == hits.length - 1) {
+        future.run();
+      } else {
+        executor.execute(future);
       }
-      if (hits > 0 || !verifyCandidateWithQuery) {
-        collNo++;
-        SpellCheckCollation collation = new SpellCheckCollation();
-        collation.setCollationQuery(collationQueryStr);
-        collation.setHits(hits);
-        collation.setInternalRank(suggestionsMayOverlap ? ((possibility.rank * 1000) + possibility.index) : possibility.rank);
+    }
+    for (int i = 0; i < hits.length; i++) {
+      try {
+        hits[i] = futures.get(i).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new RuntimeException(cause);
+      }
+    }
+    return hits;
+  }
 
-        NamedList<String> misspellingsAndCorrections = new NamedList<>();
-        for (SpellCheckCorrection corr : possibility.corrections) {
-          misspellingsAndCorrections.add(corr.getOriginal().toString(), corr.getCorrection());
+  private long getHits(String collationQueryStr, ResponseBuilder ultimateResponse,
+                       QueryComponent queryComponent, int maxDocId) {
+    long hits = 0;
+    SolrParams origParams = ultimateResponse.req.getParams();
+    ModifiableSolrParams params = new ModifiableSolrParams(origParams);  
+    Iterator<String> origParamIterator = origParams.getParameterNamesIterator();
+    int pl = SpellingParams.SPELLCHECK_COLLATE_PARAM_OVERRIDE.length();
+    while (origParamIterator.hasNext()) {
+      String origParamName = origParamIterator.next();
+      if (origParamName
+          .startsWith(SpellingParams.SPELLCHECK_COLLATE_PARAM_OVERRIDE)
+          && origParamName.length() > pl) {
+        String[] val = origParams.getParams(origParamName);
+        if (val.length == 1 && val[0].length() == 0) {
+          params.set(origParamName.substring(pl), (String[]) null);
+        } else {
+          params.set(origParamName.substring(pl), val);
+        }
+      }
+    }
+    params.set(CommonParams.Q, collationQueryStr);
+    params.remove(CommonParams.START);
+    params.set(CommonParams.ROWS, "" + docCollectionLimit);
+    // we don't want any stored fields
+    params.set(CommonParams.FL, ID);
+    // we'll sort by doc id to ensure no scoring is done.
+    params.set(CommonParams.SORT, "_docid_ asc");
+    // CursorMark does not like _docid_ sorting, and we don't need it.
+    params.remove(CursorMarkParams.CURSOR_MARK_PARAM);
+    // If a dismax query, don't add unnecessary clauses for scoring
+    params.remove(DisMaxParams.TIE);
+    params.remove(DisMaxParams.PF);
+    params.remove(DisMaxParams.PF2);
+    params.remove(DisMaxParams.PF3);
+    params.remove(DisMaxParams.BQ);
+    params.remove(DisMaxParams.BF);
+    // Collate testing does not support Grouping (see SOLR-2577)
+    params.remove(GroupParams.GROUP);
+    
+    // Collate testing does not support the Collapse QParser (See SOLR-8807)
+    params.remove("expand");
+    String[] filters = params.getParams(CommonParams.FQ);
+    if (filters != null) {
+      List<String> filtersToApply = new ArrayList<>(filters.length);
+      for (String fq : filters) {
+        if (!fq.startsWith("{!collapse")) {
+          filtersToApply.add(fq);
         }
-        collation.setMisspellingsAndCorrections(misspellingsAndCorrections);
-        collations.add(collation);
       }
-      if (log.isDebugEnabled()) {
-        log.debug("Collation: " + collationQueryStr + (verifyCandidateWithQuery ? (" will return " + hits + " hits.") : ""));
+      params.set("fq", filtersToApply.toArray(new String[filtersToApply.size()]));
+    }      
+
+    // creating a request here... make sure to close it!
+    ResponseBuilder checkResponse = new ResponseBuilder(
+        new LocalSolrQueryRequest(ultimateResponse.req.getCore(), params),
+        new SolrQueryResponse(), Arrays.<SearchComponent> asList(queryComponent)); 
+    checkResponse.setQparser(ultimateResponse.getQparser());
+    checkResponse.setFilters(ultimateResponse.getFilters());
+    checkResponse.setQueryString(collationQueryStr);
+    checkResponse.components = Arrays.<SearchComponent>asList(queryComponent);
+
+    try {
+      queryComponent.prepare(checkResponse);
+      if (docCollectionLimit > 0) {
+        int f = checkResponse.getFieldFlags();
+        checkResponse.setFieldFlags(f |= SolrIndexSearcher.TERMINATE_EARLY);            
       }
+      queryComponent.process(checkResponse);
+      hits = ((Number) checkResponse.rsp.getToLog().get("hits")).longValue();
+    } catch (EarlyTerminatingCollectorException etce) {
+      assert (docCollectionLimit > 0);
+      assert 0 < etce.getNumberScanned();
+      assert 0 < etce.getNumberCollected();
+
+      if (etce.getNumberScanned() == maxDocId) {
+        hits = etce.getNumberCollected();
+      } else {
+        hits = (long) ( ((float)( maxDocId * etce.getNumberCollected() )) 
+                       / (float)etce.getNumberScanned() );
+      }
+    } catch (Exception e) {
+      log.warn("Exception trying to re-query to check if a spell check possibility would return any hits.", e);
+    } finally {
+      checkResponse.req.close();  
     }
-    return collations;
+    return hits;
   }
 
   private String getCollation(String origQuery,
@@ -276,4 +363,12 @@ public class SpellCheckCollator {
     this.docCollectionLimit = docCollectionLimit;
     return this;
   }    
+  /**
+   * Sets the max number of collations verified concurrently, bounded by the number of
+   * processors. 0, the default, verifies them one at a time.
+   */
+  public SpellCheckCollator setThreads(int threads) {
+    this.threads = threads;
+    return this;
+  }
 }
@@ -37,6 +37,7 @@ import org.apache.solr.common.util.SuppressForbidden;
 import org.apache.solr.index.SlowCompositeReaderWrapper;
 import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.SchemaField;
+import org.apache.solr.search.IdLookupCache;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.util.RefCounted;
 import org.slf4j.Logger;
@@ -208,12 +209,18 @@ public class VersionInfo {
    * Returns null if no document can be found in the index for the given id.
    */
   public Long getVersionFromIndex(BytesRef idBytes) {
-    // TODO: we could cache much of this and invalidate during a commit.
     // TODO: most DocValues classes are threadsafe - expose which.
 
     RefCounted<SolrIndexSearcher> newestSearcher = ulog.uhandler.core.getRealtimeSearcher();
     try {
       SolrIndexSearcher searcher = newestSearcher.get();
+      // lookups are cached per searcher, so that they get invalidated whenever a new realtime searcher is opened
+      IdLookupCache idLookupCache = searcher.getIdLookupCache();
+      if (idLookupCache != null) {
+        Long cached = idLookupCache.getVersion(idBytes);
+        if (cached != null) return cached;
+      }
+
       long lookup = searcher.lookupId(idBytes);
       if (lookup < 0) return null; // this means the doc doesn't exist in the index yet
 
@@ -222,6 +229,9 @@ public class VersionInfo {
       vs.createWeight(context, searcher);
       FunctionValues fv = vs.getValues(context, searcher.getTopReaderContext().leaves().get((int) (lookup >> 32)));
       long ver = fv.longVal((int) lookup);
+      if (idLookupCache != null) {
+        idLookupCache.putVersion(idBytes, ver);
+      }
       return ver;
 
     } catch (IOException e) {
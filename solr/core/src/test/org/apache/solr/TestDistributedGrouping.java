@@ -215,6 +215,16 @@ public class TestDistributedGrouping extends BaseDistributedSearchTestCase {
     query("q", "*:*", "fq", s1 + ":a", "rows", 100, "fl", "id," + i1, "group", "true", "group.field", i1, "group.limit", 10, "sort", i1 + " asc, id asc", "group.ngroups", "true");
     query("q", "*:*", "fq", s1 + ":a", "rows", 100, "fl", "id," + i1, "group", "true", "group.field", i1, "group.limit", 10, "sort", i1 + " asc, id asc", "group.truncate", "true");
     query("q", "*:*", "fq", s1 + ":a", "rows", 100, "fl", "id," + i1, "group", "true", "group.field", i1, "group.limit", 10, "sort", i1 + " asc, id asc", "group.truncate", "true", "facet", "true", "facet.field", t1);
+    // the same, with the search groups and the top groups retrieved from the shards in a single pass
+    for (String singlePass : new String[] { "true", "false" }) {
+      query("q", "*:*", "fq", s1 + ":a", "rows", 100, "fl", "id," + i1, "group", "true", "group.field", i1, "group.limit", 10, "sort", i1 + " asc, id asc", "group.ngroups", "true", "group.distributed.singlePass", singlePass);
+      query("q", "*:*", "fq", s1 + ":a", "start", 1, "rows", 2, "fl", "id," + i1, "group", "true", "group.field", i1, "group.limit", 2, "group.offset", 1, "sort", i1 + " desc, id asc", "group.distributed.singlePass", singlePass);
+      query("q", "*:*", "fq", s1 + ":a", "rows", 100, "fl", "id," + i1, "group", "true", "group.field", i1, "group.limit", 10, "sort", i1 + " asc, id asc", "group.truncate", "true", "facet", "true", "facet.field", t1, "group.distributed.singlePass", singlePass);
+      query("q", "*:*", "fq", s1 + ":a", "rows", 100, "fl", "id," + i1, "group", "true", "group.field", i1, "group.limit", 10, "sort", "id desc", "group.sort", "id asc", "group.format", "simple", "group.distributed.singlePass", singlePass);
+    }
+    // the documents without i1 are spread over the shards, their null group must still be counted once
+    query("q", "*:*", "fq", "-" + i1 + ":232", "rows", 100, "fl", "id," + i1, "group", "true", "group.field", i1, "group.limit", 10, "sort", i1 + " asc, id asc", "group.ngroups", "true", "group.distributed.singlePass", "true");
+    query("q", "*:*", "fq", "-" + i1 + ":232", "rows", 100, "fl", "id," + i1, "group", "true", "group.field", i1, "group.limit", 10, "sort", i1 + " asc, id asc", "group.ngroups", "true", "group.format", "simple", "group.distributed.singlePass", "true");
     for (String gfacet : new String[] { "true", "false" }) {
       for (String flimit : new String[] { "-100","-1", "1", "2", "10000" }) {
         for (String foffset : new String[] { "0","1", "2", "1000" }) {
@@ -612,6 +612,64 @@ public class OverseerTest extends SolrTestCaseJ4 {
     }
   }
   
+  @Test
+  public void testCoalescedStateChanges() throws Exception {
+
+    ZkStateReader reader = null;
+    SolrZkClient overseerClient = null;
+
+    try {
+
+      ZkController.createClusterZkNodes(zkClient);
+
+      reader = new ZkStateReader(zkClient);
+      reader.createClusterStateWatchersAndUpdate();
+
+      // queue everything before there is an Overseer so that it all gets processed in one batch
+      ZkDistributedQueue q = new ZkDistributedQueue(zkClient, "/overseer/queue");
+      final String[] collections = {"coalesce1", "coalesce2", "coalesce3"};
+      for (String collection : collections) {
+        ZkNodeProps m = new ZkNodeProps(Overseer.QUEUE_OPERATION, CollectionParams.CollectionAction.CREATE.toLower(),
+            "name", collection,
+            ZkStateReader.REPLICATION_FACTOR, "1",
+            ZkStateReader.NUM_SHARDS_PROP, "1",
+            "createNodeSet", "");
+        q.offer(Utils.toJSON(m));
+      }
+      for (Replica.State state : new Replica.State[] {Replica.State.DOWN, Replica.State.RECOVERING, Replica.State.ACTIVE}) {
+        for (String collection : collections) {
+          ZkNodeProps m = new ZkNodeProps(Overseer.QUEUE_OPERATION, OverseerAction.STATE.toLower(),
+              ZkStateReader.BASE_URL_PROP, "http://127.0.0.1/solr",
+              ZkStateReader.NODE_NAME_PROP, "node1",
+              ZkStateReader.COLLECTION_PROP, collection,
+              ZkStateReader.SHARD_ID_PROP, "shard1",
+              ZkStateReader.CORE_NAME_PROP, collection + "_core1",
+              ZkStateReader.CORE_NODE_NAME_PROP, "core_node1",
+              ZkStateReader.ROLES_PROP, "",
+              ZkStateReader.STATE_PROP, state.toString());
+          q.offer(Utils.toJSON(m));
+        }
+      }
+
+      overseerClient = electNewOverseer(server.getZkAddress());
+
+      for (String collection : collections) {
+        waitForCollections(reader, collection);
+        verifyReplicaStatus(reader, collection, "shard1", "core_node1", Replica.State.ACTIVE);
+      }
+
+      Stats stats = getOpenOverseer().getStats();
+      assertTrue(stats.getSuccessCount("state_update_coalesced") > 0);
+      assertTrue(stats.getStats().get("state_update_latency").requestTime.getCount() > 0);
+
+    } finally {
+
+      close(overseerClient);
+
+      close(reader);
+    }
+  }
+
   private void verifyShardLeader(ZkStateReader reader, String collection, String shard, String expectedCore)
       throws InterruptedException, KeeperException, TimeoutException {
 
@@ -24,6 +24,7 @@ import org.apache.solr.client.solrj.impl.HttpSolrClient;
 import org.apache.solr.client.solrj.request.CollectionAdminRequest;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.cloud.DocCollection;
+import org.apache.solr.common.cloud.Replica;
 import org.apache.solr.common.cloud.Slice;
 import org.junit.After;
 import org.junit.Before;
@@ -133,4 +134,34 @@ public class SplitShardTest extends SolrCloudTestCase {
     assertEquals("wrong range in s1_1", expected1, delta1);
   }
 
+  @Test
+  public void testSplitPerReplicaState() throws Exception {
+    String collectionName = "splitPerReplicaStateCollection";
+    CollectionAdminRequest
+        .createCollection(collectionName, "conf", 1, 1)
+        .setMaxShardsPerNode(100)
+        .setPerReplicaState(Boolean.TRUE)
+        .process(cluster.getSolrClient());
+
+    cluster.waitForActiveCollection(collectionName, 1, 1);
+
+    CollectionAdminRequest.SplitShard splitShard = CollectionAdminRequest.splitShard(collectionName)
+        .setShardName("shard1");
+    splitShard.process(cluster.getSolrClient());
+    // sub-shards only become active, and the parent inactive, if the Overseer sees their replicas become active
+    waitForState("Timed out waiting for sub shards to be active. Number of active shards=" +
+            cluster.getSolrClient().getZkStateReader().getClusterState().getCollection(collectionName).getActiveSlices().size(),
+        collectionName, activeClusterShape(2, 3));
+    DocCollection coll = cluster.getSolrClient().getZkStateReader().getClusterState().getCollection(collectionName);
+    assertTrue(coll.isPerReplicaState());
+    assertEquals(Slice.State.INACTIVE, coll.getSlice("shard1").getState());
+    for (String subShard : new String[] {"shard1_0", "shard1_1"}) {
+      Slice slice = coll.getSlice(subShard);
+      assertEquals(Slice.State.ACTIVE, slice.getState());
+      for (Replica replica : slice.getReplicas()) {
+        assertEquals(Replica.State.ACTIVE, replica.getState());
+      }
+    }
+  }
+
 }
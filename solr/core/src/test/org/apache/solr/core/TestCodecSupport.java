@@ -20,6 +20,8 @@ import java.io.IOException;
 import java.util.Map;
 
 import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.codecs.bloom.BloomFilteringPostingsFormat;
 import org.apache.lucene.codecs.lucene50.Lucene50StoredFieldsFormat;
 import org.apache.lucene.codecs.lucene50.Lucene50StoredFieldsFormat.Mode;
 import org.apache.lucene.codecs.perfield.PerFieldDocValuesFormat;
@@ -78,6 +80,23 @@ public class TestCodecSupport extends SolrTestCaseJ4 {
     assertEquals(TestUtil.getDefaultPostingsFormat().getName(), format.getPostingsFormatForField("bar_standard").getName());
   }
 
+  public void testBloomFilterPostingsFormat() throws Exception {
+    Codec codec = h.getCore().getCodec();
+    PerFieldPostingsFormat format = (PerFieldPostingsFormat) codec.postingsFormat();
+    PostingsFormat bloom = format.getPostingsFormatForField("foo_bloom");
+    assertEquals("BloomFilter", bloom.getName());
+    assertTrue(bloom instanceof BloomFilteringPostingsFormat);
+
+    // the format must be able to write, not only read
+    assertU(add(doc("string_f", "1", "foo_bloom", "a")));
+    assertU(add(doc("string_f", "2", "foo_bloom", "b")));
+    assertU(commit());
+    assertQ(req("q", "foo_bloom:a"), "//*[@numFound='1']", "//str[@name='string_f'][.='1']");
+    assertQ(req("q", "foo_bloom:c"), "//*[@numFound='0']");
+    assertU(delQ("*:*"));
+    assertU(commit());
+  }
+
   public void testDynamicFieldsDocValuesFormats() {
     Codec codec = h.getCore().getCodec();
     PerFieldDocValuesFormat format = (PerFieldDocValuesFormat) codec.docValuesFormat();
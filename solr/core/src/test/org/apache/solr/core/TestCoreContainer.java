@@ -28,6 +28,7 @@ import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
 import java.util.regex.Pattern;
 
+import com.codahale.metrics.Timer;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import org.apache.commons.io.FileUtils;
@@ -38,6 +39,7 @@ import org.apache.solr.handler.admin.CollectionsHandler;
 import org.apache.solr.handler.admin.ConfigSetsHandler;
 import org.apache.solr.handler.admin.CoreAdminHandler;
 import org.apache.solr.handler.admin.InfoHandler;
+import org.apache.solr.metrics.SolrMetricManager;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -145,6 +147,22 @@ public class TestCoreContainer extends SolrTestCaseJ4 {
 
   }
 
+  @Test
+  public void testCoreLoadTime() throws Exception {
+    final CoreContainer cc = init(CONFIGSETS_SOLR_XML);
+    try {
+      cc.create("core1", ImmutableMap.of("configSet", "minimal"));
+      try (SolrCore core = cc.getCore("core1")) {
+        assertTrue("load time should be recorded", core.getLoadTimeMs() >= 0);
+      }
+      Timer coreLoadTimer = cc.getMetricManager().registry(SolrMetricManager.getRegistryName(SolrInfoBean.Group.node))
+          .timer(SolrMetricManager.mkName("loadTime", SolrInfoBean.Category.CONTAINER.toString(), "cores"));
+      assertEquals(1, coreLoadTimer.getCount());
+    } finally {
+      cc.shutdown();
+    }
+  }
+
   @Test
   public void testNoCores() throws Exception {
 
@@ -1869,6 +1869,21 @@ public class TestSQLHandler extends AbstractFullDistribZkTestBase {
 
     assert (tuples.size() == 0);
 
+    // The limit applies to the buckets that pass the having filter
+    sParams = mapParams(CommonParams.QT, "/sql", "aggregationMode", "facet",
+        "stmt", "select str_s, count(distinct field_i), sum(field_i) from collection1 where text='XXXX' " +
+            "group by str_s having 100 < sum(field_i) order by sum(field_i) asc limit 1");
+
+    solrStream = new SolrStream(jetty.url, sParams);
+    tuples = getTuples(solrStream);
+
+    assert (tuples.size() == 1);
+
+    tuple = tuples.get(0);
+    assert (tuple.get("str_s").equals("c"));
+    assert (tuple.getLong("EXPR$1") == 4); // count(distinct field_i)
+    assert (tuple.getDouble("EXPR$2") == 180); // sum(field_i)
+
   }
 
   private void testParallelBasicGrouping() throws Exception {
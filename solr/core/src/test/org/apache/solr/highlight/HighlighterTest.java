@@ -947,6 +947,20 @@ public class HighlighterTest extends SolrTestCaseJ4 {
 
   }
 
+  @Test
+  public void testPrefixHighlightOnStringFieldWithDocValues() {
+    // the prefix query is wrapped in an IndexOrDocValuesQuery since the field is indexed and has doc values
+    assertU(adoc("name_s_dv", "long day", "id", "1"));
+    assertU(commit());
+    for (String method : new String[] {"original", "unified"}) {
+      assertQ("Prefix highlighting with method " + method,
+          req("q", "name_s_dv:lon*", "hl", "true", "hl.fl", "name_s_dv", "hl.method", method,
+              "hl.usePhraseHighlighter", "true", "hl.highlightMultiTerm", "true"),
+          "//lst[@name='highlighting']/lst[@name='1']/arr[@name='name_s_dv']/str[.='<em>long day</em>']"
+      );
+    }
+  }
+
   @Test
   public void testDefaultFieldNonPrefixWildcardHighlight() {
 
@@ -16,9 +16,18 @@
  */
 package org.apache.solr.highlight;
 
+import java.util.Collections;
+
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.uhighlight.AnalysisOffsetsCache;
+import org.apache.lucene.util.TestUtil;
 import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.PluginInfo;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.schema.IndexSchema;
+import org.apache.solr.search.DocList;
+import org.apache.solr.search.QParser;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 
@@ -302,4 +311,62 @@ public class TestUnifiedSolrHighlighter extends SolrTestCaseJ4 {
         "//lst[@name='highlighting']/lst[@name='101']/arr/str[1]='<em>alpha</em> <em>bravo</em> charlie'");
   }
 
+  public void testThreads() {
+    for (int i = 0; i < 20; i++) {
+      assertU(adoc("text", "document number " + i, "text3", "another document " + i, "id", String.valueOf(200 + i)));
+    }
+    assertU(commit());
+    String threads = String.valueOf(TestUtil.nextInt(random(), 2, 8));
+    assertQ("highlighting on several threads",
+        req("q", "text:document text3:document", "sort", "id asc", "rows", "100", "hl", "true", "hl.fl", "text,text3",
+            "hl.threads", threads, "debug", "timing"),
+        "count(//lst[@name='highlighting']/*)=22",
+        "//lst[@name='highlighting']/lst[@name='101']/arr[@name='text']/str='<em>document</em> one'",
+        "//lst[@name='highlighting']/lst[@name='102']/arr[@name='text3']/str='crappier <em>document</em>'",
+        "//lst[@name='highlighting']/lst[@name='200']/arr[@name='text']/str='<em>document</em> number 0'",
+        "//lst[@name='highlighting']/lst[@name='219']/arr[@name='text3']/str='another <em>document</em> 19'",
+        "//lst[@name='debug']/lst[@name='highlighting']/lst[@name='text']/double[@name='time']",
+        "//lst[@name='debug']/lst[@name='highlighting']/lst[@name='text3']/double[@name='time']");
+  }
+
+  public void testAnalysisOffsetsCache() throws Exception {
+    // text2 has no offsets in the index, so it is highlighted from its analysis
+    UnifiedSolrHighlighter highlighter = newCachingHighlighter(UnifiedSolrHighlighter.DEFAULT_OFFSETS_CACHE_MAX_RAM_MB);
+    AnalysisOffsetsCache cache = highlighter.getAnalysisOffsetsCache();
+    highlightText2(highlighter);
+    assertEquals(2, cache.size());
+    assertEquals(2, cache.getMissCount());
+    highlightText2(highlighter);
+    assertEquals(2, cache.getHitCount());
+    assertEquals(2, cache.size());
+
+    // room for the analysis of a single document, so the least recently used one is evicted
+    double maxRamMB = (cache.ramBytesUsed() * 3 / 4) / (1024.0 * 1024.0);
+    UnifiedSolrHighlighter bounded = newCachingHighlighter(maxRamMB);
+    highlightText2(bounded);
+    assertEquals(1, bounded.getAnalysisOffsetsCache().size());
+    assertTrue(bounded.getAnalysisOffsetsCache().ramBytesUsed() <= cache.ramBytesUsed() * 3 / 4);
+  }
+
+  private static UnifiedSolrHighlighter newCachingHighlighter(double maxRamMB) {
+    NamedList<Object> args = new NamedList<>();
+    args.add(UnifiedSolrHighlighter.OFFSETS_CACHE_FIELDS, "text2");
+    args.add(UnifiedSolrHighlighter.OFFSETS_CACHE_MAX_RAM_MB, maxRamMB);
+    UnifiedSolrHighlighter highlighter = new UnifiedSolrHighlighter();
+    highlighter.init(new PluginInfo("highlighting", Collections.emptyMap(), args, null));
+    assertNotNull(highlighter.getAnalysisOffsetsCache());
+    return highlighter;
+  }
+
+  private static void highlightText2(UnifiedSolrHighlighter highlighter) throws Exception {
+    try (SolrQueryRequest req = req("q", "text2:document", "hl", "true", "hl.fl", "text2")) {
+      Query query = QParser.getParser("text2:document", req).getQuery();
+      DocList docs = req.getSearcher().getDocList(query, (Query) null, null, 0, 10);
+      assertEquals(2, docs.size());
+      NamedList<Object> snippets = highlighter.doHighlighting(docs, query, req, new String[] {"text2"});
+      assertArrayEquals(new String[] {"<em>document</em> one"}, (String[]) ((NamedList<?>) snippets.get("101")).get("text2"));
+      assertArrayEquals(new String[] {"second <em>document</em>"}, (String[]) ((NamedList<?>) snippets.get("102")).get("text2"));
+    }
+  }
+
 }
@@ -25,6 +25,7 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
@@ -34,6 +35,7 @@ import org.apache.lucene.index.MultiDocValues.MultiSortedSetDocValues;
 import org.apache.lucene.index.MultiTerms;
 import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.LuceneTestCase;
@@ -124,6 +126,75 @@ public class TestSlowCompositeReaderWrapper extends LuceneTestCase {
     dir.close();
   }
 
+  public void testOrdMapsAreReused() throws Exception {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE));
+    for (String value : new String[] {"b", "d"}) {
+      Document doc = new Document();
+      doc.add(new SortedSetDocValuesField("sorted_set", new BytesRef(value)));
+      w.addDocument(doc);
+      w.getReader().close();
+    }
+    IndexReader reader = w.getReader();
+    SlowCompositeReaderWrapper slowWrapper = (SlowCompositeReaderWrapper) SlowCompositeReaderWrapper.wrap(reader);
+    assertEquals(MultiSortedSetDocValues.class, slowWrapper.getSortedSetDocValues("sorted_set").getClass());
+    assertEquals(1, slowWrapper.getOrdinalMapBuilds());
+    assertEquals(0, slowWrapper.getIncrementalOrdinalMapBuilds());
+
+    Document doc = new Document();
+    doc.add(new SortedSetDocValuesField("sorted_set", new BytesRef("a")));
+    doc.add(new SortedSetDocValuesField("sorted_set", new BytesRef("c")));
+    w.addDocument(doc);
+    IndexReader newReader = w.getReader();
+    SlowCompositeReaderWrapper newSlowWrapper = (SlowCompositeReaderWrapper) SlowCompositeReaderWrapper.wrap(newReader);
+    newSlowWrapper.reuseOrdinalMaps(slowWrapper);
+    MultiSortedSetDocValues dv = (MultiSortedSetDocValues) newSlowWrapper.getSortedSetDocValues("sorted_set");
+    assertEquals(1, newSlowWrapper.getIncrementalOrdinalMapBuilds());
+    assertEquals(4, dv.getValueCount());
+    for (int ord = 0; ord < 4; ++ord) {
+      assertEquals(new BytesRef(new String[] {"a", "b", "c", "d"}[ord]), dv.lookupOrd(ord));
+    }
+    assertEquals(0, dv.nextDoc());
+    assertEquals(1, dv.nextOrd());
+    reader.close();
+    newReader.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testOrdMapsAreRebuiltWhenSegmentsGoAway() throws Exception {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE));
+    for (String value : new String[] {"b", "d", "c"}) {
+      Document doc = new Document();
+      doc.add(new StringField("id", value, Field.Store.NO));
+      doc.add(new SortedSetDocValuesField("sorted_set", new BytesRef(value)));
+      w.addDocument(doc);
+      w.getReader().close();
+    }
+    IndexReader reader = w.getReader();
+    SlowCompositeReaderWrapper slowWrapper = (SlowCompositeReaderWrapper) SlowCompositeReaderWrapper.wrap(reader);
+    assertEquals(MultiSortedSetDocValues.class, slowWrapper.getSortedSetDocValues("sorted_set").getClass());
+
+    // the fully deleted segment is dropped, which prevents reusing the previous map
+    w.deleteDocuments(new Term("id", "d"));
+    Document doc = new Document();
+    doc.add(new SortedSetDocValuesField("sorted_set", new BytesRef("a")));
+    w.addDocument(doc);
+    IndexReader newReader = w.getReader();
+    assertEquals(2, newReader.leaves().size());
+    SlowCompositeReaderWrapper newSlowWrapper = (SlowCompositeReaderWrapper) SlowCompositeReaderWrapper.wrap(newReader);
+    newSlowWrapper.reuseOrdinalMaps(slowWrapper);
+    MultiSortedSetDocValues dv = (MultiSortedSetDocValues) newSlowWrapper.getSortedSetDocValues("sorted_set");
+    assertEquals(1, newSlowWrapper.getOrdinalMapBuilds());
+    assertEquals(0, newSlowWrapper.getIncrementalOrdinalMapBuilds());
+    assertEquals(3, dv.getValueCount());
+    reader.close();
+    newReader.close();
+    w.close();
+    dir.close();
+  }
+
   public void testTermsAreCached() throws IOException {
     Directory dir = newDirectory();
     RandomIndexWriter w = new RandomIndexWriter(random(), dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE));
@@ -788,6 +788,67 @@ public class TestCollapseQParserPlugin extends SolrTestCaseJ4 {
 
   }
 
+  @Test
+  public void testSparseStringCollapse() throws Exception {
+    // with size=1 the group heads of the string fields are kept in hash based slots, which grow with the
+    // collected groups until there are enough of them for arrays sized to the number of values
+    indexRandomGroups();
+    for (String group : new String[] {"group_s", "group_s_dv"}) {
+      assertSameGroupHeads("field=" + group, "size=1 field=" + group);
+    }
+  }
+
+  @Test
+  public void testPerSegmentCollapse() throws Exception {
+    // groups are matched across segments by term rather than with top level ordinals
+    indexRandomGroups();
+    for (String group : new String[] {"group_s", "group_s_dv"}) {
+      assertSameGroupHeads("field=" + group, "field=" + group + " hint=" + CollapsingQParserPlugin.HINT_PER_SEGMENT);
+      assertSameGroupHeads("field=" + group, "size=1 field=" + group + " hint=" + CollapsingQParserPlugin.HINT_PER_SEGMENT);
+    }
+
+    // per_segment is for string fields only
+    expectThrows(RuntimeException.class, IOException.class,
+        () -> h.query(req("q", "*:*", "fq", "{!collapse field=group_i hint=" + CollapsingQParserPlugin.HINT_PER_SEGMENT + "}")));
+  }
+
+  private void indexRandomGroups() {
+    final int numGroups = 200 + random().nextInt(200);
+    final int numDocs = atLeast(500);
+    for (int i = 0; i < numDocs; i++) {
+      List<String> doc = new ArrayList<>(Arrays.asList("id", String.valueOf(i),
+          "test_i", String.valueOf(random().nextInt(1000)),
+          "test_l", String.valueOf(random().nextInt(1000)),
+          "test_f", String.valueOf(random().nextFloat())));
+      if (random().nextInt(10) != 0) {
+        String group = "group" + random().nextInt(numGroups);
+        doc.addAll(Arrays.asList("group_s", group, "group_s_dv", group));
+      }
+      assertU(adoc(doc.toArray(new String[doc.size()])));
+      if (random().nextInt(100) == 0) {
+        assertU(commit());
+      }
+    }
+    assertU(commit());
+  }
+
+  /** Checks that both collapse local params select the same group heads, with any group head selector and null policy */
+  private void assertSameGroupHeads(String expectedParams, String actualParams) throws Exception {
+    final String[] selectors = {"", "min=test_i", "max=test_l", "max=test_f", "min=field(test_i)",
+        "sort='test_l desc,test_i asc'"};
+    final String[] nullPolicies = {CollapsingQParserPlugin.NULL_IGNORE, CollapsingQParserPlugin.NULL_COLLAPSE,
+        CollapsingQParserPlugin.NULL_EXPAND};
+    for (String selector : selectors) {
+      // few matching groups and all of them
+      for (String q : new String[] {"test_i:[0 TO 20]", "*:*", "{!func}test_i"}) {
+        String common = " " + selector + " nullPolicy=" + nullPolicies[random().nextInt(nullPolicies.length)];
+        String expected = JQ(req("q", q, "fq", "{!collapse " + expectedParams + common + "}", "fl", "id,score", "rows", "1000", "omitHeader", "true"));
+        String actual = JQ(req("q", q, "fq", "{!collapse " + actualParams + common + "}", "fl", "id,score", "rows", "1000", "omitHeader", "true"));
+        assertEquals(actualParams + common + " q=" + q, expected, actual);
+      }
+    }
+  }
+
   @Test
   public void testMissingFieldParam() throws Exception {
     ModifiableSolrParams params = new ModifiableSolrParams();
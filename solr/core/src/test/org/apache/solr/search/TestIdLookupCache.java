@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestIdLookupCache extends LuceneTestCase {
+
+  public void testSegAndDocAndVersion() {
+    IdLookupCache cache = new IdLookupCache(100);
+    BytesRef id = new BytesRef("doc1");
+    assertNull(cache.getSegAndDoc(id));
+    assertNull(cache.getVersion(id));
+
+    // the version of an unknown id is not recorded
+    cache.putVersion(id, 42L);
+    assertNull(cache.getVersion(id));
+
+    cache.putSegAndDoc(id, (3L << 32) | 7);
+    assertEquals(Long.valueOf((3L << 32) | 7), cache.getSegAndDoc(id));
+    assertNull(cache.getVersion(id));
+    cache.putVersion(id, 42L);
+    assertEquals(Long.valueOf(42L), cache.getVersion(id));
+
+    // misses are cached too
+    cache.putSegAndDoc(new BytesRef("doc2"), -1L);
+    assertEquals(Long.valueOf(-1L), cache.getSegAndDoc(new BytesRef("doc2")));
+    assertEquals(2, cache.size());
+    cache.close();
+  }
+
+  public void testKeysAreCopied() {
+    IdLookupCache cache = new IdLookupCache(100);
+    BytesRef id = new BytesRef("doc1");
+    cache.putSegAndDoc(id, 5L);
+    // callers typically reuse their BytesRef
+    id.bytes[0] = 'x';
+    assertEquals(Long.valueOf(5L), cache.getSegAndDoc(new BytesRef("doc1")));
+    assertNull(cache.getSegAndDoc(id));
+    cache.close();
+  }
+
+  public void testBounded() {
+    final int size = TestUtil.nextInt(random(), 10, 100);
+    IdLookupCache cache = new IdLookupCache(size);
+    for (int i = 0; i < size * 10; i++) {
+      cache.putSegAndDoc(new BytesRef(Integer.toString(i)), i);
+    }
+    assertTrue(cache.size() <= size);
+    cache.close();
+  }
+
+  public void testInvalidSize() {
+    expectThrows(IllegalArgumentException.class, () -> new IdLookupCache(0));
+  }
+}
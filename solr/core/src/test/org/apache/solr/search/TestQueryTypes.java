@@ -439,6 +439,76 @@ public class TestQueryTypes extends SolrTestCaseJ4 {
     
   }
   
+  @Test
+  public void testTermsWithDocValues() {
+    try {
+      for (int i = 0; i < 40; i++) {
+        assertU(adoc("id", Integer.toString(1000 + i), "cat_docValues", "c" + i, "cat_docValues", "c" + (i + 1)));
+      }
+      assertU(commit());
+
+      StringBuilder values = new StringBuilder();
+      for (int i = 0; i < 80; i += 2) {
+        values.append(values.length() == 0 ? "" : ",").append("c").append(i);
+      }
+      // matched through the index or the docValues depending on the cost of the other clauses
+      assertQ(req("q", "{!terms f=cat_docValues}" + values)
+          , "//result[@numFound='40']"
+      );
+      assertQ(req("q", "+id:1005 +_query_:\"{!terms f=cat_docValues v=$v}\"", "v", values.toString())
+          , "//result[@numFound='1']"
+      );
+      assertQ(req("q", "+id:1005 +_query_:\"{!terms f=cat_docValues v=$v}\"", "v", "c1,c3,c42")
+          , "//result[@numFound='0']"
+      );
+    } finally {
+      assertU(delQ("cat_docValues:*"));
+      assertU(commit());
+    }
+  }
+
+  @Test
+  public void testRangesAndPrefixesWithDocValues() {
+    try {
+      for (int i = 0; i < 40; i++) {
+        assertU(adoc("id", Integer.toString(1000 + i), "cat_docValues", "c" + i, "cat_docValues", "c" + (i + 1)));
+      }
+      assertU(commit());
+
+      assertQ(req("q", "cat_docValues:[c10 TO c19]")
+          , "//result[@numFound='11']"
+      );
+      assertQ(req("q", "+id:1015 +cat_docValues:[c10 TO c19]")
+          , "//result[@numFound='1']"
+      );
+      assertQ(req("q", "+id:1025 +cat_docValues:[c10 TO c19]")
+          , "//result[@numFound='0']"
+      );
+      assertQ(req("q", "cat_docValues:[c10 TO c19]", "fq", "id:1015")
+          , "//result[@numFound='1']"
+      );
+      assertQ(req("q", "cat_docValues:c3*")
+          , "//result[@numFound='13']"
+      );
+      assertQ(req("q", "+id:1031 +cat_docValues:c3*")
+          , "//result[@numFound='1']"
+      );
+      assertQ(req("q", "*:*", "fq", "cat_docValues:c3*")
+          , "//result[@numFound='13']"
+      );
+
+      // the debug output tells how the range is executed
+      assertQ(req("q", "+id:1031 +cat_docValues:[c10 TO c39]", "debugQuery", "true")
+          , "//result[@numFound='1']"
+          , "//lst[@name='debug']/lst[@name='indexOrDocValues']/lst/long[@name='indexSegments']"
+          , "//lst[@name='debug']/lst[@name='indexOrDocValues']/lst/long[@name='docValuesSegments']"
+      );
+    } finally {
+      assertU(delQ("cat_docValues:*"));
+      assertU(commit());
+    }
+  }
+
   @Test
   public void testNumericBadRequests() {
     String[] suffixes = new String[50];
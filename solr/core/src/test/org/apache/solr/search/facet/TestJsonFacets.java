@@ -69,6 +69,9 @@ public class TestJsonFacets extends SolrTestCaseHS {
 
     // we need DVs on point fields to compute stats & facets
     if (Boolean.getBoolean(NUMERIC_POINTS_SYSPROP)) System.setProperty(NUMERIC_DOCVALUES_SYSPROP,"true");
+
+    // uninvert multi-valued fields without docValues per segment instead of using UnInvertedField
+    System.setProperty("solr.uninvertPerSegment", Boolean.toString(random().nextBoolean()));
     
     initCore("solrconfig-tlog.xml","schema_latest.xml");
   }
@@ -84,6 +87,7 @@ public class TestJsonFacets extends SolrTestCaseHS {
     JSONTestUtil.failRepeatedKeys = false;
     FacetFieldProcessorByHashDV.MAXIMUM_STARTING_TABLE_SIZE=origTableSize;
     FacetField.FacetMethod.DEFAULT_METHOD = origDefaultFacetMethod;
+    System.clearProperty("solr.uninvertPerSegment");
     if (servers != null) {
       servers.stop();
       servers = null;
@@ -939,6 +943,34 @@ public class TestJsonFacets extends SolrTestCaseHS {
     );
   }
 
+  @Test
+  public void testUninvertPerSegmentRespectsMethod() throws Exception {
+    Client client = Client.localClient();
+    client.deleteByQuery("*:*", null);
+    client.add(sdoc("id", "1", "multi_ss", "a", "multi_ss", "b"), null);
+    client.commit();
+    client.add(sdoc("id", "2", "multi_ss", "b"), null);
+    client.commit();
+
+    // an explicit method:uif always uses the top-level UnInvertedField
+    assertJQ(req("q", "*:*", "rows", "0", "debugQuery", "true"
+            , "json.facet", "{x:{terms:{field:multi_ss, method:uif}}}"
+        )
+        , "facets/x=={buckets:[{val:b, count:2}, {val:a, count:1}]}"
+        , "debug/facet-trace/sub-facet/[0]/processor=='FacetFieldProcessorByArrayUIF'"
+    );
+
+    // method:smart uninverts per segment when configured to
+    final String smartProcessor = h.getCore().getSolrConfig().uninvertPerSegment
+        ? "FacetFieldProcessorByArrayDV" : "FacetFieldProcessorByArrayUIF";
+    assertJQ(req("q", "*:*", "rows", "0", "debugQuery", "true"
+            , "json.facet", "{x:{terms:{field:multi_ss, method:smart}}}"
+        )
+        , "facets/x=={buckets:[{val:b, count:2}, {val:a, count:1}]}"
+        , "debug/facet-trace/sub-facet/[0]/processor=='" + smartProcessor + "'"
+    );
+  }
+
   Map<String,String[]> suffixMap = new HashMap<>();
   {
     suffixMap.put("_s", new String[]{"_s","_ss","_sd","_sds"} );
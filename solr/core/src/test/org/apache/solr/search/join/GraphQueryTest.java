@@ -16,6 +16,13 @@
  */
 package org.apache.solr.search.join;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.params.SolrParams;
@@ -121,6 +128,73 @@ public class GraphQueryTest extends SolrTestCaseJ4 {
     );
   }
   
+  @Test
+  public void testTraversalMatchesQueries() throws Exception {
+    // the same random graph traversed with a query per hop (useAutn=true) and with docValues ordinals
+    assertU(delQ("*:*"));
+    int numNodes = atLeast(50);
+    List<List<Integer>> edges = new ArrayList<>();
+    Set<Integer> filtered = new HashSet<>();
+    for (int i = 0; i < numNodes; i++) {
+      List<Integer> nodeEdges = new ArrayList<>();
+      List<String> fields = new ArrayList<>(Arrays.asList("id", "doc_" + i, "node_s", "n" + i, "node_sdN", "n" + i));
+      for (int j = random().nextInt(4); j > 0; j--) {
+        int edge = random().nextInt(numNodes);
+        nodeEdges.add(edge);
+        fields.addAll(Arrays.asList("edge_ss", "n" + edge));
+      }
+      if (random().nextInt(4) == 0) {
+        filtered.add(i);
+      } else {
+        fields.addAll(Arrays.asList("text", "allowed"));
+      }
+      edges.add(nodeEdges);
+      assertU(adoc(fields.toArray(new String[0])));
+      if (random().nextInt(10) == 0) {
+        assertU(commit());
+      }
+    }
+    assertU(commit());
+
+    for (int i = 0; i < 10; i++) {
+      int root = random().nextInt(numNodes);
+      int maxDepth = random().nextInt(4) - 1;
+      Set<Integer> visited = traverse(edges, root, maxDepth, Collections.emptySet());
+      Set<Integer> visitedFiltered = traverse(edges, root, maxDepth, filtered);
+
+      for (String from : new String[] {"node_s", "node_sdN"}) {
+        String graph = "{!graph from=" + from + " to=edge_ss maxDepth=" + maxDepth;
+        assertJQ(req("q", graph + " useAutn=true}id:doc_" + root), "/response/numFound==" + visited.size());
+        assertJQ(req("q", graph + "}id:doc_" + root), "/response/numFound==" + visited.size());
+        assertJQ(req("q", graph + " threads=-1}id:doc_" + root), "/response/numFound==" + visited.size());
+
+        // the root is never filtered, but it is not returned
+        String withFilter = graph + " returnRoot=false traversalFilter='text:allowed'";
+        assertJQ(req("q", withFilter + " useAutn=true}id:doc_" + root), "/response/numFound==" + (visitedFiltered.size() - 1));
+        assertJQ(req("q", withFilter + " threads=2}id:doc_" + root), "/response/numFound==" + (visitedFiltered.size() - 1));
+      }
+    }
+    assertU(delQ("*:*"));
+    assertU(commit());
+  }
+
+  /** Breadth first traversal of the graph, the excluded nodes are never reached */
+  private static Set<Integer> traverse(List<List<Integer>> edges, int root, int maxDepth, Set<Integer> excluded) {
+    Set<Integer> visited = new HashSet<>(Collections.singleton(root));
+    Set<Integer> frontier = new HashSet<>(visited);
+    for (int depth = 0; !frontier.isEmpty() && (maxDepth == -1 || depth < maxDepth); depth++) {
+      Set<Integer> next = new HashSet<>();
+      for (int node : frontier) {
+        next.addAll(edges.get(node));
+      }
+      next.removeAll(visited);
+      next.removeAll(excluded);
+      visited.addAll(next);
+      frontier = next;
+    }
+    return visited;
+  }
+
   @Test
   public void testGraphQueryParserValidation() throws Exception {
     // from schema field existence
@@ -25,6 +25,7 @@ import org.apache.solr.common.params.SpellingParams;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.handler.component.SpellCheckComponent;
+import org.apache.solr.index.NoMergePolicyFactory;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -38,12 +39,16 @@ public class DirectSolrSpellCheckerTest extends SolrTestCaseJ4 {
 
   @BeforeClass
   public static void beforeClass() throws Exception {
+    // several segments, so that the candidates may be drawn from them concurrently
+    systemSetPropertySolrTestsMergePolicyFactory(NoMergePolicyFactory.class.getName());
     initCore("solrconfig-spellcheckcomponent.xml","schema.xml");
     //Index something with a title
     assertNull(h.validateUpdate(adoc("id", "0", "teststop", "This is a title")));
     assertNull(h.validateUpdate(adoc("id", "1", "teststop", "The quick reb fox jumped over the lazy brown dogs.")));
+    assertNull(h.validateUpdate(commit()));
     assertNull(h.validateUpdate(adoc("id", "2", "teststop", "This is a Solr")));
     assertNull(h.validateUpdate(adoc("id", "3", "teststop", "solr foo")));
+    assertNull(h.validateUpdate(commit()));
     assertNull(h.validateUpdate(adoc("id", "4", "teststop", "another foo")));
     assertNull(h.validateUpdate(commit()));
     queryConverter = new SimpleQueryConverter();
@@ -80,6 +85,37 @@ public class DirectSolrSpellCheckerTest extends SolrTestCaseJ4 {
     });
   }
   
+  @Test
+  public void testThreadsAndSuggestionCache() throws Exception {
+    DirectSolrSpellChecker checker = new DirectSolrSpellChecker();
+    NamedList spellchecker = new NamedList();
+    spellchecker.add("classname", DirectSolrSpellChecker.class.getName());
+    spellchecker.add(SolrSpellChecker.FIELD, "teststop");
+    spellchecker.add(DirectSolrSpellChecker.MINQUERYLENGTH, 2); // we will try "fob"
+    spellchecker.add(DirectSolrSpellChecker.THREADS, 4);
+    spellchecker.add(DirectSolrSpellChecker.SUGGESTION_CACHE_SIZE, 10);
+
+    SolrCore core = h.getCore();
+    checker.init(spellchecker, core);
+
+    h.getCore().withSearcher(searcher -> {
+      assertTrue(searcher.getIndexReader().leaves().size() > 1);
+      // the second time the suggestions come from the cache of the searcher
+      for (int i = 0; i < 2; i++) {
+        Collection<Token> tokens = queryConverter.convert("fob");
+        SpellingOptions spellOpts = new SpellingOptions(tokens, searcher.getIndexReader());
+        SpellingResult result = checker.getSuggestions(spellOpts);
+        Map<String, Integer> suggestions = result.get(tokens.iterator().next());
+        Map.Entry<String, Integer> entry = suggestions.entrySet().iterator().next();
+        assertEquals("foo", entry.getKey());
+        assertEquals(2, entry.getValue().intValue());
+        assertEquals(1, checker.getSuggestionCacheMissCount());
+        assertEquals(i, checker.getSuggestionCacheHitCount());
+      }
+      return null;
+    });
+  }
+
   @Test
   public void testOnlyMorePopularWithExtendedResults() throws Exception {
     assertQ(req("q", "teststop:fox", "qt", "/spellCheckCompRH", SpellCheckComponent.COMPONENT_NAME, "true", SpellingParams.SPELLCHECK_DICT, "direct", SpellingParams.SPELLCHECK_EXTENDED_RESULTS, "true", SpellingParams.SPELLCHECK_ONLY_MORE_POPULAR, "true"),
@@ -410,6 +410,43 @@ public class SpellCheckCollatorTest extends SolrTestCaseJ4 {
     }
   }
 
+  @Test
+  public void testCollateThreads() throws Exception {
+    SolrCore core = h.getCore();
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.add(CommonParams.Q, "lowerfilt:(+fauth +home +loane)");
+    params.add(SpellCheckComponent.COMPONENT_NAME, "true");
+    params.add(SpellingParams.SPELLCHECK_BUILD, "true");
+    params.add(SpellingParams.SPELLCHECK_COUNT, "10");
+    params.add(SpellingParams.SPELLCHECK_COLLATE, "true");
+    params.add(SpellingParams.SPELLCHECK_COLLATE_EXTENDED_RESULTS, "true");
+    params.add(SpellingParams.SPELLCHECK_MAX_COLLATION_TRIES, "10");
+    params.add(SpellingParams.SPELLCHECK_MAX_COLLATIONS, "2");
+
+    // the collations tested concurrently are the ones tested one at a time
+    String expected = null;
+    for (int threads : new int[] { 0, 64, TestUtil.nextInt(random(), 1, 4) }) {
+      params.set(SpellingParams.SPELLCHECK_COLLATE_THREADS, threads);
+      SolrRequestHandler handler = core.getRequestHandler("/spellCheckCompRH");
+      SolrQueryResponse rsp = new SolrQueryResponse();
+      rsp.addResponseHeader(new SimpleOrderedMap());
+      SolrQueryRequest req = new LocalSolrQueryRequest(core, params);
+      handler.handleRequest(req, rsp);
+      req.close();
+      NamedList values = rsp.getValues();
+      NamedList spellCheck = (NamedList) values.get("spellcheck");
+      NamedList collationHolder = (NamedList) spellCheck.get("collations");
+      List<NamedList> expandedCollationList = collationHolder.getAll("collation");
+      assertEquals(2, expandedCollationList.size());
+      if (expected == null) {
+        expected = expandedCollationList.toString();
+      } else {
+        assertEquals("threads=" + threads, expected, expandedCollationList.toString());
+      }
+      params.remove(SpellingParams.SPELLCHECK_BUILD);
+    }
+  }
+
   @Test
   public void testCollateWithGrouping() throws Exception
   {
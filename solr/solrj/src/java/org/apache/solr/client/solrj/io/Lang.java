@@ -25,6 +25,7 @@ import org.apache.solr.client.solrj.io.ops.GroupOperation;
 import org.apache.solr.client.solrj.io.ops.ReplaceOperation;
 import org.apache.solr.client.solrj.io.stream.*;
 import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
+import org.apache.solr.client.solrj.io.stream.metrics.CountDistinctMetric;
 import org.apache.solr.client.solrj.io.stream.metrics.CountMetric;
 import org.apache.solr.client.solrj.io.stream.metrics.MaxMetric;
 import org.apache.solr.client.solrj.io.stream.metrics.MeanMetric;
@@ -101,6 +102,8 @@ public class Lang {
         .withFunctionName("avg", MeanMetric.class)
         .withFunctionName("sum", SumMetric.class)
         .withFunctionName("count", CountMetric.class)
+        .withFunctionName("countDist", CountDistinctMetric.class)
+        .withFunctionName("hll", CountDistinctMetric.class)
 
             // tuple manipulation operations
         .withFunctionName("replace", ReplaceOperation.class)
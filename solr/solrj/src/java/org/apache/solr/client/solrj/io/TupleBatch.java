@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.io;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A batch of tuples stored column by column.
+ * <p>
+ * Columns whose values are all {@link Long}s are stored as a <code>long[]</code>, columns whose
+ * values are all {@link Double}s as a <code>double[]</code>, which lets consumers such as
+ * metrics process whole batches without boxing. Other columns, or columns that mix types, are stored
+ * as an <code>Object[]</code>.
+ * <p>
+ * A batch that {@link #isEOF() ends the stream} may still hold tuples, which come before the EOF tuple.
+ **/
+public class TupleBatch {
+
+  public enum ColumnType {LONG, DOUBLE, OBJECT}
+
+  /** The values of a single field for all the tuples of a batch */
+  public static class Column {
+    private ColumnType type;
+    private long[] longs;
+    private double[] doubles;
+    private Object[] objects;
+    private boolean[] present;
+
+    private Column(ColumnType type, int capacity) {
+      this.type = type;
+      this.present = new boolean[capacity];
+      switch (type) {
+        case LONG:
+          longs = new long[capacity];
+          break;
+        case DOUBLE:
+          doubles = new double[capacity];
+          break;
+        default:
+          objects = new Object[capacity];
+      }
+    }
+
+    public ColumnType getType() {
+      return type;
+    }
+
+    /** @return whether the tuple at the given index has a value for this column */
+    public boolean isPresent(int index) {
+      return present[index];
+    }
+
+    /** @return whether all the tuples from index <code>from</code> (inclusive) to <code>to</code> (exclusive) have a value for this column */
+    public boolean isPresent(int from, int to) {
+      for (int i = from; i < to; ++i) {
+        if (present[i] == false) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /** @return the values of a {@link ColumnType#LONG} column, only valid where {@link #isPresent(int)} */
+    public long[] getLongs() {
+      return longs;
+    }
+
+    /** @return the values of a {@link ColumnType#DOUBLE} column, only valid where {@link #isPresent(int)} */
+    public double[] getDoubles() {
+      return doubles;
+    }
+
+    /** @return the (boxed) value of the tuple at the given index, or null */
+    public Object get(int index) {
+      if (present[index] == false) {
+        return null;
+      }
+      switch (type) {
+        case LONG:
+          return longs[index];
+        case DOUBLE:
+          return doubles[index];
+        default:
+          return objects[index];
+      }
+    }
+
+    /** @return whether the tuples at the given indexes have equal values for this column */
+    public boolean equals(int index1, int index2) {
+      if (present[index1] != present[index2]) {
+        return false;
+      }
+      if (present[index1] == false) {
+        return true;
+      }
+      switch (type) {
+        case LONG:
+          return longs[index1] == longs[index2];
+        case DOUBLE:
+          return Double.compare(doubles[index1], doubles[index2]) == 0;
+        default:
+          return objects[index1].equals(objects[index2]);
+      }
+    }
+
+    private void set(int index, Object value) {
+      if (value == null) {
+        present[index] = false;
+        return;
+      }
+      if (type == ColumnType.LONG && value instanceof Long) {
+        longs[index] = (Long) value;
+      } else if (type == ColumnType.DOUBLE && value instanceof Double) {
+        doubles[index] = (Double) value;
+      } else {
+        if (type != ColumnType.OBJECT) {
+          toObjects(index);
+        }
+        objects[index] = value;
+      }
+      present[index] = true;
+    }
+
+    private void toObjects(int size) {
+      objects = new Object[present.length];
+      for (int i = 0; i < size; ++i) {
+        objects[i] = get(i);
+      }
+      type = ColumnType.OBJECT;
+      longs = null;
+      doubles = null;
+    }
+  }
+
+  private final int capacity;
+  private final Map<String, Column> columns = new LinkedHashMap<>();
+  private int size;
+  private Tuple eofTuple;
+
+  public TupleBatch(int capacity) {
+    this.capacity = Math.max(1, capacity);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  public boolean isFull() {
+    return size == capacity;
+  }
+
+  /** @return whether the stream ended with this batch, see {@link #getEOFTuple()} */
+  public boolean isEOF() {
+    return eofTuple != null;
+  }
+
+  /** @return the EOF tuple of the stream, which may carry metrics or an exception, or null if the stream did not end */
+  public Tuple getEOFTuple() {
+    return eofTuple;
+  }
+
+  public void setEOFTuple(Tuple eofTuple) {
+    this.eofTuple = eofTuple;
+  }
+
+  public Set<String> getFieldNames() {
+    return columns.keySet();
+  }
+
+  /** @return the column of the given field, or null if no tuple of this batch has a value for it */
+  public Column getColumn(String field) {
+    return columns.get(field);
+  }
+
+  /** @return the value of the given field of the tuple at the given index, or null */
+  public Object get(int index, String field) {
+    Column column = columns.get(field);
+    return column == null ? null : column.get(index);
+  }
+
+  /** Adds a tuple to this batch, which must not be {@link #isFull() full} */
+  public void add(Tuple tuple) {
+    add((Map<?, ?>) tuple.fields);
+  }
+
+  /** Adds the given fields to this batch as a tuple, the batch must not be {@link #isFull() full} */
+  public void add(Map<?, ?> fields) {
+    if (isFull()) {
+      throw new IllegalStateException("The batch is full");
+    }
+    for (Map.Entry<?, ?> entry : fields.entrySet()) {
+      Object value = entry.getValue();
+      if (value == null) {
+        continue;
+      }
+      String field = entry.getKey().toString();
+      Column column = columns.get(field);
+      if (column == null) {
+        column = new Column(typeOf(value), capacity);
+        columns.put(field, column);
+      }
+      column.set(size, value);
+    }
+    ++size;
+  }
+
+  /** @return the tuple at the given index */
+  public Tuple getTuple(int index) {
+    Map<String, Object> fields = new HashMap<>();
+    for (Map.Entry<String, Column> entry : columns.entrySet()) {
+      Object value = entry.getValue().get(index);
+      if (value != null) {
+        fields.put(entry.getKey(), value);
+      }
+    }
+    return new Tuple(fields);
+  }
+
+  private static ColumnType typeOf(Object value) {
+    if (value instanceof Long) {
+      return ColumnType.LONG;
+    } else if (value instanceof Double) {
+      return ColumnType.DOUBLE;
+    }
+    return ColumnType.OBJECT;
+  }
+}
@@ -35,6 +35,7 @@ import java.util.stream.Collectors;
 
 import org.apache.solr.client.solrj.impl.CloudSolrClient;
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.comp.ComparatorOrder;
 import org.apache.solr.client.solrj.io.comp.FieldComparator;
 import org.apache.solr.client.solrj.io.comp.MultipleFieldComparator;
@@ -81,6 +82,7 @@ public class CloudSolrStream extends TupleStream implements Expressible {
   protected transient CloudSolrClient cloudSolrClient;
   protected transient List<TupleStream> solrStreams;
   protected transient TreeSet<TupleWrapper> tuples;
+  private transient ExecutorService readAheadExecutor;
   protected transient StreamContext streamContext;
 
   // Used by parallel stream
@@ -391,10 +393,17 @@ public class CloudSolrStream extends TupleStream implements Expressible {
   }
 
   private void openStreams() throws IOException {
+    if (solrStreams.size() > 1 && SolrStream.READ_AHEAD_BUFFER_SIZE > 0) {
+      // decode the responses of the streams in parallel rather than on the thread merging them
+      readAheadExecutor = ExecutorUtil.newMDCAwareCachedThreadPool(new SolrjNamedThreadFactory("CloudSolrStreamReadAhead"));
+    }
     ExecutorService service = ExecutorUtil.newMDCAwareCachedThreadPool(new SolrjNamedThreadFactory("CloudSolrStream"));
     try {
       List<Future<TupleWrapper>> futures = new ArrayList();
       for (TupleStream solrStream : solrStreams) {
+        if (readAheadExecutor != null) {
+          ((SolrStream) solrStream).setReadAheadExecutor(readAheadExecutor);
+        }
         StreamOpener so = new StreamOpener((SolrStream) solrStream, comp);
         Future<TupleWrapper> future = service.submit(so);
         futures.add(future);
@@ -419,9 +428,16 @@ public class CloudSolrStream extends TupleStream implements Expressible {
    *  Closes the CloudSolrStream
    **/
   public void close() throws IOException {
-    if(solrStreams != null) {
-      for (TupleStream solrStream : solrStreams) {
-        solrStream.close();
+    try {
+      if(solrStreams != null) {
+        for (TupleStream solrStream : solrStreams) {
+          solrStream.close();
+        }
+      }
+    } finally {
+      if (readAheadExecutor != null) {
+        readAheadExecutor.shutdownNow();
+        readAheadExecutor = null;
       }
     }
   }
@@ -435,6 +451,32 @@ public class CloudSolrStream extends TupleStream implements Expressible {
     return _read();
   }
 
+  /**
+   * Once all the shards but one are exhausted there is nothing left to merge, and the tuples of the
+   * remaining shard are read straight into the batch. Subclasses that post-process the tuples in
+   * {@link #read()} keep reading tuple by tuple.
+   **/
+  @Override
+  public TupleBatch readBatch(int maxSize) throws IOException {
+    if (trace || tuples.size() != 1 || getClass() != CloudSolrStream.class) {
+      return super.readBatch(maxSize);
+    }
+
+    TupleWrapper tw = tuples.pollFirst();
+    TupleBatch batch = new TupleBatch(maxSize);
+    batch.add(tw.getTuple());
+    tw.stream.fillBatch(batch);
+    if (batch.isEOF()) {
+      eofTuples.put(tw.stream.getBaseUrl(), batch.getEOFTuple());
+      Map m = new HashMap();
+      m.put("EOF", true);
+      batch.setEOFTuple(new Tuple(m));
+    } else if (tw.next()) {
+      tuples.add(tw);
+    }
+    return batch;
+  }
+
   protected Tuple _read() throws IOException {
     TupleWrapper tw = tuples.pollFirst();
     if(tw != null) {
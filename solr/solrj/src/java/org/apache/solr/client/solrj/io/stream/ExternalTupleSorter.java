@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.io.stream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.common.util.IOUtils;
+
+/**
+ * Sorts tuples within a memory limit, in the spirit of Lucene's OfflineSorter: tuples are buffered
+ * until the limit is reached, and each full buffer is sorted and written to a {@link TupleSpillFile}
+ * as a sorted run. The runs are merged when the tuples are read back. Like OfflineSorter, at most
+ * <code>maxTempFiles</code> runs are kept: when there are that many, they are merged into a single run
+ * first, so that the number of files that are open at once stays bounded.
+ * <p>
+ * Tuples are sorted by the comparator if any, then by the <code>order</code> they were added with.
+ * The sort is stable, tuples that compare equal come back in the order they were added.
+ *
+ * @lucene.experimental
+ **/
+public class ExternalTupleSorter implements Closeable {
+
+  /** The maximum number of spilled runs, by default */
+  public static final int DEFAULT_MAX_TEMP_FILES = 10;
+
+  private static class Entry {
+    final long order;
+    final Tuple tuple;
+
+    Entry(long order, Tuple tuple) {
+      this.order = order;
+      this.tuple = tuple;
+    }
+  }
+
+  /** A sorted run, runs that were written first win ties */
+  private static abstract class Run {
+    final int index;
+    Entry current;
+
+    Run(int index) {
+      this.index = index;
+    }
+
+    abstract boolean next() throws IOException;
+  }
+
+  private final Comparator<Entry> comparator;
+  private final long memoryLimit;
+  private final int maxTempFiles;
+
+  private List<Entry> buffer = new ArrayList<>();
+  private long bufferBytes;
+  private final List<TupleSpillFile> runFiles = new ArrayList<>();
+  private final List<TupleSpillFile.Reader> readers = new ArrayList<>();
+  private PriorityQueue<Run> queue;
+
+  /**
+   * @param comparator the sort of the tuples, or null to sort them by order only
+   * @param memoryLimit the approximate number of bytes of tuples buffered before they are spilled
+   */
+  public ExternalTupleSorter(Comparator<Tuple> comparator, long memoryLimit) {
+    this(comparator, memoryLimit, DEFAULT_MAX_TEMP_FILES);
+  }
+
+  /**
+   * @param comparator the sort of the tuples, or null to sort them by order only
+   * @param memoryLimit the approximate number of bytes of tuples buffered before they are spilled
+   * @param maxTempFiles the maximum number of spilled runs, which are merged into one when reached
+   */
+  public ExternalTupleSorter(Comparator<Tuple> comparator, long memoryLimit, int maxTempFiles) {
+    if (maxTempFiles < 2) {
+      throw new IllegalArgumentException("maxTempFiles must be at least 2, got " + maxTempFiles);
+    }
+    Comparator<Entry> byOrder = (e1, e2) -> Long.compare(e1.order, e2.order);
+    this.comparator = comparator == null ? byOrder : ((Comparator<Entry>) (e1, e2) -> comparator.compare(e1.tuple, e2.tuple)).thenComparing(byOrder);
+    this.memoryLimit = memoryLimit;
+    this.maxTempFiles = maxTempFiles;
+  }
+
+  public void add(long order, Tuple tuple) throws IOException {
+    if (queue != null) {
+      throw new IllegalStateException("Tuples can't be added once the sorter is finished");
+    }
+    buffer.add(new Entry(order, tuple));
+    bufferBytes += TupleSpillFile.estimateRamBytes(tuple);
+    if (bufferBytes > memoryLimit) {
+      spill();
+    }
+  }
+
+  /** @return whether tuples were spilled to disk */
+  public boolean isSpilled() {
+    return runFiles.isEmpty() == false;
+  }
+
+  private void spill() throws IOException {
+    buffer.sort(comparator);
+    TupleSpillFile file = new TupleSpillFile();
+    runFiles.add(file);
+    for (Entry entry : buffer) {
+      file.write(entry.order, entry.tuple);
+    }
+    file.finish();
+    buffer = new ArrayList<>();
+    bufferBytes = 0;
+    if (runFiles.size() >= maxTempFiles) {
+      mergeRuns();
+    }
+  }
+
+  /** Merges all the spilled runs into a single one */
+  private void mergeRuns() throws IOException {
+    PriorityQueue<Run> mergeQueue = newQueue(runFiles.size());
+    List<TupleSpillFile.Reader> mergeReaders = new ArrayList<>(runFiles.size());
+    TupleSpillFile merged = new TupleSpillFile();
+    boolean success = false;
+    try {
+      for (int i = 0; i < runFiles.size(); ++i) {
+        TupleSpillFile.Reader reader = runFiles.get(i).reader();
+        mergeReaders.add(reader);
+        addRun(mergeQueue, newFileRun(i, reader));
+      }
+      Run run;
+      while ((run = mergeQueue.poll()) != null) {
+        merged.write(run.current.order, run.current.tuple);
+        addRun(mergeQueue, run);
+      }
+      merged.finish();
+      success = true;
+    } finally {
+      for (TupleSpillFile.Reader reader : mergeReaders) {
+        IOUtils.closeQuietly(reader);
+      }
+      if (success == false) {
+        IOUtils.closeQuietly(merged);
+      }
+    }
+    for (TupleSpillFile file : runFiles) {
+      IOUtils.closeQuietly(file);
+    }
+    runFiles.clear();
+    runFiles.add(merged);
+  }
+
+  private PriorityQueue<Run> newQueue(int size) {
+    return new PriorityQueue<>(Math.max(1, size), (r1, r2) -> {
+      int cmp = comparator.compare(r1.current, r2.current);
+      return cmp != 0 ? cmp : Integer.compare(r1.index, r2.index);
+    });
+  }
+
+  private static Run newFileRun(int index, TupleSpillFile.Reader reader) {
+    return new Run(index) {
+      @Override
+      boolean next() throws IOException {
+        current = reader.next() ? new Entry(reader.getOrder(), reader.getTuple()) : null;
+        return current != null;
+      }
+    };
+  }
+
+  /** Sorts the last buffered tuples and prepares the merge of all the runs, no tuples may be added afterwards */
+  public void finish() throws IOException {
+    if (queue != null) {
+      return;
+    }
+    queue = newQueue(runFiles.size() + 1);
+    for (int i = 0; i < runFiles.size(); ++i) {
+      TupleSpillFile.Reader reader = runFiles.get(i).reader();
+      readers.add(reader);
+      addRun(queue, newFileRun(i, reader));
+    }
+    // the tuples that were not spilled are the last run, which is kept in memory
+    buffer.sort(comparator);
+    List<Entry> last = buffer;
+    addRun(queue, new Run(runFiles.size()) {
+      int upto;
+
+      @Override
+      boolean next() {
+        current = upto < last.size() ? last.get(upto++) : null;
+        return current != null;
+      }
+    });
+  }
+
+  private static void addRun(PriorityQueue<Run> queue, Run run) throws IOException {
+    if (run.next()) {
+      queue.add(run);
+    }
+  }
+
+  /** @return the next tuple in sorted order, or null when all the tuples were read */
+  public Tuple next() throws IOException {
+    finish();
+    Run run = queue.poll();
+    if (run == null) {
+      return null;
+    }
+    Tuple tuple = run.current.tuple;
+    addRun(queue, run);
+    return tuple;
+  }
+
+  @Override
+  public void close() throws IOException {
+    buffer = new ArrayList<>();
+    queue = null;
+    for (TupleSpillFile.Reader reader : readers) {
+      IOUtils.closeQuietly(reader);
+    }
+    readers.clear();
+    for (TupleSpillFile file : runFiles) {
+      IOUtils.closeQuietly(file);
+    }
+    runFiles.clear();
+  }
+}
@@ -47,6 +47,7 @@ import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionParameter;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionValue;
 import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
 import org.apache.solr.client.solrj.io.stream.metrics.Bucket;
+import org.apache.solr.client.solrj.io.stream.metrics.CountDistinctMetric;
 import org.apache.solr.client.solrj.io.stream.metrics.Metric;
 import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.common.params.ModifiableSolrParams;
@@ -553,7 +554,7 @@ public class FacetStream extends TupleStream implements Expressible  {
     for(Metric metric: metrics) {
       String func = metric.getFunctionName();
       if(!func.equals("count")) {
-        if (!json.contains(metric.getIdentifier())) {
+        if (!json.contains(getFacetFunction(metric))) {
           return false;
         }
       }
@@ -673,7 +674,7 @@ public class FacetStream extends TupleStream implements Expressible  {
           if (metricCount > 0) {
             buf.append(",");
           }
-          buf.append("\""+ facetKey + "\":\"" + identifier + "\"");
+          buf.append("\""+ facetKey + "\":\"" + getFacetFunction(metric) + "\"");
           ++metricCount;
         }
       }
@@ -688,6 +689,13 @@ public class FacetStream extends TupleStream implements Expressible  {
     buf.append("}}");
   }
 
+  private static String getFacetFunction(Metric metric) {
+    if(metric instanceof CountDistinctMetric) {
+      return ((CountDistinctMetric)metric).getFacetFunction();
+    }
+    return metric.getIdentifier();
+  }
+
   private String getFacetSort(String id, Metric[] _metrics) {
     int index = 0;
     int metricCount=0;
@@ -17,10 +17,13 @@
 package org.apache.solr.client.solrj.io.stream;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import org.apache.solr.client.solrj.io.Tuple;
 import org.apache.solr.client.solrj.io.comp.StreamComparator;
@@ -32,6 +35,7 @@ import org.apache.solr.client.solrj.io.stream.expr.StreamExpression;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionNamedParameter;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionValue;
 import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
+import org.apache.solr.common.util.IOUtils;
 
 /**
  * Takes two streams (fullStream and hashStream) and joins them similar to an InnerJoinStream. The difference
@@ -40,12 +44,20 @@ import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
  * You are expected to provide a set of fields for which the hash will be calculated from. If a tuple does
  * not contain a value (ie, null) for one of the fields the hash is being computed on then that tuple will 
  * not be considered a match to anything. Ie, all fields which are part of the hash must have a non-null value.
+ * If the hashed tuples take more than the memory limit, both streams are partitioned to disk by hash and
+ * joined one partition at a time. The joined tuples are then put back in the order of the fullStream,
+ * so the sort of the fullStream is kept.
  * @since 6.0.0
 **/
 public class HashJoinStream extends TupleStream implements Expressible {
 
   private static final long serialVersionUID = 1L;
 
+  /** The number of partitions the tuples are spilled to, and of sub-partitions a partition that is still too large is split into */
+  private static final int NUM_PARTITIONS = 32;
+  /** How many times a partition may be split before it is joined in memory regardless of its size */
+  private static final int MAX_SPLITS = 3;
+
   protected TupleStream hashStream;
   protected TupleStream fullStream;
   protected List<String> leftHashOn;
@@ -55,6 +67,12 @@ public class HashJoinStream extends TupleStream implements Expressible {
   protected Tuple workingFullTuple = null;
   protected String workingFullHash = null;
   protected int workngHashSetIdx = 0;
+
+  protected long memoryLimit = TupleSpillFile.DEFAULT_MEMORY_LIMIT;
+  private transient TupleSpillFile[] hashPartitions;
+  private transient List<TupleSpillFile> spillFiles;
+  private transient ExternalTupleSorter spilledTuples;
+  private transient Tuple spilledEOFTuple;
   
   public HashJoinStream(TupleStream fullStream, TupleStream hashStream, List<String> hashOn) throws IOException {
     init(fullStream, hashStream, hashOn);
@@ -193,26 +211,214 @@ public class HashJoinStream extends TupleStream implements Expressible {
     return l;
   }
 
+  /**
+   * Sets the approximate number of bytes of hashed tuples this stream keeps in memory before it
+   * partitions both streams to disk, {@link TupleSpillFile#DEFAULT_MEMORY_LIMIT} by default. Once
+   * spilled, half of it is used for the hashed tuples of the partition being joined and the other half
+   * to buffer the joined tuples that are sorted back in the order of the fullStream.
+   */
+  public void setMemoryLimit(long memoryLimit) {
+    this.memoryLimit = memoryLimit;
+  }
+
   public void open() throws IOException {
     hashStream.open();
     fullStream.open();
     
+    long hashedBytes = 0;
     Tuple tuple = hashStream.read();
     while(!tuple.EOF){
       String hash = computeHash(tuple, rightHashOn);
       if(null != hash){
-        if(hashedTuples.containsKey(hash)){
-          hashedTuples.get(hash).add(tuple);
+        if(null != hashPartitions){
+          spill(hashPartitions, partition(hash, 0), 0, tuple);
         }
         else{
-          ArrayList<Tuple> set = new ArrayList<Tuple>();
-          set.add(tuple);
-          hashedTuples.put(hash, set);
+          if(hashedTuples.containsKey(hash)){
+            hashedTuples.get(hash).add(tuple);
+          }
+          else{
+            ArrayList<Tuple> set = new ArrayList<Tuple>();
+            set.add(tuple);
+            hashedTuples.put(hash, set);
+          }
+          hashedBytes += TupleSpillFile.estimateRamBytes(tuple);
+          if(hashedBytes > memoryLimit){
+            spillHashedTuples();
+          }
         }
       }
       tuple = hashStream.read();
     }
   }
+
+  /** @return whether the hashed tuples did not fit in memory and were partitioned to disk */
+  protected boolean isSpilled() {
+    return null != hashPartitions;
+  }
+
+  /** @return whether the tuples of the fullStream without a match are returned, as in an outer join */
+  protected boolean isOuterJoin() {
+    return false;
+  }
+
+  private void spillHashedTuples() throws IOException {
+    spillFiles = new ArrayList<>();
+    hashPartitions = new TupleSpillFile[NUM_PARTITIONS];
+    for(Map.Entry<String, List<Tuple>> entry : hashedTuples.entrySet()){
+      int partition = partition(entry.getKey(), 0);
+      for(Tuple hashed : entry.getValue()){
+        spill(hashPartitions, partition, 0, hashed);
+      }
+    }
+    hashedTuples.clear();
+  }
+
+  /** Writes a tuple to a partition, whose file is only created once it has tuples */
+  private void spill(TupleSpillFile[] partitions, int partition, long order, Tuple tuple) throws IOException {
+    if(null == partitions[partition]){
+      partitions[partition] = new TupleSpillFile();
+      spillFiles.add(partitions[partition]);
+    }
+    partitions[partition].write(order, tuple);
+  }
+
+  private static int partition(String hash, int splits) {
+    // a different mix for each split, so that a partition that is split again spreads over its sub-partitions
+    int h = hash.hashCode() + splits * 0x9E3779B9;
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    return Math.floorMod(h, NUM_PARTITIONS);
+  }
+
+  /** The hashed tuples and tuples from the fullStream of a partition, which are joined together. Either may be null if it has no tuples */
+  private static class Partition {
+    final TupleSpillFile hashed;
+    final TupleSpillFile full;
+    final int splits;
+
+    Partition(TupleSpillFile hashed, TupleSpillFile full, int splits) {
+      this.hashed = hashed;
+      this.full = full;
+      this.splits = splits;
+    }
+  }
+
+  /**
+   * Reads the joined tuples of a join whose hashed tuples were spilled. The first call partitions the
+   * fullStream and joins all the partitions, and the joined tuples are sorted back in the order of the fullStream.
+   */
+  protected Tuple readSpilled() throws IOException {
+    if(null == spilledTuples){
+      joinPartitions();
+    }
+    Tuple tuple = spilledTuples.next();
+    return null == tuple ? spilledEOFTuple : tuple;
+  }
+
+  private void joinPartitions() throws IOException {
+    // the position of a tuple in the fullStream is kept so that the joined tuples can be put back in that order
+    spilledTuples = new ExternalTupleSorter(null, memoryLimit / 2);
+    TupleSpillFile[] fullPartitions = new TupleSpillFile[NUM_PARTITIONS];
+    long order = 0;
+    Tuple fullTuple = fullStream.read();
+    while(!fullTuple.EOF){
+      String fullHash = computeHash(fullTuple, leftHashOn);
+      if(null != fullHash){
+        spill(fullPartitions, partition(fullHash, 0), order, fullTuple);
+      }
+      else if(isOuterJoin()){
+        spilledTuples.add(order, fullTuple.clone());
+      }
+      ++order;
+      fullTuple = fullStream.read();
+    }
+    spilledEOFTuple = fullTuple;
+
+    Deque<Partition> partitions = new ArrayDeque<>();
+    for(int i = 0; i < NUM_PARTITIONS; ++i){
+      partitions.add(new Partition(hashPartitions[i], fullPartitions[i], 0));
+    }
+    while(!partitions.isEmpty()){
+      Partition partition = partitions.poll();
+      try{
+        joinPartition(partition, partitions);
+      }
+      finally{
+        IOUtils.closeQuietly(partition.hashed);
+        IOUtils.closeQuietly(partition.full);
+      }
+    }
+    spilledTuples.finish();
+  }
+
+  private void joinPartition(Partition partition, Deque<Partition> partitions) throws IOException {
+    if(null == partition.full){
+      // nothing to join with
+      return;
+    }
+    partition.full.finish();
+
+    Map<String, List<Tuple>> hashed = new HashMap<>();
+    if(null != partition.hashed){
+      partition.hashed.finish();
+      long hashedBytes = 0;
+      try(TupleSpillFile.Reader reader = partition.hashed.reader()){
+        while(reader.next()){
+          Tuple tuple = reader.getTuple();
+          hashed.computeIfAbsent(computeHash(tuple, rightHashOn), k -> new ArrayList<>()).add(tuple);
+          hashedBytes += TupleSpillFile.estimateRamBytes(tuple);
+          // still too large, split it and join the sub-partitions instead. This can't help if all the tuples have the same hash
+          if(hashedBytes > memoryLimit / 2 && partition.splits < MAX_SPLITS && hashed.size() > 1){
+            hashed = null;
+            break;
+          }
+        }
+      }
+    }
+    if(null == hashed){
+      splitPartition(partition, partitions);
+      return;
+    }
+
+    try(TupleSpillFile.Reader reader = partition.full.reader()){
+      while(reader.next()){
+        Tuple fullTuple = reader.getTuple();
+        List<Tuple> matches = hashed.get(computeHash(fullTuple, leftHashOn));
+        if(null == matches){
+          if(isOuterJoin()){
+            spilledTuples.add(reader.getOrder(), fullTuple);
+          }
+          continue;
+        }
+        for(Tuple match : matches){
+          Tuple returnTuple = fullTuple.clone();
+          returnTuple.merge(match);
+          spilledTuples.add(reader.getOrder(), returnTuple);
+        }
+      }
+    }
+  }
+
+  private void splitPartition(Partition partition, Deque<Partition> partitions) throws IOException {
+    int splits = partition.splits + 1;
+    TupleSpillFile[] hashedSplits = new TupleSpillFile[NUM_PARTITIONS];
+    TupleSpillFile[] fullSplits = new TupleSpillFile[NUM_PARTITIONS];
+    try(TupleSpillFile.Reader reader = partition.hashed.reader()){
+      while(reader.next()){
+        spill(hashedSplits, partition(computeHash(reader.getTuple(), rightHashOn), splits), 0, reader.getTuple());
+      }
+    }
+    try(TupleSpillFile.Reader reader = partition.full.reader()){
+      while(reader.next()){
+        spill(fullSplits, partition(computeHash(reader.getTuple(), leftHashOn), splits), reader.getOrder(), reader.getTuple());
+      }
+    }
+    for(int i = 0; i < NUM_PARTITIONS; ++i){
+      partitions.add(new Partition(hashedSplits[i], fullSplits[i], splits));
+    }
+  }
   
   protected String computeHash(Tuple tuple, List<String> hashOn){
     StringBuilder sb = new StringBuilder();
@@ -229,11 +435,30 @@ public class HashJoinStream extends TupleStream implements Expressible {
   }
 
   public void close() throws IOException {
-    hashStream.close();
-    fullStream.close();
+    try{
+      hashStream.close();
+      fullStream.close();
+    }
+    finally{
+      if(null != spilledTuples){
+        spilledTuples.close();
+      }
+      if(null != spillFiles){
+        for(TupleSpillFile file : spillFiles){
+          IOUtils.closeQuietly(file);
+        }
+      }
+      hashPartitions = null;
+      spillFiles = null;
+      spilledTuples = null;
+      spilledEOFTuple = null;
+    }
   }
 
   public Tuple read() throws IOException {
+    if(isSpilled()){
+      return readSpilled();
+    }
     
     findNextWorkingFullTuple:
     while(null == workingFullTuple){
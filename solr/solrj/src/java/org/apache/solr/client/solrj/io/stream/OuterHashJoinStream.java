@@ -87,7 +87,15 @@ public class OuterHashJoinStream extends HashJoinStream implements Expressible {
     return expression;   
   }
 
+  @Override
+  protected boolean isOuterJoin() {
+    return true;
+  }
+
   public Tuple read() throws IOException {
+    if(isSpilled()){
+      return readSpilled();
+    }
     
     if(null == workingFullTuple){
       Tuple fullTuple = fullStream.read();
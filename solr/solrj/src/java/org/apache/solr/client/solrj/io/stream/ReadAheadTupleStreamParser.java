@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.io.stream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A {@link TupleStreamParser} that decodes the tuples of another parser on a separate thread,
+ * ahead of the reader.
+ * <p>
+ * Tuples are decoded in batches of up to <code>batchSize</code> tuples which are handed over to
+ * the reader through a bounded queue, so at most <code>bufferSize</code> decoded tuples are kept
+ * in memory and the decoding thread blocks when the reader falls behind.
+ **/
+public class ReadAheadTupleStreamParser implements TupleStreamParser {
+
+  private static final List<Map<String,Object>> END = Collections.emptyList();
+
+  private final TupleStreamParser parser;
+  private final int batchSize;
+  private final BlockingQueue<List<Map<String,Object>>> batches;
+  private final Future<?> future;
+
+  private List<Map<String,Object>> batch = new ArrayList<>();
+  private int batchUpto;
+  private volatile Throwable failure;
+  private volatile boolean closed;
+
+  /**
+   * @param parser the parser to read tuples from
+   * @param executor the executor to run the decoding thread on
+   * @param bufferSize the maximum number of decoded tuples waiting to be read
+   * @param batchSize the number of tuples decoded before they are handed over to the reader
+   */
+  public ReadAheadTupleStreamParser(TupleStreamParser parser, ExecutorService executor, int bufferSize, int batchSize) {
+    this.parser = parser;
+    this.batchSize = Math.max(1, batchSize);
+    this.batches = new ArrayBlockingQueue<>(Math.max(1, bufferSize / this.batchSize));
+    this.future = executor.submit(this::decode);
+  }
+
+  private void decode() {
+    List<Map<String,Object>> current = new ArrayList<>(batchSize);
+    try {
+      Map<String,Object> fields;
+      while (!closed && (fields = parser.next()) != null) {
+        current.add(fields);
+        if (current.size() == batchSize || fields.containsKey("EXCEPTION")) {
+          batches.put(current);
+          current = new ArrayList<>(batchSize);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failure = e;
+    } catch (Throwable t) {
+      failure = t;
+    } finally {
+      if (!closed) {
+        try {
+          // hand over what was decoded before the end or a failure
+          if (!current.isEmpty()) {
+            batches.put(current);
+          }
+          batches.put(END);
+        } catch (InterruptedException e) {
+          // only happens when the reader closed us, nobody is waiting for the end
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  @Override
+  public Map<String,Object> next() throws IOException {
+    if (batchUpto == batch.size()) {
+      if (batch == END) {
+        return null;
+      }
+      try {
+        batch = batches.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+      batchUpto = 0;
+      if (batch == END) {
+        Throwable t = failure;
+        if (t instanceof IOException) {
+          throw (IOException) t;
+        } else if (t != null) {
+          throw new IOException(t);
+        }
+        return null;
+      }
+    }
+    return batch.get(batchUpto++);
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    future.cancel(true);
+    batches.clear();
+    parser.close();
+  }
+}
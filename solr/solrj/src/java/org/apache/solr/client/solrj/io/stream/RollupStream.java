@@ -24,6 +24,7 @@ import java.util.Locale;
 import java.util.Map;
 
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.comp.HashKey;
 import org.apache.solr.client.solrj.io.comp.StreamComparator;
 import org.apache.solr.client.solrj.io.eq.FieldEqualitor;
@@ -47,6 +48,9 @@ public class RollupStream extends TupleStream implements Expressible {
 
   private static final long serialVersionUID = 1;
 
+  /** The number of tuples read from the underlying stream at once */
+  private static final int BATCH_SIZE = 1024;
+
   private PushBackStream tupleStream;
   private Bucket[] buckets;
   private Metric[] metrics;
@@ -54,6 +58,8 @@ public class RollupStream extends TupleStream implements Expressible {
   private HashKey currentKey = new HashKey("-");
   private Metric[] currentMetrics;
   private boolean finished = false;
+  private transient TupleBatch batch;
+  private transient int batchUpto;
 
   public RollupStream(TupleStream tupleStream,
                       Bucket[] buckets,
@@ -193,59 +199,51 @@ public class RollupStream extends TupleStream implements Expressible {
     this.currentMetrics = null;
     this.currentKey = new HashKey("-");
     this.finished = false;
+    this.batch = null;
+    this.batchUpto = 0;
   }
 
   public Tuple read() throws IOException {
 
     while(true) {
-      Tuple tuple = tupleStream.read();
-      if(tuple.EOF) {
-        if(!finished) {
-
-          if(currentMetrics == null) {
-            return tuple;
-          }
-
-          Map<String,Object> map = new HashMap<String,Object>();
-          for(Metric metric : currentMetrics) {
-            map.put(metric.getIdentifier(), metric.getValue());
-          }
-
-          for(int i=0; i<buckets.length; i++) {
-            map.put(buckets[i].toString(), currentKey.getParts()[i]);
+      if(batch == null || batchUpto == batch.size()) {
+        if(batch != null && batch.isEOF()) {
+          if(!finished) {
+            finished = true;
+            if(currentMetrics != null) {
+              return currentTuple();
+            }
           }
-          Tuple t = new Tuple(map);
-          tupleStream.pushBack(tuple);
-          finished = true;
-          return t;
-        } else {
-          return tuple;
+          return batch.getEOFTuple();
         }
+        batch = tupleStream.readBatch(BATCH_SIZE);
+        batchUpto = 0;
+        continue;
+      }
+
+      // the tuples that follow in the same bucket are aggregated at once
+      int from = batchUpto;
+      int to = from + 1;
+      while(to < batch.size() && isSameBucket(from, to)) {
+        ++to;
       }
+      batchUpto = to;
 
       Object[] bucketValues = new Object[buckets.length];
       for(int i=0; i<buckets.length; i++) {
-        bucketValues[i] = buckets[i].getBucketValue(tuple);
+        bucketValues[i] = buckets[i].getBucketValue(batch, from);
       }
 
       HashKey hashKey = new HashKey(bucketValues);
 
       if(hashKey.equals(currentKey)) {
         for(Metric bucketMetric : currentMetrics) {
-          bucketMetric.update(tuple);
+          bucketMetric.update(batch, from, to);
         }
       } else {
         Tuple t = null;
         if(currentMetrics != null) {
-          Map<String,Object> map = new HashMap<String,Object>();
-          for(Metric metric : currentMetrics) {
-            map.put(metric.getIdentifier(), metric.getValue());
-          }
-
-          for(int i=0; i<buckets.length; i++) {
-            map.put(buckets[i].toString(), currentKey.getParts()[i]);
-          }
-          t = new Tuple(map);
+          t = currentTuple();
         }
 
         currentKey = hashKey;
@@ -253,7 +251,7 @@ public class RollupStream extends TupleStream implements Expressible {
           currentMetrics = new Metric[metrics.length];
           for(int i=0; i<metrics.length; i++) {
             Metric bucketMetric = metrics[i].newInstance();
-            bucketMetric.update(tuple);
+            bucketMetric.update(batch, from, to);
             currentMetrics[i]  = bucketMetric;
           }
         }
@@ -265,6 +263,27 @@ public class RollupStream extends TupleStream implements Expressible {
     }
   }
 
+  private boolean isSameBucket(int index1, int index2) {
+    for(Bucket bucket : buckets) {
+      if(!bucket.isSameBucket(batch, index1, index2)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Tuple currentTuple() {
+    Map<String,Object> map = new HashMap<String,Object>();
+    for(Metric metric : currentMetrics) {
+      map.put(metric.getIdentifier(), metric.getValue());
+    }
+
+    for(int i=0; i<buckets.length; i++) {
+      map.put(buckets[i].toString(), currentKey.getParts()[i]);
+    }
+    return new Tuple(map);
+  }
+
   public int getCost() {
     return 0;
   }
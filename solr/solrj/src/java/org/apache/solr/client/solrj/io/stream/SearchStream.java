@@ -32,6 +32,7 @@ import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.impl.CloudSolrClient;
 import org.apache.solr.client.solrj.io.SolrClientCache;
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.comp.ComparatorOrder;
 import org.apache.solr.client.solrj.io.comp.FieldComparator;
 import org.apache.solr.client.solrj.io.comp.MultipleFieldComparator;
@@ -206,6 +207,22 @@ public class SearchStream extends TupleStream implements Expressible  {
     }
   }
 
+  @Override
+  public TupleBatch readBatch(int maxSize) throws IOException {
+    // the documents are added as they are, without copying them into tuples
+    TupleBatch batch = new TupleBatch(maxSize);
+    while(batch.isFull() == false) {
+      if(documentIterator.hasNext() == false) {
+        Map fields = new HashMap();
+        fields.put("EOF", true);
+        batch.setEOFTuple(new Tuple(fields));
+        break;
+      }
+      batch.add(documentIterator.next());
+    }
+    return batch;
+  }
+
   public Tuple read() throws IOException {
     if(documentIterator.hasNext()) {
       Map map = new HashMap();
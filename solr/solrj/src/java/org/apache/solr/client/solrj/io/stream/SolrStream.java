@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.solr.client.solrj.SolrClient;
@@ -33,6 +34,7 @@ import org.apache.solr.client.solrj.impl.HttpSolrClient;
 import org.apache.solr.client.solrj.impl.InputStreamResponseParser;
 import org.apache.solr.client.solrj.io.SolrClientCache;
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.comp.StreamComparator;
 import org.apache.solr.client.solrj.io.stream.expr.Explanation;
 import org.apache.solr.client.solrj.io.stream.expr.Explanation.ExpressionType;
@@ -53,6 +55,11 @@ public class SolrStream extends TupleStream {
 
   private static final long serialVersionUID = 1;
 
+  /** The maximum number of tuples decoded ahead of the reader when reading ahead, 0 disables reading ahead */
+  public static final int READ_AHEAD_BUFFER_SIZE = Integer.getInteger("solr.streaming.readAheadBufferSize", 1024);
+  /** The number of tuples decoded at once when reading ahead */
+  public static final int READ_AHEAD_BATCH_SIZE = Integer.getInteger("solr.streaming.readAheadBatchSize", 64);
+
   private String baseUrl;
   private SolrParams params;
   private int numWorkers;
@@ -65,6 +72,7 @@ public class SolrStream extends TupleStream {
   private String slice;
   private long checkpoint = -1;
   private CloseableHttpResponse closeableHttpResponse;
+  private transient ExecutorService readAheadExecutor;
 
   /**
    * @param baseUrl Base URL of the stream.
@@ -107,6 +115,10 @@ public class SolrStream extends TupleStream {
 
     try {
       tupleStreamParser = constructParser(client, loadParams(params));
+      if (readAheadExecutor != null && READ_AHEAD_BUFFER_SIZE > 0) {
+        tupleStreamParser = new ReadAheadTupleStreamParser(tupleStreamParser, readAheadExecutor,
+            READ_AHEAD_BUFFER_SIZE, READ_AHEAD_BATCH_SIZE);
+      }
     } catch (Exception e) {
       throw new IOException("params " + params, e);
     }
@@ -128,6 +140,14 @@ public class SolrStream extends TupleStream {
     this.checkpoint = checkpoint;
   }
 
+  /**
+   * Decode the tuples of the response on a thread of the given executor, ahead of {@link #read()},
+   * see {@link ReadAheadTupleStreamParser}. Must be called before the stream is opened.
+   **/
+  public void setReadAheadExecutor(ExecutorService readAheadExecutor) {
+    this.readAheadExecutor = readAheadExecutor;
+  }
+
   private SolrParams loadParams(SolrParams paramsIn) throws IOException {
     ModifiableSolrParams solrParams = new ModifiableSolrParams(paramsIn);
     if (params.get("partitionKeys") != null) {
@@ -170,6 +190,10 @@ public class SolrStream extends TupleStream {
   * */
 
   public void close() throws IOException {
+    if (tupleStreamParser instanceof ReadAheadTupleStreamParser) {
+      // stop decoding ahead
+      tupleStreamParser.close();
+    }
     if (closeableHttpResponse != null) {
       closeableHttpResponse.close();
     }
@@ -183,14 +207,55 @@ public class SolrStream extends TupleStream {
   **/
 
   public Tuple read() throws IOException {
-    try {
-      Map fields = tupleStreamParser.next();
+    Map fields = readFields();
+    if (fields == null) {
+      //Return the EOF tuple.
+      Map m = new HashMap();
+      m.put("EOF", true);
+      return new Tuple(m);
+    }
+    return new Tuple(fields);
+  }
+
+  /**
+   * Reads the fields of up to <code>maxSize</code> tuples straight into a batch, without creating a
+   * {@link Tuple} for each of them.
+   **/
+  @Override
+  public TupleBatch readBatch(int maxSize) throws IOException {
+    TupleBatch batch = new TupleBatch(maxSize);
+    fillBatch(batch);
+    return batch;
+  }
 
+  /**
+   * Adds tuples to the given batch until it is full or the stream is completed.
+   **/
+  void fillBatch(TupleBatch batch) throws IOException {
+    while (batch.isFull() == false) {
+      Map fields = readFields();
       if (fields == null) {
-        //Return the EOF tuple.
         Map m = new HashMap();
         m.put("EOF", true);
-        return new Tuple(m);
+        batch.setEOFTuple(new Tuple(m));
+        break;
+      } else if (fields.containsKey("EOF")) {
+        batch.setEOFTuple(new Tuple(fields));
+        break;
+      }
+      batch.add(fields);
+    }
+  }
+
+  /**
+   * @return the fields of the next tuple of the stream, or null when the stream is completed
+   **/
+  private Map readFields() throws IOException {
+    try {
+      Map fields = tupleStreamParser.next();
+
+      if (fields == null) {
+        return null;
       } else {
 
         String msg = (String) fields.get("EXCEPTION");
@@ -209,7 +274,7 @@ public class SolrStream extends TupleStream {
         if (fieldMappings != null) {
           fields = mapFields(fields, fieldMappings);
         }
-        return new Tuple(fields);
+        return fields;
       }
     } catch (HandledException e) {
       throw new IOException("--> "+this.baseUrl+":"+e.getMessage());
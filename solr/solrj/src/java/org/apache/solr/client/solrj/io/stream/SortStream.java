@@ -18,7 +18,6 @@ package org.apache.solr.client.solrj.io.stream;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 
@@ -37,6 +36,8 @@ import org.apache.solr.client.solrj.io.stream.expr.Explanation.ExpressionType;
 
 /**
  * The SortStream emits a stream of Tuples sorted by a Comparator.
+ * Once the tuples take more than the memory limit, sorted runs are spilled to disk and
+ * merged when the tuples are read, see {@link ExternalTupleSorter}.
  * @since 6.1.0
  **/
 
@@ -46,7 +47,9 @@ public class SortStream extends TupleStream implements Expressible {
 
   private TupleStream stream;
   private StreamComparator comparator;
-  private Worker worker;
+  private long memoryLimit = TupleSpillFile.DEFAULT_MEMORY_LIMIT;
+  private transient ExternalTupleSorter sorter;
+  private transient Tuple eofTuple;
 
   public SortStream(TupleStream stream, StreamComparator comp) throws IOException {
     init(stream,comp);
@@ -79,34 +82,14 @@ public class SortStream extends TupleStream implements Expressible {
   private void init(TupleStream stream, StreamComparator comp) throws IOException{
     this.stream = stream;
     this.comparator = comp;
-    
-    // standard java modified merge sort
-    worker = new Worker() {
-
-      private LinkedList<Tuple> tuples = new LinkedList<Tuple>();
-      private Tuple eofTuple;
-      
-      public void readStream(TupleStream stream) throws IOException {
-        Tuple tuple = stream.read();
-        while(!tuple.EOF){
-          tuples.add(tuple);
-          tuple = stream.read();
-        }
-        eofTuple = tuple;
-      }
-      
-      public void sort() {
-        tuples.sort(comparator);
-      }
-      
-      public Tuple read() {
-        if(tuples.isEmpty()){
-          return eofTuple;
-        }
-        return tuples.removeFirst();
-      }
-    };
-    
+  }
+
+  /**
+   * Sets the approximate number of bytes of tuples this stream keeps in memory before it spills
+   * sorted runs to disk, {@link TupleSpillFile#DEFAULT_MEMORY_LIMIT} by default.
+   */
+  public void setMemoryLimit(long memoryLimit) {
+    this.memoryLimit = memoryLimit;
   }
 
   @Override
@@ -169,17 +152,32 @@ public class SortStream extends TupleStream implements Expressible {
   public void open() throws IOException {
     stream.open();
 
-    worker.readStream(stream);
-    worker.sort();
+    sorter = new ExternalTupleSorter(comparator, memoryLimit);
+    long order = 0;
+    Tuple tuple = stream.read();
+    while(!tuple.EOF){
+      sorter.add(order++, tuple);
+      tuple = stream.read();
+    }
+    eofTuple = tuple;
+    sorter.finish();
   }
 
   public void close() throws IOException {
-    stream.close();
+    try {
+      stream.close();
+    } finally {
+      if(sorter != null) {
+        sorter.close();
+        sorter = null;
+      }
+    }
   }
 
   public Tuple read() throws IOException {
     // return next from sorted order
-    return worker.read();    
+    Tuple tuple = sorter.next();
+    return tuple == null ? eofTuple : tuple;
   }
 
   /** Return the stream sort - ie, the order in which records are returned */
@@ -190,11 +188,4 @@ public class SortStream extends TupleStream implements Expressible {
   public int getCost() {
     return 0;
   }
-
-  private interface Worker {
-    public void readStream(TupleStream stream) throws IOException;
-    public void sort();
-    public Tuple read();
-  }
-  
 }
@@ -40,6 +40,7 @@ import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionNamedParamete
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionParameter;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionValue;
 import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
+import org.apache.solr.client.solrj.io.stream.metrics.CountDistinctMetric;
 import org.apache.solr.client.solrj.io.stream.metrics.Metric;
 import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.common.SolrDocumentList;
@@ -298,6 +299,10 @@ public class StatsStream extends TupleStream implements Expressible  {
           stats.add("mean");
         } else if(function.equals("count")) {
           this.doCount = true;
+        } else if(function.equals(CountDistinctMetric.COUNT_DISTINCT)) {
+          stats.add("countDistinct");
+        } else if(function.equals(CountDistinctMetric.APPROX_COUNT_DISTINCT)) {
+          stats.add("cardinality");
         }
       }
     }
@@ -357,6 +362,10 @@ public class StatsStream extends TupleStream implements Expressible  {
       } else {
         map.put(name, val);
       }
+    } else if(stat.equals("countDistinct")) {
+      map.put(CountDistinctMetric.COUNT_DISTINCT+"("+field+")", ((Number)val).longValue());
+    } else if(stat.equals("cardinality")) {
+      map.put(CountDistinctMetric.APPROX_COUNT_DISTINCT+"("+field+")", ((Number)val).longValue());
     } else {
       map.put(stat+"("+field+")", val);
     }
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.io.stream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.common.util.FastInputStream;
+import org.apache.solr.common.util.FastOutputStream;
+import org.apache.solr.common.util.JavaBinCodec;
+
+/**
+ * A temporary file that tuples are spilled to by streams that would otherwise hold more than
+ * their memory limit, see {@link #DEFAULT_MEMORY_LIMIT}.
+ * <p>
+ * Each tuple is written with javabin along with a <code>long</code> that the writer is free to use,
+ * for instance to remember the position of the tuple in its original stream. Tuples are read back in
+ * the order they were written, nested tuples come back as maps. The file is deleted when closed.
+ *
+ * @lucene.experimental
+ **/
+public class TupleSpillFile implements Closeable {
+
+  /** The number of bytes a stream may keep in memory before it spills to disk, by default */
+  public static final long DEFAULT_MEMORY_LIMIT = Long.getLong("solr.streaming.memoryLimitMB", 128) * 1024 * 1024;
+
+  private final Path path;
+  private FastOutputStream out;
+  private JavaBinCodec codec;
+  private long size;
+
+  /** Creates a new spill file in the directory set with <code>solr.streaming.spillDir</code>, the temp directory by default */
+  public TupleSpillFile() throws IOException {
+    this(Paths.get(System.getProperty("solr.streaming.spillDir", System.getProperty("java.io.tmpdir"))));
+  }
+
+  public TupleSpillFile(Path dir) throws IOException {
+    this.path = Files.createTempFile(dir, "tuples", ".spill");
+    this.out = FastOutputStream.wrap(Files.newOutputStream(path));
+    this.codec = new JavaBinCodec();
+    codec.init(out);
+  }
+
+  public void write(long order, Tuple tuple) throws IOException {
+    codec.writeVal(order);
+    codec.writeMap(tuple.fields);
+    ++size;
+  }
+
+  /** @return the number of tuples written to this file */
+  public long size() {
+    return size;
+  }
+
+  /** Completes the writing of this file, after which it can be read */
+  public void finish() throws IOException {
+    if (out != null) {
+      out.close();
+      out = null;
+      codec = null;
+    }
+  }
+
+  /** @return a reader over the tuples of this file, which must be {@link #finish() finished} */
+  public Reader reader() throws IOException {
+    if (out != null) {
+      throw new IllegalStateException("The spill file " + path + " is still being written");
+    }
+    return new Reader();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (out != null) {
+        out.close();
+      }
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  /** Reads the tuples of a spill file in the order they were written */
+  public class Reader implements Closeable {
+    private final FastInputStream in;
+    private final JavaBinCodec codec = new JavaBinCodec();
+    private long remaining = size;
+    private long order;
+    private Tuple tuple;
+
+    private Reader() throws IOException {
+      this.in = FastInputStream.wrap(Files.newInputStream(path));
+    }
+
+    /** Moves to the next tuple, returns false when all the tuples were read */
+    public boolean next() throws IOException {
+      if (remaining == 0) {
+        tuple = null;
+        return false;
+      }
+      --remaining;
+      order = ((Number) codec.readVal(in)).longValue();
+      tuple = new Tuple((Map) codec.readVal(in));
+      return true;
+    }
+
+    public long getOrder() {
+      return order;
+    }
+
+    public Tuple getTuple() {
+      return tuple;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+
+  /** @return a rough estimate of the heap used by the given tuple */
+  public static long estimateRamBytes(Tuple tuple) {
+    return 64 + estimateRamBytes(tuple.fields);
+  }
+
+  private static long estimateRamBytes(Object o) {
+    if (o == null) {
+      return 0;
+    } else if (o instanceof CharSequence) {
+      return 48 + 2L * ((CharSequence) o).length();
+    } else if (o instanceof Map) {
+      long bytes = 48;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) o).entrySet()) {
+        bytes += 32 + estimateRamBytes(entry.getKey()) + estimateRamBytes(entry.getValue());
+      }
+      return bytes;
+    } else if (o instanceof Collection) {
+      long bytes = 32;
+      for (Object value : (Collection<?>) o) {
+        bytes += 8 + estimateRamBytes(value);
+      }
+      return bytes;
+    } else if (o instanceof Tuple) {
+      return estimateRamBytes((Tuple) o);
+    }
+    // numbers, booleans, dates
+    return 24;
+  }
+}
@@ -31,6 +31,7 @@ import java.util.Map;
 
 import org.apache.solr.client.solrj.impl.CloudSolrClient;
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.comp.StreamComparator;
 import org.apache.solr.client.solrj.io.stream.expr.Explanation;
 import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
@@ -65,6 +66,26 @@ public abstract class TupleStream implements Closeable, Serializable, MapWriter
 
   public abstract Tuple read() throws IOException;
 
+  /**
+   * Reads up to <code>maxSize</code> tuples at once, stored column by column. The stream is completed
+   * when the returned batch {@link TupleBatch#isEOF() is EOF}. Batch and tuple reads may be mixed.
+   * <p>
+   * The default implementation reads one tuple after the other, streams that can produce batches
+   * more cheaply override it.
+   **/
+  public TupleBatch readBatch(int maxSize) throws IOException {
+    TupleBatch batch = new TupleBatch(maxSize);
+    while (batch.isFull() == false) {
+      Tuple tuple = read();
+      if (tuple.EOF) {
+        batch.setEOFTuple(tuple);
+        break;
+      }
+      batch.add(tuple);
+    }
+    return batch;
+  }
+
   public abstract StreamComparator getStreamSort();
   
   public abstract Explanation toExplanation(StreamFactory factory) throws IOException;
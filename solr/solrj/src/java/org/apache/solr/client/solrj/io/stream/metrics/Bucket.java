@@ -17,6 +17,7 @@
 package org.apache.solr.client.solrj.io.stream.metrics;
 
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 
 public class Bucket {
 
@@ -38,6 +39,21 @@ public class Bucket {
     }
   }
 
+  public Object getBucketValue(TupleBatch batch, int index) {
+    Object o = batch.get(index, bucketKey);
+    if(o == null) {
+      return NULL_VALUE;
+    } else {
+      return o;
+    }
+  }
+
+  /** @return whether the tuples at the given indexes of the batch fall in the same bucket */
+  public boolean isSameBucket(TupleBatch batch, int index1, int index2) {
+    TupleBatch.Column column = batch.getColumn(bucketKey);
+    return column == null || column.equals(index1, index2);
+  }
+
   public String toString() {
     return bucketKey;
   }
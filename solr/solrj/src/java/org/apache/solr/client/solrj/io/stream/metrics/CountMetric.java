@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.util.Locale;
 
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpression;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionParameter;
 import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
@@ -70,6 +71,22 @@ public class CountMetric extends Metric {
     }
   }
 
+  @Override
+  public void update(TupleBatch batch, int from, int to) {
+    if(isAllColumns()) {
+      count += to - from;
+      return;
+    }
+    TupleBatch.Column column = batch.getColumn(columnName);
+    if(column != null) {
+      for(int i=from; i<to; i++) {
+        if(column.isPresent(i)) {
+          ++count;
+        }
+      }
+    }
+  }
+
   public Long getValue() {
     return count;
   }
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.util.UUID;
 
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.stream.expr.Explanation;
 import org.apache.solr.client.solrj.io.stream.expr.Explanation.ExpressionType;
 import org.apache.solr.client.solrj.io.stream.expr.Expressible;
@@ -69,6 +70,16 @@ public abstract class Metric implements Expressible {
   
   public abstract Number getValue();
   public abstract void update(Tuple tuple);
+
+  /**
+   * Updates the metric with the tuples of a batch from index <code>from</code> (inclusive) to <code>to</code> (exclusive).
+   * Metrics that can work on the columns of the batch override this, by default each tuple is materialized.
+   */
+  public void update(TupleBatch batch, int from, int to) {
+    for(int i=from; i<to; i++) {
+      update(batch.getTuple(i));
+    }
+  }
   public abstract Metric newInstance();
   public abstract String[] getColumns();
 
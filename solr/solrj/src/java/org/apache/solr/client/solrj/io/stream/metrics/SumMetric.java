@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.util.Locale;
 
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpression;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionParameter;
 import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
@@ -70,6 +71,26 @@ public class SumMetric extends Metric {
     }
   }
 
+  @Override
+  public void update(TupleBatch batch, int from, int to) {
+    TupleBatch.Column column = batch.getColumn(columnName);
+    if(column == null || column.isPresent(from, to) == false) {
+      super.update(batch, from, to);
+    } else if(column.getType() == TupleBatch.ColumnType.DOUBLE) {
+      double[] doubles = column.getDoubles();
+      for(int i=from; i<to; i++) {
+        doubleSum += doubles[i];
+      }
+    } else if(column.getType() == TupleBatch.ColumnType.LONG) {
+      long[] longs = column.getLongs();
+      for(int i=from; i<to; i++) {
+        longSum += longs[i];
+      }
+    } else {
+      super.update(batch, from, to);
+    }
+  }
+
   public Metric newInstance() {
     return new SumMetric(columnName);
   }
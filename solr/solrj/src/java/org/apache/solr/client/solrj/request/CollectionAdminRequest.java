@@ -432,6 +432,7 @@ public abstract class CollectionAdminRequest<T extends CollectionAdminResponse>
     protected Properties properties;
     protected Boolean autoAddReplicas;
     protected Integer stateFormat;
+    protected Boolean perReplicaState;
     protected String[] rule , snitch;
     protected String withCollection;
 
@@ -471,6 +472,7 @@ public abstract class CollectionAdminRequest<T extends CollectionAdminResponse>
 
     public Create setReplicationFactor(Integer repl) { this.nrtReplicas = repl; return this; }
     public Create setStateFormat(Integer stateFormat) { this.stateFormat = stateFormat; return this; }
+    public Create setPerReplicaState(Boolean perReplicaState) { this.perReplicaState = perReplicaState; return this; }
     public Create setRule(String... s){ this.rule = s; return this; }
     public Create setSnitch(String... s){ this.snitch = s; return this; }
 
@@ -488,6 +490,7 @@ public abstract class CollectionAdminRequest<T extends CollectionAdminResponse>
     public Integer getNumPullReplicas() {return pullReplicas;}
 
     public Integer getStateFormat() { return stateFormat; }
+    public Boolean getPerReplicaState() { return perReplicaState; }
     
     /**
      * Provide the name of the shards to be created, separated by commas
@@ -561,6 +564,9 @@ public abstract class CollectionAdminRequest<T extends CollectionAdminResponse>
       if (stateFormat != null) {
         params.set(DocCollection.STATE_FORMAT, stateFormat);
       }
+      if (perReplicaState != null) {
+        params.set(DocCollection.PER_REPLICA_STATE, perReplicaState);
+      }
       if (pullReplicas != null) {
         params.set(ZkStateReader.PULL_REPLICAS, pullReplicas);
       }
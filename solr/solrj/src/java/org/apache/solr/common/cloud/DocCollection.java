@@ -52,6 +52,7 @@ public class DocCollection extends ZkNodeProps implements Iterable<Slice> {
   public static final String STATE_FORMAT = "stateFormat";
   public static final String RULE = "rule";
   public static final String SNITCH = "snitch";
+  public static final String PER_REPLICA_STATE = "perReplicaState";
 
   private final int znodeVersion;
 
@@ -70,7 +71,9 @@ public class DocCollection extends ZkNodeProps implements Iterable<Slice> {
   private final Integer numPullReplicas;
   private final Integer maxShardsPerNode;
   private final Boolean autoAddReplicas;
+  private final Boolean perReplicaState;
   private final String policy;
+  private final PerReplicaStates perReplicaStates;
 
   public DocCollection(String name, Map<String, Slice> slices, Map<String, Object> props, DocRouter router) {
     this(name, slices, props, router, Integer.MAX_VALUE, ZkStateReader.CLUSTER_STATE);
@@ -82,6 +85,17 @@ public class DocCollection extends ZkNodeProps implements Iterable<Slice> {
    * @param props  The properties of the slice.  This is used directly and a copy is not made.
    */
   public DocCollection(String name, Map<String, Slice> slices, Map<String, Object> props, DocRouter router, int zkVersion, String znode) {
+    this(name, slices, props, router, zkVersion, znode, null);
+  }
+
+  /**
+   * @param name  The name of the collection
+   * @param slices The logical shards of the collection.  This is used directly and a copy is not made.
+   * @param props  The properties of the slice.  This is used directly and a copy is not made.
+   * @param perReplicaStates the per-replica states the replica states in <code>slices</code> were read from, if any
+   */
+  public DocCollection(String name, Map<String, Slice> slices, Map<String, Object> props, DocRouter router, int zkVersion, String znode,
+                       PerReplicaStates perReplicaStates) {
     super(props==null ? props = new HashMap<>() : props);
     // -1 means any version in ZK CAS, so we choose Integer.MAX_VALUE instead to avoid accidental overwrites
     this.znodeVersion = zkVersion == -1 ? Integer.MAX_VALUE : zkVersion;
@@ -99,6 +113,9 @@ public class DocCollection extends ZkNodeProps implements Iterable<Slice> {
     Boolean autoAddReplicas = (Boolean) verifyProp(props, AUTO_ADD_REPLICAS);
     this.policy = (String) props.get(Policy.POLICY);
     this.autoAddReplicas = autoAddReplicas == null ? Boolean.FALSE : autoAddReplicas;
+    Boolean perReplicaState = (Boolean) verifyProp(props, PER_REPLICA_STATE);
+    this.perReplicaState = perReplicaState == null ? Boolean.FALSE : perReplicaState;
+    this.perReplicaStates = perReplicaStates;
     
     verifyProp(props, RULE);
     verifyProp(props, SNITCH);
@@ -152,6 +169,7 @@ public class DocCollection extends ZkNodeProps implements Iterable<Slice> {
       case TLOG_REPLICAS:
         return Integer.parseInt(o.toString());
       case AUTO_ADD_REPLICAS:
+      case PER_REPLICA_STATE:
         return Boolean.parseBoolean(o.toString());
       case "snitch":
       case "rule":
@@ -167,7 +185,16 @@ public class DocCollection extends ZkNodeProps implements Iterable<Slice> {
    * @return the resulting DocCollection
    */
   public DocCollection copyWithSlices(Map<String, Slice> slices){
-    return new DocCollection(getName(), slices, propMap, router, znodeVersion,znode);
+    return new DocCollection(getName(), slices, propMap, router, znodeVersion,znode, perReplicaStates);
+  }
+
+  /**Use this to make a copy of DocCollection with a new set of Slices read from the given per-replica states
+   * @param slices the new set of Slices
+   * @param perReplicaStates the per-replica states the replica states in <code>slices</code> were read from
+   * @return the resulting DocCollection
+   */
+  public DocCollection copyWith(Map<String, Slice> slices, PerReplicaStates perReplicaStates){
+    return new DocCollection(getName(), slices, propMap, router, znodeVersion,znode, perReplicaStates);
   }
 
   /**
@@ -242,6 +269,29 @@ public class DocCollection extends ZkNodeProps implements Iterable<Slice> {
     return znodeVersion;
   }
 
+  /**
+   * @return the child version of the state.json znode this collection's replica states were read from,
+   * or -1 if it does not keep per-replica states
+   */
+  public int getChildNodesVersion() {
+    return perReplicaStates == null ? -1 : perReplicaStates.cversion;
+  }
+
+  /**
+   * @return true if the states of the replicas of this collection are kept in individual znodes
+   * under its state.json, see {@link PerReplicaStates}
+   */
+  public boolean isPerReplicaState() {
+    return perReplicaState;
+  }
+
+  /**
+   * @return the per-replica states this collection was read with, or null
+   */
+  public PerReplicaStates getPerReplicaStates() {
+    return perReplicaStates;
+  }
+
   public int getStateFormat() {
     return ZkStateReader.CLUSTER_STATE.equals(znode) ? 1 : 2;
   }
@@ -380,7 +430,8 @@ public class DocCollection extends ZkNodeProps implements Iterable<Slice> {
     if (that instanceof DocCollection == false)
       return false;
     DocCollection other = (DocCollection) that;
-    return super.equals(that) && Objects.equals(this.znode, other.znode) && this.znodeVersion == other.znodeVersion;
+    return super.equals(that) && Objects.equals(this.znode, other.znode) && this.znodeVersion == other.znodeVersion
+        && getChildNodesVersion() == other.getChildNodesVersion();
   }
 
   /**
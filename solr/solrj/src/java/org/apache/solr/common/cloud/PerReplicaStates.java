@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.common.cloud;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.ZooDefs;
+import org.apache.zookeeper.data.Stat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The states of the replicas of a collection that keeps them in individual znodes
+ * (see {@link DocCollection#PER_REPLICA_STATE}) instead of inside its state.json.
+ * <p>
+ * Each state is an empty child of the state.json znode named
+ * <code>replicaName:version:state</code>. Changing the state of a replica creates
+ * a child with the next version and deletes the previous ones in a single
+ * multi operation, so a state change only costs a few bytes instead of a rewrite
+ * of the whole state.json, and watchers only need to list the children of
+ * state.json to pick it up.
+ *
+ * @lucene.experimental
+ */
+public class PerReplicaStates {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  public static final char SEPARATOR = ':';
+
+  /** The child version of the state.json znode these states were read from */
+  public final int cversion;
+
+  private final Map<String, State> states;
+  private final Map<String, List<State>> duplicates;
+
+  public PerReplicaStates(int cversion, List<String> children) {
+    this.cversion = cversion;
+    Map<String, State> states = new LinkedHashMap<>();
+    Map<String, List<State>> duplicates = new HashMap<>();
+    for (String child : children) {
+      State state = State.parse(child);
+      if (state == null) continue;
+      State previous = states.get(state.replica);
+      if (previous == null) {
+        states.put(state.replica, state);
+        continue;
+      }
+      // a state change that raced with a reader or was not cleaned up, the highest version wins
+      List<State> stale = duplicates.computeIfAbsent(state.replica, k -> new ArrayList<>(1));
+      if (previous.version < state.version) {
+        stale.add(previous);
+        states.put(state.replica, state);
+      } else {
+        stale.add(state);
+      }
+    }
+    this.states = Collections.unmodifiableMap(states);
+    this.duplicates = duplicates;
+  }
+
+  /**
+   * Reads the per-replica states of the collection whose state.json is at the given path
+   *
+   * @param path    the path of the state.json of the collection
+   * @param zkClient the client to read with
+   * @param watcher  an optional watcher to be notified when a state changes
+   */
+  public static PerReplicaStates fetch(String path, SolrZkClient zkClient, Watcher watcher) throws KeeperException, InterruptedException {
+    Stat stat = new Stat();
+    List<String> children = zkClient.getChildren(path, watcher, stat, true);
+    return new PerReplicaStates(stat.getCversion(), children);
+  }
+
+  /** @return the state of the given replica, or null if it has none */
+  public State get(String replica) {
+    return states.get(replica);
+  }
+
+  public Map<String, State> getStates() {
+    return states;
+  }
+
+  public boolean isEmpty() {
+    return states.isEmpty();
+  }
+
+  /**
+   * Builds the operations that move the given replica to a new state.
+   *
+   * @param path    the path of the state.json of the collection
+   * @param replica the name of the replica
+   * @param state   the new state of the replica
+   */
+  public List<Op> setStateOps(String path, String replica, Replica.State state) {
+    State current = states.get(replica);
+    if (current != null && current.state == state && !duplicates.containsKey(replica)) {
+      return Collections.emptyList();
+    }
+    List<Op> ops = new ArrayList<>(3);
+    State newState = new State(replica, current == null ? 0 : current.version + 1, state);
+    ops.add(Op.create(path + "/" + newState.asString, null, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT));
+    ops.addAll(deleteReplicaOps(path, replica));
+    return ops;
+  }
+
+  /**
+   * Builds the operations that remove all the states of the given replica.
+   *
+   * @param path    the path of the state.json of the collection
+   * @param replica the name of the replica
+   */
+  public List<Op> deleteReplicaOps(String path, String replica) {
+    State current = states.get(replica);
+    if (current == null) return Collections.emptyList();
+    List<Op> ops = new ArrayList<>(2);
+    ops.add(Op.delete(path + "/" + current.asString, -1));
+    for (State stale : duplicates.getOrDefault(replica, Collections.emptyList())) {
+      ops.add(Op.delete(path + "/" + stale.asString, -1));
+    }
+    return ops;
+  }
+
+  /**
+   * Persists a new state for the given replica, retrying with freshly read states if the
+   * change races with another one.
+   *
+   * @param path    the path of the state.json of the collection
+   * @param replica the name of the replica
+   * @param state   the new state of the replica
+   * @param zkClient the client to write with
+   */
+  public static void persist(String path, String replica, Replica.State state, SolrZkClient zkClient) throws KeeperException, InterruptedException {
+    for (int attempt = 0; ; attempt++) {
+      PerReplicaStates current = fetch(path, zkClient, null);
+      List<Op> ops = current.setStateOps(path, replica, state);
+      if (ops.isEmpty()) return;
+      try {
+        zkClient.multi(ops, true);
+        return;
+      } catch (KeeperException.NodeExistsException | KeeperException.NoNodeException e) {
+        if (attempt >= 10) throw e;
+        log.debug("Concurrent modification of the state of {} at {}, retrying", replica, path);
+      }
+    }
+  }
+
+  /**
+   * Overrides the states of the replicas of the given collection with these per-replica states.
+   *
+   * @return a copy of the collection that uses these states
+   */
+  public DocCollection applyTo(DocCollection collection) {
+    Map<String, Slice> slices = null;
+    for (Slice slice : collection.getSlices()) {
+      Map<String, Replica> replicas = null;
+      for (Replica replica : slice.getReplicas()) {
+        State state = states.get(replica.getName());
+        if (state == null || state.state == replica.getState()) continue;
+        if (replicas == null) replicas = new LinkedHashMap<>(slice.getReplicasMap());
+        Map<String, Object> props = new LinkedHashMap<>(replica.getProperties());
+        props.put(ZkStateReader.STATE_PROP, state.state.toString());
+        replicas.put(replica.getName(), new Replica(replica.getName(), props));
+      }
+      if (replicas == null) continue;
+      if (slices == null) slices = new LinkedHashMap<>(collection.getSlicesMap());
+      slices.put(slice.getName(), new Slice(slice.getName(), replicas, slice.getProperties()));
+    }
+    return collection.copyWith(slices == null ? collection.getSlicesMap() : slices, this);
+  }
+
+  @Override
+  public String toString() {
+    return "PerReplicaStates(" + cversion + ")=" + states.values();
+  }
+
+  /** The state of a single replica as recorded in the name of a child of state.json */
+  public static class State {
+    public final String replica;
+    public final int version;
+    public final Replica.State state;
+    public final String asString;
+
+    public State(String replica, int version, Replica.State state) {
+      this.replica = replica;
+      this.version = version;
+      this.state = state;
+      this.asString = replica + SEPARATOR + version + SEPARATOR + state;
+    }
+
+    /** @return the state encoded in the given child name, or null if it is not a state */
+    public static State parse(String child) {
+      int last = child.lastIndexOf(SEPARATOR);
+      int first = last > 0 ? child.lastIndexOf(SEPARATOR, last - 1) : -1;
+      if (first <= 0) return null;
+      try {
+        return new State(child.substring(0, first), Integer.parseInt(child.substring(first + 1, last)),
+            Replica.State.getState(child.substring(last + 1)));
+      } catch (IllegalArgumentException e) {
+        log.warn("Ignoring invalid per-replica state {}", child);
+        return null;
+      }
+    }
+
+    @Override
+    public String toString() {
+      return asString;
+    }
+  }
+}
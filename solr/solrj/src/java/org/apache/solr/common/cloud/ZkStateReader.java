@@ -1143,9 +1143,11 @@ public class ZkStateReader implements Closeable {
     return Utils.getBaseUrlForNodeName(nodeName, getClusterProperty(URL_SCHEME, "http"));
   }
 
-  /** Watches a single collection's format2 state.json. */
+  /** Watches a single collection's format2 state.json, and the per-replica states under it if it has any. */
   class StateWatcher implements Watcher {
     private final String coll;
+    // whether a child watch is already pending, so that data changes do not pile up child watches
+    private final AtomicBoolean childWatchSet = new AtomicBoolean();
 
     StateWatcher(String coll) {
       this.coll = coll;
@@ -1164,6 +1166,13 @@ public class ZkStateReader implements Closeable {
         return;
       }
 
+      if (EventType.NodeChildrenChanged.equals(event.getType())) {
+        childWatchSet.set(false);
+        log.debug("A replica state change: [{}] for collection [{}] has occurred - updating...", event, coll);
+        refreshReplicaStatesAndWatch();
+        return;
+      }
+
       Set<String> liveNodes = ZkStateReader.this.liveNodes;
       log.info("A cluster state change: [{}] for collection [{}] has occurred - updating... (live nodes size: [{}])",
               event, coll, liveNodes.size());
@@ -1172,6 +1181,41 @@ public class ZkStateReader implements Closeable {
 
     }
 
+    /** @return this watcher if no child watch is pending, null otherwise */
+    Watcher childWatcher() {
+      return childWatchSet.compareAndSet(false, true) ? this : null;
+    }
+
+    /**
+     * Refresh only the per-replica states of the collection and apply them to the cached state,
+     * which avoids reading state.json again when only replica states changed.
+     */
+    private void refreshReplicaStatesAndWatch() {
+      try {
+        DocCollection oldState = watchedCollectionStates.get(coll);
+        if (oldState == null || !oldState.isPerReplicaState()) {
+          refreshAndWatch();
+          return;
+        }
+        PerReplicaStates states = PerReplicaStates.fetch(getCollectionPath(coll), zkClient, childWatcher());
+        if (updateWatchedCollection(coll, states.applyTo(oldState))) {
+          synchronized (getUpdateLock()) {
+            constructState(Collections.singleton(coll));
+          }
+        }
+      } catch (KeeperException.NoNodeException e) {
+        refreshAndWatch();
+      } catch (KeeperException.SessionExpiredException | KeeperException.ConnectionLossException e) {
+        log.warn("ZooKeeper watch triggered, but Solr cannot talk to ZK: [{}]", e.getMessage());
+      } catch (KeeperException e) {
+        log.error("Unwatched collection: [{}]", coll, e);
+        throw new ZooKeeperException(ErrorCode.SERVER_ERROR, "A ZK error has occurred", e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        log.error("Unwatched collection: [{}]", coll, e);
+      }
+    }
+
     /**
      * Refresh collection state from ZK and leave a watch for future changes.
      * As a side effect, updates {@link #clusterState} and {@link #watchedCollectionStates}
@@ -1376,7 +1420,12 @@ public class ZkStateReader implements Closeable {
         ClusterState state = ClusterState.load(stat.getVersion(), data,
             Collections.<String>emptySet(), collectionPath);
         ClusterState.CollectionRef collectionRef = state.getCollectionStates().get(coll);
-        return collectionRef == null ? null : collectionRef.get();
+        DocCollection collection = collectionRef == null ? null : collectionRef.get();
+        if (collection != null && collection.isPerReplicaState()) {
+          Watcher childWatcher = watcher instanceof StateWatcher ? ((StateWatcher) watcher).childWatcher() : watcher;
+          collection = PerReplicaStates.fetch(collectionPath, zkClient, childWatcher).applyTo(collection);
+        }
+        return collection;
       } catch (KeeperException.NoNodeException e) {
         if (watcher != null) {
           // Leave an exists watch in place in case a state.json is created later.
@@ -1639,7 +1688,9 @@ public class ZkStateReader implements Closeable {
           break;
         }
       } else {
-        if (oldState.getZNodeVersion() >= newState.getZNodeVersion()) {
+        if (oldState.getZNodeVersion() > newState.getZNodeVersion()
+            || (oldState.getZNodeVersion() == newState.getZNodeVersion()
+                && oldState.getChildNodesVersion() >= newState.getChildNodesVersion())) {
           // no change to state, but we might have been triggered by the addition of a
           // state watcher, so run notifications
           updated = true;
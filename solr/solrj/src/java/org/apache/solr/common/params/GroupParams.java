@@ -66,5 +66,15 @@ public interface GroupParams {
   public static final String GROUP_DISTRIBUTED_SECOND = GROUP + ".distributed.second";
 
   public static final String GROUP_DISTRIBUTED_TOPGROUPS_PREFIX = GROUP + ".topgroups.";
+
+  /** Retrieve the top search groups and the top groups from the shards being queried in a single request.
+   * Only valid when all documents of a group reside on the same shard.
+   */
+  public static final String GROUP_DISTRIBUTED_SINGLE = GROUP + ".distributed.single";
+
+  /** Whether distributed grouping may skip the search groups phase because all documents of a group reside
+   * on the same shard. Defaults to false.
+   */
+  public static final String GROUP_DISTRIBUTED_SINGLE_PASS = GROUP + ".distributed.singlePass";
 }
 
@@ -154,6 +154,16 @@ public interface SpellingParams {
    * </p>
    */
   public static final String SPELLCHECK_COLLATE_MAX_COLLECT_DOCS = SPELLCHECK_PREFIX + "collateMaxCollectDocs";
+  /**
+   * <p>
+   * For use with {@link SpellingParams#SPELLCHECK_MAX_COLLATION_TRIES}, the max number of collations
+   * tested against the index concurrently, at most the number of processors.
+   * </p>
+   * <p>
+   * The default is 0, testing the collations one at a time.
+   * </p>
+   */
+  public static final String SPELLCHECK_COLLATE_THREADS = SPELLCHECK_PREFIX + "collateThreads";
   /**
    * <p>
    * Whether to use the Extended Results Format for collations. 
@@ -43,7 +43,7 @@ public class TestLang extends LuceneTestCase {
       "select", "shortestPath", "gatherNodes", "nodes", "scoreNodes", "model", "fetch",
       "executor", "null", "priority", "significantTerms", "cartesianProduct",
       "shuffle", "calc", "eval", "echo", "cell", "list", "let", "get", "timeseries", "tuple", "sql", "min",
-      "max", "avg", "sum", "count", "replace", "concat", "group", "distinct", "having",
+      "max", "avg", "sum", "count", "countDist", "hll", "replace", "concat", "group", "distinct", "having",
       "val", "anova", "array", "col", "conv", "copyOfRange", "copyOf", "cov", "corr", "describe", "distance", "empiricalDistribution",
       "finddelay", "hist", "length", "movingAvg", "standardize", "percentile", "predict", "rank", "regress", "rev", "scale",
       "sequence", "addAll", "append", "plot", "normalDistribution", "uniformDistribution", "sample", "kolmogorovSmirnov",
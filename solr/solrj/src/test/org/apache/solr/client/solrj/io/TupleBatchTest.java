@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.solr.client.solrj.io.stream.ListTupleStream;
+import org.apache.solr.client.solrj.io.stream.RollupStream;
+import org.apache.solr.client.solrj.io.stream.TupleStream;
+import org.apache.solr.client.solrj.io.stream.metrics.Bucket;
+import org.apache.solr.client.solrj.io.stream.metrics.CountMetric;
+import org.apache.solr.client.solrj.io.stream.metrics.MaxMetric;
+import org.apache.solr.client.solrj.io.stream.metrics.MeanMetric;
+import org.apache.solr.client.solrj.io.stream.metrics.Metric;
+import org.apache.solr.client.solrj.io.stream.metrics.MinMetric;
+import org.apache.solr.client.solrj.io.stream.metrics.SumMetric;
+import org.junit.Test;
+
+public class TupleBatchTest extends LuceneTestCase {
+
+  private static Tuple tuple(Object... keyValues) {
+    Map<String,Object> fields = new HashMap<>();
+    for (int i = 0; i < keyValues.length; i += 2) {
+      fields.put((String) keyValues[i], keyValues[i + 1]);
+    }
+    return new Tuple(fields);
+  }
+
+  @Test
+  public void testColumns() {
+    TupleBatch batch = new TupleBatch(3);
+    batch.add(tuple("a", 1L, "b", 1.5d, "c", "x"));
+    batch.add(tuple("a", 2L, "c", 3));
+    assertFalse(batch.isFull());
+    batch.add(tuple("a", 2L, "b", 2.5d, "c", "y"));
+    assertTrue(batch.isFull());
+    assertFalse(batch.isEOF());
+
+    TupleBatch.Column a = batch.getColumn("a");
+    assertEquals(TupleBatch.ColumnType.LONG, a.getType());
+    assertEquals(2L, a.getLongs()[1]);
+    assertTrue(a.isPresent(0, 3));
+    assertFalse(a.equals(0, 1));
+    assertTrue(a.equals(1, 2));
+
+    TupleBatch.Column b = batch.getColumn("b");
+    assertEquals(TupleBatch.ColumnType.DOUBLE, b.getType());
+    assertFalse(b.isPresent(1));
+    assertFalse(b.isPresent(0, 3));
+    assertEquals(2.5d, b.getDoubles()[2], 0d);
+
+    // mixed types fall back to objects and keep their original types
+    TupleBatch.Column c = batch.getColumn("c");
+    assertEquals(TupleBatch.ColumnType.OBJECT, c.getType());
+    assertEquals(3, c.get(1));
+    assertNull(batch.getColumn("d"));
+
+    Tuple second = batch.getTuple(1);
+    assertEquals(2L, second.get("a"));
+    assertNull(second.get("b"));
+    assertEquals(3, second.get("c"));
+    assertEquals(1.5d, batch.get(0, "b"));
+
+    expectThrows(IllegalStateException.class, () -> batch.add(tuple("a", 4L)));
+  }
+
+  @Test
+  public void testRollupOverBatches() throws IOException {
+    List<Tuple> tuples = new ArrayList<>();
+    int numTuples = atLeast(200);
+    long group = 0;
+    for (int i = 0; i < numTuples; ++i) {
+      if (random().nextInt(5) == 0) {
+        ++group;
+      }
+      Tuple t = random().nextInt(10) == 0 ? tuple("a", "x" + group) : tuple("a", "x" + group, "l", (long) random().nextInt(100));
+      t.put("d", random().nextDouble());
+      tuples.add(t);
+    }
+
+    List<Tuple> expected = rollup(new ListTupleStream(tuples, 1));
+    List<Tuple> actual = rollup(new ListTupleStream(tuples, 7));
+    assertEquals(group + 1, expected.size());
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); ++i) {
+      assertEquals(expected.get(i).fields, actual.get(i).fields);
+    }
+  }
+
+  private static List<Tuple> rollup(TupleStream stream) throws IOException {
+    Bucket[] buckets = {new Bucket("a")};
+    Metric[] metrics = {new CountMetric("*"), new CountMetric("l"), new SumMetric("d"),
+        new MinMetric("d"), new MaxMetric("d"), new MeanMetric("d")};
+    List<Tuple> tuples = new ArrayList<>();
+    try (RollupStream rollup = new RollupStream(stream, buckets, metrics)) {
+      rollup.open();
+      for (Tuple t = rollup.read(); t.EOF == false; t = rollup.read()) {
+        tuples.add(t);
+      }
+    }
+    return tuples;
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.io.stream;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
+import org.apache.solr.client.solrj.io.comp.StreamComparator;
+import org.apache.solr.client.solrj.io.stream.expr.Explanation;
+import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
+
+/** Streams copies of a list of tuples, tuple by tuple or batch by batch */
+public class ListTupleStream extends TupleStream {
+  private final List<Tuple> tuples;
+  private final int maxBatchSize;
+  private int upto;
+
+  /** Reads the batches of the size asked for */
+  public ListTupleStream(List<Tuple> tuples) {
+    this(tuples, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Reads batches of a random size up to <code>maxBatchSize</code>, e.g. so that the buckets of a
+   * rollup span several of them. 1 reads the tuples one by one.
+   */
+  public ListTupleStream(List<Tuple> tuples, int maxBatchSize) {
+    this.tuples = tuples;
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  @Override
+  public Tuple read() {
+    if (upto == tuples.size()) {
+      Map<String,Object> fields = new HashMap<>();
+      fields.put("EOF", true);
+      return new Tuple(fields);
+    }
+    return tuples.get(upto++).clone();
+  }
+
+  @Override
+  public TupleBatch readBatch(int maxSize) throws IOException {
+    if (maxBatchSize == Integer.MAX_VALUE) {
+      return super.readBatch(maxSize);
+    }
+    return super.readBatch(1 + LuceneTestCase.random().nextInt(Math.min(maxSize, maxBatchSize)));
+  }
+
+  @Override
+  public void setStreamContext(StreamContext context) {
+  }
+
+  @Override
+  public List<TupleStream> children() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public void open() {
+    upto = 0;
+  }
+
+  @Override
+  public void close() {
+  }
+
+  @Override
+  public StreamComparator getStreamSort() {
+    return null;
+  }
+
+  @Override
+  public Explanation toExplanation(StreamFactory factory) {
+    return null;
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.io.stream;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.solr.common.util.ExecutorUtil;
+import org.apache.solr.common.util.SolrjNamedThreadFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReadAheadTupleStreamParserTest extends LuceneTestCase {
+
+  private ExecutorService executor;
+
+  @Before
+  public void createExecutor() {
+    executor = ExecutorUtil.newMDCAwareCachedThreadPool(new SolrjNamedThreadFactory("ReadAheadTupleStreamParserTest"));
+  }
+
+  @After
+  public void shutdownExecutor() throws Exception {
+    ExecutorUtil.shutdownAndAwaitTermination(executor);
+  }
+
+  /** Emits numTuples tuples and then fails with the given exception if any */
+  private static class CountingParser implements TupleStreamParser {
+    final int numTuples;
+    final IOException failure;
+    final AtomicInteger read = new AtomicInteger();
+    final AtomicBoolean closed = new AtomicBoolean();
+
+    CountingParser(int numTuples, IOException failure) {
+      this.numTuples = numTuples;
+      this.failure = failure;
+    }
+
+    @Override
+    public Map<String,Object> next() throws IOException {
+      int id = read.get();
+      if (id == numTuples) {
+        if (failure != null) {
+          throw failure;
+        }
+        return null;
+      }
+      read.incrementAndGet();
+      Map<String,Object> fields = new HashMap<>();
+      fields.put("id", id);
+      return fields;
+    }
+
+    @Override
+    public void close() {
+      closed.set(true);
+    }
+  }
+
+  @Test
+  public void testReadsAllTuplesInOrder() throws IOException {
+    int numTuples = atLeast(500);
+    CountingParser delegate = new CountingParser(numTuples, null);
+    try (ReadAheadTupleStreamParser parser = new ReadAheadTupleStreamParser(delegate, executor,
+        random().nextInt(100), random().nextInt(20))) {
+      for (int i = 0; i < numTuples; ++i) {
+        Map<String,Object> fields = parser.next();
+        assertNotNull(fields);
+        assertEquals(i, fields.get("id"));
+      }
+      assertNull(parser.next());
+      assertNull(parser.next());
+    }
+    assertTrue(delegate.closed.get());
+  }
+
+  @Test
+  public void testBufferIsBounded() throws Exception {
+    CountingParser delegate = new CountingParser(10000, null);
+    try (ReadAheadTupleStreamParser parser = new ReadAheadTupleStreamParser(delegate, executor, 100, 10)) {
+      assertEquals(0, parser.next().get("id"));
+      Thread.sleep(100);
+      // the batch being read, the buffered batches and the batch being decoded
+      assertTrue("decoded " + delegate.read.get() + " tuples", delegate.read.get() <= 10 + 100 + 10);
+    }
+  }
+
+  @Test
+  public void testFailureIsPropagated() throws IOException {
+    CountingParser delegate = new CountingParser(25, new IOException("boom"));
+    try (ReadAheadTupleStreamParser parser = new ReadAheadTupleStreamParser(delegate, executor, 16, 4)) {
+      for (int i = 0; i < 24; ++i) {
+        assertEquals(i, parser.next().get("id"));
+      }
+      // tuples decoded before the failure are still returned
+      assertEquals(24, parser.next().get("id"));
+      IOException e = expectThrows(IOException.class, parser::next);
+      assertEquals("boom", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.io.stream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.comp.ComparatorOrder;
+import org.apache.solr.client.solrj.io.comp.FieldComparator;
+import org.apache.solr.client.solrj.io.comp.StreamComparator;
+import org.junit.Test;
+
+public class SpillingStreamTest extends LuceneTestCase {
+
+  private static List<Tuple> randomTuples(int numTuples, int numKeys, String prefix) {
+    List<Tuple> tuples = new ArrayList<>();
+    for (int i = 0; i < numTuples; ++i) {
+      Map<String,Object> fields = new HashMap<>();
+      if (random().nextInt(20) != 0) {
+        fields.put("key", (long) random().nextInt(numKeys));
+      }
+      fields.put(prefix + "id", (long) i);
+      fields.put(prefix + "value", TestUtil.randomSimpleString(random()));
+      tuples.add(new Tuple(fields));
+    }
+    return tuples;
+  }
+
+  private static List<Map> readAll(TupleStream stream) throws IOException {
+    List<Map> tuples = new ArrayList<>();
+    try {
+      stream.open();
+      for (Tuple t = stream.read(); t.EOF == false; t = stream.read()) {
+        tuples.add(t.fields);
+      }
+    } finally {
+      stream.close();
+    }
+    return tuples;
+  }
+
+  @Test
+  public void testSortSpillsSortedRuns() throws IOException {
+    List<Tuple> tuples = randomTuples(atLeast(1000), 50, "");
+    StreamComparator comp = new FieldComparator("key", random().nextBoolean() ? ComparatorOrder.ASCENDING : ComparatorOrder.DESCENDING);
+
+    List<Map> expected = readAll(new SortStream(new ListTupleStream(tuples), comp));
+    SortStream spilling = new SortStream(new ListTupleStream(tuples), comp);
+    spilling.setMemoryLimit(1 + random().nextInt(10000));
+    // ties are kept in the order of the underlying stream either way
+    assertEquals(expected, readAll(spilling));
+  }
+
+  @Test
+  public void testHashJoinSpillsPartitions() throws IOException {
+    List<Tuple> full = randomTuples(atLeast(500), 100, "full_");
+    List<Tuple> hashed = randomTuples(atLeast(300), 100, "hashed_");
+    List<String> on = Collections.singletonList("key");
+
+    for (boolean outer : new boolean[] {false, true}) {
+      HashJoinStream inMemory = outer ? new OuterHashJoinStream(new ListTupleStream(full), new ListTupleStream(hashed), on)
+          : new HashJoinStream(new ListTupleStream(full), new ListTupleStream(hashed), on);
+      List<Map> expected = readAll(inMemory);
+
+      HashJoinStream spilling = outer ? new OuterHashJoinStream(new ListTupleStream(full), new ListTupleStream(hashed), on)
+          : new HashJoinStream(new ListTupleStream(full), new ListTupleStream(hashed), on);
+      // small enough for partitions to be split again
+      spilling.setMemoryLimit(1 + random().nextInt(2000));
+      // the joined tuples come back in the order of the full stream
+      assertEquals(expected, readAll(spilling));
+    }
+  }
+}
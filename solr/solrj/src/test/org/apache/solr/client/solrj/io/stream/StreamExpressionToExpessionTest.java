@@ -21,6 +21,7 @@ import org.apache.solr.client.solrj.io.ops.GroupOperation;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpression;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionParser;
 import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
+import org.apache.solr.client.solrj.io.stream.metrics.CountDistinctMetric;
 import org.apache.solr.client.solrj.io.stream.metrics.CountMetric;
 import org.apache.solr.client.solrj.io.stream.metrics.MaxMetric;
 import org.apache.solr.client.solrj.io.stream.metrics.MeanMetric;
@@ -56,6 +57,8 @@ public class StreamExpressionToExpessionTest extends LuceneTestCase {
                     .withFunctionName("intersect", IntersectStream.class)
                     .withFunctionName("complement", ComplementStream.class)
                     .withFunctionName("count", CountMetric.class)
+                    .withFunctionName("countDist", CountDistinctMetric.class)
+                    .withFunctionName("hll", CountDistinctMetric.class)
                     .withFunctionName("sum", SumMetric.class)
                     .withFunctionName("min", MinMetric.class)
                     .withFunctionName("max", MaxMetric.class)
@@ -541,6 +544,27 @@ public class StreamExpressionToExpessionTest extends LuceneTestCase {
     
     assertEquals("count(*)", expressionString);
   }
+
+  @Test
+  public void testCountDistinctMetric() throws Exception {
+
+    CountDistinctMetric metric;
+    String expressionString;
+
+    // Basic test
+    metric = new CountDistinctMetric(StreamExpressionParser.parse("countDist(foo)"), factory);
+    expressionString = metric.toExpression(factory).toString();
+
+    assertEquals("countDist(foo)", expressionString);
+    assertEquals("unique(foo)", metric.getFacetFunction());
+
+    metric = new CountDistinctMetric(StreamExpressionParser.parse("hll(foo)"), factory);
+    expressionString = metric.toExpression(factory).toString();
+
+    assertEquals("hll(foo)", expressionString);
+    assertEquals("hll(foo)", metric.getIdentifier());
+    assertEquals("hll(foo)", metric.getFacetFunction());
+  }
   
   @Test
   public void testMaxMetric() throws Exception {
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.common.cloud;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.cloud.AbstractZkTestCase;
+import org.apache.solr.cloud.ZkTestServer;
+import org.junit.Test;
+
+public class TestPerReplicaStates extends SolrTestCaseJ4 {
+
+  private static final String PATH = "/collections/prs/state.json";
+
+  private ZkTestServer zkServer;
+  private SolrZkClient zkClient;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    zkServer = new ZkTestServer(createTempDir().toString());
+    zkServer.run();
+    try (SolrZkClient client = new SolrZkClient(zkServer.getZkHost(), AbstractZkTestCase.TIMEOUT)) {
+      client.makePath("/solr", false, true);
+    }
+    zkClient = new SolrZkClient(zkServer.getZkAddress(), AbstractZkTestCase.TIMEOUT);
+    zkClient.makePath(PATH, true);
+  }
+
+  @Override
+  public void tearDown() throws Exception {
+    zkClient.close();
+    zkServer.shutdown();
+    super.tearDown();
+  }
+
+  @Test
+  public void testParse() {
+    PerReplicaStates states = new PerReplicaStates(5, Arrays.asList(
+        "core_node1:0:down", "core_node1:2:active", "core_node1:1:recovering",
+        "core_node2:0:recovery_failed", "not_a_state"));
+    assertEquals(5, states.cversion);
+    assertEquals(2, states.getStates().size());
+    assertEquals(Replica.State.ACTIVE, states.get("core_node1").state);
+    assertEquals(2, states.get("core_node1").version);
+    assertEquals(Replica.State.RECOVERY_FAILED, states.get("core_node2").state);
+    assertNull(states.get("core_node3"));
+
+    // the stale states of a replica are cleaned up along with its current one
+    assertEquals(3, states.deleteReplicaOps(PATH, "core_node1").size());
+    assertEquals(4, states.setStateOps(PATH, "core_node1", Replica.State.DOWN).size());
+    assertEquals(0, states.setStateOps(PATH, "core_node2", Replica.State.RECOVERY_FAILED).size());
+    assertEquals(2, states.setStateOps(PATH, "core_node2", Replica.State.ACTIVE).size());
+    assertEquals(1, states.setStateOps(PATH, "core_node3", Replica.State.DOWN).size());
+  }
+
+  @Test
+  public void testPersist() throws Exception {
+    PerReplicaStates.persist(PATH, "core_node1", Replica.State.DOWN, zkClient);
+    PerReplicaStates.persist(PATH, "core_node2", Replica.State.DOWN, zkClient);
+    PerReplicaStates.persist(PATH, "core_node1", Replica.State.RECOVERING, zkClient);
+    PerReplicaStates.persist(PATH, "core_node1", Replica.State.ACTIVE, zkClient);
+    // no-op, nothing is written
+    PerReplicaStates.persist(PATH, "core_node2", Replica.State.DOWN, zkClient);
+
+    List<String> children = zkClient.getChildren(PATH, null, true);
+    Collections.sort(children);
+    assertEquals(Arrays.asList("core_node1:2:active", "core_node2:0:down"), children);
+
+    PerReplicaStates states = PerReplicaStates.fetch(PATH, zkClient, null);
+    assertEquals(Replica.State.ACTIVE, states.get("core_node1").state);
+    assertEquals(Replica.State.DOWN, states.get("core_node2").state);
+
+    zkClient.multi(states.deleteReplicaOps(PATH, "core_node2"), true);
+    PerReplicaStates afterDelete = PerReplicaStates.fetch(PATH, zkClient, null);
+    assertNull(afterDelete.get("core_node2"));
+    assertTrue(afterDelete.cversion > states.cversion);
+  }
+
+  @Test
+  public void testApplyTo() throws Exception {
+    Map<String, Object> replicaProps = new HashMap<>();
+    replicaProps.put(ZkStateReader.STATE_PROP, Replica.State.DOWN.toString());
+    replicaProps.put(ZkStateReader.NODE_NAME_PROP, "node1:8983_solr");
+    Map<String, Replica> replicas = new HashMap<>();
+    replicas.put("core_node1", new Replica("core_node1", new HashMap<>(replicaProps)));
+    replicas.put("core_node2", new Replica("core_node2", new HashMap<>(replicaProps)));
+    Map<String, Slice> slices = Collections.singletonMap("shard1", new Slice("shard1", replicas, null));
+    Map<String, Object> props = new HashMap<>();
+    props.put(DocCollection.PER_REPLICA_STATE, "true");
+    DocCollection collection = new DocCollection("prs", slices, props, DocRouter.DEFAULT, 0, PATH);
+    assertTrue(collection.isPerReplicaState());
+    assertEquals(-1, collection.getChildNodesVersion());
+
+    PerReplicaStates.persist(PATH, "core_node2", Replica.State.ACTIVE, zkClient);
+    PerReplicaStates states = PerReplicaStates.fetch(PATH, zkClient, null);
+    DocCollection applied = states.applyTo(collection);
+
+    assertEquals(Replica.State.DOWN, applied.getReplica("core_node1").getState());
+    assertEquals(Replica.State.ACTIVE, applied.getReplica("core_node2").getState());
+    assertEquals("node1:8983_solr", applied.getReplica("core_node2").getNodeName());
+    assertEquals(states.cversion, applied.getChildNodesVersion());
+    assertSame(states, applied.getPerReplicaStates());
+    assertEquals(collection.getZNodeVersion(), applied.getZNodeVersion());
+    // the original collection is left untouched
+    assertEquals(Replica.State.DOWN, collection.getReplica("core_node2").getState());
+  }
+}